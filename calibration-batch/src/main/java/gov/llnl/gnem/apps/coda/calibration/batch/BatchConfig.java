@@ -0,0 +1,53 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import gov.llnl.gnem.apps.coda.common.gui.converters.api.CodaFilenameParser;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.CodaFilenameParserImpl;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacBulkExporter;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacExporter;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacLoader;
+
+/**
+ * The SAC reader and writer live with the client code; register just those
+ * instead of scanning the client packages.
+ */
+@Configuration
+public class BatchConfig {
+
+    @Bean
+    public SacLoader sacLoader() {
+        return new SacLoader();
+    }
+
+    @Bean
+    public SacExporter sacExporter() {
+        return new SacExporter();
+    }
+
+    @Bean
+    public SacBulkExporter sacBulkExporter(SacExporter sacExporter, @Value("${sac.export.writer-threads:4}") int writerThreads) {
+        return new SacBulkExporter(sacExporter, writerThreads);
+    }
+
+    @Bean
+    public CodaFilenameParser codaFilenameParser() {
+        return new CodaFilenameParserImpl();
+    }
+}
@@ -0,0 +1,271 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import gov.llnl.gnem.apps.coda.common.repository.H2StorageSettings;
+
+/**
+ * Command line options for {@link CodaCalibrationBatch}.
+ *
+ * <pre>
+ * --mode=envelopes|calibrate|measure   (required)
+ * --sac=DIR            SAC directory, repeatable. Raw waveforms for
+ *                      envelopes, stacked envelopes otherwise
+ * --params=FILE        parameter JSON, repeatable
+ * --out=DIR            result directory, default ./batch-results
+ * --threads=N          worker threads for measurement, import and envelopes
+ * --db=mem|file:PATH   in-memory (default) or file backed H2 database
+ * --autopick=BOOL      auto pick coda end times, default false
+ * --timeout-minutes=N  give up waiting on the run after N minutes, default 1440
+ * </pre>
+ */
+public class BatchOptions {
+
+    public enum Mode {
+        ENVELOPES, CALIBRATE, MEASURE
+    }
+
+    public static final String USAGE = "Usage: --mode=envelopes|calibrate|measure --sac=DIR [--sac=DIR...] [--params=FILE...] [--out=DIR] [--threads=N] [--db=mem|file:PATH] [--autopick=true|false] [--timeout-minutes=N]";
+
+    private static final String MEMORY_DB = "mem";
+    private static final String FILE_DB_PREFIX = "file:";
+
+    private Mode mode;
+    private List<Path> sacDirectories = new ArrayList<>();
+    private List<Path> parameterFiles = new ArrayList<>();
+    private Path outputDirectory = Paths.get("batch-results");
+    private Integer threads;
+    private String database = MEMORY_DB;
+    private boolean autoPickingEnabled = false;
+    private long timeoutMinutes = 1440l;
+    private List<String> errors = new ArrayList<>();
+
+    public static BatchOptions fromArgs(String... args) {
+        BatchOptions options = new BatchOptions();
+        ApplicationArguments source = new DefaultApplicationArguments(args);
+
+        String mode = single(source, "mode");
+        if (mode == null) {
+            options.errors.add("--mode is required");
+        } else {
+            try {
+                options.setMode(Mode.valueOf(mode.trim().toUpperCase(Locale.ENGLISH)));
+            } catch (IllegalArgumentException e) {
+                options.errors.add("Unknown --mode " + mode);
+            }
+        }
+
+        options.setSacDirectories(paths(source, "sac"));
+        options.setParameterFiles(paths(source, "params"));
+        if (options.getSacDirectories().isEmpty()) {
+            options.errors.add("At least one --sac directory is required");
+        }
+
+        String out = single(source, "out");
+        if (out != null) {
+            options.setOutputDirectory(Paths.get(out));
+        }
+
+        String threads = single(source, "threads");
+        if (threads != null) {
+            try {
+                options.setThreads(Integer.valueOf(threads.trim()));
+                if (options.getThreads() < 1) {
+                    options.errors.add("--threads must be at least 1");
+                }
+            } catch (NumberFormatException e) {
+                options.errors.add("--threads must be a number, was " + threads);
+            }
+        }
+
+        String db = single(source, "db");
+        if (db != null) {
+            if (db.equalsIgnoreCase(MEMORY_DB) || (db.startsWith(FILE_DB_PREFIX) && db.length() > FILE_DB_PREFIX.length())) {
+                options.setDatabase(db);
+            } else {
+                options.errors.add("--db must be '" + MEMORY_DB + "' or '" + FILE_DB_PREFIX + "<path>', was " + db);
+            }
+        }
+
+        String autoPick = single(source, "autopick");
+        if (autoPick != null) {
+            options.setAutoPickingEnabled(Boolean.parseBoolean(autoPick.trim()));
+        }
+
+        String timeout = single(source, "timeout-minutes");
+        if (timeout != null) {
+            try {
+                options.setTimeoutMinutes(Long.parseLong(timeout.trim()));
+            } catch (NumberFormatException e) {
+                options.errors.add("--timeout-minutes must be a number, was " + timeout);
+            }
+        }
+
+        return options;
+    }
+
+    /**
+     * @return Spring properties implied by the options
+     */
+    public Map<String, Object> toProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        if (threads != null && threads > 0) {
+            properties.put("measurementPoolSize", threads);
+            properties.put("importPoolSize", threads);
+        }
+        if (isFileDatabase()) {
+            Path file = Paths.get(database.substring(FILE_DB_PREFIX.length())).toAbsolutePath();
+            properties.put("spring.datasource.url", new H2StorageSettings().setDirectory(file.getParent().toString()).setName(file.getFileName().toString()).setCloseOnExit(true).toUrl());
+            // Keep what earlier runs stored so interrupted imports can resume
+            properties.put("spring.jpa.hibernate.ddl-auto", "update");
+        }
+        return properties;
+    }
+
+    private static String single(ApplicationArguments source, String name) {
+        List<String> values = source.getOptionValues(name);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.get(values.size() - 1);
+    }
+
+    private static List<Path> paths(ApplicationArguments source, String name) {
+        List<String> values = source.getOptionValues(name);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        return values.stream().flatMap(v -> Arrays.stream(v.split(","))).map(String::trim).filter(v -> !v.isEmpty()).map(Paths::get).collect(Collectors.toList());
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public boolean isFileDatabase() {
+        return database != null && database.startsWith(FILE_DB_PREFIX);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public BatchOptions setMode(Mode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    public List<Path> getSacDirectories() {
+        return sacDirectories;
+    }
+
+    public BatchOptions setSacDirectories(List<Path> sacDirectories) {
+        this.sacDirectories = sacDirectories;
+        return this;
+    }
+
+    public List<Path> getParameterFiles() {
+        return parameterFiles;
+    }
+
+    public BatchOptions setParameterFiles(List<Path> parameterFiles) {
+        this.parameterFiles = parameterFiles;
+        return this;
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public BatchOptions setOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+        return this;
+    }
+
+    public Integer getThreads() {
+        return threads;
+    }
+
+    public BatchOptions setThreads(Integer threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    public BatchOptions setDatabase(String database) {
+        this.database = database;
+        return this;
+    }
+
+    public boolean isAutoPickingEnabled() {
+        return autoPickingEnabled;
+    }
+
+    public BatchOptions setAutoPickingEnabled(boolean autoPickingEnabled) {
+        this.autoPickingEnabled = autoPickingEnabled;
+        return this;
+    }
+
+    public long getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public BatchOptions setTimeoutMinutes(long timeoutMinutes) {
+        this.timeoutMinutes = timeoutMinutes;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOptions [mode="
+                + mode
+                + ", sacDirectories="
+                + sacDirectories
+                + ", parameterFiles="
+                + parameterFiles
+                + ", outputDirectory="
+                + outputDirectory
+                + ", threads="
+                + threads
+                + ", database="
+                + database
+                + ", autoPickingEnabled="
+                + autoPickingEnabled
+                + ", timeoutMinutes="
+                + timeoutMinutes
+                + "]";
+    }
+}
@@ -0,0 +1,345 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gov.llnl.gnem.apps.coda.calibration.batch.io.BatchResultWriter;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwReportByEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ProjectImportStatus;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ProjectImportStatus.State;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MeasuredMwsService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectImportService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationMetrics;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacLoader;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.service.api.Listener;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeCreationService;
+
+/**
+ * Runs the mode selected by the {@link BatchOptions} once and records an exit
+ * code: 0 on success, 1 when the run failed and 2 for bad options.
+ */
+@Component
+public class BatchRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchRunner.class);
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private static final String ENVELOPE_JOB_NODE = "frequencyBandConfiguration";
+    private static final long IMPORT_POLL_MILLIS = 250l;
+
+    private static final AtomicLong sessionIds = new AtomicLong(0l);
+
+    private ProjectImportService importService;
+    private CalibrationService calibrationService;
+    private NotificationService notificationService;
+    private SharedFrequencyBandParametersService sharedParamsService;
+    private SiteFrequencyBandParametersService siteParamsService;
+    private MeasuredMwsService measuredMwsService;
+    private EnvelopeCreationService envelopeService;
+    private SacLoader sacLoader;
+    private BatchResultWriter writer;
+    private CalibrationMetrics metrics;
+    private final ObjectMapper mapper;
+    private int exitCode = EXIT_OK;
+
+    @Autowired
+    public BatchRunner(ProjectImportService importService, CalibrationService calibrationService, NotificationService notificationService, SharedFrequencyBandParametersService sharedParamsService,
+            SiteFrequencyBandParametersService siteParamsService, MeasuredMwsService measuredMwsService, EnvelopeCreationService envelopeService, SacLoader sacLoader, BatchResultWriter writer,
+            CalibrationMetrics metrics) {
+        this.importService = importService;
+        this.calibrationService = calibrationService;
+        this.notificationService = notificationService;
+        this.sharedParamsService = sharedParamsService;
+        this.siteParamsService = siteParamsService;
+        this.measuredMwsService = measuredMwsService;
+        this.envelopeService = envelopeService;
+        this.sacLoader = sacLoader;
+        this.writer = writer;
+        this.metrics = metrics;
+        this.mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        BatchOptions options = BatchOptions.fromArgs(args.getSourceArgs());
+        if (!options.isValid()) {
+            options.getErrors().forEach(log::error);
+            log.error(BatchOptions.USAGE);
+            exitCode = EXIT_USAGE;
+            return;
+        }
+        log.info("Starting batch run {}", options);
+        long start = System.currentTimeMillis();
+        try {
+            Files.createDirectories(options.getOutputDirectory());
+            boolean success;
+            switch (options.getMode()) {
+            case ENVELOPES:
+                success = createEnvelopes(options);
+                break;
+            case CALIBRATE:
+                success = calibrate(options);
+                break;
+            case MEASURE:
+                success = measureMws(options);
+                break;
+            default:
+                success = false;
+            }
+            exitCode = success ? EXIT_OK : EXIT_FAILED;
+        } catch (IOException | ExecutionException | TimeoutException e) {
+            log.error("Batch run failed: {}", e.getMessage(), e);
+            exitCode = EXIT_FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exitCode = EXIT_FAILED;
+        }
+        log.info("Batch run finished in {} s with exit code {}", (System.currentTimeMillis() - start) / 1000.0, exitCode);
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    protected boolean calibrate(BatchOptions options) throws IOException, InterruptedException {
+        long deadline = deadline(options);
+        if (!importSources(options.getParameterFiles(), deadline) || !importSources(options.getSacDirectories(), deadline)) {
+            return false;
+        }
+
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<CalibrationStatusEvent> outcome = new AtomicReference<>();
+        notificationService.register(new Listener<CalibrationStatusEvent>() {
+            @Override
+            public Class<CalibrationStatusEvent> getType() {
+                return CalibrationStatusEvent.class;
+            }
+
+            @Override
+            public void apply(CalibrationStatusEvent event) {
+                log.info("Calibration {}", event.getStatus());
+                if (event.getStatus() == CalibrationStatusEvent.Status.COMPLETE || event.getStatus() == CalibrationStatusEvent.Status.ERROR) {
+                    outcome.compareAndSet(null, event);
+                    finished.countDown();
+                }
+            }
+        });
+
+        if (!calibrationService.startCalibration(Project.DEFAULT_PROJECT_ID, options.isAutoPickingEnabled())) {
+            log.error("Calibration could not be started");
+            return false;
+        }
+        if (!finished.await(remaining(deadline), TimeUnit.MILLISECONDS)) {
+            log.error("Calibration did not finish within {} minutes", options.getTimeoutMinutes());
+            return false;
+        }
+        if (outcome.get().getStatus() == CalibrationStatusEvent.Status.ERROR) {
+            log.error("Calibration failed: {}", outcome.get().getError() != null ? outcome.get().getError().getErrors() : "");
+            return false;
+        }
+
+        writer.writeCalibration(options.getOutputDirectory(), sharedParamsService.findAllByProjectId(Project.DEFAULT_PROJECT_ID), siteParamsService.findAllByProjectId(Project.DEFAULT_PROJECT_ID));
+        writer.writeMeasuredEvents(options.getOutputDirectory(), measuredMwsService.findAllDetails());
+        writeRunMetrics(options);
+        return true;
+    }
+
+    protected boolean measureMws(BatchOptions options) throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        long deadline = deadline(options);
+        if (!importSources(options.getParameterFiles(), deadline) || !importSources(options.getSacDirectories(), deadline)) {
+            return false;
+        }
+
+        Future<Result<MeasuredMwReportByEvent>> measurement = calibrationService.makeMwMeasurements(options.isAutoPickingEnabled(), Boolean.FALSE);
+        Result<MeasuredMwReportByEvent> result = measurement.get(remaining(deadline), TimeUnit.MILLISECONDS);
+        if (!result.isSuccess() || !result.getResultPayload().isPresent()) {
+            log.error("Mw measurement failed: {}", result.getErrors());
+            return false;
+        }
+        writer.writeMeasuredEvents(options.getOutputDirectory(), result.getResultPayload().get().getMeasuredMwDetails().values());
+        writeRunMetrics(options);
+        return true;
+    }
+
+    private void writeRunMetrics(BatchOptions options) throws IOException {
+        CalibrationMetrics.RunReport report = metrics.getLastReport();
+        if (report != null) {
+            writer.writeRunMetrics(options.getOutputDirectory(), report);
+        }
+    }
+
+    protected boolean createEnvelopes(BatchOptions options) throws IOException, InterruptedException {
+        long deadline = deadline(options);
+        EnvelopeJobConfiguration config = readEnvelopeConfiguration(options.getParameterFiles());
+        List<Path> files = new ArrayList<>();
+        for (Path directory : options.getSacDirectories()) {
+            try (Stream<Path> walk = Files.walk(directory)) {
+                walk.filter(sacLoader.getMatchingPattern()::matches).sorted(Comparator.comparing(Path::toString)).forEach(files::add);
+            }
+        }
+        log.info("Reading headers of {} SAC files", files.size());
+
+        int threads = options.getThreads() != null ? options.getThreads() : Runtime.getRuntime().availableProcessors();
+        ExecutorService readers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Batch SAC Reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int unreadable = 0;
+        int written = 0;
+        int unwritable = 0;
+        Map<String, List<Path>> byEvent = new TreeMap<>();
+        try {
+            // Stacks never span events so only the headers are read up front
+            // and the samples of one event at a time are held in memory.
+            List<CompletableFuture<Result<String>>> headers = files.stream()
+                                                                   .map(file -> CompletableFuture.supplyAsync(() -> sacLoader.readEventId(file.toFile()), readers))
+                                                                   .collect(Collectors.toList());
+            for (int i = 0; i < files.size(); i++) {
+                Result<String> result = headers.get(i).join();
+                if (result.isSuccess() && result.getResultPayload().isPresent()) {
+                    byEvent.computeIfAbsent(result.getResultPayload().get(), k -> new ArrayList<>()).add(files.get(i));
+                } else {
+                    unreadable++;
+                    result.getErrors().forEach(e -> log.warn(e.getMessage()));
+                }
+            }
+            files.clear();
+
+            Path index = options.getOutputDirectory().resolve(BatchResultWriter.ENVELOPE_CSV_NAME);
+            Files.deleteIfExists(index);
+            for (Map.Entry<String, List<Path>> event : byEvent.entrySet()) {
+                if (remaining(deadline) <= 0) {
+                    log.error("Envelope creation did not finish within {} minutes", options.getTimeoutMinutes());
+                    return false;
+                }
+                List<Waveform> waveforms = new ArrayList<>(event.getValue().size());
+                List<CompletableFuture<Result<Waveform>>> reads = event.getValue()
+                                                                       .stream()
+                                                                       .map(file -> CompletableFuture.supplyAsync(() -> sacLoader.convertSacFileToWaveform(file.toFile()), readers))
+                                                                       .collect(Collectors.toList());
+                for (CompletableFuture<Result<Waveform>> read : reads) {
+                    Result<Waveform> result = read.join();
+                    if (result.isSuccess() && result.getResultPayload().isPresent()) {
+                        waveforms.add(result.getResultPayload().get());
+                    } else {
+                        unreadable++;
+                        result.getErrors().forEach(e -> log.warn(e.getMessage()));
+                    }
+                }
+                if (waveforms.isEmpty()) {
+                    continue;
+                }
+
+                Result<List<Waveform>> stacks = envelopeService.createEnvelopes(sessionIds.incrementAndGet(), waveforms, config, true);
+                if (stacks.isSuccess()) {
+                    Collection<Waveform> envelopes = stacks.getResultPayload().orElse(new ArrayList<>()).stream().filter(Objects::nonNull).collect(Collectors.toList());
+                    unwritable += writer.writeEnvelopes(options.getOutputDirectory(), envelopes, index);
+                    written += envelopes.size();
+                } else {
+                    log.warn("Unable to create envelopes for event {}: {}", event.getKey(), stacks.getErrors());
+                }
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        log.info("Wrote {} envelopes for {} events; {} files were unreadable and {} envelopes could not be written", written - unwritable, byEvent.size(), unreadable, unwritable);
+        return true;
+    }
+
+    private EnvelopeJobConfiguration readEnvelopeConfiguration(List<Path> parameterFiles) throws IOException {
+        EnvelopeJobConfiguration config = null;
+        for (Path file : parameterFiles) {
+            JsonNode node = mapper.readTree(file.toFile());
+            if (node != null && node.has(ENVELOPE_JOB_NODE)) {
+                config = mapper.treeToValue(node, EnvelopeJobConfiguration.class);
+            }
+        }
+        return config;
+    }
+
+    private boolean importSources(List<Path> sources, long deadline) throws InterruptedException {
+        for (Path source : sources) {
+            ProjectImportStatus status = importService.importProject(source);
+            while ((status.getState() == State.QUEUED || status.getState() == State.RUNNING) && remaining(deadline) > 0) {
+                Thread.sleep(IMPORT_POLL_MILLIS);
+                status = importService.getStatus(status.getId());
+            }
+            if (status.getState() != State.COMPLETE) {
+                log.error("Import of {} did not complete ({}): {}", source, status.getState(), status.getErrors());
+                return false;
+            }
+            log.info("Imported {} files from {}, {} failed", status.getProcessedFiles(), source, status.getFailedFiles());
+            status.getErrors().forEach(log::warn);
+        }
+        return true;
+    }
+
+    private long deadline(BatchOptions options) {
+        return System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(options.getTimeoutMinutes());
+    }
+
+    private long remaining(long deadline) {
+        return Math.max(0l, deadline - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch;
+
+import java.util.TimeZone;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import gov.llnl.gnem.apps.coda.common.repository.DetachableJpaRepoImpl;
+
+/**
+ * Headless entry point that runs envelope creation, calibration or Mw
+ * measurement in process and exits. Only the service and repository layers
+ * are scanned; there is no web server, STOMP broker or JavaFX toolkit.
+ *
+ * <pre>
+ * java -jar calibration-batch-runnable.jar --mode=calibrate --sac=./stacks --params=./params.json --out=./results
+ * </pre>
+ *
+ * See {@link BatchOptions} for the accepted options.
+ */
+@SpringBootApplication
+@ComponentScan("gov.llnl.gnem.apps.coda.common.service")
+@ComponentScan("gov.llnl.gnem.apps.coda.calibration.model")
+@ComponentScan("gov.llnl.gnem.apps.coda.calibration.service")
+@ComponentScan("gov.llnl.gnem.apps.coda.envelope.model")
+@ComponentScan("gov.llnl.gnem.apps.coda.envelope.service")
+@EntityScan(basePackages = { "gov.llnl.gnem.apps.coda.calibration", "gov.llnl.gnem.apps.coda.common" })
+@EnableJpaRepositories(basePackages = { "gov.llnl.gnem.apps.coda.calibration", "gov.llnl.gnem.apps.coda.common" }, repositoryBaseClass = DetachableJpaRepoImpl.class)
+public class CodaCalibrationBatch {
+
+    @PostConstruct
+    void started() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    public static void main(String[] args) {
+        BatchOptions options = BatchOptions.fromArgs(args);
+        if (!options.isValid()) {
+            options.getErrors().forEach(System.err::println);
+            System.err.println(BatchOptions.USAGE);
+            System.exit(BatchRunner.EXIT_USAGE);
+        }
+        if (options.getThreads() != null) {
+            // Envelope creation fans out on the common pool
+            System.setProperty("java.util.concurrent.ForkJoinPool.common.parallelism", Integer.toString(options.getThreads()));
+        }
+        // System properties outrank application.properties but not the command line
+        options.toProperties().forEach((key, value) -> System.setProperty(key, value.toString()));
+        SpringApplication app = new SpringApplicationBuilder(CodaCalibrationBatch.class).web(WebApplicationType.NONE).headless(true).build();
+        System.exit(SpringApplication.exit(app.run(args)));
+    }
+}
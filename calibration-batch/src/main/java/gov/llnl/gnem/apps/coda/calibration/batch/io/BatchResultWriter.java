@@ -0,0 +1,251 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch.io;
+
+import static gov.llnl.gnem.apps.coda.calibration.batch.io.JsonParameterFileParser.BAND_FIELD;
+import static gov.llnl.gnem.apps.coda.calibration.batch.io.JsonParameterFileParser.MEASURED_EVENTS_FIELD;
+import static gov.llnl.gnem.apps.coda.calibration.batch.io.JsonParameterFileParser.SCHEMA_FIELD;
+import static gov.llnl.gnem.apps.coda.calibration.batch.io.JsonParameterFileParser.SCHEMA_VALUE;
+import static gov.llnl.gnem.apps.coda.calibration.batch.io.JsonParameterFileParser.SITE_CORRECTION_FIELD;
+import static gov.llnl.gnem.apps.coda.calibration.batch.io.JsonParameterFileParser.TYPE_FIELD;
+import static gov.llnl.gnem.apps.coda.calibration.batch.io.JsonParameterFileParser.TYPE_VALUE;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwDetails;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.mixins.SharedFrequencyBandParametersFileMixin;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.mixins.SiteFrequencyBandParametersFileMixin;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationMetrics.RunReport;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacBulkExporter;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacExporter;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import reactor.core.publisher.Flux;
+
+/**
+ * Writes batch results. JSON files use the same layout and names as the GUI
+ * exports so they can be loaded back into a project; the CSV files carry
+ * the same values as flat tables.
+ */
+@Component
+public class BatchResultWriter {
+
+    public static final String CALIBRATION_JSON_NAME = "Calibration_Parameters.json";
+    public static final String MW_JSON_NAME = "Measured_Events.json";
+    public static final String MW_CSV_NAME = "Measured_Events.csv";
+    public static final String SITE_CSV_NAME = "Site_Corrections.csv";
+    public static final String ENVELOPE_CSV_NAME = "Envelopes.csv";
+    public static final String METRICS_CSV_NAME = "Run_Metrics.csv";
+
+    private static final String SEP = ",";
+
+    private final ObjectMapper mapper;
+    private SacExporter sacExporter;
+    private SacBulkExporter sacBulkExporter;
+
+    @Autowired
+    public BatchResultWriter(SacExporter sacExporter, SacBulkExporter sacBulkExporter) {
+        this.sacExporter = sacExporter;
+        this.sacBulkExporter = sacBulkExporter;
+        mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(Include.NON_NULL);
+        mapper.setSerializationInclusion(Include.NON_EMPTY);
+        mapper.addMixIn(SharedFrequencyBandParameters.class, SharedFrequencyBandParametersFileMixin.class);
+        mapper.addMixIn(SiteFrequencyBandParameters.class, SiteFrequencyBandParametersFileMixin.class);
+    }
+
+    public void writeCalibration(Path folder, Collection<SharedFrequencyBandParameters> bands, Collection<SiteFrequencyBandParameters> siteBands) throws IOException {
+        ObjectNode document = createDocument();
+        document.set(
+                BAND_FIELD,
+                    mapper.valueToTree(bands.stream().sorted(Comparator.comparingDouble(SharedFrequencyBandParameters::getLowFrequency)).collect(Collectors.toList())));
+        if (!siteBands.isEmpty()) {
+            Map<String, Map<String, List<SiteFrequencyBandParameters>>> byStation = siteBands.stream()
+                                                                                               .filter(s -> s.getStation() != null)
+                                                                                               .sorted(Comparator.comparingDouble(SiteFrequencyBandParameters::getLowFrequency))
+                                                                                               .collect(
+                                                                                                       Collectors.groupingBy(
+                                                                                                               s -> s.getStation().getNetworkName(),
+                                                                                                                   TreeMap::new,
+                                                                                                                   Collectors.groupingBy(s -> s.getStation().getStationName(), TreeMap::new, Collectors.toList())));
+            document.set(SITE_CORRECTION_FIELD, mapper.valueToTree(byStation));
+        }
+        writeJson(folder.resolve(CALIBRATION_JSON_NAME), document);
+
+        writeCsv(
+                folder.resolve(SITE_CSV_NAME),
+                    Arrays.asList("network", "station", "lowFrequency", "highFrequency", "siteTerm"),
+                    siteBands.stream()
+                             .filter(s -> s.getStation() != null)
+                             .sorted(
+                                     Comparator.comparing((SiteFrequencyBandParameters s) -> s.getStation().getNetworkName(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                                               .thenComparing(s -> s.getStation().getStationName(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                                               .thenComparingDouble(SiteFrequencyBandParameters::getLowFrequency))
+                             .map(s -> Arrays.<Object> asList(s.getStation().getNetworkName(), s.getStation().getStationName(), s.getLowFrequency(), s.getHighFrequency(), s.getSiteTerm()))
+                             .collect(Collectors.toList()));
+    }
+
+    public void writeMeasuredEvents(Path folder, Collection<MeasuredMwDetails> events) throws IOException {
+        List<MeasuredMwDetails> sorted = events.stream()
+                                               .filter(Objects::nonNull)
+                                               .sorted(Comparator.comparing(MeasuredMwDetails::getEventId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                                               .collect(Collectors.toList());
+        ObjectNode document = createDocument();
+        document.set(MEASURED_EVENTS_FIELD, mapper.valueToTree(sorted));
+        writeJson(folder.resolve(MW_JSON_NAME), document);
+
+        writeCsv(
+                folder.resolve(MW_CSV_NAME),
+                    Arrays.asList(
+                            "eventId",
+                                "datetime",
+                                "latitude",
+                                "longitude",
+                                "mw",
+                                "mwSd",
+                                "refMw",
+                                "apparentStressInMpa",
+                                "refApparentStressInMpa",
+                                "cornerFreq",
+                                "cornerFreqSd",
+                                "misfit",
+                                "dataCount",
+                                "iterations"),
+                    sorted.stream()
+                          .map(
+                                  mw -> Arrays.<Object> asList(
+                                          mw.getEventId(),
+                                              mw.getDatetime(),
+                                              mw.getLatitude(),
+                                              mw.getLongitude(),
+                                              mw.getMw(),
+                                              mw.getMwSd(),
+                                              mw.getRefMw(),
+                                              mw.getApparentStressInMpa(),
+                                              mw.getRefApparentStressInMpa(),
+                                              mw.getCornerFreq(),
+                                              mw.getCornerFreqSd(),
+                                              mw.getMisfit(),
+                                              mw.getDataCount(),
+                                              mw.getIterations()))
+                          .collect(Collectors.toList()));
+    }
+
+    /**
+     * Writes the stage timings, filter counts and optimizer effort of a
+     * calibration or measurement run.
+     */
+    public void writeRunMetrics(Path folder, RunReport report) throws IOException {
+        writeCsv(folder.resolve(METRICS_CSV_NAME), Arrays.asList("section", "name", "band", "value"), report.getRows());
+    }
+
+    /**
+     * Writes each envelope as a SAC file plus an index of what was written.
+     *
+     * @return the number of envelopes that could not be written
+     */
+    public int writeEnvelopes(Path folder, Collection<Waveform> envelopes, Path index) throws IOException {
+        int failed = 0;
+        boolean newIndex = !Files.exists(index);
+        try (BufferedWriter writer = Files.newBufferedWriter(index, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (newIndex) {
+                writeRow(writer, Arrays.asList("file", "eventId", "network", "station", "lowFrequency", "highFrequency", "sampleRate", "samples"));
+            }
+            Result<List<String>> result = sacBulkExporter.exportToDirectory(Flux.fromIterable(envelopes), folder.toFile());
+            Set<String> written = new HashSet<>(result.getResultPayload().orElse(Collections.emptyList()));
+            for (Waveform envelope : envelopes) {
+                String filename = sacExporter.getFileName(envelope);
+                if (written.contains(filename)) {
+                    writeRow(
+                            writer,
+                                Arrays.asList(
+                                        filename,
+                                            envelope.getEvent().getEventId(),
+                                            envelope.getStream().getStation().getNetworkName(),
+                                            envelope.getStream().getStation().getStationName(),
+                                            envelope.getLowFrequency(),
+                                            envelope.getHighFrequency(),
+                                            envelope.getSampleRate(),
+                                            envelope.getSegmentLength()));
+                } else {
+                    failed++;
+                }
+            }
+        }
+        return failed;
+    }
+
+    private ObjectNode createDocument() {
+        ObjectNode document = mapper.createObjectNode();
+        document.put(SCHEMA_FIELD, SCHEMA_VALUE);
+        document.put(TYPE_FIELD, TYPE_VALUE);
+        return document;
+    }
+
+    private void writeJson(Path file, ObjectNode document) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(writer, document);
+        }
+    }
+
+    private void writeCsv(Path file, List<String> header, List<List<Object>> rows) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writeRow(writer, header);
+            for (List<Object> row : rows) {
+                writeRow(writer, row);
+            }
+        }
+    }
+
+    private void writeRow(BufferedWriter writer, List<?> values) throws IOException {
+        writer.write(values.stream().map(this::csvValue).collect(Collectors.joining(SEP)));
+        writer.newLine();
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(SEP) || text.contains("\"") || text.contains("\n")) {
+            text = "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
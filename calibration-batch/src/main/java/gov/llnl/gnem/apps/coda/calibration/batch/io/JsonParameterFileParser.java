@@ -0,0 +1,168 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch.io;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteCorrections;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.mixins.SharedFrequencyBandParametersFileMixin;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.mixins.SiteFrequencyBandParametersFileMixin;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectFileParser;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.model.util.LightweightIllegalStateException;
+
+/**
+ * Reads the calibration parameter JSON the GUI saves and loads (bands, site
+ * corrections, MDAC, reference events, velocity and shape configuration).
+ */
+@Component
+public class JsonParameterFileParser implements ProjectFileParser {
+
+    public static final String TYPE_FIELD = "type";
+    public static final String TYPE_VALUE = "llnl/coda-calibration-tool";
+    public static final String SCHEMA_FIELD = "schemaVersion";
+    public static final String SCHEMA_VALUE = "1";
+    public static final String BAND_FIELD = "bands";
+    public static final String SITE_CORRECTION_FIELD = "site-corrections";
+    public static final String MDAC_PS_FIELD = "mdac-ps";
+    public static final String MDAC_FI_FIELD = "mdac-fi";
+    public static final String REFERENCE_EVENTS_FIELD = "reference-events";
+    public static final String MEASURED_EVENTS_FIELD = "measured-events";
+    public static final String VELOCITY_CONFIGURATION = "velocity-configuration";
+    public static final String SHAPE_CONSTRAINTS = "shape-constraints";
+
+    private final PathMatcher filter = FileSystems.getDefault().getPathMatcher("regex:(?i).*\\.json");
+
+    private final ObjectMapper mapper;
+
+    public JsonParameterFileParser() {
+        mapper = new ObjectMapper();
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        mapper.addMixIn(SharedFrequencyBandParameters.class, SharedFrequencyBandParametersFileMixin.class);
+        mapper.addMixIn(SiteFrequencyBandParameters.class, SiteFrequencyBandParametersFileMixin.class);
+    }
+
+    @Override
+    public boolean canParse(Path file) {
+        return file != null && Files.isRegularFile(file) && filter.matches(file);
+    }
+
+    @Override
+    public List<Result<Object>> parse(Path file) {
+        List<Result<Object>> results = new ArrayList<>();
+        try {
+            JsonNode node = mapper.readTree(file.toFile());
+            if (node != null
+                    && node.has(SCHEMA_FIELD)
+                    && node.get(SCHEMA_FIELD).asText().equalsIgnoreCase(SCHEMA_VALUE)
+                    && node.has(TYPE_FIELD)
+                    && node.get(TYPE_FIELD).asText().equalsIgnoreCase(TYPE_VALUE)) {
+                results.addAll(convertFields(node, BAND_FIELD, this::sharedBand));
+                results.addAll(convertFields(node, SITE_CORRECTION_FIELD, this::siteBands));
+                results.addAll(convertFields(node, MDAC_PS_FIELD, n -> read(n, MdacParametersPS.class)));
+                results.addAll(convertFields(node, MDAC_FI_FIELD, n -> read(n, MdacParametersFI.class)));
+                results.addAll(convertFields(node, REFERENCE_EVENTS_FIELD, n -> read(n, ReferenceMwParameters.class)));
+                results.addAll(convertFields(node, VELOCITY_CONFIGURATION, n -> read(n, VelocityConfiguration.class)));
+                results.addAll(convertFields(node, SHAPE_CONSTRAINTS, n -> read(n, ShapeFitterConstraints.class)));
+            }
+        } catch (IOException e) {
+            results.add(exceptionalResult(new LightweightIllegalStateException(String.format("Error parsing (%s): %s", file.getFileName(), e.getMessage()), e)));
+        }
+        return results;
+    }
+
+    private List<Result<Object>> convertFields(JsonNode node, String field, Function<JsonNode, Result<Object>> func) {
+        List<Result<Object>> results = new ArrayList<>();
+        for (JsonNode found : node.findValues(field)) {
+            if (found.isArray()) {
+                for (JsonNode entry : found) {
+                    results.add(func.apply(entry));
+                }
+            } else {
+                results.add(func.apply(found));
+            }
+        }
+        return results;
+    }
+
+    private Result<Object> read(JsonNode node, Class<?> type) {
+        try {
+            return new Result<>(true, mapper.readerFor(type).readValue(node));
+        } catch (IOException e) {
+            return exceptionalResult(e);
+        }
+    }
+
+    private Result<Object> sharedBand(JsonNode band) {
+        if (band.path("lowFreqHz").isNull() || band.path("highFreqHz").isNull()) {
+            return exceptionalResult(new LightweightIllegalStateException("Unable to parse frequency band " + band + "; received an empty frequency band."));
+        }
+        return read(band, SharedFrequencyBandParameters.class);
+    }
+
+    private Result<Object> siteBands(JsonNode siteCorrections) {
+        SiteCorrections siteBands = new SiteCorrections();
+        try {
+            Iterator<Entry<String, JsonNode>> networks = siteCorrections.fields();
+            while (networks.hasNext()) {
+                Entry<String, JsonNode> network = networks.next();
+                Iterator<Entry<String, JsonNode>> stations = network.getValue().fields();
+                while (stations.hasNext()) {
+                    Entry<String, JsonNode> station = stations.next();
+                    if (station.getValue().isArray()) {
+                        List<SiteFrequencyBandParameters> bands = mapper.readerFor(new TypeReference<List<SiteFrequencyBandParameters>>() {
+                        }).readValue(station.getValue());
+                        bands.forEach(b -> b.setStation(new Station().setNetworkName(network.getKey()).setStationName(station.getKey())));
+                        siteBands.getSiteCorrections().addAll(bands);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return exceptionalResult(e);
+        }
+        return new Result<>(true, siteBands);
+    }
+
+    private Result<Object> exceptionalResult(Exception error) {
+        List<Exception> exceptions = new ArrayList<>();
+        exceptions.add(error);
+        return new Result<>(false, exceptions, null);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch.io;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectFileParser;
+import gov.llnl.gnem.apps.coda.common.gui.converters.api.CodaFilenameParser;
+import gov.llnl.gnem.apps.coda.common.gui.converters.api.StackInfo;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacLoader;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+
+/**
+ * Reads stacked envelope SAC files ({@code *stack*.env}) the same way the
+ * calibration GUI does, taking the frequency band from the file name.
+ */
+@Component
+public class StackedSacFileParser implements ProjectFileParser {
+
+    private static final String DEFAULT_VEL_UNITS = "nm/s";
+    private final PathMatcher filter = FileSystems.getDefault().getPathMatcher("regex:(?i).*stack.*\\.env");
+
+    private SacLoader sacLoader;
+    private CodaFilenameParser filenameParser;
+
+    @Autowired
+    public StackedSacFileParser(SacLoader sacLoader, CodaFilenameParser filenameParser) {
+        this.sacLoader = sacLoader;
+        this.filenameParser = filenameParser;
+    }
+
+    @Override
+    public boolean canParse(Path file) {
+        return file != null && Files.isRegularFile(file) && filter.matches(file);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Result<Object>> parse(Path file) {
+        Result<Waveform> result = sacLoader.convertSacFileToWaveform(file.toFile());
+        if (result.getResultPayload().isPresent()) {
+            Waveform waveform = result.getResultPayload().get();
+            Result<StackInfo> stackInfo = filenameParser.parse(file.getFileName().toString().toUpperCase(Locale.ENGLISH));
+            if (stackInfo.isSuccess() && stackInfo.getResultPayload().isPresent()) {
+                waveform.getStream().setChannelName(Stream.TYPE_STACK);
+                waveform.setSegmentType(stackInfo.getResultPayload().get().getDataType());
+                waveform.setSegmentUnits(DEFAULT_VEL_UNITS);
+                waveform.setLowFrequency(stackInfo.getResultPayload().get().getLowFrequency());
+                waveform.setHighFrequency(stackInfo.getResultPayload().get().getHighFrequency());
+            } else {
+                result.getErrors().addAll(stackInfo.getErrors());
+                result.setSuccess(false);
+            }
+        }
+        return Collections.singletonList((Result<Object>) (Result<?>) result);
+    }
+}
@@ -0,0 +1,23 @@
+INSERT INTO "MDACPS" (ID, DEL_ETA, DEL_GAMMA0, DELQ0, DIST_CRIT, ETA, GAMMA0, PHASE, Q0, SNR, U0, VERSION) VALUES ('-1', '0', '0', '0', '0.001', '1.1', '0.65', 'Pn', '210', '2', '7900', '0')
+INSERT INTO "MDACPS" (ID, DEL_ETA, DEL_GAMMA0, DELQ0, DIST_CRIT, ETA, GAMMA0, PHASE, Q0, SNR, U0, VERSION) VALUES ('-2', '0', '0', '0', '100', '0.5', '0.45', 'Pg', '190', '2', '6000', '0')
+INSERT INTO "MDACPS" (ID, DEL_ETA, DEL_GAMMA0, DELQ0, DIST_CRIT, ETA, GAMMA0, PHASE, Q0, SNR, U0, VERSION) VALUES ('-3', '0', '0', '0', '0.001', '1.1', '0.55', 'Sn', '590', '2', '4500', '0')
+INSERT INTO "MDACPS" (ID, DEL_ETA, DEL_GAMMA0, DELQ0, DIST_CRIT, ETA, GAMMA0, PHASE, Q0, SNR, U0, VERSION) VALUES ('-4', '0', '0', '0', '100', '0.5', '0.54', 'Lg', '200', '2', '3500', '0')
+
+INSERT INTO "MDACFI" (ID, ALPHAR, ALPHAS, BETAS, BETAR, DEL_PSI, DEL_SIGMA, M0REF, PSI, RAD_PATP, RAD_PATS, RHOR, RHOS, SIGMA, VERSION, ZETA) VALUES ('-1', '5000', '6000', '3500', '2900', '0', '0', '10000000000000000', '0.25', '0.44', '0.6', '2500', '2700', '0.3', '0', '1')
+
+INSERT INTO "VELOCITY_CONFIGURATION" (ID,DISTANCE_THRESHOLD_IN_KM,GROUP_VELOCITY1IN_KMS_GT_DISTANCE,GROUP_VELOCITY1IN_KMS_LT_DISTANCE,GROUP_VELOCITY2IN_KMS_GT_DISTANCE,GROUP_VELOCITY2IN_KMS_LT_DISTANCE,PHASE_VELOCITY_IN_KMS,VERSION) VALUES (-1,300.0,4.7,3.9,2.3,1.9,3.5,0)
+
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-1', '0', '0', '0', '0', '0', '0', '0.0200', '0.0300', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '100', '1000','100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-2', '0', '0', '0', '0', '0', '0', '0.0300', '0.0500', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '100', '800', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-3', '0', '0', '0', '0', '0', '0', '0.0500', '0.1000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '75', '600', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-4', '0', '0', '0', '0', '0', '0', '0.1000', '0.2000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '75', '550', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-5', '0', '0', '0', '0', '0', '0', '0.2000', '0.3000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '50', '550', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-6', '0', '0', '0', '0', '0', '0', '0.3000', '0.5000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '50', '500', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-7', '0', '0', '0', '0', '0', '0', '0.5000', '0.7000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '50', '500', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-8', '0', '0', '0', '0', '0', '0', '0.7000', '1.0000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '40', '450', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES  ('-9', '0', '0', '0', '0', '0', '0', '1.0000', '1.5000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '40', '450', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES ('-10', '0', '0', '0', '0', '0', '0', '1.5000', '2.0000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '40', '400', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES ('-11', '0', '0', '0', '0', '0', '0', '2.0000', '3.0000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '40', '400', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES ('-12', '0', '0', '0', '0', '0', '0', '3.0000', '4.0000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '40', '400', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES ('-13', '0', '0', '0', '0', '0', '0', '4.0000', '6.0000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '40', '400', '100', '0')
+INSERT INTO "SHARED_FB_PARAMS" (ID, BETA0, BETA1, BETA2, GAMMA0, GAMMA1, GAMMA2, LOW_FREQUENCY, HIGH_FREQUENCY,MIN_SNR, Q, P1, P2, VELOCITY0, VELOCITY1, VELOCITY2, VERSION, XC, XT, MIN_LENGTH, MAX_LENGTH, MEASURE_TIME, PROJECT_ID) VALUES ('-14', '0', '0', '0', '0', '0', '0', '6.0000', '8.0000', '0.5', '0', '0', '0', '0', '0', '0', '0', '0', '0', '40', '350', '100', '0')
\ No newline at end of file
@@ -0,0 +1,63 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class BatchOptionsTest {
+
+    @Test
+    public void testParsesOptionsAndDerivedProperties() throws Exception {
+        BatchOptions options = BatchOptions.fromArgs("--mode=Calibrate", "--sac=a,b", "--sac=c", "--params=p.json", "--threads=3", "--db=file:./cct", "--autopick=true");
+
+        assertTrue(options.isValid(), options.getErrors().toString());
+        assertEquals(BatchOptions.Mode.CALIBRATE, options.getMode());
+        assertEquals(Arrays.asList(Paths.get("a"), Paths.get("b"), Paths.get("c")), options.getSacDirectories());
+        assertEquals(Arrays.asList(Paths.get("p.json")), options.getParameterFiles());
+        assertTrue(options.isAutoPickingEnabled());
+
+        Map<String, Object> properties = options.toProperties();
+        assertEquals(3, properties.get("measurementPoolSize"));
+        assertEquals(3, properties.get("importPoolSize"));
+        assertTrue(properties.get("spring.datasource.url").toString().startsWith("jdbc:h2:" + Paths.get("./cct").toAbsolutePath()));
+        assertTrue(properties.get("spring.datasource.url").toString().contains(";DB_CLOSE_ON_EXIT=TRUE"), "Batch runs exit without closing the database themselves");
+        assertEquals("update", properties.get("spring.jpa.hibernate.ddl-auto"));
+    }
+
+    @Test
+    public void testInMemoryByDefault() throws Exception {
+        BatchOptions options = BatchOptions.fromArgs("--mode=measure", "--sac=stacks");
+
+        assertTrue(options.isValid(), options.getErrors().toString());
+        assertFalse(options.isFileDatabase());
+        assertTrue(options.toProperties().isEmpty());
+    }
+
+    @Test
+    public void testRejectsBadOptions() throws Exception {
+        BatchOptions options = BatchOptions.fromArgs("--mode=nope", "--threads=0", "--db=postgres");
+
+        assertFalse(options.isValid());
+        assertEquals(4, options.getErrors().size());
+    }
+}
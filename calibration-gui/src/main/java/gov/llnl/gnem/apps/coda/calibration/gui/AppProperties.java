@@ -30,6 +30,7 @@ public class AppProperties {
     private Integer height = 800;
     private Integer width = 600;
     private Boolean debugEnabled = Boolean.FALSE;
+    private Boolean deferWindowInit = Boolean.FALSE;
     private List<WMSLayerDescriptor> wmsLayers = new ArrayList<>();
 
     public Boolean getDebugEnabled() {
@@ -40,6 +41,14 @@ public class AppProperties {
         this.debugEnabled = debugEnabled;
     }
 
+    public Boolean getDeferWindowInit() {
+        return deferWindowInit;
+    }
+
+    public void setDeferWindowInit(Boolean deferWindowInit) {
+        this.deferWindowInit = deferWindowInit;
+    }
+
     public String getBaseTitle() {
         return baseTitle;
     }
@@ -65,6 +65,8 @@ import gov.llnl.gnem.apps.coda.common.gui.util.ProgressMonitor;
 import gov.llnl.gnem.apps.coda.common.gui.util.SnapshotUtils;
 import gov.llnl.gnem.apps.coda.common.mapping.api.GeoMap;
 import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Progress;
+import gov.llnl.gnem.apps.coda.common.model.messaging.StageProgressEvent;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -272,6 +274,14 @@ public class CodaGuiController {
         Optional.ofNullable(sacDirFileChooser.showDialog(rootElement.getScene().getWindow())).ifPresent(envelopeLoadingController::saveToDirectory);
     }
 
+    @FXML
+    private void openWaveformArchiveSavingWindow() {
+        File selectedFile = FileDialogs.openFileSaveDialog("Waveforms", ".zip", rootElement.getScene().getWindow());
+        if (selectedFile != null && FileDialogs.ensureFileIsWritable(selectedFile)) {
+            envelopeLoadingController.saveToArchive(selectedFile);
+        }
+    }
+
     @FXML
     private void openMeasuredMwDirectorySavingWindow() {
         measuredMws.exportMws();
@@ -490,6 +500,26 @@ public class CodaGuiController {
         }
     }
 
+    @Subscribe
+    private void listener(StageProgressEvent event) {
+        ProgressMonitor monitor = monitors.get(event.getRunId());
+        Progress progress = event.getProgress();
+        if (monitor != null && progress != null && "calibration".equals(event.getRun())) {
+            StringBuilder stage = new StringBuilder(event.getStage());
+            if (event.getBand() != null) {
+                stage.append(' ').append(event.getBand());
+            }
+            stage.append(' ').append(progress.getCurrent()).append('/').append(progress.getTotal());
+            if (progress.getRate() != null) {
+                stage.append(String.format(" %.1f/s", progress.getRate()));
+            }
+            if (progress.getEtaSeconds() != null && progress.getEtaSeconds() > 0) {
+                stage.append(String.format(" ETA %d:%02d", progress.getEtaSeconds() / 60, progress.getEtaSeconds() % 60));
+            }
+            monitor.setProgressStage(stage.toString());
+        }
+    }
+
     @Subscribe
     private void listener(CalibrationStageShownEvent evt) {
         if (!initialized) {
@@ -35,11 +35,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Lazy;
 
 import com.google.common.eventbus.EventBus;
 
 import gov.llnl.gnem.apps.coda.calibration.gui.events.CalibrationStageShownEvent;
 import gov.llnl.gnem.apps.coda.common.gui.SimpleGuiPreloader;
+import gov.llnl.gnem.apps.coda.common.gui.controllers.FailureReportController;
+import gov.llnl.gnem.apps.coda.common.gui.data.client.WaveformChangeCoalescer;
 import gov.llnl.gnem.apps.coda.common.gui.util.CommonGuiUtils;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -52,6 +55,7 @@ import javafx.stage.Stage;
 import reactor.core.publisher.Hooks;
 
 @SpringBootApplication
+@Lazy(false)
 @ComponentScan("gov.llnl.gnem.apps.coda.common.mapping")
 @ComponentScan("gov.llnl.gnem.apps.coda.common.gui")
 @ComponentScan("gov.llnl.gnem.apps.coda.calibration.gui")
@@ -141,6 +145,10 @@ public class GuiApplication extends Application {
             log.error("Failed initializing!", e);
         }
 
+        // Only reachable through the event bus so they have to be created up front when beans are lazy
+        springContext.getBean(FailureReportController.class);
+        springContext.getBean(WaveformChangeCoalescer.class);
+
         Platform.setImplicitExit(true);
         FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/CodaGui.fxml"));
         fxmlLoader.setControllerFactory(springContext::getBean);
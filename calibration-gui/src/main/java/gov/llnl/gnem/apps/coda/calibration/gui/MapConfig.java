@@ -32,6 +32,6 @@ public class MapConfig {
 
     @Bean
     public MapProperties getMapProperties() {
-        return new MapProperties().setLayers(props.getWmsLayers());
+        return new MapProperties().setLayers(props.getWmsLayers()).setDeferredInit(Boolean.TRUE.equals(props.getDeferWindowInit()));
     }
 }
@@ -16,20 +16,20 @@ package gov.llnl.gnem.apps.coda.calibration.gui.controllers;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import javax.annotation.PreDestroy;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,7 +39,9 @@ import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
 import gov.llnl.gnem.apps.coda.calibration.gui.plotting.MapPlottingUtilities;
+import gov.llnl.gnem.apps.coda.calibration.gui.util.WaveformIndex;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.events.WaveformMetadataChangeEvent;
 import gov.llnl.gnem.apps.coda.common.gui.events.WaveformSelectionEvent;
 import gov.llnl.gnem.apps.coda.common.gui.util.CellBindingUtils;
 import gov.llnl.gnem.apps.coda.common.gui.util.EventStaFreqStringComparator;
@@ -50,7 +52,6 @@ import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
-import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
@@ -104,6 +105,11 @@ public class DataController implements MapListeningController, RefreshableContro
 
     private ObservableList<Waveform> listData = FXCollections.synchronizedObservableList(FXCollections.observableArrayList());
 
+    // Both mirror listData and are guarded by it
+    private WaveformIndex index = new WaveformIndex();
+    private Map<Long, Integer> rowsById = new HashMap<>();
+    private boolean rowsStale = false;
+
     private GeoMap mapImpl;
 
     private MapPlottingUtilities iconFactory;
@@ -120,17 +126,6 @@ public class DataController implements MapListeningController, RefreshableContro
 
     private final BiConsumer<Boolean, String> eventSelectionCallback;
     private final BiConsumer<Boolean, String> stationSelectionCallback;
-    private ScheduledExecutorService scheduled = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread thread = new Thread(r);
-        thread.setName("Data-Scheduled");
-        thread.setDaemon(true);
-        return thread;
-    });
-
-    private List<Long> dataUpdateList = Collections.synchronizedList(new ArrayList<>());
-    private List<Long> dataDeleteList = Collections.synchronizedList(new ArrayList<>());
-    private List<Waveform> updatedData = Collections.synchronizedList(new ArrayList<>());
-
     private boolean isVisible = false;
 
     @Autowired
@@ -142,43 +137,105 @@ public class DataController implements MapListeningController, RefreshableContro
         this.bus = bus;
         bus.register(this);
         tableChangeListener = buildTableListener();
-        scheduled.scheduleWithFixedDelay(() -> updateData(), 1000l, 1000l, TimeUnit.MILLISECONDS);
+
+        listData.addListener(this::updateIndex);
 
         eventSelectionCallback = (selected, eventId) -> {
-            selectDataByCriteria(bus, selected, (w) -> w.getEvent() != null && w.getEvent().getEventId().equalsIgnoreCase(eventId));
+            selectDataByIds(bus, selected, lookup(idx -> idx.idsForEvent(eventId)));
         };
 
         stationSelectionCallback = (selected, stationId) -> {
-            selectDataByCriteria(bus, selected, (w) -> w.getStream() != null && w.getStream().getStation() != null && w.getStream().getStation().getStationName().equalsIgnoreCase(stationId));
+            selectDataByIds(bus, selected, lookup(idx -> idx.idsForStation(stationId)));
         };
     }
 
-    private void selectDataByCriteria(EventBus bus, Boolean selected, Function<Waveform, Boolean> matchCriteria) {
+    private void updateIndex(ListChangeListener.Change<? extends Waveform> change) {
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                rowsStale = true;
+            } else {
+                if (change.wasRemoved()) {
+                    index.removeAll(change.getRemoved());
+                }
+                if (change.wasAdded()) {
+                    index.addAll(change.getAddedSubList());
+                }
+
+                boolean inPlace = change.wasReplaced() && change.getAddedSize() == change.getRemovedSize() && sameIds(change.getRemoved(), change.getAddedSubList());
+                boolean appended = change.wasAdded() && !change.wasRemoved() && change.getTo() == change.getList().size();
+                if (appended && !rowsStale) {
+                    for (int i = change.getFrom(); i < change.getTo(); i++) {
+                        rowsById.put(change.getList().get(i).getId(), i);
+                    }
+                } else if (!inPlace) {
+                    rowsStale = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * A replacement only keeps the row of every id when each replaced row
+     * holds the same waveform id as before.
+     */
+    private static boolean sameIds(List<? extends Waveform> removed, List<? extends Waveform> added) {
+        for (int i = 0; i < removed.size(); i++) {
+            if (!Objects.equals(removed.get(i).getId(), added.get(i).getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<Long> lookup(Function<WaveformIndex, Set<Long>> query) {
+        synchronized (listData) {
+            return query.apply(index);
+        }
+    }
+
+    /**
+     * Table row of each loaded waveform id; call while holding the lock on
+     * listData.
+     */
+    private Map<Long, Integer> rowsById() {
+        if (rowsStale) {
+            rowsById.clear();
+            for (int i = 0; i < listData.size(); i++) {
+                rowsById.put(listData.get(i).getId(), i);
+            }
+            rowsStale = false;
+        }
+        return rowsById;
+    }
+
+    private void selectDataByIds(EventBus bus, Boolean selected, Set<Long> ids) {
         List<Waveform> selection = new ArrayList<>();
         List<Integer> selectionIndices = new ArrayList<>();
         tableView.getSelectionModel().clearSelection();
         if (selected) {
             tableView.getSelectionModel().getSelectedItems().removeListener(tableChangeListener);
+            int[] rows;
             synchronized (listData) {
-                for (int i = 0; i < listData.size(); i++) {
-                    Waveform w = listData.get(i);
-                    if (matchCriteria.apply(w)) {
-                        selection.add(w);
-                        tableView.getSelectionModel().select(i);
-                    }
+                Map<Long, Integer> rowIndex = rowsById();
+                rows = ids.stream().map(rowIndex::get).filter(Objects::nonNull).mapToInt(Integer::intValue).sorted().toArray();
+                for (int row : rows) {
+                    selection.add(listData.get(row));
                 }
             }
+            if (rows.length > 0) {
+                tableView.getSelectionModel().selectIndices(rows[0], Arrays.copyOfRange(rows, 1, rows.length));
+            }
             tableView.getSelectionModel().getSelectedItems().addListener(tableChangeListener);
             if (!selection.isEmpty()) {
                 selection.sort(eventStaFreqComparator);
-                Long[] ids = selection.stream().sequential().map(w -> w.getId()).collect(Collectors.toList()).toArray(new Long[0]);
-                bus.post(new WaveformSelectionEvent(ids));
+                Long[] selectedIds = selection.stream().sequential().map(w -> w.getId()).collect(Collectors.toList()).toArray(new Long[0]);
+                bus.post(new WaveformSelectionEvent(selectedIds));
             }
         } else {
             selection.addAll(tableView.getSelectionModel().getSelectedItems());
             selectionIndices.addAll(tableView.getSelectionModel().getSelectedIndices());
             for (int i = 0; i < selection.size(); i++) {
-                if (matchCriteria.apply(selection.get(i))) {
+                if (ids.contains(selection.get(i).getId())) {
                     tableView.getSelectionModel().clearSelection(selectionIndices.get(i));
                 }
             }
@@ -285,7 +342,7 @@ public class DataController implements MapListeningController, RefreshableContro
         if (isVisible) {
             mapImpl.clearIcons();
             synchronized (listData) {
-                mapImpl.addIcons(iconFactory.genIconsFromWaveforms(eventSelectionCallback, stationSelectionCallback, listData));
+                mapImpl.addIcons(iconFactory.genIcons(eventSelectionCallback, stationSelectionCallback, index.getEventActivity(), index.getStationActivity()));
             }
         }
     }
@@ -310,65 +367,48 @@ public class DataController implements MapListeningController, RefreshableContro
         }, err -> log.error(err.getMessage(), err));
     }
 
-    private void requestUpdates() {
-        List<Long> updates = new ArrayList<>();
-        List<Long> deletes = new ArrayList<>();
-        synchronized (dataUpdateList) {
-            updates.addAll(dataUpdateList);
-            dataUpdateList.clear();
-            deletes.addAll(dataDeleteList);
-            dataDeleteList.clear();
-        }
-
-        if (!deletes.isEmpty()) {
-            synchronized (listData) {
-                deletes.forEach(id -> {
-                    synchronized (listData) {
-                        int idx = -1;
-                        for (int i = 0; i < listData.size(); i++) {
-                            if (listData.get(i).getId().equals(id)) {
-                                idx = i;
-                                break;
-                            }
-                        }
-                        if (idx >= 0) {
-                            listData.remove(idx);
-                        }
-                    }
-                });
-            }
-        }
-
-        client.getWaveformMetadataFromIds(updates).filter(Objects::nonNull).subscribe(waveform -> updatedData.add(waveform), err -> log.error(err.getMessage(), err));
-    }
-
-    private void updateData() {
-        List<Waveform> updates = new ArrayList<>();
-        synchronized (updatedData) {
-            updates.addAll(updatedData);
-            updatedData.clear();
-        }
-        if (!updates.isEmpty()) {
+    /**
+     * Applies a coalesced batch of waveform changes on the FX thread: updated
+     * rows are replaced in place, deleted rows removed in one change and new
+     * rows appended in one change, keeping the current selection.
+     */
+    private void updateData(List<Waveform> updates, List<Long> deletes) {
+        Platform.runLater(() -> {
+            tableView.getSelectionModel().getSelectedItems().removeListener(tableChangeListener);
+            Set<Long> selectedIds = new HashSet<>(getSelectedWaveforms());
             synchronized (listData) {
-                tableView.getSelectionModel().getSelectedItems().removeListener(tableChangeListener);
-                updates.forEach(waveform -> {
-                    int idx = -1;
-                    for (int i = 0; i < listData.size(); i++) {
-                        if (listData.get(i).getId().equals(waveform.getId())) {
-                            idx = i;
-                            break;
-                        }
-                    }
-                    if (idx >= 0) {
+                Map<Long, Integer> rowIndex = rowsById();
+                Set<Long> deleted = new HashSet<>(deletes);
+                List<Waveform> added = new ArrayList<>();
+                updates.stream().filter(waveform -> !deleted.contains(waveform.getId())).forEach(waveform -> {
+                    Integer idx = rowIndex.get(waveform.getId());
+                    if (idx != null) {
                         listData.set(idx, waveform);
                     } else {
-                        listData.add(waveform);
+                        added.add(waveform);
                     }
                 });
-                tableView.getSelectionModel().getSelectedItems().addListener(tableChangeListener);
+                if (!deleted.isEmpty()) {
+                    List<Waveform> removed = deleted.stream().map(rowIndex::get).filter(Objects::nonNull).map(listData::get).collect(Collectors.toList());
+                    if (!removed.isEmpty()) {
+                        listData.removeAll(removed);
+                    }
+                }
+                if (!added.isEmpty()) {
+                    listData.addAll(added);
+                }
+
+                if (!selectedIds.isEmpty()) {
+                    Map<Long, Integer> rows = rowsById();
+                    int[] selectedRows = selectedIds.stream().map(rows::get).filter(Objects::nonNull).mapToInt(Integer::intValue).sorted().toArray();
+                    if (selectedRows.length > 0) {
+                        tableView.getSelectionModel().selectIndices(selectedRows[0], Arrays.copyOfRange(selectedRows, 1, selectedRows.length));
+                    }
+                }
             }
+            tableView.getSelectionModel().getSelectedItems().addListener(tableChangeListener);
             refreshMap();
-        }
+        });
     }
 
     private void excludeWaveforms() {
@@ -384,21 +424,8 @@ public class DataController implements MapListeningController, RefreshableContro
     }
 
     @Subscribe
-    private void listener(WaveformChangeEvent wce) {
-        List<Long> nonNull = wce.getIds().stream().filter(Objects::nonNull).collect(Collectors.toList());
-        synchronized (dataUpdateList) {
-            if (wce.isAddOrUpdate()) {
-                dataUpdateList.addAll(nonNull);
-            } else if (wce.isDelete()) {
-                dataDeleteList.addAll(nonNull);
-            }
-        }
-        requestUpdates();
-    }
-
-    @PreDestroy
-    private void cleanup() {
-        scheduled.shutdownNow();
+    private void listener(WaveformMetadataChangeEvent event) {
+        updateData(event.getUpdated(), event.getDeletedIds());
     }
 
     @Override
@@ -26,6 +26,7 @@ import com.google.common.eventbus.EventBus;
 
 import gov.llnl.gnem.apps.coda.common.gui.controllers.AbstractSeismogramSaveLoadController;
 import gov.llnl.gnem.apps.coda.common.gui.converters.api.FileToEnvelopeConverter;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacBulkExporter;
 import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacExporter;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
 import gov.llnl.gnem.apps.coda.common.gui.util.ProgressEventProgressListener;
@@ -39,8 +40,8 @@ public class EnvelopeLoadingController extends AbstractSeismogramSaveLoadControl
     private static final Logger log = LoggerFactory.getLogger(EnvelopeLoadingController.class);
 
     @Autowired
-    public EnvelopeLoadingController(List<FileToEnvelopeConverter> fileConverters, WaveformClient client, EventBus bus, SacExporter sacExporter) {
-        super(fileConverters, bus, log, sacExporter, () -> client.getAllActiveStacks(), (id, waveforms) -> client.postWaveforms(id, waveforms));
+    public EnvelopeLoadingController(List<FileToEnvelopeConverter> fileConverters, WaveformClient client, EventBus bus, SacExporter sacExporter, SacBulkExporter sacBulkExporter) {
+        super(fileConverters, bus, log, sacExporter, sacBulkExporter, () -> client.getAllActiveStackIds(), ids -> client.getWaveformsFromIds(ids), (id, waveforms) -> client.postWaveforms(id, waveforms));
     }
 
     @Override
@@ -30,12 +30,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
@@ -72,6 +74,7 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.common.gui.controllers.ProgressGui;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.events.WaveformMetadataChangeEvent;
 import gov.llnl.gnem.apps.coda.common.gui.events.WaveformSelectionEvent;
 import gov.llnl.gnem.apps.coda.common.gui.plotting.LabeledPlotPoint;
 import gov.llnl.gnem.apps.coda.common.gui.plotting.PlotPoint;
@@ -86,7 +89,6 @@ import gov.llnl.gnem.apps.coda.common.mapping.api.GeoMap;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
-import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
@@ -741,24 +743,24 @@ public class MeasuredMwsController implements MapListeningController, Refreshabl
     }
 
     @Subscribe
-    private void listener(WaveformChangeEvent wce) {
-        List<Long> nonNull = wce.getIds().stream().filter(Objects::nonNull).collect(Collectors.toList());
+    private void listener(WaveformMetadataChangeEvent event) {
         synchronized (spectralMeasurements) {
             Map<Long, SpectraMeasurement> activeMeasurements = spectralMeasurements.stream().collect(Collectors.toMap(x -> x.getWaveform().getId(), Function.identity()));
-            if (wce.isAddOrUpdate()) {
-                waveformClient.getWaveformMetadataFromIds(nonNull).collect(Collectors.toList()).block(Duration.ofSeconds(10l)).forEach(md -> {
-                    SpectraMeasurement measurement = activeMeasurements.get(md.getId());
-                    if (measurement != null) {
-                        measurement.getWaveform().setActive(md.isActive());
-                    }
-                });
-            } else if (wce.isDelete()) {
-                nonNull.forEach(id -> {
+            event.getUpdated().forEach(md -> {
+                SpectraMeasurement measurement = activeMeasurements.get(md.getId());
+                if (measurement != null) {
+                    measurement.getWaveform().setActive(md.isActive());
+                }
+            });
+            if (!event.getDeletedIds().isEmpty()) {
+                Set<SpectraMeasurement> removed = new HashSet<>();
+                event.getDeletedIds().forEach(id -> {
                     SpectraMeasurement measurement = activeMeasurements.remove(id);
                     if (measurement != null) {
-                        spectralMeasurements.remove(measurement);
+                        removed.add(measurement);
                     }
                 });
+                spectralMeasurements.removeAll(removed);
             }
         }
         refreshView();
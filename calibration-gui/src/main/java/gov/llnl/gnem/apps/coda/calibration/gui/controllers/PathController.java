@@ -23,24 +23,21 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.UnsupportedEncodingException;
 import java.text.NumberFormat;
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Optional;
-import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.swing.SwingUtilities;
@@ -57,8 +54,12 @@ import com.google.common.eventbus.Subscribe;
 
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.SpectraClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.plotting.MapPlottingUtilities;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.DistanceBinStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PathBandStatistics;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.StationPairStatistics;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.events.WaveformMetadataChangeEvent;
 import gov.llnl.gnem.apps.coda.common.gui.events.WaveformSelectionEvent;
 import gov.llnl.gnem.apps.coda.common.gui.util.CommonGuiUtils;
 import gov.llnl.gnem.apps.coda.common.gui.util.EventStaFreqStringComparator;
@@ -70,7 +71,6 @@ import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
-import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
@@ -108,8 +108,8 @@ public class PathController implements MapListeningController, RefreshableContro
     private JMultiAxisPlot stationPlot;
     private JMultiAxisPlot sdPlot;
 
-    private Map<FrequencyBand, List<SpectraMeasurement>> measurementsFreqBandMap = new TreeMap<>();
-    private Map<Long, List<SpectraMeasurement>> measurementsWaveformIdMap = new HashMap<>();
+    private Map<FrequencyBand, PathBandStatistics> pathStatisticsMap = new TreeMap<>();
+    private List<Waveform> pathWaveforms = new ArrayList<>();
 
     private NumberFormat dfmt2 = NumberFormatFactory.twoDecimalOneLeadingZero();
 
@@ -140,7 +140,7 @@ public class PathController implements MapListeningController, RefreshableContro
 
     private ObservableSet<Station> stations = FXCollections.synchronizedObservableSet(FXCollections.observableSet(new TreeSet<>((lhs, rhs) -> lhs.getStationName().compareTo(rhs.getStationName()))));
 
-    private Map<Point2D.Double, List<Waveform>> sdSymbolMap = new HashMap<>();
+    private Map<Point2D.Double, List<Long>> sdSymbolMap = new HashMap<>();
     private Map<Point2D.Double, List<Waveform>> stationSymbolMap = new HashMap<>();
     private Map<String, List<Symbol>> stationWaveformMap = new HashMap<>();
 
@@ -295,8 +295,14 @@ public class PathController implements MapListeningController, RefreshableContro
                         PlotObjectClicked poc = (PlotObjectClicked) obj;
                         PlotObject po = poc.getPlotObject();
                         if (po instanceof Symbol) {
-                            List<Waveform> waveforms = sdSymbolMap.get(new Point2D.Double(((Symbol) po).getXcenter(), ((Symbol) po).getYcenter()));
-                            handlePlotObjectClicked(poc, waveforms);
+                            List<Long> waveformIds = sdSymbolMap.get(new Point2D.Double(((Symbol) po).getXcenter(), ((Symbol) po).getYcenter()));
+                            if (waveformIds != null && !waveformIds.isEmpty()) {
+                                // Only the metadata for the clicked pair is fetched
+                                waveformClient.getWaveformMetadataFromIds(waveformIds)
+                                              .filter(w -> w.getId() != null)
+                                              .collectList()
+                                              .subscribe(waveforms -> handlePlotObjectClicked(poc, waveforms));
+                            }
                         }
                     }
                 }
@@ -356,17 +362,12 @@ public class PathController implements MapListeningController, RefreshableContro
     }
 
     @Subscribe
-    private void listener(WaveformChangeEvent wce) {
-        List<Long> nonNull = wce.getIds().stream().filter(Objects::nonNull).collect(Collectors.toList());
-        synchronized (stationWaveformMap) {
-            if (wce.isAddOrUpdate()) {
-                List<Waveform> metadata = waveformClient.getWaveformMetadataFromIds(nonNull).collect(Collectors.toList()).block(Duration.ofSeconds(10l));
+    private void listener(WaveformMetadataChangeEvent event) {
+        List<Waveform> metadata = event.getUpdated();
+        if (!metadata.isEmpty()) {
+            synchronized (stationWaveformMap) {
                 SwingUtilities.invokeLater(() -> {
                     metadata.forEach(w -> {
-                        List<SpectraMeasurement> measurements = measurementsWaveformIdMap.get(w.getId());
-                        if (measurements != null) {
-                            measurements.forEach(m -> m.getWaveform().setActive(w.getActive()));
-                        }
                         Optional.ofNullable(stationWaveformMap.get(w.getEvent().getEventId())).orElseGet(() -> new ArrayList<>()).stream().forEach(sym -> {
                             if (w.isActive()) {
                                 sym.setFillColor(sym.getEdgeColor());
@@ -432,26 +433,29 @@ public class PathController implements MapListeningController, RefreshableContro
     }
 
     private void reloadData() {
-        measurementsFreqBandMap.clear();
-        measurementsWaveformIdMap.clear();
+        pathStatisticsMap.clear();
+        pathWaveforms.clear();
         stations.clear();
         station1ComboBox.getItems().clear();
         station2ComboBox.getItems().clear();
 
         frequencyBandComboBox.getItems().clear();
 
-        measurementsFreqBandMap.putAll(
-                spectraMeasurementClient.getMeasuredSpectraMetadata()
-                                        .filter(Objects::nonNull)
-                                        .filter(spectra -> spectra.getWaveform() != null)
+        pathStatisticsMap.putAll(
+                spectraMeasurementClient.getPathStatistics()
+                                        .filter(stats -> stats != null && stats.getFrequencyBand() != null)
                                         .toStream()
-                                        .collect(Collectors.groupingBy(spectra -> new FrequencyBand(spectra.getWaveform().getLowFrequency(), spectra.getWaveform().getHighFrequency()))));
+                                        .collect(Collectors.toMap(PathBandStatistics::getFrequencyBand, Function.identity())));
 
-        measurementsWaveformIdMap.putAll(measurementsFreqBandMap.values().parallelStream().flatMap(List::parallelStream).collect(Collectors.groupingBy(s -> s.getWaveform().getId())));
+        pathWaveforms.addAll(
+                waveformClient.getUniqueEventStationMetadataForStacks()
+                              .filter(w -> w != null && w.getEvent() != null && w.getStream() != null && w.getStream().getStation() != null)
+                              .toStream()
+                              .collect(Collectors.toList()));
 
-        stations.addAll(measurementsFreqBandMap.values().parallelStream().flatMap(List::parallelStream).map(spectra -> spectra.getWaveform().getStream().getStation()).collect(Collectors.toList()));
+        stations.addAll(pathStatisticsMap.values().stream().flatMap(stats -> stats.getStations().stream()).collect(Collectors.toList()));
 
-        frequencyBandComboBox.getItems().addAll(measurementsFreqBandMap.keySet());
+        frequencyBandComboBox.getItems().addAll(pathStatisticsMap.keySet());
         frequencyBandComboBox.getSelectionModel().selectFirst();
 
         station1ComboBox.getItems().addAll(stations);
@@ -514,45 +518,38 @@ public class PathController implements MapListeningController, RefreshableContro
 
     private void plotPaths() {
         mapImpl.clearIcons();
-        if (measurementsFreqBandMap != null && !measurementsFreqBandMap.isEmpty()) {
+        if (!pathWaveforms.isEmpty()) {
             SwingUtilities.invokeLater(() -> {
-                List<SpectraMeasurement> measurements = measurementsFreqBandMap.get(frequencyBandComboBox.getSelectionModel().getSelectedItem());
-                if (measurements != null) {
-                    Map<Station, List<Event>> stationToEvents = measurements.parallelStream()
-                                                                            .filter(meas -> meas.getWaveform() != null && meas.getWaveform().getStream() != null)
-                                                                            .map(meas -> meas.getWaveform())
-                                                                            .filter(Objects::nonNull)
-                                                                            .distinct()
-                                                                            .collect(
-                                                                                    Collectors.groupingBy(
-                                                                                            w -> w.getStream().getStation(),
-                                                                                                HashMap::new,
-                                                                                                Collectors.mapping(w -> w.getEvent(), Collectors.toList())));
-
-                    stationToEvents.entrySet().stream().flatMap(entry -> {
-                        Station station = entry.getKey();
-                        return entry.getValue().stream().map(event -> mappingUtilities.createStationToEventLine(station, event));
-                    }).forEach(mapImpl::addShape);
-
-                    mapImpl.addIcons(
-                            stationToEvents.keySet()
-                                           .stream()
-                                           .filter(
-                                                   station -> station.equals(station1ComboBox.getSelectionModel().getSelectedItem())
-                                                           || station.equals(station2ComboBox.getSelectionModel().getSelectedItem()))
-                                           .distinct()
-                                           .map(station -> mappingUtilities.createStationIconForeground(station))
-                                           .collect(Collectors.toList()));
-
-                    mapImpl.addIcons(
-                            mappingUtilities.genIconsFromWaveforms(eventSelectionCallback, stationSelectionCallback, measurements.stream().map(m -> m.getWaveform()).collect(Collectors.toList())));
-                }
+                // One entry per event-station path across all bands
+                Map<Station, List<Event>> stationToEvents = pathWaveforms.stream()
+                                                                         .collect(
+                                                                                 Collectors.groupingBy(
+                                                                                         w -> w.getStream().getStation(),
+                                                                                             HashMap::new,
+                                                                                             Collectors.mapping(w -> w.getEvent(), Collectors.toList())));
+
+                stationToEvents.entrySet().stream().flatMap(entry -> {
+                    Station station = entry.getKey();
+                    return entry.getValue().stream().map(event -> mappingUtilities.createStationToEventLine(station, event));
+                }).forEach(mapImpl::addShape);
+
+                mapImpl.addIcons(
+                        stationToEvents.keySet()
+                                       .stream()
+                                       .filter(
+                                               station -> station.equals(station1ComboBox.getSelectionModel().getSelectedItem())
+                                                       || station.equals(station2ComboBox.getSelectionModel().getSelectedItem()))
+                                       .distinct()
+                                       .map(station -> mappingUtilities.createStationIconForeground(station))
+                                       .collect(Collectors.toList()));
+
+                mapImpl.addIcons(mappingUtilities.genIconsFromWaveforms(eventSelectionCallback, stationSelectionCallback, pathWaveforms));
             });
         }
     }
 
     private void plotSd() {
-        if (measurementsFreqBandMap != null && !measurementsFreqBandMap.isEmpty()) {
+        if (!pathStatisticsMap.isEmpty()) {
             SwingUtilities.invokeLater(() -> {
                 sdSymbolMap.clear();
                 sdPlot.clear();
@@ -562,76 +559,16 @@ public class PathController implements MapListeningController, RefreshableContro
                 Double ymin = 0.0;
                 Double ymax = 2.0;
 
-                Map<Pair<Station, Station>, DescriptiveStatistics> beforeStatsStaPairs = new HashMap<>();
-                Map<Pair<Station, Station>, DescriptiveStatistics> afterStatsStaPairs = new HashMap<>();
-                Map<Pair<Station, Station>, Double> distanceStaPairs = new HashMap<>();
-
-                List<SpectraMeasurement> measurements = measurementsFreqBandMap.get(frequencyBandComboBox.getSelectionModel().getSelectedItem());
-
-                Map<Pair<Station, Station>, List<Waveform>> sourceMeasurements = new HashMap<>();
-                Map<Pair<Station, Station>, Set<String>> used = new HashMap<>();
-
-                if (measurements != null) {
-                    DescriptiveStatistics overallBeforeStats = new DescriptiveStatistics();
-                    DescriptiveStatistics overallAfterStats = new DescriptiveStatistics();
-
-                    for (SpectraMeasurement firstMeasurement : measurements) {
-                        for (SpectraMeasurement secondMeasurement : measurements) {
-                            if (!firstMeasurement.equals(secondMeasurement) && firstMeasurement.getWaveform().getEvent().equals(secondMeasurement.getWaveform().getEvent())) {
-                                Station firstStation = firstMeasurement.getWaveform().getStream().getStation();
-                                Station secondStation = secondMeasurement.getWaveform().getStream().getStation();
-                                if (!firstStation.equals(secondStation)) {
-                                    Pair<Station, Station> staPair = new Pair<>(firstStation, secondStation);
-                                    Pair<Station, Station> staPair2 = new Pair<>(secondStation, firstStation);
-                                    DescriptiveStatistics beforeStats = new DescriptiveStatistics();
-                                    DescriptiveStatistics afterStats = new DescriptiveStatistics();
-
-                                    if (!used.containsKey(staPair)) {
-                                        used.put(staPair, new HashSet<>());
-                                        used.put(staPair2, used.get(staPair));
-                                        beforeStatsStaPairs.put(staPair, beforeStats);
-                                        afterStatsStaPairs.put(staPair, afterStats);
-                                        beforeStatsStaPairs.put(staPair2, beforeStats);
-                                        afterStatsStaPairs.put(staPair2, afterStats);
-                                        distanceStaPairs.put(
-                                                staPair,
-                                                    EModel.getDistanceWGS84(firstStation.getLatitude(), firstStation.getLongitude(), secondStation.getLatitude(), secondStation.getLongitude()));
-                                        distanceStaPairs.put(staPair2, distanceStaPairs.get(staPair));
-                                        sourceMeasurements.put(staPair, new ArrayList<Waveform>());
-                                        sourceMeasurements.put(staPair2, sourceMeasurements.get(staPair));
-                                    }
-
-                                    if (!used.get(staPair).contains(firstMeasurement.getWaveform().getEvent().getEventId())
-                                            && !used.get(staPair2).contains(firstMeasurement.getWaveform().getEvent().getEventId())) {
-                                        used.get(staPair).add(firstMeasurement.getWaveform().getEvent().getEventId());
-                                        beforeStats = beforeStatsStaPairs.get(staPair);
-                                        afterStats = afterStatsStaPairs.get(staPair);
-
-                                        double before = Math.abs(firstMeasurement.getRawAtMeasurementTime() - secondMeasurement.getRawAtMeasurementTime());
-                                        double after = Math.abs(firstMeasurement.getPathCorrected() - secondMeasurement.getPathCorrected());
-
-                                        beforeStats.addValue(before);
-                                        afterStats.addValue(after);
-
-                                        overallBeforeStats.addValue(before);
-                                        overallAfterStats.addValue(after);
-
-                                        sourceMeasurements.get(staPair).add(firstMeasurement.getWaveform());
-                                        sourceMeasurements.get(staPair).add(secondMeasurement.getWaveform());
-                                    }
-                                }
-                            }
-                        }
-                    }
+                PathBandStatistics bandStatistics = pathStatisticsMap.get(frequencyBandComboBox.getSelectionModel().getSelectedItem());
 
-                    for (Entry<Pair<Station, Station>, Double> distanceStaPair : distanceStaPairs.entrySet()) {
-                        Pair<Station, Station> staPair = distanceStaPair.getKey();
-                        if (Double.isNaN(beforeStatsStaPairs.get(staPair).getStandardDeviation()) || beforeStatsStaPairs.get(staPair).getStandardDeviation() == 0.0) {
+                if (bandStatistics != null) {
+                    for (StationPairStatistics staPair : bandStatistics.getStationPairs()) {
+                        if (Double.isNaN(staPair.getBeforeStandardDeviation()) || staPair.getBeforeStandardDeviation() == 0.0) {
                             continue;
                         }
-                        String staPairDisplayName = staPair.getLeft().getStationName() + " " + staPair.getRight().getStationName();
-                        Square plotObj = new Square(distanceStaPair.getValue(),
-                                                    beforeStatsStaPairs.get(staPair).getStandardDeviation(),
+                        String staPairDisplayName = staPair.getFirstStation().getStationName() + " " + staPair.getSecondStation().getStationName();
+                        Square plotObj = new Square(staPair.getDistance(),
+                                                    staPair.getBeforeStandardDeviation(),
                                                     4.0,
                                                     Color.RED,
                                                     Color.RED,
@@ -640,10 +577,10 @@ public class PathController implements MapListeningController, RefreshableContro
                                                     true,
                                                     false,
                                                     0);
-                        plotObj.setText(staPairDisplayName + " " + beforeStatsStaPairs.get(staPair).getN());
+                        plotObj.setText(staPairDisplayName + " " + staPair.getCount());
 
-                        Circle plotObj2 = new Circle(distanceStaPair.getValue(),
-                                                     afterStatsStaPairs.get(staPair).getStandardDeviation(),
+                        Circle plotObj2 = new Circle(staPair.getDistance(),
+                                                     staPair.getAfterStandardDeviation(),
                                                      4.0,
                                                      Color.BLUE,
                                                      Color.BLUE,
@@ -652,7 +589,7 @@ public class PathController implements MapListeningController, RefreshableContro
                                                      true,
                                                      false,
                                                      0);
-                        plotObj2.setText(staPairDisplayName + " " + afterStatsStaPairs.get(staPair).getN());
+                        plotObj2.setText(staPairDisplayName + " " + staPair.getCount());
 
                         if (xmax == null) {
                             xmax = plotObj.getXcenter();
@@ -690,8 +627,24 @@ public class PathController implements MapListeningController, RefreshableContro
 
                         Point2D.Double point1 = new Point2D.Double(plotObj.getXcenter(), plotObj.getYcenter());
                         Point2D.Double point2 = new Point2D.Double(plotObj2.getXcenter(), plotObj2.getYcenter());
-                        sdSymbolMap.put(point1, sourceMeasurements.get(staPair));
-                        sdSymbolMap.put(point2, sourceMeasurements.get(staPair));
+                        sdSymbolMap.put(point1, staPair.getWaveformIds());
+                        sdSymbolMap.put(point2, staPair.getWaveformIds());
+                    }
+
+                    List<DistanceBinStatistics> bins = bandStatistics.getDistanceBins();
+                    if (bins != null && bins.size() > 1) {
+                        float[] binCenters = new float[bins.size()];
+                        float[] binnedBefore = new float[bins.size()];
+                        float[] binnedAfter = new float[bins.size()];
+                        for (int i = 0; i < bins.size(); i++) {
+                            DistanceBinStatistics bin = bins.get(i);
+                            binCenters[i] = (float) ((bin.getMinDistance() + bin.getMaxDistance()) / 2.0);
+                            binnedBefore[i] = (float) bin.getBeforeStandardDeviation();
+                            binnedAfter[i] = (float) bin.getAfterStandardDeviation();
+                            ymax = Math.max(ymax, Math.max(bin.getBeforeStandardDeviation(), bin.getAfterStandardDeviation()));
+                        }
+                        plot.AddPlotObject(new Line(binCenters, binnedBefore, Color.RED, PaintMode.COPY, PenStyle.SOLID, 2), 5);
+                        plot.AddPlotObject(new Line(binCenters, binnedAfter, Color.BLUE, PaintMode.COPY, PenStyle.SOLID, 2), 6);
                     }
                     if (xmax != null) {
                         plot.setAxisLimits(xmin - (xmin * .1) - .1, xmax + (xmax * .1) + .1, ymin - (ymin * .1) - .1, ymax + (ymax * .1) + .1);
@@ -701,171 +654,182 @@ public class PathController implements MapListeningController, RefreshableContro
                     plot.getYaxis().setLabelText("σ(|deviation|)");
                     plot.getYaxis().setVisible(true);
 
-                    sdPlot.getTitle().setText("σ(Before) = " + dfmt2.format(overallBeforeStats.getStandardDeviation()) + "; σ(After) = " + dfmt2.format(overallAfterStats.getStandardDeviation()));
+                    sdPlot.getTitle()
+                          .setText(
+                                  "σ(Before) = "
+                                          + dfmt2.format(bandStatistics.getOverallBeforeStandardDeviation())
+                                          + "; σ(After) = "
+                                          + dfmt2.format(bandStatistics.getOverallAfterStandardDeviation()));
                 }
             });
         }
     }
 
     private void plotBeforeAfter() {
-        if (measurementsFreqBandMap != null && !measurementsFreqBandMap.isEmpty() && !station1ComboBox.getSelectionModel().isEmpty() && !station2ComboBox.getSelectionModel().isEmpty()) {
-            SwingUtilities.invokeLater(() -> {
-                List<SpectraMeasurement> measurements = measurementsFreqBandMap.get(frequencyBandComboBox.getSelectionModel().getSelectedItem());
-                if (measurements != null) {
-                    DescriptiveStatistics beforeStats = new DescriptiveStatistics();
-                    DescriptiveStatistics afterStats = new DescriptiveStatistics();
-
-                    Station firstStation = station1ComboBox.getSelectionModel().getSelectedItem();
-                    Station secondStation = station2ComboBox.getSelectionModel().getSelectedItem();
-                    Double stationDistance = null;
-
-                    stationSymbolMap.clear();
-                    stationWaveformMap.clear();
-                    stationPlot.clear();
-                    JSubplot plot = stationPlot.addSubplot();
-                    Double xmin = null;
-                    Double xmax = null;
-
-                    Map<Station, List<SpectraMeasurement>> stationMap = measurements.parallelStream().collect(Collectors.groupingBy(meas -> meas.getWaveform().getStream().getStation()));
-                    List<SpectraMeasurement> firstMeasurements = stationMap.get(firstStation);
-                    List<SpectraMeasurement> secondMeasurements = stationMap.get(secondStation);
-
-                    if (firstMeasurements != null && !firstMeasurements.isEmpty() && secondMeasurements != null && !secondMeasurements.isEmpty()) {
-                        if (stationDistance == null) {
-                            stationDistance = EModel.getDistanceWGS84(firstStation.getLatitude(), firstStation.getLongitude(), secondStation.getLatitude(), secondStation.getLongitude());
-                        }
+        FrequencyBand band = frequencyBandComboBox.getSelectionModel().getSelectedItem();
+        Station firstStation = station1ComboBox.getSelectionModel().getSelectedItem();
+        Station secondStation = station2ComboBox.getSelectionModel().getSelectedItem();
+        if (band != null && firstStation != null && secondStation != null) {
+            // Drill down: only the selected band and stations are fetched
+            spectraMeasurementClient.getMeasuredSpectraMetadata(band, Arrays.asList(firstStation.getStationName(), secondStation.getStationName()))
+                                    .filter(spectra -> spectra.getWaveform() != null && spectra.getWaveform().getStream() != null && spectra.getWaveform().getStream().getStation() != null)
+                                    .collectList()
+                                    .subscribe(measurements -> plotBeforeAfter(measurements, firstStation, secondStation));
+        }
+    }
 
-                        for (SpectraMeasurement firstMeasurement : firstMeasurements) {
-                            for (SpectraMeasurement secondMeasurement : secondMeasurements) {
-                                if (firstMeasurement.getWaveform().getEvent().equals(secondMeasurement.getWaveform().getEvent())) {
-                                    beforeStats.addValue(firstMeasurement.getRawAtMeasurementTime() - secondMeasurement.getRawAtMeasurementTime());
-                                    afterStats.addValue(firstMeasurement.getPathCorrected() - secondMeasurement.getPathCorrected());
-
-                                    TriangleUp plotObj = new TriangleUp(firstMeasurement.getRawAtMeasurementTime(),
-                                                                        secondMeasurement.getRawAtMeasurementTime(),
-                                                                        5.0,
-                                                                        firstMeasurement.getWaveform().isActive() ? Color.RED : Color.GRAY,
-                                                                        Color.RED,
-                                                                        Color.RED,
-                                                                        firstStation.getStationName(),
-                                                                        true,
-                                                                        false,
-                                                                        0);
-                                    plotObj.setText(firstMeasurement.getWaveform().getEvent().getEventId());
-
-                                    TriangleDn plotObj2 = new TriangleDn(firstMeasurement.getPathCorrected(),
-                                                                         secondMeasurement.getPathCorrected(),
-                                                                         5.0,
-                                                                         firstMeasurement.getWaveform().isActive() ? Color.BLUE : Color.GRAY,
-                                                                         Color.BLUE,
-                                                                         Color.BLUE,
-                                                                         secondStation.getStationName(),
-                                                                         true,
-                                                                         false,
-                                                                         0);
-                                    plotObj2.setText(firstMeasurement.getWaveform().getEvent().getEventId());
-
-                                    if (xmax == null) {
-                                        xmax = plotObj.getXcenter();
-                                    }
-                                    if (xmin == null) {
-                                        xmin = plotObj.getXcenter();
-                                    }
-                                    if (plotObj.getXcenter() > xmax) {
-                                        xmax = plotObj.getXcenter();
-                                    }
-                                    if (plotObj.getYcenter() > xmax) {
-                                        xmax = plotObj.getYcenter();
-                                    }
-                                    if (plotObj.getXcenter() < xmin) {
-                                        xmin = plotObj.getXcenter();
-                                    }
-                                    if (plotObj.getYcenter() < xmin) {
-                                        xmin = plotObj.getYcenter();
-                                    }
-                                    plot.AddPlotObject(plotObj, 9);
-
-                                    if (plotObj2.getXcenter() > xmax) {
-                                        xmax = plotObj2.getXcenter();
-                                    }
-                                    if (plotObj2.getYcenter() > xmax) {
-                                        xmax = plotObj2.getYcenter();
-                                    }
-                                    if (plotObj2.getXcenter() < xmin) {
-                                        xmin = plotObj2.getXcenter();
-                                    }
-                                    if (plotObj2.getYcenter() < xmin) {
-                                        xmin = plotObj2.getYcenter();
-                                    }
-                                    plot.AddPlotObject(plotObj2, 10);
-
-                                    List<Waveform> waveformMetadata = new ArrayList<>(2);
-                                    waveformMetadata.add(firstMeasurement.getWaveform());
-                                    waveformMetadata.add(secondMeasurement.getWaveform());
-
-                                    Point2D.Double point1 = new Point2D.Double(plotObj.getXcenter(), plotObj.getYcenter());
-                                    Point2D.Double point2 = new Point2D.Double(plotObj2.getXcenter(), plotObj2.getYcenter());
-                                    stationSymbolMap.put(point1, waveformMetadata);
-                                    stationSymbolMap.put(point2, waveformMetadata);
-                                    waveformMetadata.forEach(waveform -> {
-                                        List<Symbol> entries = stationWaveformMap.computeIfAbsent(waveform.getEvent().getEventId(), key -> new ArrayList<>());
-                                        entries.add(plotObj);
-                                        entries.add(plotObj2);
-
-                                        entries = stationWaveformMap.computeIfAbsent(waveform.getStream().getStation().getStationName(), key -> new ArrayList<>());
-                                        entries.add(plotObj);
-                                        entries.add(plotObj2);
-                                    });
-                                }
-                            }
-                        }
-                    }
+    private void plotBeforeAfter(List<SpectraMeasurement> measurements, Station firstStation, Station secondStation) {
+        SwingUtilities.invokeLater(() -> {
+            DescriptiveStatistics beforeStats = new DescriptiveStatistics();
+            DescriptiveStatistics afterStats = new DescriptiveStatistics();
 
-                    if (xmax == null) {
-                        xmax = 1.0;
-                    }
-                    if (xmin == null) {
-                        xmin = 0.0;
-                    }
-                    double paddedXmin = xmin - Math.abs(xmin * .1);
-                    double paddedXmax = xmax + Math.abs(xmax * .1);
-                    if (xmax != null) {
-                        plot.setAxisLimits(paddedXmin, paddedXmax, paddedXmin, paddedXmax);
-                    }
-                    int points = 50;
-                    double dx = (plot.getXaxis().getMax() - plot.getXaxis().getMin()) / (points - 1);
-                    float[] xy = new float[points];
-                    for (int i = 0; i < points; i++) {
-                        xy[i] = (float) (plot.getXaxis().getMin() + (dx * i));
-                    }
-                    Line line = new Line(xy, xy, Color.black, PaintMode.COPY, PenStyle.DASH, 2);
+            Double stationDistance = null;
 
-                    plot.AddPlotObject(line, 1);
+            stationSymbolMap.clear();
+            stationWaveformMap.clear();
+            stationPlot.clear();
+            JSubplot plot = stationPlot.addSubplot();
+            Double xmin = null;
+            Double xmax = null;
 
-                    if (stationDistance == null) {
-                        stationDistance = 0.0;
-                    }
+            Map<Station, List<SpectraMeasurement>> stationMap = measurements.parallelStream().collect(Collectors.groupingBy(meas -> meas.getWaveform().getStream().getStation()));
+            List<SpectraMeasurement> firstMeasurements = stationMap.get(firstStation);
+            List<SpectraMeasurement> secondMeasurements = stationMap.get(secondStation);
 
-                    stationPlot.getXaxis().setVisible(false);
-                    stationPlot.getXaxis().setLabelText(firstStation.getStationName());
-                    stationPlot.getXaxis().setVisible(true);
+            if (firstMeasurements != null && !firstMeasurements.isEmpty() && secondMeasurements != null && !secondMeasurements.isEmpty()) {
+                if (stationDistance == null) {
+                    stationDistance = EModel.getDistanceWGS84(firstStation.getLatitude(), firstStation.getLongitude(), secondStation.getLatitude(), secondStation.getLongitude());
+                }
 
-                    plot.getYaxis().setVisible(false);
-                    plot.getYaxis().setLabelOffset(12d);
-                    plot.getYaxis().setLabelText(secondStation.getStationName());
-                    plot.getYaxis().setVisible(true);
+                for (SpectraMeasurement firstMeasurement : firstMeasurements) {
+                    for (SpectraMeasurement secondMeasurement : secondMeasurements) {
+                        if (firstMeasurement.getWaveform().getEvent().equals(secondMeasurement.getWaveform().getEvent())) {
+                            beforeStats.addValue(firstMeasurement.getRawAtMeasurementTime() - secondMeasurement.getRawAtMeasurementTime());
+                            afterStats.addValue(firstMeasurement.getPathCorrected() - secondMeasurement.getPathCorrected());
+
+                            TriangleUp plotObj = new TriangleUp(firstMeasurement.getRawAtMeasurementTime(),
+                                                                secondMeasurement.getRawAtMeasurementTime(),
+                                                                5.0,
+                                                                firstMeasurement.getWaveform().isActive() ? Color.RED : Color.GRAY,
+                                                                Color.RED,
+                                                                Color.RED,
+                                                                firstStation.getStationName(),
+                                                                true,
+                                                                false,
+                                                                0);
+                            plotObj.setText(firstMeasurement.getWaveform().getEvent().getEventId());
+
+                            TriangleDn plotObj2 = new TriangleDn(firstMeasurement.getPathCorrected(),
+                                                                 secondMeasurement.getPathCorrected(),
+                                                                 5.0,
+                                                                 firstMeasurement.getWaveform().isActive() ? Color.BLUE : Color.GRAY,
+                                                                 Color.BLUE,
+                                                                 Color.BLUE,
+                                                                 secondStation.getStationName(),
+                                                                 true,
+                                                                 false,
+                                                                 0);
+                            plotObj2.setText(firstMeasurement.getWaveform().getEvent().getEventId());
+
+                            if (xmax == null) {
+                                xmax = plotObj.getXcenter();
+                            }
+                            if (xmin == null) {
+                                xmin = plotObj.getXcenter();
+                            }
+                            if (plotObj.getXcenter() > xmax) {
+                                xmax = plotObj.getXcenter();
+                            }
+                            if (plotObj.getYcenter() > xmax) {
+                                xmax = plotObj.getYcenter();
+                            }
+                            if (plotObj.getXcenter() < xmin) {
+                                xmin = plotObj.getXcenter();
+                            }
+                            if (plotObj.getYcenter() < xmin) {
+                                xmin = plotObj.getYcenter();
+                            }
+                            plot.AddPlotObject(plotObj, 9);
 
-                    String labelText = "σ(Before) = "
-                            + dfmt2.format(beforeStats.getStandardDeviation())
-                            + "; σ(After) = "
-                            + dfmt2.format(afterStats.getStandardDeviation())
-                            + "; Station Distance "
-                            + dfmt2.format(stationDistance)
-                            + " (km)";
-                    stationPlot.getTitle().setText(labelText);
+                            if (plotObj2.getXcenter() > xmax) {
+                                xmax = plotObj2.getXcenter();
+                            }
+                            if (plotObj2.getYcenter() > xmax) {
+                                xmax = plotObj2.getYcenter();
+                            }
+                            if (plotObj2.getXcenter() < xmin) {
+                                xmin = plotObj2.getXcenter();
+                            }
+                            if (plotObj2.getYcenter() < xmin) {
+                                xmin = plotObj2.getYcenter();
+                            }
+                            plot.AddPlotObject(plotObj2, 10);
+
+                            List<Waveform> waveformMetadata = new ArrayList<>(2);
+                            waveformMetadata.add(firstMeasurement.getWaveform());
+                            waveformMetadata.add(secondMeasurement.getWaveform());
+
+                            Point2D.Double point1 = new Point2D.Double(plotObj.getXcenter(), plotObj.getYcenter());
+                            Point2D.Double point2 = new Point2D.Double(plotObj2.getXcenter(), plotObj2.getYcenter());
+                            stationSymbolMap.put(point1, waveformMetadata);
+                            stationSymbolMap.put(point2, waveformMetadata);
+                            waveformMetadata.forEach(waveform -> {
+                                List<Symbol> entries = stationWaveformMap.computeIfAbsent(waveform.getEvent().getEventId(), key -> new ArrayList<>());
+                                entries.add(plotObj);
+                                entries.add(plotObj2);
+
+                                entries = stationWaveformMap.computeIfAbsent(waveform.getStream().getStation().getStationName(), key -> new ArrayList<>());
+                                entries.add(plotObj);
+                                entries.add(plotObj2);
+                            });
+                        }
+                    }
                 }
-            });
-        }
+            }
+
+            if (xmax == null) {
+                xmax = 1.0;
+            }
+            if (xmin == null) {
+                xmin = 0.0;
+            }
+            double paddedXmin = xmin - Math.abs(xmin * .1);
+            double paddedXmax = xmax + Math.abs(xmax * .1);
+            if (xmax != null) {
+                plot.setAxisLimits(paddedXmin, paddedXmax, paddedXmin, paddedXmax);
+            }
+            int points = 50;
+            double dx = (plot.getXaxis().getMax() - plot.getXaxis().getMin()) / (points - 1);
+            float[] xy = new float[points];
+            for (int i = 0; i < points; i++) {
+                xy[i] = (float) (plot.getXaxis().getMin() + (dx * i));
+            }
+            Line line = new Line(xy, xy, Color.black, PaintMode.COPY, PenStyle.DASH, 2);
+
+            plot.AddPlotObject(line, 1);
+
+            if (stationDistance == null) {
+                stationDistance = 0.0;
+            }
+
+            stationPlot.getXaxis().setVisible(false);
+            stationPlot.getXaxis().setLabelText(firstStation.getStationName());
+            stationPlot.getXaxis().setVisible(true);
+
+            plot.getYaxis().setVisible(false);
+            plot.getYaxis().setLabelOffset(12d);
+            plot.getYaxis().setLabelText(secondStation.getStationName());
+            plot.getYaxis().setVisible(true);
+
+            String labelText = "σ(Before) = "
+                    + dfmt2.format(beforeStats.getStandardDeviation())
+                    + "; σ(After) = "
+                    + dfmt2.format(afterStats.getStandardDeviation())
+                    + "; Station Distance "
+                    + dfmt2.format(stationDistance)
+                    + " (km)";
+            stationPlot.getTitle().setText(labelText);
+        });
     }
 
     private void handlePlotObjectClicked(PlotObjectClicked poc, List<Waveform> waveforms) {
@@ -15,7 +15,6 @@
 package gov.llnl.gnem.apps.coda.calibration.gui.controllers;
 
 import java.text.NumberFormat;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -51,6 +50,7 @@ import gov.llnl.gnem.apps.coda.calibration.gui.plotting.MapPlottingUtilities;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.events.WaveformMetadataChangeEvent;
 import gov.llnl.gnem.apps.coda.common.gui.events.WaveformSelectionEvent;
 import gov.llnl.gnem.apps.coda.common.gui.util.EventStaFreqStringComparator;
 import gov.llnl.gnem.apps.coda.common.gui.util.NumberFormatFactory;
@@ -59,7 +59,6 @@ import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
-import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -547,19 +546,18 @@ public class ShapeController implements MapListeningController, RefreshableContr
     }
 
     @Subscribe
-    private void listener(WaveformChangeEvent wce) {
-        List<Long> nonNull = wce.getIds().stream().filter(Objects::nonNull).collect(Collectors.toList());
-        synchronized (waveformIdMapping) {
-            if (wce.isAddOrUpdate()) {
-                waveformClient.getWaveformMetadataFromIds(nonNull).collect(Collectors.toList()).block(Duration.ofSeconds(10l)).forEach(md -> {
+    private void listener(WaveformMetadataChangeEvent event) {
+        if (!event.getUpdated().isEmpty()) {
+            synchronized (waveformIdMapping) {
+                event.getUpdated().forEach(md -> {
                     Pair<List<PeakVelocityMeasurement>, List<ShapeMeasurement>> pair = waveformIdMapping.get(md.getId());
                     if (pair != null) {
                         pair.getLeft().forEach(v -> v.getWaveform().setActive(md.isActive()));
                         pair.getRight().forEach(v -> v.getWaveform().setActive(md.isActive()));
                     }
                 });
-                Platform.runLater(() -> refreshView());
             }
+            Platform.runLater(() -> refreshView());
         }
     }
 
@@ -29,13 +29,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
@@ -46,7 +47,6 @@ import java.util.stream.Collectors;
 import javax.swing.SwingUtilities;
 
 import org.apache.batik.svggen.SVGGraphics2DIOException;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,9 +61,11 @@ import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.SpectraClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.plotting.MapPlottingUtilities;
 import gov.llnl.gnem.apps.coda.calibration.gui.plotting.SpectralPlot;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwDetails;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteBandStatistics;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.events.WaveformMetadataChangeEvent;
 import gov.llnl.gnem.apps.coda.common.gui.events.WaveformSelectionEvent;
 import gov.llnl.gnem.apps.coda.common.gui.plotting.LabeledPlotPoint;
 import gov.llnl.gnem.apps.coda.common.gui.plotting.PlotPoint;
@@ -76,7 +78,6 @@ import gov.llnl.gnem.apps.coda.common.mapping.api.GeoMap;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
-import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
@@ -777,9 +778,12 @@ public class SiteController implements MapListeningController, RefreshableContro
             evids.addAll(spectralMeasurements.stream().map(spec -> spec.getWaveform().getEvent().getEventId()).distinct().sorted(new MaybeNumericStringComparator()).collect(Collectors.toList()));
             eventTable.sort();
 
-            SwingUtilities.invokeAndWait(() -> {
-                Map<String, Map<Double, SummaryStatistics>> evidStats = new HashMap<>();
+            List<SiteBandStatistics> evidStats = spectraClient.getSiteStatistics()
+                                                              .filter(stats -> stats != null && stats.getFrequencyBand() != null)
+                                                              .toStream()
+                                                              .collect(Collectors.toList());
 
+            SwingUtilities.invokeAndWait(() -> {
                 double minSite = 1E2;
                 double maxSite = -1E2;
                 double minFreq = 1E2;
@@ -787,45 +791,44 @@ public class SiteController implements MapListeningController, RefreshableContro
                 int minStations = 2;
                 int maxStations = 3;
 
-                for (SpectraMeasurement meas : spectralMeasurements) {
-                    String evid = meas.getWaveform().getEvent().getEventId();
-                    Double freq = centerFreq(meas.getWaveform());
-                    evidStats.computeIfAbsent(evid, key -> new HashMap<>()).computeIfAbsent(freq, (key) -> new SummaryStatistics()).addValue(meas.getPathAndSiteCorrected());
-                }
-
-                for (Map<Double, SummaryStatistics> freqStats : evidStats.values()) {
-                    for (Entry<Double, SummaryStatistics> entry : freqStats.entrySet()) {
-                        double site = entry.getValue().getStandardDeviation();
-                        if (entry.getValue() != null && entry.getValue().getN() > 1) {
-                            if (maxStations < entry.getValue().getN()) {
-                                maxStations = (int) entry.getValue().getN();
-                            }
-                            if (site < minSite) {
-                                minSite = site;
-                            }
-                            if (site > maxSite) {
-                                maxSite = site;
-                            }
-                            if (entry.getKey() < minFreq) {
-                                minFreq = entry.getKey();
-                            }
-                            if (entry.getKey() > maxFreq) {
-                                maxFreq = entry.getKey();
-                            }
+                for (SiteBandStatistics stats : evidStats) {
+                    double site = stats.getStandardDeviation();
+                    double freq = centerFreq(stats.getFrequencyBand().getLowFrequency(), stats.getFrequencyBand().getHighFrequency());
+                    if (stats.getCount() > 1) {
+                        if (maxStations < stats.getCount()) {
+                            maxStations = (int) stats.getCount();
+                        }
+                        if (site < minSite) {
+                            minSite = site;
+                        }
+                        if (site > maxSite) {
+                            maxSite = site;
+                        }
+                        if (freq < minFreq) {
+                            minFreq = freq;
+                        }
+                        if (freq > maxFreq) {
+                            maxFreq = freq;
                         }
                     }
                 }
 
                 colorMap.setRange(minStations, maxStations);
 
-                for (Map<Double, SummaryStatistics> freqStats : evidStats.values()) {
-                    for (Entry<Double, SummaryStatistics> entry : freqStats.entrySet()) {
-                        double site = entry.getValue().getStandardDeviation();
-                        if (entry.getValue() != null && entry.getValue().getN() > 1) {
-                            Color color = colorMap.getColor(entry.getValue().getN());
-                            Circle sdSym = new Circle(entry.getKey(), site, 2.0, color, color, color, "", true, false, 6.0);
-                            sdPlotFigure.AddPlotObject(sdSym);
-                        }
+                for (SiteBandStatistics stats : evidStats) {
+                    if (stats.getCount() > 1) {
+                        Color color = colorMap.getColor(stats.getCount());
+                        Circle sdSym = new Circle(centerFreq(stats.getFrequencyBand().getLowFrequency(), stats.getFrequencyBand().getHighFrequency()),
+                                                  stats.getStandardDeviation(),
+                                                  2.0,
+                                                  color,
+                                                  color,
+                                                  color,
+                                                  "",
+                                                  true,
+                                                  false,
+                                                  6.0);
+                        sdPlotFigure.AddPlotObject(sdSym);
                     }
                 }
 
@@ -873,10 +876,6 @@ public class SiteController implements MapListeningController, RefreshableContro
         return new SymbolLegend(legendSymbols, sdPlot.getTitle().getFontName(), 8.0, HorizPinEdge.RIGHT, VertPinEdge.TOP, 1, 1);
     }
 
-    private Double centerFreq(Waveform waveform) {
-        return ((waveform.getHighFrequency() - waveform.getLowFrequency()) / 2.0) + waveform.getLowFrequency();
-    }
-
     @Override
     public void refreshView() {
         if (isVisible) {
@@ -1020,24 +1019,24 @@ public class SiteController implements MapListeningController, RefreshableContro
     }
 
     @Subscribe
-    private void listener(WaveformChangeEvent wce) {
-        List<Long> nonNull = wce.getIds().stream().filter(Objects::nonNull).collect(Collectors.toList());
+    private void listener(WaveformMetadataChangeEvent event) {
         synchronized (spectralMeasurements) {
             Map<Long, SpectraMeasurement> activeMeasurements = spectralMeasurements.stream().collect(Collectors.toMap(x -> x.getWaveform().getId(), Function.identity()));
-            if (wce.isAddOrUpdate()) {
-                waveformClient.getWaveformMetadataFromIds(nonNull).collect(Collectors.toList()).block(Duration.ofSeconds(10l)).forEach(md -> {
-                    SpectraMeasurement measurement = activeMeasurements.get(md.getId());
-                    if (measurement != null) {
-                        measurement.getWaveform().setActive(md.isActive());
-                    }
-                });
-            } else if (wce.isDelete()) {
-                nonNull.forEach(id -> {
+            event.getUpdated().forEach(md -> {
+                SpectraMeasurement measurement = activeMeasurements.get(md.getId());
+                if (measurement != null) {
+                    measurement.getWaveform().setActive(md.isActive());
+                }
+            });
+            if (!event.getDeletedIds().isEmpty()) {
+                Set<SpectraMeasurement> removed = new HashSet<>();
+                event.getDeletedIds().forEach(id -> {
                     SpectraMeasurement measurement = activeMeasurements.remove(id);
                     if (measurement != null) {
-                        spectralMeasurements.remove(measurement);
+                        removed.add(measurement);
                     }
                 });
+                spectralMeasurements.removeAll(removed);
             }
         }
         refreshView();
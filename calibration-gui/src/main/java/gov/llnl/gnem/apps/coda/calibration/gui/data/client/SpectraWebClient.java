@@ -24,8 +24,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.SpectraClient;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PathBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteBandStatistics;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -59,6 +62,18 @@ public class SpectraWebClient implements SpectraClient {
                      .onErrorReturn(new SpectraMeasurement());
     }
 
+    @Override
+    public Flux<SpectraMeasurement> getMeasuredSpectraMetadata(FrequencyBand frequencyBand, List<String> stationNames) {
+        return client.get()
+                     .uri(uriBuilder -> uriBuilder.path("/spectra-measurements/metadata/band/{lowFrequency}/{highFrequency}")
+                                                  .queryParam("stations", String.join(",", stationNames))
+                                                  .build(frequencyBand.getLowFrequency(), frequencyBand.getHighFrequency()))
+                     .accept(MediaType.APPLICATION_JSON)
+                     .exchange()
+                     .flatMapMany(response -> response.bodyToFlux(SpectraMeasurement.class))
+                     .onErrorReturn(new SpectraMeasurement());
+    }
+
     @Override
     public Mono<Spectra> getReferenceSpectra(String eventId) {
         return client.post()
@@ -83,4 +98,24 @@ public class SpectraWebClient implements SpectraClient {
                      }))
                      .onErrorReturn(new ArrayList<Spectra>());
     }
+
+    @Override
+    public Flux<PathBandStatistics> getPathStatistics() {
+        return client.get()
+                     .uri("/measurement-summary/path")
+                     .accept(MediaType.APPLICATION_JSON)
+                     .exchange()
+                     .flatMapMany(response -> response.bodyToFlux(PathBandStatistics.class))
+                     .onErrorReturn(new PathBandStatistics());
+    }
+
+    @Override
+    public Flux<SiteBandStatistics> getSiteStatistics() {
+        return client.get()
+                     .uri("/measurement-summary/site")
+                     .accept(MediaType.APPLICATION_JSON)
+                     .exchange()
+                     .flatMapMany(response -> response.bodyToFlux(SiteBandStatistics.class))
+                     .onErrorReturn(new SiteBandStatistics());
+    }
 }
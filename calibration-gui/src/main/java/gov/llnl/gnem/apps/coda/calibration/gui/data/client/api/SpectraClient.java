@@ -16,8 +16,11 @@ package gov.llnl.gnem.apps.coda.calibration.gui.data.client.api;
 
 import java.util.List;
 
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PathBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteBandStatistics;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -27,7 +30,13 @@ public interface SpectraClient {
 
     public Flux<SpectraMeasurement> getMeasuredSpectraMetadata();
 
+    public Flux<SpectraMeasurement> getMeasuredSpectraMetadata(FrequencyBand frequencyBand, List<String> stationNames);
+
     public Mono<Spectra> getReferenceSpectra(String eventId);
 
     public Mono<List<Spectra>> getFitSpectra(String eventId);
+
+    public Flux<PathBandStatistics> getPathStatistics();
+
+    public Flux<SiteBandStatistics> getSiteStatistics();
 }
@@ -31,6 +31,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ParameterClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.PeakVelocityClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ShapeMeasurementClient;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
 import gov.llnl.gnem.apps.coda.common.gui.util.NumberFormatFactory;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
@@ -59,6 +61,7 @@ import llnl.gnem.core.util.SeriesMath;
 import llnl.gnem.core.util.TimeT;
 import llnl.gnem.core.util.Geometry.EModel;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
+import reactor.core.publisher.Mono;
 
 public class CodaWaveformPlot extends SeriesPlot {
 
@@ -115,6 +118,16 @@ public class CodaWaveformPlot extends SeriesPlot {
     }
 
     public void setWaveform(Waveform waveform, SyntheticCoda synth) {
+        plotWaveform(waveform, synth).subscribe();
+    }
+
+    /**
+     * Plots the waveform and returns a {@link Mono} that completes once the
+     * shape fit, noise and synthetic overlays that are fetched from the
+     * service have been added as well. Nothing is fetched until the result is
+     * subscribed to.
+     */
+    public Mono<Void> plotWaveform(Waveform waveform, SyntheticCoda synth) {
         this.clear();
         pickLineMap.clear();
 
@@ -169,7 +182,7 @@ public class CodaWaveformPlot extends SeriesPlot {
                 }
             }
 
-            shapeClient.getMeasuredShape(waveform.getId()).subscribe(shape -> {
+            Mono<ShapeMeasurement> shapeFit = shapeClient.getMeasuredShape(waveform.getId()).doOnNext(shape -> {
                 if (shape != null && shape.getId() != null) {
                     try {
                         TimeSeries interpolatedSeries = new TimeSeries(waveformSegment, waveform.getSampleRate(), beginTime);
@@ -199,10 +212,11 @@ public class CodaWaveformPlot extends SeriesPlot {
                 }
             });
 
-            paramClient.getSharedFrequencyBandParametersForFrequency(new FrequencyBand(waveform.getLowFrequency(), waveform.getHighFrequency())).subscribe(params -> {
+            Mono<Void> modelFit = paramClient.getSharedFrequencyBandParametersForFrequency(new FrequencyBand(waveform.getLowFrequency(), waveform.getHighFrequency())).flatMap(params -> {
+                Mono<PeakVelocityMeasurement> noise = Mono.empty();
                 if (params != null) {
                     try {
-                        velocityClient.getNoiseForWaveform(waveform.getId()).subscribe(measurement -> {
+                        noise = velocityClient.getNoiseForWaveform(waveform.getId()).doOnNext(measurement -> {
                             if (measurement != null && measurement.getNoiseEndSecondsFromOrigin() != 0.0) {
                                 int lineLength = (int) (waveform.getSegmentLength() / waveform.getSampleRate()) + 10;
                                 subplot.AddPlotObject(createFixedLine(measurement.getNoiseLevel(), lineLength, Color.BLACK, PenStyle.DASH), PLOT_ORDERING.NOISE_LINE.getZOrder());
@@ -223,9 +237,13 @@ public class CodaWaveformPlot extends SeriesPlot {
                 }
 
                 repaint();
+                return noise.then();
             });
+
+            return Mono.when(shapeFit, modelFit);
         } else {
             plotIdentifier = "";
+            return Mono.empty();
         }
     }
 
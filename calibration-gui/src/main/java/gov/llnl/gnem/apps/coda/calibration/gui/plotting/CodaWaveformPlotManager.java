@@ -325,6 +325,14 @@ public class CodaWaveformPlotManager extends JPanel {
         }
     }
 
+    public List<Long> getWaveformIDs() {
+        return new ArrayList<>(allWaveformIDs);
+    }
+
+    public int getPageSize() {
+        return pageSize.intValue();
+    }
+
     public void exportScreenshots(File folder) {
         String timestamp = SnapshotUtils.getTimestampWithLeadingSeparator();
         for (CodaWaveformPlot wp : orderedWaveformPlots.values()) {
@@ -0,0 +1,227 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.gui.plotting;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+
+import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ParameterClient;
+import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.PeakVelocityClient;
+import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ShapeMeasurementClient;
+import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.util.SnapshotUtils;
+import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+
+/**
+ * Draws waveform and synthetic plots into offscreen images and writes them as
+ * PNG files. Each plot is created for the export, never attached to a window
+ * and rendered and encoded on a small pool of worker threads, so exporting a
+ * large selection does not hold up the Swing or JavaFX threads.
+ */
+public class CodaWaveformPlotRenderer {
+
+    private static final Logger log = LoggerFactory.getLogger(CodaWaveformPlotRenderer.class);
+
+    private static final Duration FETCH_TIMEOUT = Duration.ofMinutes(1);
+    private static final Duration OVERLAY_TIMEOUT = Duration.ofSeconds(30);
+
+    // Pages are fetched one after another; the renderers work through each
+    // page before the next one is requested.
+    private static final ExecutorService exportService = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setName("Plot Export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService renderers;
+
+    private WaveformClient waveformClient;
+    private ShapeMeasurementClient shapeClient;
+    private ParameterClient paramsClient;
+    private PeakVelocityClient peakVelocityClient;
+
+    private int width = 1600;
+    private int height = 400;
+    private int pageSize = 50;
+
+    public CodaWaveformPlotRenderer(WaveformClient waveformClient, ShapeMeasurementClient shapeClient, ParameterClient paramsClient, PeakVelocityClient peakVelocityClient) {
+        this.waveformClient = waveformClient;
+        this.shapeClient = shapeClient;
+        this.paramsClient = paramsClient;
+        this.peakVelocityClient = peakVelocityClient;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.renderers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads * 2), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Plot Renderer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        ((ThreadPoolExecutor) renderers).allowCoreThreadTimeOut(true);
+    }
+
+    public CodaWaveformPlotRenderer setImageSize(int width, int height) {
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public CodaWaveformPlotRenderer setPageSize(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        return this;
+    }
+
+    /**
+     * Writes one PNG per waveform id into the folder, using the synthetic for
+     * the waveform when there is one.
+     *
+     * @param progress
+     *            called with the number of plots finished and the total after
+     *            each page; may be null
+     * @return the number of images written
+     */
+    public CompletableFuture<Integer> exportPngs(List<Long> waveformIds, File folder, String timestamp, BiConsumer<Integer, Integer> progress) {
+        List<Long> ids = new ArrayList<>(waveformIds);
+        return CompletableFuture.supplyAsync(() -> {
+            AtomicInteger written = new AtomicInteger();
+            int finished = 0;
+            for (List<Long> page : Lists.partition(ids, pageSize)) {
+                List<CompletableFuture<Void>> renders = new ArrayList<>(page.size());
+                for (Plottable plottable : fetchPage(page)) {
+                    renders.add(CompletableFuture.runAsync(() -> {
+                        if (writePng(plottable, folder, timestamp)) {
+                            written.incrementAndGet();
+                        }
+                    }, renderers));
+                }
+                CompletableFuture.allOf(renders.toArray(new CompletableFuture<?>[0])).join();
+                finished += page.size();
+                if (progress != null) {
+                    progress.accept(finished, ids.size());
+                }
+            }
+            return written.get();
+        }, exportService);
+    }
+
+    /**
+     * Renders the plot into a new image at the configured size. The plot must
+     * not be showing in a window while this runs.
+     */
+    public BufferedImage render(CodaWaveformPlot plot) {
+        plot.setSize(width, height);
+        plot.setBackground(Color.WHITE);
+        plot.setPolyLineUsage(false);
+        plot.setForceFullRender(true);
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            plot.Render(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private boolean writePng(Plottable plottable, File folder, String timestamp) {
+        try {
+            CodaWaveformPlot plot = new CodaWaveformPlot(waveformClient, shapeClient, paramsClient, peakVelocityClient);
+            plot.setVerticalOffset(5);
+            plot.setBoxHeight(0);
+            plot.setBoxWidth(0);
+            plot.setShowBorder(false);
+            try {
+                plot.plotWaveform(plottable.waveform, plottable.synthetic).block(OVERLAY_TIMEOUT);
+            } catch (RuntimeException e) {
+                log.warn("Unable to load the fits for waveform {}; rendering without them. {}", plottable.waveform.getId(), e.getMessage());
+            }
+
+            String plotId = plot.getPlotIdentifier();
+            if (plotId == null || plotId.isEmpty()) {
+                return false;
+            }
+            SnapshotUtils.writePng(render(plot), folder + File.separator + "Waveform_" + plotId + "_" + timestamp + ".png");
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Unable to render waveform {} : {}", plottable.waveform.getId(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private List<Plottable> fetchPage(List<Long> ids) {
+        List<Plottable> plottables = new ArrayList<>(ids.size());
+        List<Long> remaining = new ArrayList<>(ids);
+        try {
+            List<SyntheticCoda> synthetics = waveformClient.getSyntheticsFromWaveformIds(ids)
+                                                           .filter(synth -> synth != null && synth.getId() != null && synth.getSourceWaveform() != null)
+                                                           .collectList()
+                                                           .block(FETCH_TIMEOUT);
+            if (synthetics != null) {
+                for (SyntheticCoda synth : synthetics) {
+                    remaining.remove(synth.getSourceWaveform().getId());
+                    plottables.add(new Plottable(synth.getSourceWaveform(), synth));
+                }
+            }
+
+            if (!remaining.isEmpty()) {
+                List<Waveform> waveforms = waveformClient.getWaveformsFromIds(remaining)
+                                                         .filter(waveform -> waveform != null && waveform.getId() != null)
+                                                         .collectList()
+                                                         .block(FETCH_TIMEOUT);
+                if (waveforms != null) {
+                    waveforms.forEach(w -> plottables.add(new Plottable(w, null)));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unable to fetch waveforms {} for export : {}", ids, e.getMessage(), e);
+        }
+        return plottables;
+    }
+
+    private static class Plottable {
+        private final Waveform waveform;
+        private final SyntheticCoda synthetic;
+
+        private Plottable(Waveform waveform, SyntheticCoda synthetic) {
+            this.waveform = waveform;
+            this.synthetic = synthetic;
+        }
+    }
+}
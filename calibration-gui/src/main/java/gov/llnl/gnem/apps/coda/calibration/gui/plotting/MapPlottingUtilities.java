@@ -99,40 +99,26 @@ public class MapPlottingUtilities {
     }
 
     public Collection<Icon> genIconsFromWaveforms(BiConsumer<Boolean, String> eventSelectionCallback, BiConsumer<Boolean, String> stationSelectionCallback, List<Waveform> waveforms) {
-        List<Icon> icons = new ArrayList<>();
-        Map<Event, Icon> events = new HashMap<>();
-        Map<Station, Icon> stations = new HashMap<>();
+        Map<Event, Boolean> events = new HashMap<>();
+        Map<Station, Boolean> stations = new HashMap<>();
         for (Waveform waveform : waveforms) {
             if (waveform != null && waveform.getStream() != null && waveform.getStream().getStation() != null && waveform.getEvent() != null) {
-                Icon icon = events.get(waveform.getEvent());
-                if (icon != null) {
-                    if (isIconBackground(icon) && waveform.isActive()) {
-                        events.put(waveform.getEvent(), createEventIcon(waveform.getEvent()).setIconSelectionCallback(eventSelectionCallback));
-                    } else {
-                        //Nop
-                    }
-                } else {
-                    icon = waveform.isActive() ? createEventIcon(waveform.getEvent()) : createEventIconBackground(waveform.getEvent());
-                    icon.setIconSelectionCallback(eventSelectionCallback);
-                    events.put(waveform.getEvent(), icon);
-                }
-
-                icon = stations.get(waveform.getStream().getStation());
-                if (icon != null) {
-                    if (isIconBackground(icon) && waveform.isActive()) {
-                        stations.put(waveform.getStream().getStation(), createStationIcon(waveform.getStream().getStation()).setIconSelectionCallback(stationSelectionCallback));
-                    } else {
-                        //Nop
-                    }
-                } else {
-                    icon = waveform.isActive() ? createStationIcon(waveform.getStream().getStation()) : createStationIconBackground(waveform.getStream().getStation());
-                    icon.setIconSelectionCallback(stationSelectionCallback);
-                    stations.put(waveform.getStream().getStation(), icon);
-                }
+                events.merge(waveform.getEvent(), Boolean.TRUE.equals(waveform.isActive()), Boolean::logicalOr);
+                stations.merge(waveform.getStream().getStation(), Boolean.TRUE.equals(waveform.isActive()), Boolean::logicalOr);
             }
         }
-        icons.addAll(events.values());
-        icons.addAll(stations.values());
+        return genIcons(eventSelectionCallback, stationSelectionCallback, events, stations);
+    }
+
+    /**
+     * Builds one icon per event and station, drawn in the foreground when
+     * any of its waveforms is active.
+     */
+    public Collection<Icon> genIcons(BiConsumer<Boolean, String> eventSelectionCallback, BiConsumer<Boolean, String> stationSelectionCallback, Map<Event, Boolean> eventActivity,
+            Map<Station, Boolean> stationActivity) {
+        List<Icon> icons = new ArrayList<>(eventActivity.size() + stationActivity.size());
+        eventActivity.forEach((event, active) -> icons.add((active ? createEventIcon(event) : createEventIconBackground(event)).setIconSelectionCallback(eventSelectionCallback)));
+        stationActivity.forEach((station, active) -> icons.add((active ? createStationIcon(station) : createStationIconBackground(station)).setIconSelectionCallback(stationSelectionCallback)));
         return icons;
     }
 }
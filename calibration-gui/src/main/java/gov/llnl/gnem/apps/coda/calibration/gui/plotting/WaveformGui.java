@@ -16,6 +16,8 @@ package gov.llnl.gnem.apps.coda.calibration.gui.plotting;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.SwingUtilities;
 
@@ -27,12 +29,19 @@ import org.springframework.stereotype.Controller;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
+import gov.llnl.gnem.apps.coda.calibration.gui.AppProperties;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ParameterClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.PeakVelocityClient;
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ShapeMeasurementClient;
+import gov.llnl.gnem.apps.coda.common.gui.controllers.ProgressGui;
 import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
 import gov.llnl.gnem.apps.coda.common.gui.events.WaveformSelectionEvent;
+import gov.llnl.gnem.apps.coda.common.gui.util.ProgressEventProgressListener;
+import gov.llnl.gnem.apps.coda.common.gui.util.ProgressMonitor;
+import gov.llnl.gnem.apps.coda.common.gui.util.SnapshotUtils;
 import gov.llnl.gnem.apps.coda.common.mapping.api.GeoMap;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Progress;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent;
 import javafx.application.Platform;
 import javafx.beans.property.Property;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -76,18 +85,32 @@ public class WaveformGui {
     private MapPlottingUtilities mapPlotUtilities;
     private Property<Boolean> shouldFocus = new SimpleBooleanProperty(false);
     private DirectoryChooser screenshotFolderChooser = new DirectoryChooser();
+    private boolean deferredInit;
+    private volatile List<Long> pendingWaveformIDs;
+    private CodaWaveformPlotRenderer plotRenderer;
+    private EventBus bus;
+    private AtomicLong progressIds = new AtomicLong(System.nanoTime());
 
     @Autowired
     public WaveformGui(WaveformClient waveformClient, ShapeMeasurementClient shapeClient, ParameterClient paramsClient, PeakVelocityClient peakVelocityClient, GeoMap map,
-            MapPlottingUtilities mapPlotUtilities, EventBus bus) {
+            MapPlottingUtilities mapPlotUtilities, EventBus bus, AppProperties props) {
         this.waveformClient = waveformClient;
         this.shapeClient = shapeClient;
         this.paramsClient = paramsClient;
         this.peakVelocityClient = peakVelocityClient;
         this.map = map;
         this.mapPlotUtilities = mapPlotUtilities;
+        this.deferredInit = Boolean.TRUE.equals(props.getDeferWindowInit());
+        this.plotRenderer = new CodaWaveformPlotRenderer(waveformClient, shapeClient, paramsClient, peakVelocityClient);
+        this.bus = bus;
         bus.register(this);
-        Platform.runLater(() -> {
+        if (!deferredInit) {
+            Platform.runLater(this::createStage);
+        }
+    }
+
+    private void createStage() {
+        if (stage == null) {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/WaveformGui.fxml"));
             fxmlLoader.setController(this);
             stage = new Stage(StageStyle.DECORATED);
@@ -114,17 +137,20 @@ public class WaveformGui {
             } catch (IOException e) {
                 throw new IllegalStateException(e);
             }
-        });
-
+        }
     }
 
     @Subscribe
     private void listener(WaveformSelectionEvent event) {
-        if (waveformPlotManager != null) {
-            if (event != null && event.getWaveformIDs() != null && !event.getWaveformIDs().isEmpty()) {
+        if (event != null && event.getWaveformIDs() != null && !event.getWaveformIDs().isEmpty()) {
+            if (waveformPlotManager != null) {
                 waveformPlotManager.setOrderedWaveformIDs(event.getWaveformIDs());
                 show();
                 repaintWaveformWindow();
+            } else if (deferredInit) {
+                // First use; the plots are loaded once the window has been built
+                pendingWaveformIDs = event.getWaveformIDs();
+                show();
             }
         }
     }
@@ -145,6 +171,13 @@ public class WaveformGui {
         SwingUtilities.invokeLater(() -> {
             waveformPlotManager = new CodaWaveformPlotManager(waveformClient, shapeClient, paramsClient, peakVelocityClient, map, mapPlotUtilities);
             waveformPlotNode.setContent(waveformPlotManager);
+            List<Long> pending = pendingWaveformIDs;
+            if (pending != null) {
+                pendingWaveformIDs = null;
+                waveformPlotManager.setVisible(true);
+                waveformPlotManager.setOrderedWaveformIDs(pending);
+                repaintWaveformWindow();
+            }
         });
     }
 
@@ -154,15 +187,47 @@ public class WaveformGui {
         try {
             if (folder != null && folder.exists() && folder.isDirectory() && folder.canWrite()) {
                 screenshotFolderChooser.setInitialDirectory(folder);
-                Platform.runLater(() -> waveformPlotManager.exportScreenshots(folder));
+                SwingUtilities.invokeLater(() -> {
+                    waveformPlotManager.exportScreenshots(folder);
+                    List<Long> waveformIDs = waveformPlotManager.getWaveformIDs();
+                    if (waveformIDs.size() > waveformPlotManager.getPageSize()) {
+                        exportAllPlots(waveformIDs, folder);
+                    }
+                });
             }
         } catch (SecurityException ex) {
             log.warn("Exception trying to write screenshots to folder {} : {}", folder, ex.getLocalizedMessage(), ex);
         }
     }
 
+    private void exportAllPlots(List<Long> waveformIDs, File folder) {
+        Progress progress = new Progress((long) waveformIDs.size(), 0l);
+        ProgressEvent progressEvent = new ProgressEvent(progressIds.getAndIncrement(), progress);
+        ProgressMonitor progressMonitor = new ProgressMonitor("Rendering Plots", new ProgressEventProgressListener(bus, progressEvent));
+        ProgressGui progressGui = new ProgressGui();
+        progressGui.show();
+        progressGui.addProgressMonitor(progressMonitor);
+        bus.post(progressEvent);
+
+        plotRenderer.exportPngs(waveformIDs, folder, SnapshotUtils.getTimestampWithLeadingSeparator(), (finished, total) -> {
+            progress.setCurrent(finished.longValue());
+            bus.post(progressEvent);
+        }).whenComplete((written, ex) -> {
+            if (ex != null) {
+                log.warn("Exception trying to render plots to folder {} : {}", folder, ex.getLocalizedMessage(), ex);
+            } else {
+                log.debug("Rendered {} of {} plots to {}", written, waveformIDs.size(), folder);
+            }
+            progress.setCurrent(progress.getTotal());
+            bus.post(progressEvent);
+        });
+    }
+
     public void hide() {
         Platform.runLater(() -> {
+            if (stage == null) {
+                return;
+            }
             stage.hide();
             if (waveformPlotManager != null) {
                 waveformPlotManager.setVisible(false);
@@ -172,6 +237,7 @@ public class WaveformGui {
 
     public void show() {
         Platform.runLater(() -> {
+            createStage();
             boolean showing = stage.isShowing();
             stage.show();
             if (waveformPlotManager != null) {
@@ -0,0 +1,406 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.gui.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import llnl.gnem.core.polygon.Polygon;
+import llnl.gnem.core.polygon.PolygonSet;
+
+/**
+ * Lookup tables over loaded waveform metadata. Waveform ids are indexed by
+ * event id, station name and frequency band, and event and station locations
+ * are kept in a one degree lat/lon grid. Map clicks, area selections and
+ * table filters can then be answered without scanning every waveform.
+ *
+ * Event ids and station names are matched case insensitively. The index is
+ * not thread safe; callers are expected to guard it the same way they guard
+ * the list it mirrors.
+ */
+public class WaveformIndex {
+
+    private final Map<Long, Waveform> waveforms = new HashMap<>();
+    private final Map<String, Set<Long>> byEvent = new HashMap<>();
+    private final Map<String, Set<Long>> byStation = new HashMap<>();
+    private final Map<FrequencyBand, Set<Long>> byBand = new HashMap<>();
+    private final Map<Event, Activity> events = new HashMap<>();
+    private final Map<Station, Activity> stations = new HashMap<>();
+    private final LocationGrid eventGrid = new LocationGrid();
+    private final LocationGrid stationGrid = new LocationGrid();
+
+    public void addAll(Collection<? extends Waveform> added) {
+        added.forEach(this::add);
+    }
+
+    public void add(Waveform waveform) {
+        if (waveform == null || waveform.getId() == null) {
+            return;
+        }
+        Waveform previous = waveforms.put(waveform.getId(), waveform);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(waveform);
+    }
+
+    public void removeAll(Collection<? extends Waveform> removed) {
+        removed.forEach(w -> {
+            if (w != null) {
+                remove(w.getId());
+            }
+        });
+    }
+
+    public void remove(Long id) {
+        Waveform removed = waveforms.remove(id);
+        if (removed != null) {
+            unindex(removed);
+        }
+    }
+
+    public void clear() {
+        waveforms.clear();
+        byEvent.clear();
+        byStation.clear();
+        byBand.clear();
+        events.clear();
+        stations.clear();
+        eventGrid.clear();
+        stationGrid.clear();
+    }
+
+    public int size() {
+        return waveforms.size();
+    }
+
+    public Waveform get(Long id) {
+        return waveforms.get(id);
+    }
+
+    public Set<Long> idsForEvent(String eventId) {
+        return lookup(byEvent, key(eventId));
+    }
+
+    public Set<Long> idsForEvents(Collection<String> eventIds) {
+        Set<Long> ids = new HashSet<>();
+        eventIds.forEach(id -> ids.addAll(idsForEvent(id)));
+        return ids;
+    }
+
+    public Set<Long> idsForStation(String stationName) {
+        return lookup(byStation, key(stationName));
+    }
+
+    public Set<Long> idsForStations(Collection<String> stationNames) {
+        Set<Long> ids = new HashSet<>();
+        stationNames.forEach(name -> ids.addAll(idsForStation(name)));
+        return ids;
+    }
+
+    public Set<Long> idsForBand(FrequencyBand band) {
+        return lookup(byBand, band);
+    }
+
+    /**
+     * @return the ids of waveforms matching every criterion given; a null
+     *         criterion matches anything
+     */
+    public Set<Long> idsMatching(String eventId, String stationName, FrequencyBand band) {
+        Set<Long> result = null;
+        if (eventId != null) {
+            result = idsForEvent(eventId);
+        }
+        if (stationName != null) {
+            result = intersect(result, idsForStation(stationName));
+        }
+        if (band != null) {
+            result = intersect(result, idsForBand(band));
+        }
+        if (result == null) {
+            return Collections.unmodifiableSet(new HashSet<>(waveforms.keySet()));
+        }
+        return result;
+    }
+
+    public Set<String> eventsWithin(double minLat, double minLon, double maxLat, double maxLon) {
+        return eventGrid.within(minLat, minLon, maxLat, maxLon, (lat, lon) -> true);
+    }
+
+    public Set<String> eventsWithin(Polygon polygon) {
+        return eventGrid.within(polygon.getMinLat(), polygon.getMinLon(), polygon.getMaxLat(), polygon.getMaxLon(), polygon::contains);
+    }
+
+    public Set<String> eventsWithin(PolygonSet polygons) {
+        return eventGrid.within(polygons.getMinLat(), polygons.getMinLon(), polygons.getMaxLat(), polygons.getMaxLon(), polygons::contains);
+    }
+
+    public Set<String> stationsWithin(double minLat, double minLon, double maxLat, double maxLon) {
+        return stationGrid.within(minLat, minLon, maxLat, maxLon, (lat, lon) -> true);
+    }
+
+    public Set<String> stationsWithin(Polygon polygon) {
+        return stationGrid.within(polygon.getMinLat(), polygon.getMinLon(), polygon.getMaxLat(), polygon.getMaxLon(), polygon::contains);
+    }
+
+    public Set<String> stationsWithin(PolygonSet polygons) {
+        return stationGrid.within(polygons.getMinLat(), polygons.getMinLon(), polygons.getMaxLat(), polygons.getMaxLon(), polygons::contains);
+    }
+
+    /**
+     * @return every indexed event and whether any of its waveforms is active
+     */
+    public Map<Event, Boolean> getEventActivity() {
+        return activity(events);
+    }
+
+    /**
+     * @return every indexed station and whether any of its waveforms is
+     *         active
+     */
+    public Map<Station, Boolean> getStationActivity() {
+        return activity(stations);
+    }
+
+    private void index(Waveform w) {
+        boolean active = Boolean.TRUE.equals(w.isActive());
+        Event event = w.getEvent();
+        if (event != null && event.getEventId() != null) {
+            String eventKey = key(event.getEventId());
+            byEvent.computeIfAbsent(eventKey, k -> new HashSet<>()).add(w.getId());
+            events.computeIfAbsent(event, k -> new Activity()).add(active);
+            eventGrid.add(eventKey, event.getLatitude(), event.getLongitude());
+        }
+        Station station = station(w);
+        if (station != null && station.getStationName() != null) {
+            String stationKey = key(station.getStationName());
+            byStation.computeIfAbsent(stationKey, k -> new HashSet<>()).add(w.getId());
+            stations.computeIfAbsent(station, k -> new Activity()).add(active);
+            stationGrid.add(stationKey, station.getLatitude(), station.getLongitude());
+        }
+        if (w.getLowFrequency() != null && w.getHighFrequency() != null) {
+            byBand.computeIfAbsent(new FrequencyBand(w.getLowFrequency(), w.getHighFrequency()), k -> new HashSet<>()).add(w.getId());
+        }
+    }
+
+    private void unindex(Waveform w) {
+        boolean active = Boolean.TRUE.equals(w.isActive());
+        Event event = w.getEvent();
+        if (event != null && event.getEventId() != null) {
+            String eventKey = key(event.getEventId());
+            removeId(byEvent, eventKey, w.getId());
+            removeActivity(events, event, active);
+            eventGrid.remove(eventKey);
+        }
+        Station station = station(w);
+        if (station != null && station.getStationName() != null) {
+            String stationKey = key(station.getStationName());
+            removeId(byStation, stationKey, w.getId());
+            removeActivity(stations, station, active);
+            stationGrid.remove(stationKey);
+        }
+        if (w.getLowFrequency() != null && w.getHighFrequency() != null) {
+            removeId(byBand, new FrequencyBand(w.getLowFrequency(), w.getHighFrequency()), w.getId());
+        }
+    }
+
+    private static Station station(Waveform w) {
+        return w.getStream() != null ? w.getStream().getStation() : null;
+    }
+
+    private static String key(String name) {
+        return name != null ? name.trim().toUpperCase(Locale.ENGLISH) : null;
+    }
+
+    private static <K> Set<Long> lookup(Map<K, Set<Long>> index, K key) {
+        Set<Long> ids = key != null ? index.get(key) : null;
+        return ids != null ? Collections.unmodifiableSet(new HashSet<>(ids)) : Collections.emptySet();
+    }
+
+    private static Set<Long> intersect(Set<Long> current, Set<Long> other) {
+        if (current == null) {
+            return other;
+        }
+        Set<Long> smaller = current.size() <= other.size() ? current : other;
+        Set<Long> larger = smaller == current ? other : current;
+        Set<Long> result = new HashSet<>();
+        for (Long id : smaller) {
+            if (larger.contains(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static <K> void removeId(Map<K, Set<Long>> index, K key, Long id) {
+        Set<Long> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static <K> void removeActivity(Map<K, Activity> activity, K key, boolean active) {
+        Activity counts = activity.get(key);
+        if (counts != null && counts.remove(active)) {
+            activity.remove(key);
+        }
+    }
+
+    private static <K> Map<K, Boolean> activity(Map<K, Activity> counts) {
+        Map<K, Boolean> activity = new HashMap<>(counts.size());
+        for (Entry<K, Activity> entry : counts.entrySet()) {
+            activity.put(entry.getKey(), entry.getValue().active > 0);
+        }
+        return activity;
+    }
+
+    private static class Activity {
+        private int total;
+        private int active;
+
+        private void add(boolean isActive) {
+            total++;
+            if (isActive) {
+                active++;
+            }
+        }
+
+        /**
+         * @return true once nothing is left
+         */
+        private boolean remove(boolean isActive) {
+            total--;
+            if (isActive) {
+                active--;
+            }
+            return total <= 0;
+        }
+    }
+
+    /**
+     * Reference counted named points bucketed into one degree cells.
+     */
+    private static class LocationGrid {
+        private static final int LAT_CELLS = 180;
+        private static final int LON_CELLS = 360;
+
+        private final Map<String, double[]> locations = new HashMap<>();
+        private final Map<String, Integer> references = new HashMap<>();
+        private final Map<Integer, Set<String>> cells = new HashMap<>();
+
+        private void add(String key, double lat, double lon) {
+            references.merge(key, 1, Integer::sum);
+            double[] location = locations.get(key);
+            if (location == null || location[0] != lat || location[1] != lon) {
+                if (location != null) {
+                    removeFromCell(key, location);
+                }
+                locations.put(key, new double[] { lat, lon });
+                cells.computeIfAbsent(cell(lat, lon), k -> new HashSet<>()).add(key);
+            }
+        }
+
+        private void remove(String key) {
+            Integer count = references.get(key);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                references.put(key, count - 1);
+            } else {
+                references.remove(key);
+                double[] location = locations.remove(key);
+                if (location != null) {
+                    removeFromCell(key, location);
+                }
+            }
+        }
+
+        private void clear() {
+            locations.clear();
+            references.clear();
+            cells.clear();
+        }
+
+        private Set<String> within(double minLat, double minLon, double maxLat, double maxLon, BiPredicate<Double, Double> test) {
+            Set<String> matches = new HashSet<>();
+            if (minLon > maxLon) {
+                // Crosses the antimeridian
+                collect(minLat, minLon, maxLat, 180.0, test, matches);
+                collect(minLat, -180.0, maxLat, maxLon, test, matches);
+            } else {
+                collect(minLat, minLon, maxLat, maxLon, test, matches);
+            }
+            return matches;
+        }
+
+        private void collect(double minLat, double minLon, double maxLat, double maxLon, BiPredicate<Double, Double> test, Set<String> matches) {
+            int minRow = latRow(minLat);
+            int maxRow = latRow(maxLat);
+            int minCol = lonCol(minLon);
+            int maxCol = lonCol(maxLon);
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    Set<String> keys = cells.get(row * LON_CELLS + col);
+                    if (keys != null) {
+                        for (String key : keys) {
+                            double[] location = locations.get(key);
+                            if (location[0] >= minLat && location[0] <= maxLat && location[1] >= minLon && location[1] <= maxLon && test.test(location[0], location[1])) {
+                                matches.add(key);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        private void removeFromCell(String key, double[] location) {
+            Integer cell = cell(location[0], location[1]);
+            Set<String> keys = cells.get(cell);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    cells.remove(cell);
+                }
+            }
+        }
+
+        private static Integer cell(double lat, double lon) {
+            return latRow(lat) * LON_CELLS + lonCol(lon);
+        }
+
+        private static int latRow(double lat) {
+            return Math.max(0, Math.min(LAT_CELLS - 1, (int) Math.floor(lat + 90.0)));
+        }
+
+        private static int lonCol(double lon) {
+            return Math.max(0, Math.min(LON_CELLS - 1, (int) Math.floor(lon + 180.0)));
+        }
+    }
+}
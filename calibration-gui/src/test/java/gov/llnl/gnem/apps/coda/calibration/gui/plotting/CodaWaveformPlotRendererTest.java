@@ -0,0 +1,132 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.gui.plotting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ParameterClient;
+import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.PeakVelocityClient;
+import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.ShapeMeasurementClient;
+import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class CodaWaveformPlotRendererTest {
+
+    @TempDir
+    Path folder;
+
+    private WaveformClient waveformClient;
+    private CodaWaveformPlotRenderer renderer;
+
+    @BeforeEach
+    public void setUp() {
+        waveformClient = mock(WaveformClient.class);
+        ShapeMeasurementClient shapeClient = mock(ShapeMeasurementClient.class);
+        ParameterClient paramsClient = mock(ParameterClient.class);
+        PeakVelocityClient peakVelocityClient = mock(PeakVelocityClient.class);
+
+        when(waveformClient.getSyntheticsFromWaveformIds(anyCollection())).thenReturn(Flux.empty());
+        when(waveformClient.getWaveformsFromIds(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return Flux.fromIterable(ids).map(this::waveform);
+        });
+        when(shapeClient.getMeasuredShape(anyLong())).thenReturn(Mono.empty());
+        when(paramsClient.getSharedFrequencyBandParametersForFrequency(any(FrequencyBand.class))).thenReturn(Mono.empty());
+        when(peakVelocityClient.getNoiseForWaveform(anyLong())).thenReturn(Mono.empty());
+
+        renderer = new CodaWaveformPlotRenderer(waveformClient, shapeClient, paramsClient, peakVelocityClient).setImageSize(400, 200).setPageSize(2);
+    }
+
+    @Test
+    public void testExportWritesOnePngPerWaveform() throws Exception {
+        List<Integer> finished = new ArrayList<>();
+        Integer written = renderer.exportPngs(Arrays.asList(1l, 2l, 3l), folder.toFile(), "_1", (done, total) -> finished.add(done)).get(1, TimeUnit.MINUTES);
+
+        assertEquals(3, written.intValue());
+        assertEquals(Arrays.asList(2, 3), finished);
+
+        List<File> files;
+        try (java.util.stream.Stream<Path> listing = Files.list(folder)) {
+            files = listing.map(Path::toFile).sorted().collect(Collectors.toList());
+        }
+        assertEquals(3, files.size());
+        for (File file : files) {
+            BufferedImage image = ImageIO.read(file);
+            assertNotNull(image, "Expected a readable PNG: " + file);
+            assertEquals(400, image.getWidth());
+            assertEquals(200, image.getHeight());
+            assertTrue(hasDrawing(image), "Expected the plot to be drawn into " + file);
+        }
+    }
+
+    private boolean hasDrawing(BufferedImage image) {
+        for (int x = 0; x < image.getWidth(); x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                if ((image.getRGB(x, y) & 0xFFFFFF) != 0xFFFFFF) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private Waveform waveform(Long id) {
+        double[] segment = new double[600];
+        for (int i = 0; i < segment.length; i++) {
+            segment[i] = 5.0 - Math.log10(i + 1.0);
+        }
+        Date begin = new Date(1_000_000l);
+        return new Waveform().setId(id)
+                             .setLowFrequency(1.0)
+                             .setHighFrequency(2.0)
+                             .setSampleRate(1.0)
+                             .setBeginTime(begin)
+                             .setEndTime(new Date(begin.getTime() + 600_000l))
+                             .setSegment(segment)
+                             .setStream(new Stream().setChannelName(Stream.TYPE_STACK).setStation(new Station().setStationName("STA").setLatitude(35.0).setLongitude(-106.0)))
+                             .setEvent(new Event().setEventId("10" + id).setOriginTime(begin).setLatitude(36.0).setLongitude(-110.0));
+    }
+}
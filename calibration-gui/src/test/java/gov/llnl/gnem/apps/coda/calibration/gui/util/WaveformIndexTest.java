@@ -0,0 +1,120 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.gui.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import llnl.gnem.core.polygon.Polygon;
+import llnl.gnem.core.polygon.PolygonSet;
+import llnl.gnem.core.polygon.PolygonSetType;
+import llnl.gnem.core.polygon.Vertex;
+
+public class WaveformIndexTest {
+
+    private WaveformIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new WaveformIndex();
+        index.addAll(
+                Arrays.asList(
+                        waveform(1l, "EV1", 10.0, 20.0, "ANMO", 34.9, -106.5, 1.0, 2.0, true),
+                        waveform(2l, "EV1", 10.0, 20.0, "ANMO", 34.9, -106.5, 2.0, 3.0, false),
+                        waveform(3l, "EV1", 10.0, 20.0, "CCM", 38.1, -91.2, 1.0, 2.0, false),
+                        waveform(4l, "EV2", -5.0, 179.5, "ANMO", 34.9, -106.5, 1.0, 2.0, false),
+                        waveform(5l, "EV3", -5.5, -179.5, "KIP", 21.4, -158.0, 1.0, 2.0, true)));
+    }
+
+    @Test
+    public void testAttributeLookups() throws Exception {
+        assertEquals(5, index.size());
+        assertEquals(new HashSet<>(Arrays.asList(1l, 2l, 3l)), index.idsForEvent("ev1"));
+        assertEquals(new HashSet<>(Arrays.asList(1l, 2l, 4l)), index.idsForStation("ANMO"));
+        assertEquals(new HashSet<>(Arrays.asList(3l, 5l)), index.idsForStations(Arrays.asList("CCM", "KIP")));
+        assertEquals(new HashSet<>(Arrays.asList(1l, 3l, 4l, 5l)), index.idsForBand(new FrequencyBand(1.0, 2.0)));
+        assertEquals(Collections.singleton(1l), index.idsMatching("EV1", "ANMO", new FrequencyBand(1.0, 2.0)));
+        assertEquals(new HashSet<>(Arrays.asList(1l, 2l)), index.idsMatching("EV1", "ANMO", null));
+        assertTrue(index.idsForEvent("EV9").isEmpty());
+    }
+
+    @Test
+    public void testRemoveAndReplace() throws Exception {
+        index.remove(3l);
+        assertTrue(index.idsForStation("CCM").isEmpty());
+        assertTrue(index.stationsWithin(30.0, -100.0, 40.0, -80.0).isEmpty());
+
+        index.add(waveform(2l, "EV1", 10.0, 20.0, "ANMO", 34.9, -106.5, 2.0, 3.0, true));
+        assertEquals(4, index.size());
+        assertEquals(new HashSet<>(Arrays.asList(1l, 2l)), index.idsForEvent("EV1"));
+        assertTrue(index.get(2l).isActive());
+    }
+
+    @Test
+    public void testBoundingBoxes() throws Exception {
+        assertEquals(Collections.singleton("EV1"), index.eventsWithin(0.0, 0.0, 15.0, 30.0));
+        assertEquals(new HashSet<>(Arrays.asList("EV2", "EV3")), index.eventsWithin(-10.0, 170.0, 0.0, -170.0));
+        assertEquals(Collections.singleton("EV2"), index.eventsWithin(-10.0, 170.0, 0.0, 180.0));
+        assertEquals(new HashSet<>(Arrays.asList("ANMO", "CCM")), index.stationsWithin(30.0, -110.0, 40.0, -90.0));
+        assertTrue(index.stationsWithin(-90.0, 0.0, 90.0, 10.0).isEmpty());
+    }
+
+    @Test
+    public void testPolygons() throws Exception {
+        Polygon square = new Polygon(1, "square", new Vertex[] { new Vertex(30.0, -110.0), new Vertex(40.0, -110.0), new Vertex(40.0, -100.0), new Vertex(30.0, -100.0), new Vertex(30.0, -110.0) });
+        assertEquals(Collections.singleton("ANMO"), index.stationsWithin(square));
+
+        Polygon pacific = new Polygon(2, "pacific", new Vertex[] { new Vertex(15.0, -165.0), new Vertex(25.0, -165.0), new Vertex(25.0, -150.0), new Vertex(15.0, -150.0), new Vertex(15.0, -165.0) });
+        PolygonSet set = new PolygonSet(PolygonSetType.network, "set", 1, Arrays.asList(square, pacific));
+        assertEquals(new HashSet<>(Arrays.asList("ANMO", "KIP")), index.stationsWithin(set));
+        assertTrue(index.eventsWithin(set).isEmpty());
+    }
+
+    @Test
+    public void testActivity() throws Exception {
+        Map<Event, Boolean> events = index.getEventActivity();
+        assertEquals(3, events.size());
+        assertTrue(events.get(new Event().setEventId("EV1").setLatitude(10.0).setLongitude(20.0)));
+        assertFalse(events.get(new Event().setEventId("EV2").setLatitude(-5.0).setLongitude(179.5)));
+
+        Map<Station, Boolean> stations = index.getStationActivity();
+        assertEquals(3, stations.size());
+        assertTrue(stations.get(new Station().setStationName("ANMO").setLatitude(34.9).setLongitude(-106.5)));
+        assertFalse(stations.get(new Station().setStationName("CCM").setLatitude(38.1).setLongitude(-91.2)));
+
+        index.remove(1l);
+        assertFalse(index.getEventActivity().get(new Event().setEventId("EV1").setLatitude(10.0).setLongitude(20.0)));
+    }
+
+    private Waveform waveform(Long id, String eventId, double evLat, double evLon, String stationName, double staLat, double staLon, double low, double high, boolean active) {
+        Event event = new Event().setEventId(eventId).setLatitude(evLat).setLongitude(evLon);
+        Station station = new Station().setStationName(stationName).setLatitude(staLat).setLongitude(staLon);
+        return new Waveform().setId(id).setEvent(event).setStream(new Stream().setStation(station)).setLowFrequency(low).setHighFrequency(high).setActive(active);
+    }
+}
@@ -23,12 +23,14 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 import gov.llnl.gnem.apps.coda.common.repository.DetachableJpaRepoImpl;
 
 @SpringBootApplication
 @EnableAutoConfiguration
+@Lazy(false)
 @ComponentScan("gov.llnl.gnem.apps.coda.common.application")
 @ComponentScan("gov.llnl.gnem.apps.coda.common.service")
 @ComponentScan("gov.llnl.gnem.apps.coda.calibration")
@@ -20,9 +20,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import gov.llnl.gnem.apps.coda.calibration.service.api.CalibrationService;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 
 @RestController
 @RequestMapping(value = "/api/v1/calibration", name = "CalibrationJsonController", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -36,11 +38,15 @@ public class CalibrationJsonController {
     }
 
     @GetMapping(value = "/start/{autoPickingEnabled}", name = "runCalibration")
-    public ResponseEntity<?> runCalibration(@PathVariable(name = "autoPickingEnabled", required = false) Boolean autoPickingEnabled) {
+    public ResponseEntity<?> runCalibration(@PathVariable(name = "autoPickingEnabled", required = false) Boolean autoPickingEnabled,
+            @RequestParam(name = "projectId", required = false) Long projectId) {
         if (autoPickingEnabled == null) {
             autoPickingEnabled = Boolean.FALSE;
         }
-        if (getService().startCalibration(autoPickingEnabled)) {
+        if (projectId == null) {
+            projectId = Project.DEFAULT_PROJECT_ID;
+        }
+        if (getService().startCalibration(projectId, autoPickingEnabled)) {
             return ResponseEntity.ok().build();
         } else {
             return ResponseEntity.badRequest().build();
@@ -15,6 +15,7 @@
 package gov.llnl.gnem.apps.coda.calibration.application.web;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
@@ -23,11 +24,14 @@ import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEven
 import gov.llnl.gnem.apps.coda.calibration.model.messaging.MdacDataChangeEvent;
 import gov.llnl.gnem.apps.coda.calibration.model.messaging.MeasurementStatusEvent;
 import gov.llnl.gnem.apps.coda.common.application.web.TypingMessageTemplate;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.StageProgressEvent;
 import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
 import gov.llnl.gnem.apps.coda.common.service.api.Listener;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
 
 @Controller
+@Lazy(false)
 public class CalibrationNotificationStompController {
 
     @Autowired
@@ -39,6 +43,8 @@ public class CalibrationNotificationStompController {
         registerCalEvent(notificationService, typingTemplate, MdacDataChangeEvent.class);
         registerCalEvent(notificationService, typingTemplate, BandParametersDataChangeEvent.class);
         registerCalEvent(notificationService, typingTemplate, WaveformChangeEvent.class);
+        registerCalEvent(notificationService, typingTemplate, ProgressEvent.class);
+        registerCalEvent(notificationService, typingTemplate, StageProgressEvent.class);
     }
 
     private <T> void registerCalEvent(final NotificationService notificationService, final TypingMessageTemplate typingTemplate, Class<T> clazz) {
@@ -0,0 +1,100 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.application.web;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ProjectImportStatus;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectImportService;
+
+@RestController
+@RequestMapping(value = "/api/v1/project-import", name = "ProjectImportJsonController", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ProjectImportJsonController {
+
+    private ProjectImportService service;
+
+    private Path importRoot;
+
+    @Autowired
+    public ProjectImportJsonController(ProjectImportService service, @Value("${importRoot:.}") String importRoot) {
+        this.service = service;
+        this.importRoot = Paths.get(importRoot).toAbsolutePath().normalize();
+    }
+
+    /**
+     * @param path
+     *            a directory or zip archive inside {@code importRoot}; relative
+     *            paths are resolved against it
+     */
+    @PostMapping(value = "/start", name = "startImport")
+    public ResponseEntity<?> startImport(@RequestParam(name = "path") String path) {
+        try {
+            Path source = importRoot.resolve(path).normalize();
+            if (!isInsideImportRoot(source)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Imports are limited to " + importRoot);
+            }
+            return ResponseEntity.ok(getService().importProject(source));
+        } catch (InvalidPathException | IOException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private boolean isInsideImportRoot(Path source) throws IOException {
+        if (!source.startsWith(importRoot)) {
+            return false;
+        }
+        // Links inside the root must not lead back out of it
+        return !Files.exists(source) || !Files.exists(importRoot) || source.toRealPath().startsWith(importRoot.toRealPath());
+    }
+
+    @GetMapping(value = "/{id}", name = "getImportStatus")
+    public ResponseEntity<?> getStatus(@PathVariable(name = "id") Long id) {
+        ProjectImportStatus status = getService().getStatus(id);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping(name = "getImportStatuses")
+    public List<ProjectImportStatus> getStatuses() {
+        return getService().getStatuses();
+    }
+
+    public ProjectImportService getService() {
+        return service;
+    }
+
+    public void setService(ProjectImportService service) {
+        this.service = service;
+    }
+}
@@ -22,15 +22,19 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SpectraMeasurementService;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
 
 @RestController
@@ -56,6 +60,15 @@ public class SpectraMeasurementJsonController {
         return service.findAllMetadataOnly().stream().map(md -> new SpectraMeasurement(md)).collect(Collectors.toList());
     }
 
+    @GetMapping(name = "getMeasurementsMetadataForStations", path = "/metadata/band/{lowFrequency}/{highFrequency}")
+    public List<SpectraMeasurement> getMeasurementsMetadataForStations(@PathVariable("lowFrequency") Double lowFrequency, @PathVariable("highFrequency") Double highFrequency,
+            @RequestParam(name = "stations") List<String> stationNames, @RequestParam(name = "projectId", required = false) Long projectId) {
+        return service.findAllMetadataOnly(projectId != null ? projectId : Project.DEFAULT_PROJECT_ID, new FrequencyBand(lowFrequency, highFrequency), stationNames)
+                      .stream()
+                      .map(md -> new SpectraMeasurement(md))
+                      .collect(Collectors.toList());
+    }
+
     @PostMapping(value = "/reference-spectra", name = "computeSpectraForEventId")
     public ResponseEntity<?> computeSpectraForEventId(@RequestBody String eventId, BindingResult result) {
         //FIXME: Accept a phase to use!
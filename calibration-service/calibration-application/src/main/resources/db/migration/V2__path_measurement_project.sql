@@ -0,0 +1,3 @@
+ALTER TABLE path_measurements ADD COLUMN IF NOT EXISTS project_id BIGINT;
+UPDATE path_measurements SET project_id = 0 WHERE project_id IS NULL;
+CREATE INDEX IF NOT EXISTS path_project_id_index ON path_measurements (project_id);
@@ -0,0 +1,111 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.Objects;
+
+/**
+ * Before and after path correction spread of the station-pair amplitude
+ * differences whose station separation falls in [minDistance, maxDistance).
+ */
+public class DistanceBinStatistics {
+
+    private double minDistance;
+    private double maxDistance;
+    private long count;
+    private double beforeStandardDeviation;
+    private double afterStandardDeviation;
+
+    public double getMinDistance() {
+        return minDistance;
+    }
+
+    public DistanceBinStatistics setMinDistance(double minDistance) {
+        this.minDistance = minDistance;
+        return this;
+    }
+
+    public double getMaxDistance() {
+        return maxDistance;
+    }
+
+    public DistanceBinStatistics setMaxDistance(double maxDistance) {
+        this.maxDistance = maxDistance;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public DistanceBinStatistics setCount(long count) {
+        this.count = count;
+        return this;
+    }
+
+    public double getBeforeStandardDeviation() {
+        return beforeStandardDeviation;
+    }
+
+    public DistanceBinStatistics setBeforeStandardDeviation(double beforeStandardDeviation) {
+        this.beforeStandardDeviation = beforeStandardDeviation;
+        return this;
+    }
+
+    public double getAfterStandardDeviation() {
+        return afterStandardDeviation;
+    }
+
+    public DistanceBinStatistics setAfterStandardDeviation(double afterStandardDeviation) {
+        this.afterStandardDeviation = afterStandardDeviation;
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(afterStandardDeviation, beforeStandardDeviation, count, maxDistance, minDistance);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DistanceBinStatistics)) {
+            return false;
+        }
+        DistanceBinStatistics other = (DistanceBinStatistics) obj;
+        return Double.doubleToLongBits(afterStandardDeviation) == Double.doubleToLongBits(other.afterStandardDeviation)
+                && Double.doubleToLongBits(beforeStandardDeviation) == Double.doubleToLongBits(other.beforeStandardDeviation)
+                && count == other.count
+                && Double.doubleToLongBits(maxDistance) == Double.doubleToLongBits(other.maxDistance)
+                && Double.doubleToLongBits(minDistance) == Double.doubleToLongBits(other.minDistance);
+    }
+
+    @Override
+    public String toString() {
+        return "DistanceBinStatistics [minDistance="
+                + minDistance
+                + ", maxDistance="
+                + maxDistance
+                + ", count="
+                + count
+                + ", beforeStandardDeviation="
+                + beforeStandardDeviation
+                + ", afterStandardDeviation="
+                + afterStandardDeviation
+                + "]";
+    }
+}
@@ -28,8 +28,10 @@ import javax.persistence.Version;
 
 import org.springframework.format.annotation.NumberFormat;
 
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
+
 @Entity
-@Table(name = "Measured_Mws", indexes = { @Index(columnList = "eventId", name = "event_id_index") })
+@Table(name = "Measured_Mws", indexes = { @Index(columnList = "eventId", name = "event_id_index"), @Index(columnList = "projectId", name = "mw_project_id_index") })
 public class MeasuredMwParameters implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -42,6 +44,9 @@ public class MeasuredMwParameters implements Serializable {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @Column(name = "eventId")
     private String eventId;
 
@@ -137,6 +142,15 @@ public class MeasuredMwParameters implements Serializable {
         return version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public MeasuredMwParameters setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public String getEventId() {
         return eventId;
     }
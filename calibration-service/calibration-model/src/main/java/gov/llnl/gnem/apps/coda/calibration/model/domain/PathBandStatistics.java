@@ -0,0 +1,133 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+public class PathBandStatistics {
+
+    private FrequencyBand frequencyBand;
+    private double overallBeforeStandardDeviation;
+    private double overallAfterStandardDeviation;
+    private List<StationPairStatistics> stationPairs = new ArrayList<>();
+    private List<DistanceBinStatistics> distanceBins = new ArrayList<>();
+    private List<Station> stations = new ArrayList<>();
+
+    public FrequencyBand getFrequencyBand() {
+        return frequencyBand;
+    }
+
+    public PathBandStatistics setFrequencyBand(FrequencyBand frequencyBand) {
+        this.frequencyBand = frequencyBand;
+        return this;
+    }
+
+    public double getOverallBeforeStandardDeviation() {
+        return overallBeforeStandardDeviation;
+    }
+
+    public PathBandStatistics setOverallBeforeStandardDeviation(double overallBeforeStandardDeviation) {
+        this.overallBeforeStandardDeviation = overallBeforeStandardDeviation;
+        return this;
+    }
+
+    public double getOverallAfterStandardDeviation() {
+        return overallAfterStandardDeviation;
+    }
+
+    public PathBandStatistics setOverallAfterStandardDeviation(double overallAfterStandardDeviation) {
+        this.overallAfterStandardDeviation = overallAfterStandardDeviation;
+        return this;
+    }
+
+    public List<StationPairStatistics> getStationPairs() {
+        return stationPairs;
+    }
+
+    public PathBandStatistics setStationPairs(List<StationPairStatistics> stationPairs) {
+        this.stationPairs = stationPairs;
+        return this;
+    }
+
+    /**
+     * @return the station-pair spread grouped into station separation bins,
+     *         ordered by distance
+     */
+    public List<DistanceBinStatistics> getDistanceBins() {
+        return distanceBins;
+    }
+
+    public PathBandStatistics setDistanceBins(List<DistanceBinStatistics> distanceBins) {
+        this.distanceBins = distanceBins;
+        return this;
+    }
+
+    /**
+     * @return every station with a measurement in this band, whether or not
+     *         it shares an event with another station
+     */
+    public List<Station> getStations() {
+        return stations;
+    }
+
+    public PathBandStatistics setStations(List<Station> stations) {
+        this.stations = stations;
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(distanceBins, frequencyBand, overallAfterStandardDeviation, overallBeforeStandardDeviation, stationPairs, stations);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PathBandStatistics)) {
+            return false;
+        }
+        PathBandStatistics other = (PathBandStatistics) obj;
+        return Objects.equals(distanceBins, other.distanceBins)
+                && Objects.equals(frequencyBand, other.frequencyBand)
+                && Double.doubleToLongBits(overallAfterStandardDeviation) == Double.doubleToLongBits(other.overallAfterStandardDeviation)
+                && Double.doubleToLongBits(overallBeforeStandardDeviation) == Double.doubleToLongBits(other.overallBeforeStandardDeviation)
+                && Objects.equals(stationPairs, other.stationPairs)
+                && Objects.equals(stations, other.stations);
+    }
+
+    @Override
+    public String toString() {
+        return "PathBandStatistics [frequencyBand="
+                + frequencyBand
+                + ", overallBeforeStandardDeviation="
+                + overallBeforeStandardDeviation
+                + ", overallAfterStandardDeviation="
+                + overallAfterStandardDeviation
+                + ", stationPairs="
+                + (stationPairs != null ? stationPairs.size() : 0)
+                + ", distanceBins="
+                + (distanceBins != null ? distanceBins.size() : 0)
+                + ", stations="
+                + (stations != null ? stations.size() : 0)
+                + "]";
+    }
+}
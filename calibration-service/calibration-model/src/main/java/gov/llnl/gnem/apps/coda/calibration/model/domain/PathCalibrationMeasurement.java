@@ -22,15 +22,17 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.persistence.Version;
 
 import org.springframework.format.annotation.NumberFormat;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 
 @Entity
-@Table(name = "Path_Measurements")
+@Table(name = "Path_Measurements", indexes = { @Index(columnList = "projectId", name = "path_project_id_index") })
 public class PathCalibrationMeasurement implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -43,12 +45,17 @@ public class PathCalibrationMeasurement implements Serializable {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @NumberFormat
     private Double initialResidual;
 
     @NumberFormat
     private Double finalResidual;
 
+    private Long evaluations;
+
     @Embedded
     private FrequencyBand frequencyBand;
 
@@ -65,6 +72,15 @@ public class PathCalibrationMeasurement implements Serializable {
         return version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public PathCalibrationMeasurement setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public Double getInitialResidual() {
         return initialResidual;
     }
@@ -83,6 +99,19 @@ public class PathCalibrationMeasurement implements Serializable {
         return this;
     }
 
+    /**
+     * @return number of cost function evaluations the path inversion used
+     *         for this band
+     */
+    public Long getEvaluations() {
+        return evaluations;
+    }
+
+    public PathCalibrationMeasurement setEvaluations(Long evaluations) {
+        this.evaluations = evaluations;
+        return this;
+    }
+
     public FrequencyBand getFrequencyBand() {
         return frequencyBand;
     }
@@ -96,10 +125,12 @@ public class PathCalibrationMeasurement implements Serializable {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
+        result = prime * result + ((evaluations == null) ? 0 : evaluations.hashCode());
         result = prime * result + ((finalResidual == null) ? 0 : finalResidual.hashCode());
         result = prime * result + ((frequencyBand == null) ? 0 : frequencyBand.hashCode());
         result = prime * result + ((id == null) ? 0 : id.hashCode());
         result = prime * result + ((initialResidual == null) ? 0 : initialResidual.hashCode());
+        result = prime * result + ((projectId == null) ? 0 : projectId.hashCode());
         result = prime * result + ((version == null) ? 0 : version.hashCode());
         return result;
     }
@@ -116,6 +147,13 @@ public class PathCalibrationMeasurement implements Serializable {
             return false;
         }
         PathCalibrationMeasurement other = (PathCalibrationMeasurement) obj;
+        if (evaluations == null) {
+            if (other.evaluations != null) {
+                return false;
+            }
+        } else if (!evaluations.equals(other.evaluations)) {
+            return false;
+        }
         if (finalResidual == null) {
             if (other.finalResidual != null) {
                 return false;
@@ -144,6 +182,13 @@ public class PathCalibrationMeasurement implements Serializable {
         } else if (!initialResidual.equals(other.initialResidual)) {
             return false;
         }
+        if (projectId == null) {
+            if (other.projectId != null) {
+                return false;
+            }
+        } else if (!projectId.equals(other.projectId)) {
+            return false;
+        }
         if (version == null) {
             if (other.version != null) {
                 return false;
@@ -156,7 +201,7 @@ public class PathCalibrationMeasurement implements Serializable {
 
     @Override
     public String toString() {
-        return "PathCalibrationMeasurement [id=" + id + ", version=" + version + ", initialResidual=" + initialResidual + ", finalResidual=" + finalResidual + ", frequencyBand=" + frequencyBand + "]";
+        return "PathCalibrationMeasurement [id=" + id + ", version=" + version + ", projectId=" + projectId + ", initialResidual=" + initialResidual + ", finalResidual=" + finalResidual + ", evaluations=" + evaluations + ", frequencyBand=" + frequencyBand + "]";
     }
 
 }
@@ -0,0 +1,188 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.Date;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformMetadata;
+
+public class PeakVelocityMeasurementMetadataImpl implements PeakVelocityMeasurementMetadata {
+    private Long id;
+    private Integer version = 0;
+    private WaveformMetadata waveform;
+    private double timeSecFromOrigin;
+    private double snr;
+    private double velocity;
+    private double amplitude;
+    private double distance;
+    private double noiseStartSecondsFromOrigin;
+    private double noiseEndSecondsFromOrigin;
+    private double noiseLevel;
+
+    public PeakVelocityMeasurementMetadataImpl() {
+        super();
+    }
+
+    /**
+     * Projection constructor for repository queries that select only the
+     * measurement and waveform metadata columns.
+     */
+    public PeakVelocityMeasurementMetadataImpl(Long id, Integer version, double timeSecFromOrigin, double snr, double velocity, double amplitude, double distance,
+            double noiseStartSecondsFromOrigin, double noiseEndSecondsFromOrigin, double noiseLevel, Long waveformId, Integer waveformVersion, Event event, Stream stream, Date beginTime,
+            Date endTime, String segmentType, String segmentUnits, Double lowFrequency, Double highFrequency, Double sampleRate, Boolean active) {
+        this.id = id;
+        this.version = version;
+        this.timeSecFromOrigin = timeSecFromOrigin;
+        this.snr = snr;
+        this.velocity = velocity;
+        this.amplitude = amplitude;
+        this.distance = distance;
+        this.noiseStartSecondsFromOrigin = noiseStartSecondsFromOrigin;
+        this.noiseEndSecondsFromOrigin = noiseEndSecondsFromOrigin;
+        this.noiseLevel = noiseLevel;
+        this.waveform = new WaveformMetadataImpl(waveformId, waveformVersion, event, stream, beginTime, endTime, segmentType, segmentUnits, lowFrequency, highFrequency, sampleRate, active);
+    }
+
+    public PeakVelocityMeasurementMetadataImpl(PeakVelocityMeasurement meas) {
+        this.id = meas.getId();
+        this.version = meas.getVersion();
+        this.waveform = new WaveformMetadataImpl(meas.getWaveform());
+        this.timeSecFromOrigin = meas.getTimeSecFromOrigin();
+        this.snr = meas.getSnr();
+        this.velocity = meas.getVelocity();
+        this.amplitude = meas.getAmplitude();
+        this.distance = meas.getDistance();
+        this.noiseStartSecondsFromOrigin = meas.getNoiseStartSecondsFromOrigin();
+        this.noiseEndSecondsFromOrigin = meas.getNoiseEndSecondsFromOrigin();
+        this.noiseLevel = meas.getNoiseLevel();
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Integer getVersion() {
+        return version;
+    }
+
+    @Override
+    public WaveformMetadata getWaveform() {
+        return waveform;
+    }
+
+    @Override
+    public double getTime() {
+        return timeSecFromOrigin;
+    }
+
+    @Override
+    public double getTimeSecFromOrigin() {
+        return timeSecFromOrigin;
+    }
+
+    @Override
+    public double getSnr() {
+        return snr;
+    }
+
+    @Override
+    public double getVelocity() {
+        return velocity;
+    }
+
+    @Override
+    public double getAmplitude() {
+        return amplitude;
+    }
+
+    @Override
+    public double getDistance() {
+        return distance;
+    }
+
+    @Override
+    public double getNoiseStartSecondsFromOrigin() {
+        return noiseStartSecondsFromOrigin;
+    }
+
+    @Override
+    public double getNoiseEndSecondsFromOrigin() {
+        return noiseEndSecondsFromOrigin;
+    }
+
+    @Override
+    public double getNoiseLevel() {
+        return noiseLevel;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setId(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setVersion(Integer version) {
+        this.version = version;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setWaveform(WaveformMetadata waveform) {
+        this.waveform = waveform;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setTimeSecFromOrigin(double timeSecFromOrigin) {
+        this.timeSecFromOrigin = timeSecFromOrigin;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setSnr(double snr) {
+        this.snr = snr;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setVelocity(double velocity) {
+        this.velocity = velocity;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setAmplitude(double amplitude) {
+        this.amplitude = amplitude;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setDistance(double distance) {
+        this.distance = distance;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setNoiseStartSecondsFromOrigin(double noiseStartSecondsFromOrigin) {
+        this.noiseStartSecondsFromOrigin = noiseStartSecondsFromOrigin;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setNoiseEndSecondsFromOrigin(double noiseEndSecondsFromOrigin) {
+        this.noiseEndSecondsFromOrigin = noiseEndSecondsFromOrigin;
+        return this;
+    }
+
+    public PeakVelocityMeasurementMetadataImpl setNoiseLevel(double noiseLevel) {
+        this.noiseLevel = noiseLevel;
+        return this;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class ProjectImportStatus {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETE, ERROR
+    }
+
+    private Long id;
+    private String source;
+    private State state = State.QUEUED;
+    private long totalFiles;
+    private long processedFiles;
+    private long failedFiles;
+    private long resumedFrom;
+    private List<String> errors = new ArrayList<>();
+
+    public ProjectImportStatus() {
+    }
+
+    public ProjectImportStatus(ProjectImportStatus other) {
+        this.id = other.id;
+        this.source = other.source;
+        this.state = other.state;
+        this.totalFiles = other.totalFiles;
+        this.processedFiles = other.processedFiles;
+        this.failedFiles = other.failedFiles;
+        this.resumedFrom = other.resumedFrom;
+        this.errors = new ArrayList<>(other.errors);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public ProjectImportStatus setId(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public ProjectImportStatus setSource(String source) {
+        this.source = source;
+        return this;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public ProjectImportStatus setState(State state) {
+        this.state = state;
+        return this;
+    }
+
+    public long getTotalFiles() {
+        return totalFiles;
+    }
+
+    public ProjectImportStatus setTotalFiles(long totalFiles) {
+        this.totalFiles = totalFiles;
+        return this;
+    }
+
+    public long getProcessedFiles() {
+        return processedFiles;
+    }
+
+    public ProjectImportStatus setProcessedFiles(long processedFiles) {
+        this.processedFiles = processedFiles;
+        return this;
+    }
+
+    public long getFailedFiles() {
+        return failedFiles;
+    }
+
+    public ProjectImportStatus setFailedFiles(long failedFiles) {
+        this.failedFiles = failedFiles;
+        return this;
+    }
+
+    /**
+     * @return number of files that were skipped because a previous, interrupted
+     *         import of the same source had already committed them
+     */
+    public long getResumedFrom() {
+        return resumedFrom;
+    }
+
+    public ProjectImportStatus setResumedFrom(long resumedFrom) {
+        this.resumedFrom = resumedFrom;
+        return this;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public ProjectImportStatus setErrors(List<String> errors) {
+        this.errors = errors;
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, source, state, totalFiles, processedFiles, failedFiles, resumedFrom, errors);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ProjectImportStatus)) {
+            return false;
+        }
+        ProjectImportStatus other = (ProjectImportStatus) obj;
+        return Objects.equals(id, other.id)
+                && Objects.equals(source, other.source)
+                && state == other.state
+                && totalFiles == other.totalFiles
+                && processedFiles == other.processedFiles
+                && failedFiles == other.failedFiles
+                && resumedFrom == other.resumedFrom
+                && Objects.equals(errors, other.errors);
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectImportStatus [id="
+                + id
+                + ", source="
+                + source
+                + ", state="
+                + state
+                + ", totalFiles="
+                + totalFiles
+                + ", processedFiles="
+                + processedFiles
+                + ", failedFiles="
+                + failedFiles
+                + ", resumedFrom="
+                + resumedFrom
+                + "]";
+    }
+}
@@ -22,6 +22,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
@@ -32,10 +33,11 @@ import javax.persistence.Version;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.format.annotation.NumberFormat;
 
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 
 @Entity
-@Table(name = "Shape_Measurements")
+@Table(name = "Shape_Measurements", indexes = { @Index(columnList = "projectId", name = "shape_project_id_index") })
 public class ShapeMeasurement implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -48,6 +50,9 @@ public class ShapeMeasurement implements Serializable {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @OneToOne(optional = false)
     @JoinColumn(unique = true)
     private Waveform waveform;
@@ -117,6 +122,15 @@ public class ShapeMeasurement implements Serializable {
         return version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public ShapeMeasurement setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public Waveform getWaveform() {
         return waveform;
     }
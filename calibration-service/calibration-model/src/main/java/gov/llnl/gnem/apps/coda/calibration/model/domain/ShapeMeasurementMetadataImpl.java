@@ -0,0 +1,209 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.Date;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformMetadata;
+
+public class ShapeMeasurementMetadataImpl implements ShapeMeasurementMetadata {
+    private Long id;
+    private Integer version = 0;
+    private WaveformMetadata waveform;
+    private double v0;
+    private double v1;
+    private double v2;
+    private double measuredBeta;
+    private double measuredGamma;
+    private double measuredIntercept;
+    private double measuredError;
+    private Date measuredTime;
+    private double distance;
+    private double timeDifference;
+
+    public ShapeMeasurementMetadataImpl() {
+        super();
+    }
+
+    /**
+     * Projection constructor for repository queries that select only the
+     * measurement and waveform metadata columns.
+     */
+    public ShapeMeasurementMetadataImpl(Long id, Integer version, double v0, double v1, double v2, double measuredBeta, double measuredGamma, double measuredIntercept, double measuredError,
+            Date measuredTime, double distance, double timeDifference, Long waveformId, Integer waveformVersion, Event event, Stream stream, Date beginTime, Date endTime,
+            String segmentType, String segmentUnits, Double lowFrequency, Double highFrequency, Double sampleRate, Boolean active) {
+        this.id = id;
+        this.version = version;
+        this.v0 = v0;
+        this.v1 = v1;
+        this.v2 = v2;
+        this.measuredBeta = measuredBeta;
+        this.measuredGamma = measuredGamma;
+        this.measuredIntercept = measuredIntercept;
+        this.measuredError = measuredError;
+        this.measuredTime = measuredTime;
+        this.distance = distance;
+        this.timeDifference = timeDifference;
+        this.waveform = new WaveformMetadataImpl(waveformId, waveformVersion, event, stream, beginTime, endTime, segmentType, segmentUnits, lowFrequency, highFrequency, sampleRate, active);
+    }
+
+    public ShapeMeasurementMetadataImpl(ShapeMeasurement meas) {
+        this.id = meas.getId();
+        this.version = meas.getVersion();
+        this.waveform = new WaveformMetadataImpl(meas.getWaveform());
+        this.v0 = meas.getV0();
+        this.v1 = meas.getV1();
+        this.v2 = meas.getV2();
+        this.measuredBeta = meas.getMeasuredBeta();
+        this.measuredGamma = meas.getMeasuredGamma();
+        this.measuredIntercept = meas.getMeasuredIntercept();
+        this.measuredError = meas.getMeasuredError();
+        this.measuredTime = meas.getMeasuredTime();
+        this.distance = meas.getDistance();
+        this.timeDifference = meas.getTimeDifference();
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Integer getVersion() {
+        return version;
+    }
+
+    @Override
+    public WaveformMetadata getWaveform() {
+        return waveform;
+    }
+
+    @Override
+    public double getV0() {
+        return v0;
+    }
+
+    @Override
+    public double getV1() {
+        return v1;
+    }
+
+    @Override
+    public double getV2() {
+        return v2;
+    }
+
+    @Override
+    public double getMeasuredBeta() {
+        return measuredBeta;
+    }
+
+    @Override
+    public double getMeasuredGamma() {
+        return measuredGamma;
+    }
+
+    @Override
+    public double getMeasuredIntercept() {
+        return measuredIntercept;
+    }
+
+    @Override
+    public double getMeasuredError() {
+        return measuredError;
+    }
+
+    @Override
+    public Date getMeasuredTime() {
+        return measuredTime;
+    }
+
+    @Override
+    public double getDistance() {
+        return distance;
+    }
+
+    @Override
+    public double getTimeDifference() {
+        return timeDifference;
+    }
+
+    public ShapeMeasurementMetadataImpl setId(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setVersion(Integer version) {
+        this.version = version;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setWaveform(WaveformMetadata waveform) {
+        this.waveform = waveform;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setV0(double v0) {
+        this.v0 = v0;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setV1(double v1) {
+        this.v1 = v1;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setV2(double v2) {
+        this.v2 = v2;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setMeasuredBeta(double measuredBeta) {
+        this.measuredBeta = measuredBeta;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setMeasuredGamma(double measuredGamma) {
+        this.measuredGamma = measuredGamma;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setMeasuredIntercept(double measuredIntercept) {
+        this.measuredIntercept = measuredIntercept;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setMeasuredError(double measuredError) {
+        this.measuredError = measuredError;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setMeasuredTime(Date measuredTime) {
+        this.measuredTime = measuredTime;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setDistance(double distance) {
+        this.distance = distance;
+        return this;
+    }
+
+    public ShapeMeasurementMetadataImpl setTimeDifference(double timeDifference) {
+        this.timeDifference = timeDifference;
+        return this;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.Objects;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+
+public class SiteBandStatistics {
+
+    private String eventId;
+    private FrequencyBand frequencyBand;
+    private long count;
+    private double standardDeviation;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public SiteBandStatistics setEventId(String eventId) {
+        this.eventId = eventId;
+        return this;
+    }
+
+    public FrequencyBand getFrequencyBand() {
+        return frequencyBand;
+    }
+
+    public SiteBandStatistics setFrequencyBand(FrequencyBand frequencyBand) {
+        this.frequencyBand = frequencyBand;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public SiteBandStatistics setCount(long count) {
+        this.count = count;
+        return this;
+    }
+
+    public double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    public SiteBandStatistics setStandardDeviation(double standardDeviation) {
+        this.standardDeviation = standardDeviation;
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, eventId, frequencyBand, standardDeviation);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SiteBandStatistics)) {
+            return false;
+        }
+        SiteBandStatistics other = (SiteBandStatistics) obj;
+        return count == other.count
+                && Objects.equals(eventId, other.eventId)
+                && Objects.equals(frequencyBand, other.frequencyBand)
+                && Double.doubleToLongBits(standardDeviation) == Double.doubleToLongBits(other.standardDeviation);
+    }
+
+    @Override
+    public String toString() {
+        return "SiteBandStatistics [eventId=" + eventId + ", frequencyBand=" + frequencyBand + ", count=" + count + ", standardDeviation=" + standardDeviation + "]";
+    }
+}
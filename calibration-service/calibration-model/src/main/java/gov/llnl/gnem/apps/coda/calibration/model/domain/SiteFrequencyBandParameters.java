@@ -20,15 +20,17 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.persistence.Version;
 
 import org.springframework.format.annotation.NumberFormat;
 
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 
 @Entity
-@Table(name = "Site_FB_Params")
+@Table(name = "Site_FB_Params", indexes = { @Index(columnList = "projectId", name = "site_fb_project_id_index") })
 public class SiteFrequencyBandParameters {
 
     @Id
@@ -39,6 +41,9 @@ public class SiteFrequencyBandParameters {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @NumberFormat
     private double lowFrequency;
 
@@ -63,6 +68,15 @@ public class SiteFrequencyBandParameters {
         return this.version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public SiteFrequencyBandParameters setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public double getLowFrequency() {
         return this.lowFrequency;
     }
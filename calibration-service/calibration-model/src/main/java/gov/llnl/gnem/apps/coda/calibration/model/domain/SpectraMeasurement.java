@@ -21,6 +21,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
@@ -28,10 +29,11 @@ import javax.persistence.Version;
 
 import org.springframework.format.annotation.NumberFormat;
 
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 
 @Entity
-@Table(name = "Spectra_Measurements")
+@Table(name = "Spectra_Measurements", indexes = { @Index(columnList = "projectId", name = "spectra_project_id_index") })
 public class SpectraMeasurement implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -44,6 +46,9 @@ public class SpectraMeasurement implements Serializable {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @OneToOne(optional = false)
     @JoinColumn(unique = true)
     private Waveform waveform;
@@ -90,6 +95,15 @@ public class SpectraMeasurement implements Serializable {
         return version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public SpectraMeasurement setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public Waveform getWaveform() {
         return waveform;
     }
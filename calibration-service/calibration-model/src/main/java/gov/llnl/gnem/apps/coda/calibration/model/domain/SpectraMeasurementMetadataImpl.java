@@ -14,6 +14,10 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.model.domain;
 
+import java.util.Date;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
 import gov.llnl.gnem.apps.coda.common.model.domain.WaveformMetadata;
 
 public class SpectraMeasurementMetadataImpl implements SpectraMeasurementMetadata {
@@ -32,6 +36,26 @@ public class SpectraMeasurementMetadataImpl implements SpectraMeasurementMetadat
         super();
     }
 
+    /**
+     * Projection constructor for repository queries that select only the
+     * measurement columns and the waveform metadata columns, so the envelope
+     * segment and picks are never loaded.
+     */
+    public SpectraMeasurementMetadataImpl(Long id, Integer version, double rawAtStart, double rawAtMeasurementTime, double pathCorrected, double pathAndSiteCorrected, double startCutSec,
+            double endCutSec, double rmsFit, Long waveformId, Integer waveformVersion, Event event, Stream stream, Date beginTime, Date endTime, String segmentType, String segmentUnits,
+            Double lowFrequency, Double highFrequency, Double sampleRate, Boolean active) {
+        this.id = id;
+        this.version = version;
+        this.rawAtStart = rawAtStart;
+        this.rawAtMeasurementTime = rawAtMeasurementTime;
+        this.pathCorrected = pathCorrected;
+        this.pathAndSiteCorrected = pathAndSiteCorrected;
+        this.startCutSec = startCutSec;
+        this.endCutSec = endCutSec;
+        this.rmsFit = rmsFit;
+        this.waveform = new WaveformMetadataImpl(waveformId, waveformVersion, event, stream, beginTime, endTime, segmentType, segmentUnits, lowFrequency, highFrequency, sampleRate, active);
+    }
+
     public SpectraMeasurementMetadataImpl(SpectraMeasurement meas) {
         this.id = meas.getId();
         this.version = meas.getVersion();
@@ -0,0 +1,138 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.model.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+public class StationPairStatistics {
+
+    private Station firstStation;
+    private Station secondStation;
+    private double distance;
+    private long count;
+    private double beforeStandardDeviation;
+    private double afterStandardDeviation;
+    private List<Long> waveformIds = new ArrayList<>();
+
+    public Station getFirstStation() {
+        return firstStation;
+    }
+
+    public StationPairStatistics setFirstStation(Station firstStation) {
+        this.firstStation = firstStation;
+        return this;
+    }
+
+    public Station getSecondStation() {
+        return secondStation;
+    }
+
+    public StationPairStatistics setSecondStation(Station secondStation) {
+        this.secondStation = secondStation;
+        return this;
+    }
+
+    /**
+     * @return Inter-station distance in km
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    public StationPairStatistics setDistance(double distance) {
+        this.distance = distance;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public StationPairStatistics setCount(long count) {
+        this.count = count;
+        return this;
+    }
+
+    public double getBeforeStandardDeviation() {
+        return beforeStandardDeviation;
+    }
+
+    public StationPairStatistics setBeforeStandardDeviation(double beforeStandardDeviation) {
+        this.beforeStandardDeviation = beforeStandardDeviation;
+        return this;
+    }
+
+    public double getAfterStandardDeviation() {
+        return afterStandardDeviation;
+    }
+
+    public StationPairStatistics setAfterStandardDeviation(double afterStandardDeviation) {
+        this.afterStandardDeviation = afterStandardDeviation;
+        return this;
+    }
+
+    public List<Long> getWaveformIds() {
+        return waveformIds;
+    }
+
+    public StationPairStatistics setWaveformIds(List<Long> waveformIds) {
+        this.waveformIds = waveformIds;
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(afterStandardDeviation, beforeStandardDeviation, count, distance, firstStation, secondStation, waveformIds);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof StationPairStatistics)) {
+            return false;
+        }
+        StationPairStatistics other = (StationPairStatistics) obj;
+        return Double.doubleToLongBits(afterStandardDeviation) == Double.doubleToLongBits(other.afterStandardDeviation)
+                && Double.doubleToLongBits(beforeStandardDeviation) == Double.doubleToLongBits(other.beforeStandardDeviation)
+                && count == other.count
+                && Double.doubleToLongBits(distance) == Double.doubleToLongBits(other.distance)
+                && Objects.equals(firstStation, other.firstStation)
+                && Objects.equals(secondStation, other.secondStation)
+                && Objects.equals(waveformIds, other.waveformIds);
+    }
+
+    @Override
+    public String toString() {
+        return "StationPairStatistics [firstStation="
+                + firstStation
+                + ", secondStation="
+                + secondStation
+                + ", distance="
+                + distance
+                + ", count="
+                + count
+                + ", beforeStandardDeviation="
+                + beforeStandardDeviation
+                + ", afterStandardDeviation="
+                + afterStandardDeviation
+                + "]";
+    }
+}
@@ -44,6 +44,22 @@ public class WaveformMetadataImpl implements WaveformMetadata {
         super();
     }
 
+    public WaveformMetadataImpl(Long id, Integer version, Event event, Stream stream, Date beginTime, Date endTime, String segmentType, String segmentUnits, Double lowFrequency,
+            Double highFrequency, Double sampleRate, Boolean active) {
+        this.id = id;
+        this.version = version;
+        this.event = event;
+        this.stream = stream;
+        this.beginTime = beginTime;
+        this.endTime = endTime;
+        this.segmentType = segmentType;
+        this.segmentUnits = segmentUnits;
+        this.lowFrequency = lowFrequency;
+        this.highFrequency = highFrequency;
+        this.sampleRate = sampleRate;
+        this.active = active;
+    }
+
     public WaveformMetadataImpl(Waveform waveform) {
         this.id = waveform.getId();
         this.version = waveform.getVersion();
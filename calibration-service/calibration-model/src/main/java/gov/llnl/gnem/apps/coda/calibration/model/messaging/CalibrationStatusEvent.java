@@ -28,6 +28,7 @@ public class CalibrationStatusEvent {
     private Long id;
     private Status status;
     private Result<Exception> error;
+    private Long projectId;
 
     public CalibrationStatusEvent(Long id, Status status) {
         this.id = id;
@@ -59,6 +60,18 @@ public class CalibrationStatusEvent {
         return this;
     }
 
+    /**
+     * @return the project being calibrated, or null when not known
+     */
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public CalibrationStatusEvent setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public Result<Exception> getError() {
         return error;
     }
@@ -70,7 +83,7 @@ public class CalibrationStatusEvent {
 
     @Override
     public String toString() {
-        return "CalibrationStatusEvent [id=" + id + ", status=" + status + ", error=" + error + "]";
+        return "CalibrationStatusEvent [id=" + id + ", status=" + status + ", error=" + error + ", projectId=" + projectId + "]";
     }
 
     @Override
@@ -79,6 +92,7 @@ public class CalibrationStatusEvent {
         int result = 1;
         result = prime * result + ((error == null) ? 0 : error.hashCode());
         result = prime * result + ((id == null) ? 0 : id.hashCode());
+        result = prime * result + ((projectId == null) ? 0 : projectId.hashCode());
         result = prime * result + ((status == null) ? 0 : status.hashCode());
         return result;
     }
@@ -109,6 +123,13 @@ public class CalibrationStatusEvent {
         } else if (!id.equals(other.id)) {
             return false;
         }
+        if (projectId == null) {
+            if (other.projectId != null) {
+                return false;
+            }
+        } else if (!projectId.equals(other.projectId)) {
+            return false;
+        }
         if (status != other.status) {
             return false;
         }
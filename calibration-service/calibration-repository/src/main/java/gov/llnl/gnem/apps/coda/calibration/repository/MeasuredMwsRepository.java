@@ -16,14 +16,21 @@ package gov.llnl.gnem.apps.coda.calibration.repository;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwDetails;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
+import gov.llnl.gnem.apps.coda.common.repository.BatchInsertRepository;
 import io.springlets.data.jpa.repository.DetachableJpaRepository;
 
 @Transactional
-public interface MeasuredMwsRepository extends DetachableJpaRepository<MeasuredMwParameters, Long> {
+public interface MeasuredMwsRepository extends DetachableJpaRepository<MeasuredMwParameters, Long>, BatchInsertRepository<MeasuredMwParameters> {
     public MeasuredMwParameters findOneByEventId(String eventId);
+
+    @Modifying
+    @Query("delete from MeasuredMwParameters m where m.projectId = :projectId")
+    public int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
@@ -14,11 +14,19 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.repository;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PathCalibrationMeasurement;
+import gov.llnl.gnem.apps.coda.common.repository.BatchInsertRepository;
 import io.springlets.data.jpa.repository.DetachableJpaRepository;
 
 @Transactional
-public interface PathCalibrationMeasurementRepository extends DetachableJpaRepository<PathCalibrationMeasurement, Long> {
+public interface PathCalibrationMeasurementRepository extends DetachableJpaRepository<PathCalibrationMeasurement, Long>, BatchInsertRepository<PathCalibrationMeasurement> {
+
+    @Modifying
+    @Query("delete from PathCalibrationMeasurement p where p.projectId = :projectId")
+    public int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
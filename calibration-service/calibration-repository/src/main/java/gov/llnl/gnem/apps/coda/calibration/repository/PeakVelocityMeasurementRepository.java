@@ -16,19 +16,27 @@ package gov.llnl.gnem.apps.coda.calibration.repository;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.common.repository.BatchInsertRepository;
 import io.springlets.data.jpa.repository.DetachableJpaRepository;
 
 @Transactional
-public interface PeakVelocityMeasurementRepository extends DetachableJpaRepository<PeakVelocityMeasurement, Long> {
-    @Query("select p from PeakVelocityMeasurement p")
+public interface PeakVelocityMeasurementRepository extends DetachableJpaRepository<PeakVelocityMeasurement, Long>, BatchInsertRepository<PeakVelocityMeasurement> {
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurementMetadataImpl(p.id, p.version, p.timeSecFromOrigin, p.snr, p.velocity, p.amplitude, p.distance, p.noiseStartSecondsFromOrigin, p.noiseEndSecondsFromOrigin, p.noiseLevel, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from PeakVelocityMeasurement p join p.waveform w")
     public List<PeakVelocityMeasurementMetadata> findAllMetadataOnly();
 
-    @Query("select p from PeakVelocityMeasurement p where p.waveform.id = :waveformId")
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurementMetadataImpl(p.id, p.version, p.timeSecFromOrigin, p.snr, p.velocity, p.amplitude, p.distance, p.noiseStartSecondsFromOrigin, p.noiseEndSecondsFromOrigin, p.noiseLevel, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from PeakVelocityMeasurement p join p.waveform w where w.id = :waveformId")
     public PeakVelocityMeasurementMetadata findByWaveformIdMetadataOnly(@Param("waveformId") Long waveformId);
+
+    public List<PeakVelocityMeasurement> findAllByProjectId(Long projectId);
+
+    @Modifying
+    @Query("delete from PeakVelocityMeasurement p where p.projectId = :projectId")
+    public int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
@@ -16,21 +16,28 @@ package gov.llnl.gnem.apps.coda.calibration.repository;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.common.repository.BatchInsertRepository;
 import io.springlets.data.jpa.repository.DetachableJpaRepository;
 
 @Transactional
-public interface ShapeMeasurementRepository extends DetachableJpaRepository<ShapeMeasurement, Long> {
+public interface ShapeMeasurementRepository extends DetachableJpaRepository<ShapeMeasurement, Long>, BatchInsertRepository<ShapeMeasurement> {
 
     public ShapeMeasurement findOneByWaveformId(Long waveformId);
 
-    @Query("select v from ShapeMeasurement v")
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurementMetadataImpl(v.id, v.version, v.v0, v.v1, v.v2, v.measuredBeta, v.measuredGamma, v.measuredIntercept, v.measuredError, v.measuredTime, v.distance, v.timeDifference, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from ShapeMeasurement v join v.waveform w")
     public List<ShapeMeasurementMetadata> findAllMetadataOnly();
 
-    @Query("select v from ShapeMeasurement v where v.waveform.id = :waveformId ")
-    public ShapeMeasurementMetadata findOneMetadataByWaveformId(Long waveformId);
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurementMetadataImpl(v.id, v.version, v.v0, v.v1, v.v2, v.measuredBeta, v.measuredGamma, v.measuredIntercept, v.measuredError, v.measuredTime, v.distance, v.timeDifference, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from ShapeMeasurement v join v.waveform w where w.id = :waveformId")
+    public ShapeMeasurementMetadata findOneMetadataByWaveformId(@Param("waveformId") Long waveformId);
+
+    @Modifying
+    @Query("delete from ShapeMeasurement v where v.projectId = :projectId")
+    public int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
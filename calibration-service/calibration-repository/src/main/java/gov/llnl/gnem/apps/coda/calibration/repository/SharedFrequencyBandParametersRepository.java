@@ -32,4 +32,10 @@ public interface SharedFrequencyBandParametersRepository extends DetachableJpaRe
 
     @Query("select p from SharedFrequencyBandParameters p where p.frequencyBand.lowFrequency = :lowFrequency and p.frequencyBand.highFrequency = :highFrequency")
     public SharedFrequencyBandParameters findByLowFrequencyAndHighFrequency(@Param("lowFrequency") double lowFrequency, @Param("highFrequency") double highFrequency);
+
+    @Query("select p from SharedFrequencyBandParameters p where p.projectId = :projectId and p.frequencyBand.lowFrequency = :lowFrequency and p.frequencyBand.highFrequency = :highFrequency")
+    public SharedFrequencyBandParameters findByProjectIdAndLowFrequencyAndHighFrequency(@Param("projectId") Long projectId, @Param("lowFrequency") double lowFrequency,
+            @Param("highFrequency") double highFrequency);
+
+    public List<SharedFrequencyBandParameters> findAllByProjectId(Long projectId);
 }
@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.repository;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +30,23 @@ public interface SiteFrequencyBandParametersRepository extends DetachableJpaRepo
     @Query("select distinct sfb.station.stationName from SiteFrequencyBandParameters sfb")
     public List<String> findDistinctStationNames();
 
+    @Query("select distinct sfb.station.stationName from SiteFrequencyBandParameters sfb where sfb.projectId = :projectId")
+    public List<String> findDistinctStationNamesByProjectId(@Param("projectId") Long projectId);
+
+    public List<SiteFrequencyBandParameters> findAllByProjectId(Long projectId);
+
+    @Modifying
+    @Query("delete from SiteFrequencyBandParameters sfb where sfb.projectId = :projectId")
+    public int deleteAllByProjectId(@Param("projectId") Long projectId);
+
+    @Query("select sfb from SiteFrequencyBandParameters sfb where sfb.projectId = :projectId and sfb.station.stationName = :stationName and sfb.lowFrequency = :lowFrequency and sfb.highFrequency = :highFrequency and sfb.station.networkName in ('UNK', :networkName)")
+    public SiteFrequencyBandParameters findByProjectIdAndUniqueFields(@Param("projectId") Long projectId, @Param("networkName") String networkName, @Param("stationName") String stationName,
+            @Param("lowFrequency") double lowFrequency, @Param("highFrequency") double highFrequency);
+
+    @Query("select sfb from SiteFrequencyBandParameters sfb where sfb.projectId = :projectId and sfb.station.stationName = :stationName and sfb.lowFrequency = :lowFrequency and sfb.highFrequency = :highFrequency")
+    public List<SiteFrequencyBandParameters> findByProjectIdAndUniqueFields(@Param("projectId") Long projectId, @Param("stationName") String stationName, @Param("lowFrequency") double lowFrequency,
+            @Param("highFrequency") double highFrequency);
+
     @Query("select sfb from SiteFrequencyBandParameters sfb where sfb.station.stationName = :stationName and sfb.lowFrequency = :lowFrequency and sfb.highFrequency = :highFrequency and sfb.station.networkName in ('UNK', :networkName)")
     public SiteFrequencyBandParameters findByUniqueFields(@Param("networkName") String networkName, @Param("stationName") String stationName, @Param("lowFrequency") double lowFrequency,
             @Param("highFrequency") double highFrequency);
@@ -16,19 +16,35 @@ package gov.llnl.gnem.apps.coda.calibration.repository;
 
 import java.util.List;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.common.repository.BatchInsertRepository;
 import io.springlets.data.jpa.repository.DetachableJpaRepository;
 
 @Transactional
-public interface SpectraMeasurementRepository extends DetachableJpaRepository<SpectraMeasurement, Long> {
+public interface SpectraMeasurementRepository extends DetachableJpaRepository<SpectraMeasurement, Long>, BatchInsertRepository<SpectraMeasurement> {
 
-    @Query("select v from SpectraMeasurement v")
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadataImpl(v.id, v.version, v.rawAtStart, v.rawAtMeasurementTime, v.pathCorrected, v.pathAndSiteCorrected, v.startCutSec, v.endCutSec, v.rmsFit, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from SpectraMeasurement v join v.waveform w")
     public List<SpectraMeasurementMetadata> findAllMetadataOnly();
 
-    @Query("select v from SpectraMeasurement v where v.id in :ids ")
-    public List<SpectraMeasurementMetadata> findAllMetadataById(Iterable<Long> ids);
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadataImpl(v.id, v.version, v.rawAtStart, v.rawAtMeasurementTime, v.pathCorrected, v.pathAndSiteCorrected, v.startCutSec, v.endCutSec, v.rmsFit, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from SpectraMeasurement v join v.waveform w where v.id in :ids")
+    public List<SpectraMeasurementMetadata> findAllMetadataById(@Param("ids") Iterable<Long> ids);
+
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadataImpl(v.id, v.version, v.rawAtStart, v.rawAtMeasurementTime, v.pathCorrected, v.pathAndSiteCorrected, v.startCutSec, v.endCutSec, v.rmsFit, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from SpectraMeasurement v join v.waveform w where v.projectId = :projectId")
+    public List<SpectraMeasurementMetadata> findAllMetadataOnlyByProjectId(@Param("projectId") Long projectId);
+
+    @Query("select new gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadataImpl(v.id, v.version, v.rawAtStart, v.rawAtMeasurementTime, v.pathCorrected, v.pathAndSiteCorrected, v.startCutSec, v.endCutSec, v.rmsFit, w.id, w.version, w.event, w.stream, w.beginTime, w.endTime, w.segmentType, w.segmentUnits, w.lowFrequency, w.highFrequency, w.sampleRate, w.active) from SpectraMeasurement v join v.waveform w where v.projectId = :projectId and w.lowFrequency = :lowFrequency and w.highFrequency = :highFrequency and w.stream.station.stationName in :stationNames")
+    public List<SpectraMeasurementMetadata> findAllMetadataOnlyByProjectIdAndBandAndStationNames(@Param("projectId") Long projectId, @Param("lowFrequency") Double lowFrequency,
+            @Param("highFrequency") Double highFrequency, @Param("stationNames") List<String> stationNames);
+
+    public long countByProjectId(Long projectId);
+
+    @Modifying
+    @Query("delete from SpectraMeasurement v where v.projectId = :projectId")
+    public int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
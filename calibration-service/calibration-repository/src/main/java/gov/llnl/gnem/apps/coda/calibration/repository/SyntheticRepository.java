@@ -22,10 +22,11 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import gov.llnl.gnem.apps.coda.common.repository.BatchInsertRepository;
 import io.springlets.data.jpa.repository.DetachableJpaRepository;
 
 @Transactional
-public interface SyntheticRepository extends DetachableJpaRepository<SyntheticCoda, Long> {
+public interface SyntheticRepository extends DetachableJpaRepository<SyntheticCoda, Long>, BatchInsertRepository<SyntheticCoda> {
 
     @Query("select synth from SyntheticCoda synth where synth.sourceWaveform.id = :id")
     public SyntheticCoda findByWaveformId(@Param("id") Long id);
@@ -33,6 +34,10 @@ public interface SyntheticRepository extends DetachableJpaRepository<SyntheticCo
     @Query("select synth from SyntheticCoda synth where synth.sourceWaveform.id in :ids")
     public Collection<SyntheticCoda> findByWaveformIds(@Param("ids") Collection<Long> ids);
 
+    @Modifying
+    @Query("delete from SyntheticCoda synth where synth.projectId = :projectId")
+    public int deleteAllByProjectId(@Param("projectId") Long projectId);
+
     @Modifying
     @Query("delete from SyntheticCoda synth where synth.sourceModel.id = :id")
     public void deleteBySharedFrequencyBandParametersId(@Param("id") Long id);
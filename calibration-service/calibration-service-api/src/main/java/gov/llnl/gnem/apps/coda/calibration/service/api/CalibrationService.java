@@ -26,6 +26,13 @@ public interface CalibrationService {
 
     public boolean startCalibration(Boolean autoPickingEnabled);
 
+    /**
+     * Calibrates only the waveforms and parameters stored for the given
+     * project. Calibrations of different projects run concurrently and never
+     * replace each other's intermediate results.
+     */
+    public boolean startCalibration(Long projectId, Boolean autoPickingEnabled);
+
     public boolean clearData();
 
     public Future<Result<MeasuredMwReportByEvent>> makeMwMeasurements(Boolean autoPickingEnabled, Boolean persistResults);
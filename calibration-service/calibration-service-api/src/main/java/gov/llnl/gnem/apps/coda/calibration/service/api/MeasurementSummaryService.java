@@ -0,0 +1,51 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.api;
+
+import java.util.List;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PathBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteBandStatistics;
+
+/**
+ * Summary statistics over the current spectra measurements, computed
+ * server-side so clients only have to fetch the aggregates for plotting.
+ * Results are cached per project until the next completed calibration of
+ * that project or the next measurement run. The methods without a project
+ * cover {@link gov.llnl.gnem.apps.coda.common.model.domain.Project#DEFAULT_PROJECT_ID}.
+ */
+public interface MeasurementSummaryService {
+
+    /**
+     * @return Per frequency band station-pair statistics of the absolute
+     *         difference in raw (before) and path corrected (after)
+     *         amplitudes for events recorded at both stations
+     */
+    public List<PathBandStatistics> getPathStatistics();
+
+    public List<PathBandStatistics> getPathStatistics(Long projectId);
+
+    /**
+     * @return Per event and frequency band statistics of the path and site
+     *         corrected amplitudes across all recording stations
+     */
+    public List<SiteBandStatistics> getSiteStatistics();
+
+    public List<SiteBandStatistics> getSiteStatistics(Long projectId);
+
+    public void invalidate();
+
+    public void invalidate(Long projectId);
+}
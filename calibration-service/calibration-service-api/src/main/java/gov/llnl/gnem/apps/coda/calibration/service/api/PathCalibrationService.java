@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.api;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
@@ -26,4 +27,13 @@ public interface PathCalibrationService {
 
     Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, VelocityConfiguration velConf);
+
+    /**
+     * As {@link #measurePathCorrections(Map, Map, VelocityConfiguration)} but
+     * only replaces the path measurements stored for the given project and
+     * passes each band of frequencyBandParameters to onBand as soon as its path
+     * correction is fit. onBand may be called from several threads at once.
+     */
+    Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(Long projectId, Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, VelocityConfiguration velConf, Consumer<FrequencyBand> onBand);
 }
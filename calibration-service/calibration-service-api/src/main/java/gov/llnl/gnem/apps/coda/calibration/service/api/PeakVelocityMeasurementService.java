@@ -29,5 +29,7 @@ public interface PeakVelocityMeasurementService extends BaseService<PeakVelocity
 
     public List<PeakVelocityMeasurementMetadata> findAllMetadataOnly();
 
+    public List<PeakVelocityMeasurement> findAllByProjectId(Long projectId);
+
     public PeakVelocityMeasurementMetadata findByWaveformIdMetadataOnly(Long id);
 }
@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.api;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
@@ -26,4 +27,15 @@ public interface ShapeCalibrationService {
 
     public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(Collection<PeakVelocityMeasurement> velocityMeasurements,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, ShapeFitterConstraints constraints, boolean autoPickingEnabled);
+
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(Long projectId, Collection<PeakVelocityMeasurement> velocityMeasurements,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, ShapeFitterConstraints constraints, boolean autoPickingEnabled);
+
+    /**
+     * As {@link #measureShapes(Long, Collection, Map, ShapeFitterConstraints, boolean)}
+     * but passes each band of frequencyBandParameters to onBand once its shape
+     * fit is final. onBand may be called from several threads at once.
+     */
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(Long projectId, Collection<PeakVelocityMeasurement> velocityMeasurements,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, ShapeFitterConstraints constraints, boolean autoPickingEnabled, Consumer<FrequencyBand> onBand);
 }
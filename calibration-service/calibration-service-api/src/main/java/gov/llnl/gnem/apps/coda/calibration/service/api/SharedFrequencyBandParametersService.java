@@ -27,4 +27,6 @@ public interface SharedFrequencyBandParametersService extends BaseService<Shared
     public SharedFrequencyBandParameters update(SharedFrequencyBandParameters sharedFbParams);
 
     public SharedFrequencyBandParameters findByFrequencyBand(FrequencyBand band);
+
+    public List<SharedFrequencyBandParameters> findAllByProjectId(Long projectId);
 }
@@ -16,6 +16,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.api;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
@@ -34,7 +35,34 @@ public interface SiteCalibrationService {
             Map<PICK_TYPES, MdacParametersPS> mdacPS, Map<String, List<ReferenceMwParameters>> refMws, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters,
             PICK_TYPES selectedPhase);
 
+    /**
+     * As {@link #measureSiteCorrections(Map, MdacParametersFI, Map, Map, Map, PICK_TYPES)}
+     * but only replaces the site terms and measured Mws stored for the given
+     * project.
+     */
+    public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> measureSiteCorrections(Long projectId, Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
+            MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS, Map<String, List<ReferenceMwParameters>> refMws,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, PICK_TYPES selectedPhase);
+
+    /**
+     * As {@link #measureSiteCorrections(Long, Map, MdacParametersFI, Map, Map, Map, PICK_TYPES)}
+     * but passes each band of dataByFreqBand to onBand as soon as its site
+     * terms are computed. onBand may be called from several threads at once.
+     */
+    public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> measureSiteCorrections(Long projectId, Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
+            MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS, Map<String, List<ReferenceMwParameters>> refMws,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, PICK_TYPES selectedPhase, Consumer<FrequencyBand> onBand);
+
     public List<MeasuredMwParameters> fitMws(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS,
             Map<String, List<ReferenceMwParameters>> refMws, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandParameters, PICK_TYPES selectedPhase);
 
+    /**
+     * As {@link #fitMws(Map, MdacParametersFI, Map, Map, Map, PICK_TYPES)} but
+     * passes each event's result to onResult as soon as it is fit. onResult
+     * may be called from several threads at once.
+     */
+    public List<MeasuredMwParameters> fitMws(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS,
+            Map<String, List<ReferenceMwParameters>> refMws, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandParameters, PICK_TYPES selectedPhase,
+            Consumer<MeasuredMwParameters> onResult);
+
 }
@@ -23,5 +23,9 @@ public interface SiteFrequencyBandParametersService extends BaseService<SiteFreq
 
     public List<String> findDistinctStationNames();
 
+    public List<String> findDistinctStationNames(Long projectId);
+
+    public List<SiteFrequencyBandParameters> findAllByProjectId(Long projectId);
+
     public SiteFrequencyBandParameters update(SiteFrequencyBandParameters entry);
 }
@@ -36,6 +36,9 @@ public interface SpectraMeasurementService {
     public List<SpectraMeasurement> measureSpectra(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
             VelocityConfiguration velocityConfig, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap);
 
+    public List<SpectraMeasurement> measureSpectra(Long projectId, List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
+            VelocityConfiguration velocityConfig, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap);
+
     public SpectraMeasurement findOne(Long id);
 
     public SpectraMeasurement findOneForUpdate(Long id);
@@ -48,8 +51,19 @@ public interface SpectraMeasurementService {
 
     public List<SpectraMeasurementMetadata> findAllMetadataOnly(Iterable<Long> ids);
 
+    public List<SpectraMeasurementMetadata> findAllMetadataOnlyByProjectId(Long projectId);
+
+    /**
+     * @return the measurements in the given band recorded at any of the named
+     *         stations, for drilling into a single station pair without
+     *         loading the whole project
+     */
+    public List<SpectraMeasurementMetadata> findAllMetadataOnly(Long projectId, FrequencyBand frequencyBand, List<String> stationNames);
+
     public long count();
 
+    public long countByProjectId(Long projectId);
+
     public Spectra computeReferenceSpectraForEventId(String eventId, List<FrequencyBand> frequencyBands, PICK_TYPES selectedPhase);
 
     public List<Spectra> getFitSpectraForEventId(String eventId, List<FrequencyBand> frequencyBands, PICK_TYPES selectedPhase);
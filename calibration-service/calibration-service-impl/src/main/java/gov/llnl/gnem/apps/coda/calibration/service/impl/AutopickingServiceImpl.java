@@ -27,31 +27,34 @@ import org.springframework.stereotype.Service;
 
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.service.api.AutopickingService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.EndTimePicker;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.FrequencyBandIndex;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.VelocityPickKernel;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
 import llnl.gnem.core.util.TimeT;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 @Service
 public class AutopickingServiceImpl implements AutopickingService {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
-    private EndTimePicker endTimePicker;
+    private VelocityPickKernel kernel;
     private WaveformToTimeSeriesConverter converter = new WaveformToTimeSeriesConverter();
     private static final double BAD = 0d;
 
-    public AutopickingServiceImpl(EndTimePicker endTimePicker) {
-        this.endTimePicker = endTimePicker;
+    public AutopickingServiceImpl(VelocityPickKernel kernel) {
+        this.kernel = kernel;
     }
 
     @Override
     public Collection<PeakVelocityMeasurement> autoPickVelocityMeasuredWaveforms(final Collection<PeakVelocityMeasurement> velocityMeasurements,
             final Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters) {
+        FrequencyBandIndex<SharedFrequencyBandParameters> frequencyBandParameterIndex = FrequencyBandIndex.of(frequencyBandParameters);
         return velocityMeasurements.parallelStream().filter(vel -> vel.getWaveform() != null).map(vel -> {
-            SharedFrequencyBandParameters params = frequencyBandParameters.get(new FrequencyBand(vel.getWaveform().getLowFrequency(), vel.getWaveform().getHighFrequency()));
+            SharedFrequencyBandParameters params = frequencyBandParameterIndex.get(vel.getWaveform());
             Optional<WaveformPick> pick = Optional.empty();
             Optional<WaveformPick> endPick = Optional.empty();
 
@@ -76,33 +79,32 @@ public class AutopickingServiceImpl implements AutopickingService {
                     vr = 1.0;
                 }
                 TimeT originTime = new TimeT(vel.getWaveform().getEvent().getOriginTime());
-                TimeT startTime;
                 TimeT trimTime = originTime.add(vel.getDistance() / vr);
                 TimeT beginTime = new TimeT(vel.getWaveform().getBeginTime());
-                TimeSeries trimmedWaveform = converter.convert(vel.getWaveform());
-                try {
-                    trimmedWaveform.cutBefore(trimTime);
-                    trimmedWaveform.cutAfter(trimTime.add(30.0));
-
-                    startTime = new TimeT(trimTime.getEpochTime() + trimmedWaveform.getMaxTime()[0]);
-                } catch (IllegalArgumentException e) {
-                    startTime = trimTime;
-                }
 
-                TimeSeries segment = converter.convert(vel.getWaveform());
-                if (segment.getSamprate() > 1.0) {
+                double[] samples = vel.getWaveform().getSegment();
+                double sampleRate = vel.getWaveform().getSampleRate();
+                TimeT startTime;
+                double stopTime;
+                if (sampleRate > 1.0) {
+                    // The end picker works at one sample per second
+                    startTime = new TimeT(kernel.codaStart(samples, sampleRate, beginTime.getEpochTime(), trimTime.getEpochTime()));
+                    TimeSeries segment = converter.convert(vel.getWaveform());
                     segment.interpolate(1.0);
+                    stopTime = kernel.endPick(
+                            WaveformUtils.floatsToDoubles(segment.getData()),
+                                segment.getSamprate(),
+                                beginTime.getEpochTime(),
+                                startTime.getEpochTime(),
+                                minlength,
+                                maxlength,
+                                params.getMinSnr(),
+                                vel.getNoiseLevel());
+                } else {
+                    double[] picks = kernel.pick(samples, sampleRate, beginTime.getEpochTime(), trimTime.getEpochTime(), minlength, maxlength, params.getMinSnr(), vel.getNoiseLevel());
+                    startTime = new TimeT(picks[0]);
+                    stopTime = picks[1];
                 }
-
-                double stopTime = endTimePicker.getEndTime(
-                        segment.getData(),
-                            segment.getSamprate(),
-                            startTime.getEpochTime(),
-                            segment.getIndexForTime(startTime.getEpochTime()),
-                            minlength,
-                            maxlength,
-                            params.getMinSnr(),
-                            vel.getNoiseLevel());
                 log.trace("Proposed end pick time {}", stopTime);
 
                 if (new TimeT(stopTime).gt(startTime)) {
@@ -0,0 +1,329 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Micrometer meters for the calibration and measurement pipelines.
+ * <ul>
+ * <li><code>cct.calibration.stage</code> timer per run type and stage</li>
+ * <li><code>cct.calibration.filter.in</code> and
+ * <code>cct.calibration.filter.out</code> counters per filter and band</li>
+ * <li><code>cct.optimizer.evaluations</code> counter and
+ * <code>cct.optimizer.time</code> timer per optimizer and band</li>
+ * </ul>
+ * The meters go to the application {@link MeterRegistry} when there is one
+ * (actuator metrics and prometheus endpoints) and to a private
+ * {@link SimpleMeterRegistry} otherwise so the per-run reports still work in
+ * batch runs and tests.
+ */
+@Component
+public class CalibrationMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibrationMetrics.class);
+
+    public static final String STAGE_TIMER = "cct.calibration.stage";
+    public static final String FILTER_IN = "cct.calibration.filter.in";
+    public static final String FILTER_OUT = "cct.calibration.filter.out";
+    public static final String OPTIMIZER_EVALUATIONS = "cct.optimizer.evaluations";
+    public static final String OPTIMIZER_TIME = "cct.optimizer.time";
+
+    public static final String SNR_FILTER = "snr";
+    public static final String END_PICK_FILTER = "end-pick";
+    public static final String WINDOW_FILTER = "window";
+
+    private static final String ALL_BANDS = "all";
+    private static final String KEY_SEPARATOR = "|";
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter> filterCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> evaluationCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> optimizerTimers = new ConcurrentHashMap<>();
+    private volatile RunReport lastReport;
+
+    @Autowired
+    public CalibrationMetrics(ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public CalibrationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public CalibrationMetrics() {
+        this(new SimpleMeterRegistry());
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Counts one waveform going into a filter and, if it passed, coming out of
+     * it.
+     */
+    public void filtered(String filter, Waveform waveform, boolean passed) {
+        String band = bandTag(waveform);
+        filterCounter(FILTER_IN, filter, band).increment();
+        if (passed) {
+            filterCounter(FILTER_OUT, filter, band).increment();
+        }
+    }
+
+    /**
+     * Records the objective function evaluations and wall time one optimizer
+     * run used. A null band is recorded as <code>all</code>.
+     */
+    public void optimized(String optimizer, FrequencyBand band, long evaluations, long nanos) {
+        String bandTag = bandTag(band);
+        String key = optimizer + KEY_SEPARATOR + bandTag;
+        evaluationCounters.computeIfAbsent(key, k -> Counter.builder(OPTIMIZER_EVALUATIONS).tag("optimizer", optimizer).tag("band", bandTag).register(registry)).increment(evaluations);
+        optimizerTimers.computeIfAbsent(key, k -> Timer.builder(OPTIMIZER_TIME).tag("optimizer", optimizer).tag("band", bandTag).register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publishes the pool size, active count and queue depth gauges for the
+     * given executor. Returns the same executor.
+     */
+    public <T extends ExecutorService> T monitor(T executor, String name, String... tags) {
+        new ExecutorServiceMetrics(executor, name, Tags.of(tags)).bindTo(registry);
+        return executor;
+    }
+
+    /**
+     * Removes the gauges {@link #monitor} published for an executor that has
+     * been shut down, so a later executor with the same name and tags gets
+     * its own.
+     */
+    public void unmonitor(String name, String... tags) {
+        List<Tag> expected = Tags.of(tags).and("name", name).stream().collect(Collectors.toList());
+        registry.getMeters().stream().filter(meter -> meter.getId().getTags().containsAll(expected)).collect(Collectors.toList()).forEach(registry::remove);
+    }
+
+    public RunReport startRun(String type, Object id) {
+        return new RunReport(type, id);
+    }
+
+    /**
+     * @return the report of the last calibration or measurement run to
+     *         finish, or null if none has
+     */
+    public RunReport getLastReport() {
+        return lastReport;
+    }
+
+    private Counter filterCounter(String name, String filter, String band) {
+        return filterCounters.computeIfAbsent(name + KEY_SEPARATOR + filter + KEY_SEPARATOR + band, k -> Counter.builder(name).tag("filter", filter).tag("band", band).register(registry));
+    }
+
+    private static String bandTag(Waveform waveform) {
+        if (waveform == null || waveform.getLowFrequency() == null || waveform.getHighFrequency() == null) {
+            return ALL_BANDS;
+        }
+        return waveform.getLowFrequency() + "-" + waveform.getHighFrequency();
+    }
+
+    private static String bandTag(FrequencyBand band) {
+        if (band == null) {
+            return ALL_BANDS;
+        }
+        return band.getLowFrequency() + "-" + band.getHighFrequency();
+    }
+
+    private static Map<String, Double> snapshot(Map<String, Counter> counters) {
+        Map<String, Double> values = new HashMap<>();
+        counters.forEach((key, counter) -> values.put(key, counter.count()));
+        return values;
+    }
+
+    private static Map<String, Double> snapshotTimers(Map<String, Timer> timers) {
+        Map<String, Double> values = new HashMap<>();
+        timers.forEach((key, timer) -> values.put(key, timer.totalTime(TimeUnit.SECONDS)));
+        return values;
+    }
+
+    private static Map<String, Double> delta(Map<String, Double> before, Map<String, Double> after) {
+        Map<String, Double> values = new TreeMap<>();
+        after.forEach((key, value) -> {
+            double change = value - before.getOrDefault(key, 0.0);
+            if (change > 0.0) {
+                values.put(key, change);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Stage durations plus the filter and optimizer counts recorded between
+     * {@link CalibrationMetrics#startRun(String, Object)} and
+     * {@link #finish()}. Counts come from the shared meters so they include
+     * anything else running at the same time.
+     */
+    public class RunReport {
+
+        private final String type;
+        private final Object id;
+        private final Map<String, Double> startFilters;
+        private final Map<String, Double> startEvaluations;
+        private final Map<String, Double> startOptimizerTime;
+        private final Map<String, Double> stageSeconds = Collections.synchronizedMap(new LinkedHashMap<>());
+        private String currentStage;
+        private long stageStart;
+        private Map<String, Double> filterCounts = Collections.emptyMap();
+        private Map<String, Double> evaluationCounts = Collections.emptyMap();
+        private Map<String, Double> optimizerSeconds = Collections.emptyMap();
+
+        private RunReport(String type, Object id) {
+            this.type = type;
+            this.id = id;
+            this.startFilters = snapshot(filterCounters);
+            this.startEvaluations = snapshot(evaluationCounters);
+            this.startOptimizerTime = snapshotTimers(optimizerTimers);
+        }
+
+        /**
+         * Ends the current stage, if any, and starts timing the next one.
+         */
+        public RunReport mark(String stage) {
+            long now = System.nanoTime();
+            endStage(now);
+            currentStage = stage;
+            stageStart = now;
+            return this;
+        }
+
+        /**
+         * Ends the current stage, computes the filter and optimizer counts
+         * for the run and logs the report.
+         */
+        public RunReport finish() {
+            endStage(System.nanoTime());
+            filterCounts = delta(startFilters, snapshot(filterCounters));
+            evaluationCounts = delta(startEvaluations, snapshot(evaluationCounters));
+            optimizerSeconds = delta(startOptimizerTime, snapshotTimers(optimizerTimers));
+            lastReport = this;
+            log.info("{}", this);
+            return this;
+        }
+
+        private void endStage(long now) {
+            if (currentStage != null) {
+                long elapsed = now - stageStart;
+                Timer.builder(STAGE_TIMER).tag("type", type).tag("stage", currentStage).register(registry).record(elapsed, TimeUnit.NANOSECONDS);
+                stageSeconds.merge(currentStage, elapsed / 1.0E9, Double::sum);
+                currentStage = null;
+            }
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Object getId() {
+            return id;
+        }
+
+        public Map<String, Double> getStageSeconds() {
+            return new LinkedHashMap<>(stageSeconds);
+        }
+
+        /**
+         * @return rows of (section, name, band, value) covering every stage,
+         *         filter and optimizer recorded for this run
+         */
+        public List<List<Object>> getRows() {
+            List<List<Object>> rows = new ArrayList<>();
+            getStageSeconds().forEach((stage, seconds) -> rows.add(row("stage_seconds", stage, ALL_BANDS, seconds)));
+            filterCounts.forEach((key, count) -> {
+                String[] parts = split(key);
+                rows.add(row(FILTER_IN.equals(parts[0]) ? "filter_in" : "filter_out", parts[1], parts[2], count.longValue()));
+            });
+            evaluationCounts.forEach((key, count) -> {
+                String[] parts = split(key);
+                rows.add(row("optimizer_evaluations", parts[0], parts[1], count.longValue()));
+            });
+            optimizerSeconds.forEach((key, seconds) -> {
+                String[] parts = split(key);
+                rows.add(row("optimizer_seconds", parts[0], parts[1], seconds));
+            });
+            return rows;
+        }
+
+        private List<Object> row(String section, String name, String band, Object value) {
+            List<Object> row = new ArrayList<>(4);
+            row.add(section);
+            row.add(name);
+            row.add(band);
+            row.add(value);
+            return row;
+        }
+
+        private String[] split(String key) {
+            return key.split("\\" + KEY_SEPARATOR);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(type).append(' ').append(id).append(" metrics:");
+            getStageSeconds().forEach((stage, seconds) -> sb.append(String.format("%n  stage %-12s %9.3f s", stage, seconds)));
+
+            Map<String, long[]> filters = new TreeMap<>();
+            filterCounts.forEach((key, count) -> {
+                String[] parts = split(key);
+                filters.computeIfAbsent(parts[1], k -> new long[2])[FILTER_IN.equals(parts[0]) ? 0 : 1] += count.longValue();
+            });
+            filters.forEach((filter, counts) -> sb.append(String.format("%n  filter %-11s %9d in %9d out", filter, counts[0], counts[1])));
+
+            Map<String, double[]> optimizers = new TreeMap<>();
+            for (Entry<String, Double> entry : evaluationCounts.entrySet()) {
+                optimizers.computeIfAbsent(split(entry.getKey())[0], k -> new double[2])[0] += entry.getValue();
+            }
+            for (Entry<String, Double> entry : optimizerSeconds.entrySet()) {
+                optimizers.computeIfAbsent(split(entry.getKey())[0], k -> new double[2])[1] += entry.getValue();
+            }
+            optimizers.forEach((optimizer, values) -> sb.append(String.format("%n  optimizer %-8s %9d evaluations %9.3f s", optimizer, (long) values[0], values[1])));
+            return sb.toString();
+        }
+    }
+}
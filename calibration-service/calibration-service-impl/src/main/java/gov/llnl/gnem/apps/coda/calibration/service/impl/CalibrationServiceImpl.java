@@ -27,7 +27,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -48,6 +50,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwDetails;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
@@ -79,9 +82,12 @@ import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParamete
 import gov.llnl.gnem.apps.coda.calibration.service.api.SpectraMeasurementService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticCodaGenerationService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.FrequencyBandIndex;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacSpectraGenerator;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
@@ -90,8 +96,11 @@ import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
 import gov.llnl.gnem.apps.coda.common.model.util.LightweightIllegalStateException;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
-import gov.llnl.gnem.apps.coda.common.model.util.SPECTRA_TYPES;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.common.service.api.ProgressCounter;
+import gov.llnl.gnem.apps.coda.common.service.api.ProgressTracker;
+import gov.llnl.gnem.apps.coda.common.service.api.ProgressTrackingService;
+import gov.llnl.gnem.apps.coda.common.service.api.WaveformPickService;
 import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
 
@@ -102,12 +111,15 @@ public class CalibrationServiceImpl implements CalibrationService {
     private static final Logger log = LoggerFactory.getLogger(CalibrationServiceImpl.class);
 
     private WaveformService waveformService;
+    private WaveformPickService pickService;
     private PeakVelocityMeasurementService peakVelocityMeasurementsService;
     private SharedFrequencyBandParametersService sharedParametersService;
     private SiteFrequencyBandParametersService siteParamsService;
     private ShapeCalibrationService shapeCalibrationService;
     private SpectraMeasurementService spectraMeasurementService;
     private SpectraCalculator spectraCalc;
+
+    private MdacSpectraGenerator spectraGenerator;
     private SyntheticCodaGenerationService syntheticGenerationService;
     private PathCalibrationService pathCalibrationService;
     private MdacParametersFiService mdacFiService;
@@ -119,25 +131,27 @@ public class CalibrationServiceImpl implements CalibrationService {
     private DatabaseCleaningService cleaningService;
     private ConfigurationService configService;
     private AutopickingService picker;
+    private CalibrationMetrics metrics;
+    private ProgressTrackingService progressService;
 
     private static final AtomicLong atomicLong = new AtomicLong(0l);
 
-    private static final ExecutorService calService = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), r -> {
-        Thread thread = new Thread(r);
-        thread.setName("Calibration");
-        thread.setDaemon(true);
-        return thread;
-    });
+    // One single-threaded calibration queue per project so independent
+    // projects can calibrate concurrently while each project stays serial.
+    // A queue is dropped again as soon as its project has nothing pending.
+    private final Map<Long, ThreadPoolExecutor> calServices = new ConcurrentHashMap<>();
     private final ExecutorService measureService;
 
     @Autowired
-    public CalibrationServiceImpl(WaveformService waveformService, PeakVelocityMeasurementService peakVelocityMeasurementsService, SharedFrequencyBandParametersService sharedParametersService,
+    public CalibrationServiceImpl(WaveformService waveformService, WaveformPickService pickService, PeakVelocityMeasurementService peakVelocityMeasurementsService, SharedFrequencyBandParametersService sharedParametersService,
             ShapeCalibrationService shapeCalibrationService, SpectraMeasurementService spectraMeasurementService, SyntheticCodaGenerationService syntheticGenerationService,
             PathCalibrationService pathCalibrationService, MdacParametersFiService mdacFiService, MdacParametersPsService mdacPsService, ReferenceMwParametersService referenceMwService,
             SiteCalibrationService siteCalibrationService, SyntheticService syntheticService, NotificationService notificationService, DatabaseCleaningService cleaningService,
-            ConfigurationService configService, SiteFrequencyBandParametersService siteParamsService, SpectraCalculator spectraCalc, AutopickingService picker,
-            @Qualifier("MeasurementExecutorService") ExecutorService measureService) {
+            ConfigurationService configService, SiteFrequencyBandParametersService siteParamsService, SpectraCalculator spectraCalc, MdacSpectraGenerator spectraGenerator,
+            AutopickingService picker,
+            @Qualifier("MeasurementExecutorService") ExecutorService measureService, CalibrationMetrics metrics, ProgressTrackingService progressService) {
         this.waveformService = waveformService;
+        this.pickService = pickService;
         this.peakVelocityMeasurementsService = peakVelocityMeasurementsService;
         this.sharedParametersService = sharedParametersService;
         this.shapeCalibrationService = shapeCalibrationService;
@@ -154,8 +168,11 @@ public class CalibrationServiceImpl implements CalibrationService {
         this.configService = configService;
         this.siteParamsService = siteParamsService;
         this.spectraCalc = spectraCalc;
+        this.spectraGenerator = spectraGenerator;
         this.picker = picker;
         this.measureService = measureService;
+        this.metrics = metrics;
+        this.progressService = progressService;
     }
 
     @Override
@@ -243,25 +260,48 @@ public class CalibrationServiceImpl implements CalibrationService {
     }
 
     private MeasuredMwReportByEvent makeMwMeasurements(Long id, Boolean autoPickingEnabled, Boolean persistResults, List<Waveform> stacks) {
+        ProgressTracker progress = progressService.start(id, "measurement");
+        try {
+            return makeMwMeasurements(id, progress, autoPickingEnabled, persistResults, stacks);
+        } finally {
+            progress.finish();
+        }
+    }
+
+    private MeasuredMwReportByEvent makeMwMeasurements(Long id, ProgressTracker progress, Boolean autoPickingEnabled, Boolean persistResults, List<Waveform> stacks) {
         log.info("Starting measurement at {}", LocalDateTime.now());
+        CalibrationMetrics.RunReport report = metrics.startRun("measurement", id);
         MeasuredMwReportByEvent details = new MeasuredMwReportByEvent();
         if (stacks != null) {
+            report.mark("velocity");
             List<Event> eventsInStacks = stacks.stream().map(w -> w.getEvent()).filter(Objects::nonNull).distinct().collect(Collectors.toList());
+            Set<Long> projectIds = stacks.stream().map(w -> w.getProjectId() != null ? w.getProjectId() : Project.DEFAULT_PROJECT_ID).collect(Collectors.toSet());
+            if (projectIds.size() > 1) {
+                throw new IllegalArgumentException("Unable to measure Mws for stacks from more than one project " + projectIds + " at once.");
+            }
+            Long projectId = projectIds.stream().findFirst().orElse(Project.DEFAULT_PROJECT_ID);
             VelocityConfiguration velocityConfig = configService.getVelocityConfiguration();
-            Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandMap = mapParamsToFrequencyBands(siteParamsService.findAll());
-            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap = mapParamsToFrequencyBands(sharedParametersService.findAll());
+            Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandMap = mapParamsToFrequencyBands(siteParamsService.findAllByProjectId(projectId));
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap = mapParamsToFrequencyBands(sharedParametersService.findAllByProjectId(projectId));
 
             List<Waveform> measStacks = stacks;
             Collection<PeakVelocityMeasurement> velocityMeasured = Optional.ofNullable(peakVelocityMeasurementsService.measureVelocities(measStacks, velocityConfig))
+                                                                           .map(measured -> trackVelocities(progress, stacks, measured))
                                                                            .orElseGet(() -> Stream.empty())
                                                                            .collect(Collectors.toList());
             if (autoPickingEnabled) {
+                report.mark("autopick");
                 velocityMeasured = picker.autoPickVelocityMeasuredWaveforms(velocityMeasured, frequencyBandParameterMap);
                 if (persistResults) {
-                    velocityMeasured = velocityMeasured.parallelStream().map(v -> v.setWaveform(waveformService.save(v.getWaveform()))).collect(Collectors.toList());
+                    pickService.replacePicks(
+                            velocityMeasured.stream()
+                                            .map(PeakVelocityMeasurement::getWaveform)
+                                            .filter(w -> w != null && w.getAssociatedPicks().stream().anyMatch(p -> p.getId() == null))
+                                            .collect(Collectors.toList()));
                 }
             }
 
+            report.mark("synthetics");
             final Map<FrequencyBand, SharedFrequencyBandParameters> snrFilterMap = new HashMap<>(frequencyBandParameterMap);
             velocityMeasured = filterVelocityBySnr(snrFilterMap, velocityMeasured.stream());
             measStacks = velocityMeasured.stream().map(vel -> vel.getWaveform()).collect(Collectors.toList());
@@ -269,16 +309,24 @@ public class CalibrationServiceImpl implements CalibrationService {
 
             List<SyntheticCoda> synthetics = syntheticGenerationService.generateSynthetics(measStacks, frequencyBandParameterMap);
 
+            report.mark("amplitudes");
+            ProgressCounter amplitudes = progress.stage("amplitudes").addTotal(synthetics.size());
             List<SpectraMeasurement> spectra = spectraCalc.measureAmplitudes(synthetics, frequencyBandParameterMap, velocityConfig, stationFrequencyBandMap);
+            amplitudes.add(synthetics.size());
 
+            report.mark("mw");
+            ProgressCounter mws = progress.stage("mw").addTotal(spectra.stream().filter(s -> s != null && s.getWaveform() != null).map(s -> s.getWaveform().getEvent()).distinct().count());
+            final MdacParametersFI mdacFi = mdacFiService.findFirst();
             List<MeasuredMwParameters> measuredMwsParams = siteCalibrationService.fitMws(
                     spectraByFrequencyBand(spectra),
-                        mdacFiService.findFirst(),
+                        mdacFi,
                         collectByFrequencyBand(mdacPsService.findAll()),
                         collectByEvid(referenceMwService.findAll()),
                         stationFrequencyBandMap,
-                        PICK_TYPES.LG);
+                        PICK_TYPES.LG,
+                        mw -> mws.increment());
 
+            report.mark("results");
             Map<Event, MeasuredMwParameters> measuredMwsMap = Optional.ofNullable(measuredMwsParams).orElseGet(ArrayList::new).stream().map(mwp -> {
                 Event event = getEventForId(mwp.getEventId(), eventsInStacks);
                 if (event != null) {
@@ -292,12 +340,12 @@ public class CalibrationServiceImpl implements CalibrationService {
                                                                   .parallelStream()
                                                                   .map(
                                                                           mw -> new AbstractMap.SimpleEntry<>(mw.getKey().getEventId(),
-                                                                                                              computeFitSpectra(mw.getValue(), frequencyBandParameterMap.keySet(), PICK_TYPES.LG)))
+                                                                                                              computeFitSpectra(mdacFi, mw.getValue(), frequencyBandParameterMap.keySet(), PICK_TYPES.LG)))
                                                                   .collect(Collectors.toConcurrentMap(kv -> kv.getKey(), kv -> kv.getValue()));
 
             if (persistResults) {
-                peakVelocityMeasurementsService.deleteAll();
-                syntheticService.deleteAll();
+                peakVelocityMeasurementsService.deleteAllByProjectId(projectId);
+                syntheticService.deleteAllByProjectId(projectId);
                 peakVelocityMeasurementsService.save(velocityMeasured);
                 syntheticService.save(synthetics);
             }
@@ -314,19 +362,16 @@ public class CalibrationServiceImpl implements CalibrationService {
         } else {
             log.info("Unable to measure Mws, no waveforms were provided.");
         }
+        report.finish();
         notificationService.post(new MeasurementStatusEvent(id, MeasurementStatusEvent.Status.COMPLETE));
         log.info("Measurement complete at {}", LocalDateTime.now());
         return details;
     }
 
-    private List<Spectra> computeFitSpectra(MeasuredMwParameters event, Set<FrequencyBand> frequencyBands, PICK_TYPES selectedPhase) {
+    private List<Spectra> computeFitSpectra(MdacParametersFI mdacFi, MeasuredMwParameters event, Set<FrequencyBand> frequencyBands, PICK_TYPES selectedPhase) {
         List<Spectra> spectra = new ArrayList<>();
         if (event != null) {
-            spectra.add(spectraCalc.computeFitSpectra(event, frequencyBands, selectedPhase));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw1Max(), event.getApparentStress1Max(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ1));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw1Min(), event.getApparentStress1Min(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ1));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw2Max(), event.getApparentStress2Max(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ2));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw2Min(), event.getApparentStress2Min(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ2));
+            spectra.addAll(spectraGenerator.computeFitSpectra(mdacFi, event, frequencyBands, selectedPhase));
         }
         return spectra;
 
@@ -339,23 +384,75 @@ public class CalibrationServiceImpl implements CalibrationService {
                        .orElseGet(() -> eventsInStacks.stream().filter(e -> e.getEventId().equalsIgnoreCase(eventId)).findAny().orElseGet(null));
     }
 
+    /**
+     * Queues the task on the calibration executor of the project, creating the
+     * executor on first use. Submitting and releasing both run inside the
+     * map's compute so a task is never handed to an executor that is being
+     * dropped.
+     */
+    private void submitCalibration(Long projectId, Callable<?> task) {
+        calServices.compute(projectId, (key, executor) -> {
+            ThreadPoolExecutor calExecutor = executor != null ? executor : newCalibrationExecutor(key);
+            calExecutor.submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    releaseCalibrationExecutor(key);
+                }
+            });
+            return calExecutor;
+        });
+    }
+
+    private ThreadPoolExecutor newCalibrationExecutor(Long projectId) {
+        return metrics.monitor(new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Calibration-" + projectId);
+            thread.setDaemon(true);
+            return thread;
+        }), "calibration", "project", String.valueOf(projectId));
+    }
+
+    /**
+     * Called by the last step of every calibration task; shuts the project's
+     * executor down once nothing else is queued on it. The calling task is
+     * allowed to finish.
+     */
+    private void releaseCalibrationExecutor(Long projectId) {
+        calServices.computeIfPresent(projectId, (key, executor) -> {
+            if (!executor.getQueue().isEmpty()) {
+                return executor;
+            }
+            executor.shutdown();
+            metrics.unmonitor("calibration", "project", String.valueOf(key));
+            return null;
+        });
+    }
+
     @Override
     public boolean startCalibration(Boolean autoPickingEnabled) {
-        // FIXME: These *All methods should be *AllByProjectID instead!
+        return startCalibration(Project.DEFAULT_PROJECT_ID, autoPickingEnabled);
+    }
+
+    @Override
+    public boolean startCalibration(Long projectId, Boolean autoPickingEnabled) {
         final Long id = atomicLong.getAndIncrement();
         try {
-            calService.submit(() -> {
+            submitCalibration(projectId, () -> {
+                ProgressTracker progress = progressService.start(id, "calibration");
                 try {
                     notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.STARTING));
-                    log.info("Starting calibration at {}", LocalDateTime.now());
+                    log.info("Starting calibration of project {} at {}", projectId, LocalDateTime.now());
+                    CalibrationMetrics.RunReport report = metrics.startRun("calibration", projectId);
 
                     // TODO: Look at removing auto picking code from the methods
                     // below and centralizing it to here instead.
-                    Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap = mapParamsToFrequencyBands(sharedParametersService.findAll());
+                    Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap = mapParamsToFrequencyBands(sharedParametersService.findAllByProjectId(projectId));
                     final Map<FrequencyBand, SharedFrequencyBandParameters> snrFilterMap = new HashMap<>(frequencyBandParameterMap);
 
                     notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.PEAK_STARTING));
-                    List<Waveform> stacks = waveformService.getAllActiveStacks();
+                    report.mark("velocity");
+                    List<Waveform> stacks = waveformService.getAllActiveStacks(projectId);
                     // In general each step produces output that the next step
                     // consumes
 
@@ -365,13 +462,12 @@ public class CalibrationServiceImpl implements CalibrationService {
                     // 1) Compute the peak velocity, amplitude, and SNR values
                     // for the given coda stacks using theoretical group velocities
                     // to cut the windows for noise and SN/LG arrival
-                    Stream<PeakVelocityMeasurement> velocityMeasurements = peakVelocityMeasurementsService.measureVelocities(stacks, velocityConfig);
+                    Stream<PeakVelocityMeasurement> velocityMeasurements = trackVelocities(progress, stacks, peakVelocityMeasurementsService.measureVelocities(stacks, velocityConfig));
 
-                    // First step is to clean up all the intermediary results if
-                    // they exist. This is as wildly not-thread-safe as you might
-                    // imagine.
-                    peakVelocityMeasurementsService.deleteAll();
-                    syntheticService.deleteAll();
+                    // First step is to clean up all the intermediary results for
+                    // this project if they exist. Other projects keep theirs.
+                    peakVelocityMeasurementsService.deleteAllByProjectId(projectId);
+                    syntheticService.deleteAllByProjectId(projectId);
 
                     // We want to filter out the ones that don't pass the user's
                     // SNR threshold
@@ -381,13 +477,15 @@ public class CalibrationServiceImpl implements CalibrationService {
                     peakVelocityMeasurementsService.save(snrFilteredVelocity);
 
                     notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.SHAPE_STARTING));
+                    report.mark("shape");
 
                     // 2) Compute the shape parameters describing each stack
                     // (Velocity V0-2, Beta B0-2, Gamma G0-2) and then fit
                     // models to each of those parameters for each frequency band that can be used
                     // to generate synthetic coda at any given distance and frequency band
                     // combination
-                    frequencyBandParameterMap = shapeCalibrationService.measureShapes(snrFilteredVelocity, frequencyBandParameterMap, constraints, autoPickingEnabled);
+                    ProgressCounter shapes = progress.stage("shape").addTotal(frequencyBandParameterMap.size());
+                    frequencyBandParameterMap = shapeCalibrationService.measureShapes(projectId, snrFilteredVelocity, frequencyBandParameterMap, constraints, autoPickingEnabled, band -> shapes.increment());
 
                     frequencyBandParameterMap = mapParamsToFrequencyBands(sharedParametersService.save(frequencyBandParameterMap.values()));
 
@@ -396,27 +494,37 @@ public class CalibrationServiceImpl implements CalibrationService {
                     // raw amplitudes. Then feed the synthetics to the measurement
                     // service and get raw at start and raw at measurement time
                     // values back
+                    report.mark("spectra");
                     stacks = filterToEndPicked(stacks);
 
+                    ProgressCounter spectraCounter = progress.stage("spectra").addTotal(3l * stacks.size());
                     List<SpectraMeasurement> spectra = spectraMeasurementService.measureSpectra(
-                            syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap),
+                            projectId,
+                                syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap),
                                 frequencyBandParameterMap,
-                                velocityConfig);
+                                velocityConfig,
+                                null);
+                    spectraCounter.add(stacks.size());
 
                     notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.PATH_STARTING));
+                    report.mark("path");
 
                     // 4) For each event in the data set find all stations that
                     // recorded the event, then compute what the estimated path
                     // effect correction needs to be for each frequency band
-                    frequencyBandParameterMap = pathCalibrationService.measurePathCorrections(spectraByFrequencyBand(spectra), frequencyBandParameterMap, velocityConfig);
+                    ProgressCounter paths = progress.stage("path").addTotal(frequencyBandParameterMap.size());
+                    frequencyBandParameterMap = pathCalibrationService.measurePathCorrections(projectId, spectraByFrequencyBand(spectra), frequencyBandParameterMap, velocityConfig, band -> paths.increment());
 
                     frequencyBandParameterMap = mapParamsToFrequencyBands(sharedParametersService.save(frequencyBandParameterMap.values()));
 
                     // 5) Measure the amplitudes again but this time we can
                     // compute ESH path corrected values
-                    spectra = spectraMeasurementService.measureSpectra(syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap), frequencyBandParameterMap, velocityConfig);
+                    report.mark("path-spectra");
+                    spectra = spectraMeasurementService.measureSpectra(projectId, syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap), frequencyBandParameterMap, velocityConfig, null);
+                    spectraCounter.add(stacks.size());
 
                     notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.SITE_STARTING));
+                    report.mark("site");
 
                     // 6) Now using those path correction values plus a list of
                     // trusted Mw/spectra measurements for some subset of events
@@ -424,28 +532,41 @@ public class CalibrationServiceImpl implements CalibrationService {
                     // from the expected source spectra for that MW value. This value is
                     // recorded as the site specific offset for measured values at each
                     // frequency band
+                    // One item per band plus one for the Mw fit that follows
+                    Map<FrequencyBand, List<SpectraMeasurement>> siteSpectra = spectraByFrequencyBand(spectra);
+                    ProgressCounter sites = progress.stage("site").addTotal(siteSpectra.size() + 1l);
                     Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap = siteCalibrationService.measureSiteCorrections(
-                            spectraByFrequencyBand(spectra),
+                            projectId,
+                                siteSpectra,
                                 mdacFiService.findFirst(),
                                 collectByFrequencyBand(mdacPsService.findAll()),
                                 collectByEvid(referenceMwService.findAll()),
                                 frequencyBandParameterMap,
-                                PICK_TYPES.LG);
+                                PICK_TYPES.LG,
+                                band -> sites.increment());
+
+                    sites.increment();
 
                     // 7) Measure the amplitudes one last time to fill out the
                     // Path+Site corrected amplitude values
+                    report.mark("site-spectra");
                     spectra = spectraMeasurementService.measureSpectra(
-                            syntheticService.save(syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap)),
+                            projectId,
+                                syntheticService.save(syntheticGenerationService.generateSynthetics(stacks, frequencyBandParameterMap)),
                                 frequencyBandParameterMap,
                                 velocityConfig,
                                 frequencyBandSiteParameterMap);
+                    spectraCounter.add(stacks.size());
 
-                    log.info("Calibration complete at {}", LocalDateTime.now());
-                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.COMPLETE));
+                    report.finish();
+                    log.info("Calibration of project {} complete at {}", projectId, LocalDateTime.now());
+                    notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.COMPLETE).setProjectId(projectId));
                 } catch (Exception ex) {
                     log.error(ex.getMessage(), ex);
                     notificationService.post(new CalibrationStatusEvent(id, CalibrationStatusEvent.Status.ERROR, new Result<>(false, ex)));
                     throw ex;
+                } finally {
+                    progress.finish();
                 }
                 return new CompletableFuture<>();
             });
@@ -459,7 +580,9 @@ public class CalibrationServiceImpl implements CalibrationService {
     private List<Waveform> filterToEndPicked(List<Waveform> stacks) {
         return stacks.parallelStream().filter(wave -> wave.getAssociatedPicks() != null).map(wave -> {
             Optional<WaveformPick> pick = wave.getAssociatedPicks().stream().filter(p -> p.getPickType() != null && PICK_TYPES.F.name().equalsIgnoreCase(p.getPickType().trim())).findFirst();
-            if (pick.isPresent() && pick.get().getPickTimeSecFromOrigin() > 0) {
+            boolean picked = pick.isPresent() && pick.get().getPickTimeSecFromOrigin() > 0;
+            metrics.filtered(CalibrationMetrics.END_PICK_FILTER, wave, picked);
+            if (picked) {
                 return wave;
             } else {
                 return null;
@@ -467,14 +590,32 @@ public class CalibrationServiceImpl implements CalibrationService {
         }).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
+    /**
+     * Counts velocity measurements per band as the (lazy) measurement stream
+     * is consumed.
+     */
+    private Stream<PeakVelocityMeasurement> trackVelocities(ProgressTracker progress, List<Waveform> stacks, Stream<PeakVelocityMeasurement> velocityMeasurements) {
+        stacks.stream().collect(Collectors.groupingBy(CalibrationServiceImpl::bandLabel, Collectors.counting())).forEach((band, count) -> progress.stage("velocity", band).addTotal(count));
+        return velocityMeasurements.peek(vel -> {
+            if (vel.getWaveform() != null) {
+                progress.stage("velocity", bandLabel(vel.getWaveform())).increment();
+            }
+        });
+    }
+
+    private static String bandLabel(Waveform waveform) {
+        return waveform.getLowFrequency() + "-" + waveform.getHighFrequency();
+    }
+
     private List<PeakVelocityMeasurement> filterVelocityBySnr(final Map<FrequencyBand, SharedFrequencyBandParameters> snrFilterMap, Stream<PeakVelocityMeasurement> velocityMeasurements) {
+        FrequencyBandIndex<SharedFrequencyBandParameters> snrFilterIndex = FrequencyBandIndex.of(snrFilterMap);
         return velocityMeasurements.parallel().filter(vel -> {
             boolean valid = false;
             if (vel.getWaveform() != null) {
-                FrequencyBand fb = new FrequencyBand(vel.getWaveform().getLowFrequency(), vel.getWaveform().getHighFrequency());
-                SharedFrequencyBandParameters params = snrFilterMap.get(fb);
+                SharedFrequencyBandParameters params = snrFilterIndex.get(vel.getWaveform());
                 valid = params != null && vel.getSnr() >= params.getMinSnr();
             }
+            metrics.filtered(CalibrationMetrics.SNR_FILTER, vel.getWaveform(), valid);
             return valid;
         }).collect(Collectors.toList());
     }
@@ -507,7 +648,7 @@ public class CalibrationServiceImpl implements CalibrationService {
 
     @PreDestroy
     private void stop() {
-        calService.shutdownNow();
+        calServices.values().forEach(ExecutorService::shutdownNow);
         measureService.shutdownNow();
     }
 
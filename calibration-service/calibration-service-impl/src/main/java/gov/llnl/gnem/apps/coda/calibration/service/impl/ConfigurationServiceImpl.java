@@ -17,6 +17,7 @@ import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +31,7 @@ import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
 
 @Service
+@Lazy(false)
 @Transactional
 public class ConfigurationServiceImpl implements ConfigurationService {
 
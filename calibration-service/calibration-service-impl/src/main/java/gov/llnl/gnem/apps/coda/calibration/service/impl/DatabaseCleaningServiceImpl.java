@@ -14,6 +14,8 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.service.impl;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,22 +23,33 @@ import javax.persistence.EntityManager;
 import javax.persistence.Table;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.Type.PersistenceType;
+import javax.sql.DataSource;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.service.api.DatabaseCleaningService;
 import gov.llnl.gnem.apps.coda.common.model.util.Durable;
+import gov.llnl.gnem.apps.coda.common.repository.DatabaseVendor;
 
 @Service
 public class DatabaseCleaningServiceImpl implements DatabaseCleaningService {
 
+    private static final Logger log = LoggerFactory.getLogger(DatabaseCleaningServiceImpl.class);
+
     private EntityManager entityManager;
 
+    private DataSource dataSource;
+
+    private DatabaseVendor vendor;
+
     @Autowired
-    public DatabaseCleaningServiceImpl(EntityManager entityManager) {
+    public DatabaseCleaningServiceImpl(EntityManager entityManager, DataSource dataSource) {
         this.entityManager = entityManager;
+        this.dataSource = dataSource;
     }
 
     @Transactional
@@ -54,12 +67,20 @@ public class DatabaseCleaningServiceImpl implements DatabaseCleaningService {
             }
 
             entityManager.flush();
-            entityManager.createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
-            tableNames.forEach(tableName -> entityManager.createNativeQuery("TRUNCATE TABLE " + tableName).executeUpdate());
-            entityManager.createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+            getVendor().truncateStatements(tableNames).forEach(statement -> entityManager.createNativeQuery(statement).executeUpdate());
             return true;
         } catch (Exception e) {
+            log.error("Unable to clear the database: {}", e.getMessage(), e);
             return false;
         }
     }
+
+    private DatabaseVendor getVendor() throws SQLException {
+        if (vendor == null) {
+            try (Connection conn = dataSource.getConnection()) {
+                vendor = DatabaseVendor.fromProductName(conn.getMetaData().getDatabaseProductName());
+            }
+        }
+        return vendor;
+    }
 }
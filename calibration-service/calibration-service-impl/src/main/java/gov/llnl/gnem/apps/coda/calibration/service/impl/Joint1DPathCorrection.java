@@ -15,28 +15,20 @@
 package gov.llnl.gnem.apps.coda.calibration.service.impl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.IntStream;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.apache.commons.math3.analysis.MultivariateFunction;
-import org.apache.commons.math3.exception.TooManyEvaluationsException;
-import org.apache.commons.math3.optim.ConvergenceChecker;
-import org.apache.commons.math3.optim.InitialGuess;
-import org.apache.commons.math3.optim.MaxEval;
 import org.apache.commons.math3.optim.PointValuePair;
-import org.apache.commons.math3.optim.SimpleBounds;
-import org.apache.commons.math3.optim.SimpleValueChecker;
-import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
-import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
-import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.CMAESOptimizer;
-import org.apache.commons.math3.random.MersenneTwister;
 import org.eclipse.collections.impl.list.mutable.primitive.DoubleArrayList;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,13 +41,13 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
 import gov.llnl.gnem.apps.coda.calibration.service.api.PathCalibrationMeasurementService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.PathCalibrationService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.CalibrationDatasetIndex;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MultiStartSearch;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
-import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
-import gov.llnl.gnem.apps.coda.common.model.domain.Station;
-import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
-import llnl.gnem.core.util.Geometry.EModel;
+import gov.llnl.gnem.apps.coda.common.service.api.GeometryService;
 
 @Service
 @Transactional
@@ -85,6 +77,7 @@ public class Joint1DPathCorrection implements PathCalibrationService {
     private static final double SITE_MIN = -10.0;
 
     private static final int POP_SIZE = 20;
+    private static final double WARM_SIGMA = 0.1;
 
     // Evids actually potentially need meta-data about p1,p2,q,xt,xc,etc per
     // evid in the future but for now they are common values for 1D.
@@ -99,19 +92,48 @@ public class Joint1DPathCorrection implements PathCalibrationService {
 
     private static final double efact = Math.log10(Math.E);
     private PathCalibrationMeasurementService pathCalibrationMeasurementService;
+    private GeometryService geometryService;
+    private CalibrationMetrics metrics;
 
     @Value(value = "${path.use-aggressive-opt:true}")
     private boolean agressiveOptimization;
 
+    // Screen the start grid with one cost evaluation per point and only run
+    // CMA-ES from the best few, stopping once enough runs agree
+    @Value(value = "${path.search.coarse-to-fine:true}")
+    private boolean coarseToFine;
+
+    @Value(value = "${path.search.warm-start:true}")
+    private boolean warmStart;
+
+    @Value(value = "${path.search.top-k:4}")
+    private int topK;
+
+    @Value(value = "${path.search.converged-runs:2}")
+    private int convergedRuns;
+
+    @Value(value = "${path.search.convergence-tolerance:1E-4}")
+    private double convergenceTolerance;
+
     @Autowired
-    public Joint1DPathCorrection(SpectraCalculator spectraCalc, PathCalibrationMeasurementService pathCalibrationMeasurementService) {
+    public Joint1DPathCorrection(SpectraCalculator spectraCalc, PathCalibrationMeasurementService pathCalibrationMeasurementService, GeometryService geometryService,
+            CalibrationMetrics metrics) {
         this.spectraCalc = spectraCalc;
         this.pathCalibrationMeasurementService = pathCalibrationMeasurementService;
+        this.geometryService = geometryService;
+        this.metrics = metrics;
     }
 
     @Override
     public Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, VelocityConfiguration velConf) {
+        return measurePathCorrections(Project.DEFAULT_PROJECT_ID, dataByFreqBand, frequencyBandParameters, velConf, band -> {
+        });
+    }
+
+    @Override
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measurePathCorrections(Long projectId, Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, VelocityConfiguration velConf, Consumer<FrequencyBand> onBand) {
 
         if (velConf != null) {
             Double phase = velConf.getPhaseVelocityInKms();
@@ -124,257 +146,302 @@ public class Joint1DPathCorrection implements PathCalibrationService {
             log.debug("Null or zero velocity config passed in {}, using phase velocity {} instead", velConf, vphase);
         }
 
-        List<PathCalibrationMeasurement> measurements = new ArrayList<>();
-        Map<FrequencyBand, SharedFrequencyBandParameters> pathCorrectedFrequencyBandParameters = new HashMap<>();
-
-        Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> dataMappedToEventAndStation = removeSingleStationOrFewerEntries(mapToEventAndStation(dataByFreqBand));
-
-        frequencyBandParameters.entrySet().parallelStream().forEach(frequencyBandParams -> {
-
-            SharedFrequencyBandParameters pathCorrectedParams = frequencyBandParams.getValue();
-
-            Map<Station, Integer> eventCountByStation = new HashMap<>();
-            Set<Station> stations = new HashSet<>();
-            Map<Station, Integer> stationIdxMap = new HashMap<>();
-            Map<Event, Map<Station, Double>> dataMap = new HashMap<>();
-            Map<Event, Map<Station, Double>> distanceMap = new HashMap<>();
-            FrequencyBand frequencyBand = frequencyBandParams.getKey();
-
-            Map<Event, Map<Station, SpectraMeasurement>> freqBandData = dataMappedToEventAndStation.get(frequencyBand);
+        List<PathCalibrationMeasurement> measurements = Collections.synchronizedList(new ArrayList<>());
+        Map<FrequencyBand, SharedFrequencyBandParameters> pathCorrectedFrequencyBandParameters = new ConcurrentHashMap<>();
+
+        CalibrationDatasetIndex dataset = CalibrationDatasetIndex.of(dataByFreqBand);
+        double[] rawAtMeasurementTime = dataset.column(SpectraMeasurement::getRawAtMeasurementTime);
+        double[] distances = dataset.distances(geometryService);
+
+        if (coarseToFine && warmStart) {
+            // Bands are fit in frequency order so each one can start from the
+            // optimum of its lower neighbour
+            BandOptimum previous = null;
+            for (Entry<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParams : new TreeMap<>(frequencyBandParameters).entrySet()) {
+                PathBandData bandData = PathBandData.of(this, dataset, dataset.bandId(frequencyBandParams.getKey()), rawAtMeasurementTime, distances);
+                BandOptimum optimum = fitBand(frequencyBandParams.getKey(), frequencyBandParams.getValue(), bandData, previous, measurements, pathCorrectedFrequencyBandParameters);
+                if (optimum != null) {
+                    previous = optimum;
+                }
+                onBand.accept(frequencyBandParams.getKey());
+            }
+        } else {
+            frequencyBandParameters.entrySet().parallelStream().forEach(frequencyBandParams -> {
+                PathBandData bandData = PathBandData.of(this, dataset, dataset.bandId(frequencyBandParams.getKey()), rawAtMeasurementTime, distances);
+                fitBand(frequencyBandParams.getKey(), frequencyBandParams.getValue(), bandData, null, measurements, pathCorrectedFrequencyBandParameters);
+                onBand.accept(frequencyBandParams.getKey());
+            });
+        }
 
-            if (freqBandData != null) {
-                // Avoiding divide by zero as this is only ever used for
-                // residual calculations
-                final double totalDataCount;
-                long dataCount = 0l;
-                for (Entry<Event, Map<Station, SpectraMeasurement>> eventEntry : freqBandData.entrySet()) {
-                    Event event = eventEntry.getKey();
-                    for (Entry<Station, SpectraMeasurement> stationEntry : eventEntry.getValue().entrySet()) {
-                        SpectraMeasurement spectra = stationEntry.getValue();
-                        Station station = stationEntry.getKey();
+        // Path measurements are replaced per project so concurrent
+        // calibrations of other projects keep theirs
+        pathCalibrationMeasurementService.deleteAllByProjectId(projectId);
+        pathCalibrationMeasurementService.save(measurements.stream().map(measurement -> measurement.setProjectId(projectId)).collect(Collectors.toList()));
 
-                        if (!dataMap.containsKey(event)) {
-                            dataMap.put(event, new HashMap<Station, Double>());
-                            distanceMap.put(event, new HashMap<Station, Double>());
-                        }
-                        if (dataMap.get(event).containsKey(station)) {
-                            log.info("Saw same evid/sta pair more than once {} {}", event.getEventId(), station.getStationName());
-                        }
+        return pathCorrectedFrequencyBandParameters;
+    }
 
-                        if (!eventCountByStation.containsKey(station)) {
-                            eventCountByStation.put(station, 0);
-                        }
-                        dataMap.get(event).put(station, spectra.getRawAtMeasurementTime());
-                        distanceMap.get(event).put(station, EModel.getDistanceWGS84(event.getLatitude(), event.getLongitude(), station.getLatitude(), station.getLongitude()));
+    private BandOptimum fitBand(FrequencyBand frequencyBand, SharedFrequencyBandParameters pathCorrectedParams, PathBandData bandData, BandOptimum warm,
+            List<PathCalibrationMeasurement> measurements, Map<FrequencyBand, SharedFrequencyBandParameters> pathCorrectedFrequencyBandParameters) {
 
-                        stations.add(station);
-                        eventCountByStation.put(station, eventCountByStation.get(station) + 1);
-                        dataCount++;
-                    }
-                }
-                dataCount = dataCount > 0 ? dataCount : 1;
-                totalDataCount = dataCount;
-
-                // Common terms + one site term for each station
-                double[] optimizationParams = new double[NUM_TERMS + stations.size()];
-                double[] optimizationLowBounds = new double[NUM_TERMS + stations.size()];
-                double[] optimizationHighBounds = new double[NUM_TERMS + stations.size()];
-
-                int optIdx = NUM_TERMS;
-                for (Station stationName : stations) {
-                    stationIdxMap.put(stationName, optIdx);
-                    optIdx++;
-                }
+        if (bandData == null) {
+            return null;
+        }
 
-                // FIXME: These shouldn't be hardcoded
-                optimizationParams[P1_IDX] = p1;
-                optimizationLowBounds[P1_IDX] = P1_MIN;
-                optimizationHighBounds[P1_IDX] = P1_MAX;
+        // Avoiding divide by zero as this is only ever used for
+        // residual calculations
+        final double totalDataCount = bandData.size() > 0 ? bandData.size() : 1;
+
+        // Common terms + one site term for each station
+        int stationCount = bandData.stationCount();
+        double[] optimizationParams = new double[NUM_TERMS + stationCount];
+        double[] optimizationLowBounds = new double[NUM_TERMS + stationCount];
+        double[] optimizationHighBounds = new double[NUM_TERMS + stationCount];
+
+        // FIXME: These shouldn't be hardcoded
+        optimizationParams[P1_IDX] = p1;
+        optimizationLowBounds[P1_IDX] = P1_MIN;
+        optimizationHighBounds[P1_IDX] = P1_MAX;
+
+        optimizationParams[Q_IDX] = q;
+        optimizationLowBounds[Q_IDX] = Q_MIN;
+        optimizationHighBounds[Q_IDX] = Q_MAX;
+
+        optimizationParams[XCROSS_IDX] = xcross;
+        optimizationLowBounds[XCROSS_IDX] = XCROSS_MIN;
+        optimizationHighBounds[XCROSS_IDX] = XCROSS_MAX;
+
+        optimizationParams[XTRANS_IDX] = xtrans;
+        optimizationLowBounds[XTRANS_IDX] = XTRANS_MIN;
+        optimizationHighBounds[XTRANS_IDX] = XTRANS_MAX;
+
+        for (int i = 4; i < optimizationParams.length; i++) {
+            optimizationParams[i] = 0.0;
+            optimizationLowBounds[i] = SITE_MIN;
+            optimizationHighBounds[i] = SITE_MAX;
+        }
 
-                optimizationParams[Q_IDX] = q;
-                optimizationLowBounds[Q_IDX] = Q_MIN;
-                optimizationHighBounds[Q_IDX] = Q_MAX;
+        double[] sigmaArray = new double[optimizationParams.length];
+        for (int i = 0; i < sigmaArray.length; i++) {
+            sigmaArray[i] = 0.5;
+        }
 
-                optimizationParams[XCROSS_IDX] = xcross;
-                optimizationLowBounds[XCROSS_IDX] = XCROSS_MIN;
-                optimizationHighBounds[XCROSS_IDX] = XCROSS_MAX;
+        // starting residual
+        Double initialResidual = Math.pow(bandData.value(optimizationParams) / totalDataCount, 2.0);
+        log.debug("Band {} initial cost: {}", frequencyBand.getLowFrequency(), initialResidual);
+
+        List<double[]> paramPoints = makeParamPoints(NUM_TERMS, agressiveOptimization, optimizationLowBounds, optimizationHighBounds);
+
+        MultiStartSearch search = new MultiStartSearch().setTolerance(TOLERANCE).setPopulationSize(POP_SIZE);
+        double[] warmPoint = null;
+        double[] warmSigma = null;
+        if (coarseToFine) {
+            search.setTopK(topK).setConvergedRuns(convergedRuns).setConvergenceTolerance(convergenceTolerance);
+            if (warm != null) {
+                warmPoint = warm.startFor(bandData);
+                warmSigma = new double[sigmaArray.length];
+                Arrays.fill(warmSigma, WARM_SIGMA);
+            }
+        } else {
+            // Optimize from every grid point like before
+            search.setTopK(paramPoints.size()).setConvergedRuns(paramPoints.size()).setConvergenceTolerance(0.0);
+        }
 
-                optimizationParams[XTRANS_IDX] = xtrans;
-                optimizationLowBounds[XTRANS_IDX] = XTRANS_MIN;
-                optimizationHighBounds[XTRANS_IDX] = XTRANS_MAX;
+        long start = System.nanoTime();
+        MultiStartSearch.Result result = search.search(bandData, optimizationLowBounds, optimizationHighBounds, sigmaArray, paramPoints, warmPoint, warmSigma);
+        metrics.optimized("path", frequencyBand, result.getEvaluations(), System.nanoTime() - start);
+        PointValuePair optimizedResult = result.getBest();
+        log.info(
+                "Path band {}-{} used {} cost evaluations ({} screening {} starts, {} optimizer runs{}{})",
+                    frequencyBand.getLowFrequency(),
+                    frequencyBand.getHighFrequency(),
+                    result.getEvaluations(),
+                    result.getScreenEvaluations(),
+                    paramPoints.size(),
+                    result.getOptimizerRuns(),
+                    warmPoint != null ? ", warm started" : "",
+                    result.isConverged() && coarseToFine ? ", converged early" : "");
+
+        if (optimizedResult == null) {
+            //FIXME: Return an error to the client and stop the calibration
+            log.error("Unable to converge while optimizing for {}", frequencyBand);
+        } else {
+            optimizationParams = optimizedResult.getPoint();
+        }
 
-                for (int i = 4; i < optimizationParams.length; i++) {
-                    optimizationParams[i] = 0.0;
-                    optimizationLowBounds[i] = SITE_MIN;
-                    optimizationHighBounds[i] = SITE_MAX;
-                }
+        // final residual
+        Double finalResults = bandData.value(optimizationParams);
+        Double finalResidual = Math.pow(finalResults / totalDataCount, 2.0);
+        log.debug("Band {} final cost: {}", frequencyBand.getLowFrequency(), finalResidual);
+
+        PathCalibrationMeasurement measurement = new PathCalibrationMeasurement();
+        measurement.setInitialResidual(initialResidual);
+        measurement.setFinalResidual(finalResidual);
+        measurement.setEvaluations(result.getEvaluations());
+        measurement.setFrequencyBand(frequencyBand);
+        measurements.add(measurement);
+
+        pathCorrectedParams.setP1(Math.pow(10.0, optimizationParams[P1_IDX]));
+        pathCorrectedParams.setS2(p2);
+        pathCorrectedParams.setQ(Math.pow(10.0, optimizationParams[Q_IDX]));
+        pathCorrectedParams.setXc(Math.pow(10.0, optimizationParams[XCROSS_IDX]));
+        pathCorrectedParams.setXt(Math.pow(10.0, Math.pow(10.0, optimizationParams[XTRANS_IDX])));
+        pathCorrectedFrequencyBandParameters.put(frequencyBand, pathCorrectedParams);
+
+        return optimizedResult != null ? new BandOptimum(optimizationParams, bandData) : null;
+    }
 
-                double[] sigmaArray = new double[optimizationParams.length];
-                for (int i = 0; i < sigmaArray.length; i++) {
-                    sigmaArray[i] = 0.5;
-                }
+    /**
+     * Optimum of a fitted band, used to warm start the next band. Site terms
+     * are carried over by station since the station set differs per band.
+     */
+    private static class BandOptimum {
+        private final double[] point;
+        private final PathBandData bandData;
 
-                // starting residual
-                Double initialResidual = Math.pow(costFunction(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand, optimizationParams) / totalDataCount, 2.0);
-                log.debug("Band {} initial cost: {}", frequencyBand.getLowFrequency(), initialResidual);
-
-                List<double[]> paramPoints = makeParamPoints(NUM_TERMS, agressiveOptimization, optimizationLowBounds, optimizationHighBounds);
-                PointValuePair optimizedResult = IntStream.range(0, paramPoints.size()).parallel().mapToObj(i -> {
-                    ConvergenceChecker<PointValuePair> convergenceChecker = new SimpleValueChecker(TOLERANCE, TOLERANCE);
-                    CMAESOptimizer optimizer = new CMAESOptimizer(1000000, TOLERANCE, true, 0, 10, new MersenneTwister(), true, convergenceChecker);
-
-                    MultivariateFunction prediction = new ESHPathMultivariate(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand);
-                    PointValuePair opt = null;
-                    try {
-                        opt = optimizer.optimize(
-                                new MaxEval(1000000),
-                                    new ObjectiveFunction(prediction),
-                                    GoalType.MINIMIZE,
-                                    new SimpleBounds(optimizationLowBounds, optimizationHighBounds),
-                                    new InitialGuess(paramPoints.get(i)),
-                                    new CMAESOptimizer.PopulationSize(POP_SIZE),
-                                    new CMAESOptimizer.Sigma(sigmaArray));
-                    } catch (TooManyEvaluationsException e) {
-                    }
-                    log.debug("frequency: {}, iteration: {}, residual: {}", frequencyBand.getLowFrequency(), i, opt.getValue());
-                    return opt;
-                }).filter(Objects::nonNull).reduce((a, b) -> Double.compare(a.getValue(), b.getValue()) <= 0 ? a : b).orElse(null);
-
-                if (optimizedResult == null) {
-                    //FIXME: Return an error to the client and stop the calibration
-                    log.error("Unable to converge while optimizing for {}", frequencyBand);
-                } else {
-                    optimizationParams = optimizedResult.getPoint();
-                }
+        private BandOptimum(double[] point, PathBandData bandData) {
+            this.point = point;
+            this.bandData = bandData;
+        }
 
-                // final residual
-                Double finalResults = costFunction(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand, optimizationParams);
-                Double finalResidual = Math.pow(finalResults / totalDataCount, 2.0);
-                log.debug("Band {} final cost: {}", frequencyBand.getLowFrequency(), finalResidual);
-
-                PathCalibrationMeasurement measurement = new PathCalibrationMeasurement();
-                measurement.setInitialResidual(initialResidual);
-                measurement.setFinalResidual(finalResidual);
-                measurement.setFrequencyBand(frequencyBand);
-                measurements.add(measurement);
-
-                pathCorrectedParams.setP1(Math.pow(10.0, optimizationParams[P1_IDX]));
-                pathCorrectedParams.setS2(p2);
-                pathCorrectedParams.setQ(Math.pow(10.0, optimizationParams[Q_IDX]));
-                pathCorrectedParams.setXc(Math.pow(10.0, optimizationParams[XCROSS_IDX]));
-                pathCorrectedParams.setXt(Math.pow(10.0, Math.pow(10.0, optimizationParams[XTRANS_IDX])));
-                pathCorrectedFrequencyBandParameters.put(frequencyBand, pathCorrectedParams);
+        private double[] startFor(PathBandData target) {
+            double[] siteByStation = new double[target.dataset.stationCount()];
+            for (int i = 0; i < bandData.stationCount(); i++) {
+                siteByStation[bandData.stationIds[i]] = point[NUM_TERMS + i];
             }
-        });
 
-        pathCalibrationMeasurementService.deleteAll();
-        pathCalibrationMeasurementService.save(measurements);
-
-        return pathCorrectedFrequencyBandParameters;
+            double[] start = new double[NUM_TERMS + target.stationCount()];
+            System.arraycopy(point, 0, start, 0, NUM_TERMS);
+            for (int i = 0; i < target.stationCount(); i++) {
+                start[NUM_TERMS + i] = siteByStation[target.stationIds[i]];
+            }
+            return start;
+        }
     }
 
-    private Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> mapToEventAndStation(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand) {
-        Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> data = new HashMap<>();
-        if (dataByFreqBand != null) {
+    /**
+     * The rows of one band laid out for the path cost function: events with
+     * at least two stations, each as a contiguous run of rows, with the
+     * optimization parameter index of every row's site term resolved up
+     * front.
+     */
+    private static class PathBandData implements MultivariateFunction {
+        private final Joint1DPathCorrection path;
+        private final CalibrationDatasetIndex dataset;
+        private final double freq0;
+        private final int[] eventOffsets;
+        private final int[] paramIdx;
+        private final double[] data;
+        private final double[] distance;
+        private final int[] stationIds;
+        private final int maxEventSize;
+
+        private PathBandData(Joint1DPathCorrection path, CalibrationDatasetIndex dataset, FrequencyBand frequencyBand, int[] eventOffsets, int[] paramIdx, double[] data, double[] distance,
+                int[] stationIds, int maxEventSize) {
+            this.path = path;
+            this.dataset = dataset;
+            this.freq0 = Math.sqrt(frequencyBand.getLowFrequency() * frequencyBand.getHighFrequency());
+            this.eventOffsets = eventOffsets;
+            this.paramIdx = paramIdx;
+            this.data = data;
+            this.distance = distance;
+            this.stationIds = stationIds;
+            this.maxEventSize = maxEventSize;
+        }
 
-            for (Entry<FrequencyBand, List<SpectraMeasurement>> entries : dataByFreqBand.entrySet()) {
-                if (!data.containsKey(entries.getKey())) {
-                    data.put(entries.getKey(), new HashMap<>());
+        /**
+         * @return the band data or null if the band has no event recorded at
+         *         more than one station
+         */
+        private static PathBandData of(Joint1DPathCorrection path, CalibrationDatasetIndex dataset, int bandId, double[] rawAtMeasurementTime, double[] distances) {
+            if (bandId < 0) {
+                return null;
+            }
+            int[] localStation = new int[dataset.stationCount()];
+            Arrays.fill(localStation, -1);
+            IntArrayList stationIds = new IntArrayList();
+            IntArrayList eventOffsets = new IntArrayList();
+            IntArrayList paramIdx = new IntArrayList();
+            DoubleArrayList data = new DoubleArrayList();
+            DoubleArrayList distance = new DoubleArrayList();
+            int maxEventSize = 0;
+
+            int end = dataset.bandEnd(bandId);
+            int row = dataset.bandStart(bandId);
+            while (row < end) {
+                int eventEnd = row + 1;
+                while (eventEnd < end && dataset.eventIdAt(eventEnd) == dataset.eventIdAt(row)) {
+                    eventEnd++;
                 }
-                Map<Event, Map<Station, SpectraMeasurement>> eventMap = data.get(entries.getKey());
-                for (SpectraMeasurement entry : entries.getValue()) {
-                    if (WaveformUtils.isValidWaveform(entry.getWaveform())) {
-                        Event event = entry.getWaveform().getEvent();
-                        Station station = entry.getWaveform().getStream().getStation();
-                        if (!eventMap.containsKey(event)) {
-                            eventMap.put(event, new HashMap<>());
+                if (eventEnd - row > 1) {
+                    eventOffsets.add(data.size());
+                    for (int i = row; i < eventEnd; i++) {
+                        int station = dataset.stationIdAt(i);
+                        if (localStation[station] < 0) {
+                            localStation[station] = stationIds.size();
+                            stationIds.add(station);
                         }
-                        Map<Station, SpectraMeasurement> stationMap = eventMap.get(event);
-                        stationMap.put(station, entry);
+                        paramIdx.add(NUM_TERMS + localStation[station]);
+                        data.add(rawAtMeasurementTime[i]);
+                        distance.add(distances[i]);
                     }
+                    maxEventSize = Math.max(maxEventSize, eventEnd - row);
                 }
+                row = eventEnd;
             }
-        }
-        return data;
-    }
 
-    private class ESHPathMultivariate implements MultivariateFunction {
-        private Map<Event, Map<Station, SpectraMeasurement>> freqBandData;
-        private Map<Event, Map<Station, Double>> dataMap;
-        private Map<Event, Map<Station, Double>> distanceMap;
-        private FrequencyBand frequencyBand;
-        private Map<Station, Integer> stationIdxMap;
-
-        public ESHPathMultivariate(Map<Event, Map<Station, SpectraMeasurement>> freqBandData, Map<Event, Map<Station, Double>> dataMap, Map<Event, Map<Station, Double>> distanceMap,
-                Map<Station, Integer> stationIdxMap, FrequencyBand frequencyBand) {
-            this.freqBandData = freqBandData;
-            this.dataMap = dataMap;
-            this.distanceMap = distanceMap;
-            this.frequencyBand = frequencyBand;
-            this.stationIdxMap = stationIdxMap;
+            if (eventOffsets.isEmpty()) {
+                return null;
+            }
+            eventOffsets.add(data.size());
+            return new PathBandData(path, dataset, dataset.band(bandId), eventOffsets.toArray(), paramIdx.toArray(), data.toArray(), distance.toArray(), stationIds.toArray(), maxEventSize);
         }
 
-        @Override
-        public double value(double[] point) {
-            return costFunction(freqBandData, dataMap, distanceMap, stationIdxMap, frequencyBand, point);
+        private int size() {
+            return data.length;
         }
-    }
 
-    private Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> removeSingleStationOrFewerEntries(Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> freqBandData) {
-        Map<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> localData = new HashMap<>();
-        for (Entry<FrequencyBand, Map<Event, Map<Station, SpectraMeasurement>>> frequencyEntry : freqBandData.entrySet()) {
-            FrequencyBand frequency = frequencyEntry.getKey();
-            for (Event evid : frequencyEntry.getValue().keySet()) {
-                if (freqBandData.get(frequency).get(evid).size() > 1) {
-                    if (!localData.containsKey(frequency)) {
-                        localData.put(frequency, new HashMap<Event, Map<Station, SpectraMeasurement>>());
-                    }
-                    localData.get(frequency).put(evid, freqBandData.get(frequency).get(evid));
-                }
-            }
+        private int stationCount() {
+            return stationIds.length;
         }
-        return localData;
-    }
 
-    /**
-     * cost function for use in optimization code. Extended Street-Herrmann
-     * spreading model, no Q.
-     */
-    public double costFunction(Map<Event, Map<Station, SpectraMeasurement>> evidStaData, Map<Event, Map<Station, Double>> dataMap, Map<Event, Map<Station, Double>> distanceMap,
-            Map<Station, Integer> stationIdxMap, FrequencyBand frequencyBand, double[] optimizationParams) {
-
-        double freq0 = Math.sqrt(frequencyBand.getLowFrequency() * frequencyBand.getHighFrequency());
-
-        return evidStaData.entrySet().parallelStream().map(evidEntry -> {
+        /**
+         * cost function for use in optimization code. Extended
+         * Street-Herrmann spreading model, no Q.
+         */
+        @Override
+        public double value(double[] optimizationParams) {
+            double p1 = Math.pow(10.0, optimizationParams[P1_IDX]);
+            double q = Math.pow(10.0, optimizationParams[Q_IDX]);
+            double xcross = Math.pow(10.0, optimizationParams[XCROSS_IDX]);
+            double xtrans = Math.pow(10.0, Math.pow(10.0, optimizationParams[XTRANS_IDX]));
+            double attenuation = Math.PI * freq0 * efact / (q * path.vphase);
+            double huberDel = .5d;
+
+            double[] adjusted = new double[maxEventSize];
             double cost = 0.0;
-            Event evid = evidEntry.getKey();
-            Map<Station, SpectraMeasurement> stationMapData = evidEntry.getValue();
-            Map<Station, Double> stationValues = new HashMap<>();
-
-            DoubleArrayList dataVec = new DoubleArrayList(stationMapData.size());
-            for (Entry<Station, SpectraMeasurement> entry : stationMapData.entrySet()) {
-                double del = distanceMap.get(evid).get(entry.getKey());
-                double site = optimizationParams[stationIdxMap.get(entry.getKey())];
-                double p1 = Math.pow(10.0, optimizationParams[P1_IDX]);
-                double q = Math.pow(10.0, optimizationParams[Q_IDX]);
-                double xcross = Math.pow(10.0, optimizationParams[XCROSS_IDX]);
-                double xtrans = Math.pow(10.0, Math.pow(10.0, optimizationParams[XTRANS_IDX]));
-                double pdat = site + spectraCalc.log10ESHcorrection(p1, p2, xcross, xtrans, del) - del * Math.PI * freq0 * efact / (q * vphase);
-                double adjustedVal = dataMap.get(evid).get(entry.getKey()) - pdat;
-                dataVec.add(adjustedVal);
-                stationValues.put(entry.getKey(), adjustedVal);
-            }
+            for (int event = 0; event < eventOffsets.length - 1; event++) {
+                int start = eventOffsets[event];
+                int count = eventOffsets[event + 1] - start;
+                for (int i = 0; i < count; i++) {
+                    int row = start + i;
+                    double del = distance[row];
+                    double pdat = optimizationParams[paramIdx[row]] + path.spectraCalc.log10ESHcorrection(p1, path.p2, xcross, xtrans, del) - del * attenuation;
+                    adjusted[i] = data[row] - pdat;
+                }
 
-            if (dataVec.size() > 1) {
-                double huberDel = .5d;
-                double median = dataVec.median();
-                for (Entry<Station, SpectraMeasurement> entry1 : stationMapData.entrySet()) {
-                    double diff = Math.abs(stationValues.get(entry1.getKey()) - median);
+                // Sorting in place is fine, the Huber sum does not depend on
+                // the order of the residuals
+                Arrays.sort(adjusted, 0, count);
+                int mid = count / 2;
+                double median = count % 2 == 0 ? (adjusted[mid - 1] + adjusted[mid]) / 2.0 : adjusted[mid];
+                for (int i = 0; i < count; i++) {
+                    double diff = Math.abs(adjusted[i] - median);
                     cost = cost + (Math.pow(huberDel, 2.0) + (Math.sqrt(1d + Math.pow(diff / huberDel, 2.0)) - 1d));
                 }
             }
             return cost;
-        }).reduce(0.0d, Double::sum);
+        }
     }
 
     /**
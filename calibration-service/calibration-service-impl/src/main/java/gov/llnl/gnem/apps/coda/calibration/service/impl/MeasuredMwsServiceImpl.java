@@ -51,7 +51,7 @@ public class MeasuredMwsServiceImpl implements MeasuredMwsService {
 
     @Transactional
     public List<MeasuredMwParameters> save(Iterable<MeasuredMwParameters> entities) {
-        return measuredMwsRepository.saveAll(entities);
+        return measuredMwsRepository.persistAll(entities);
     }
 
     @Transactional
@@ -94,6 +94,11 @@ public class MeasuredMwsServiceImpl implements MeasuredMwsService {
         measuredMwsRepository.deleteAllInBatch();
     }
 
+    @Override
+    public void deleteAllByProjectId(Long projectId) {
+        measuredMwsRepository.deleteAllByProjectId(projectId);
+    }
+
     public Class<Long> getIdType() {
         return Long.class;
     }
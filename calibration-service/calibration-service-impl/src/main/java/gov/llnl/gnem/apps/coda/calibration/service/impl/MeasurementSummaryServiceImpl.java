@@ -0,0 +1,321 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.DistanceBinStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PathBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.StationPairStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.MeasurementStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MeasurementSummaryService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SpectraMeasurementService;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Pair;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformMetadata;
+import gov.llnl.gnem.apps.coda.common.service.api.Listener;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import llnl.gnem.core.util.Geometry.EModel;
+
+@Service
+@Lazy(false)
+public class MeasurementSummaryServiceImpl implements MeasurementSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasurementSummaryServiceImpl.class);
+
+    private static final double DISTANCE_BIN_KM = 100.0;
+
+    private SpectraMeasurementService spectraService;
+
+    private final Map<Long, Summary> summaries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MeasurementSummaryServiceImpl(SpectraMeasurementService spectraService, NotificationService notificationService) {
+        this.spectraService = spectraService;
+        notificationService.register(new Listener<CalibrationStatusEvent>() {
+            @Override
+            public void apply(CalibrationStatusEvent event) {
+                if (CalibrationStatusEvent.Status.COMPLETE.equals(event.getStatus())) {
+                    if (event.getProjectId() != null) {
+                        invalidate(event.getProjectId());
+                    } else {
+                        invalidate();
+                    }
+                }
+            }
+
+            @Override
+            public Class<CalibrationStatusEvent> getType() {
+                return CalibrationStatusEvent.class;
+            }
+        });
+        notificationService.register(new Listener<MeasurementStatusEvent>() {
+            @Override
+            public void apply(MeasurementStatusEvent event) {
+                if (MeasurementStatusEvent.Status.COMPLETE.equals(event.getStatus())) {
+                    invalidate();
+                }
+            }
+
+            @Override
+            public Class<MeasurementStatusEvent> getType() {
+                return MeasurementStatusEvent.class;
+            }
+        });
+    }
+
+    @Override
+    public List<PathBandStatistics> getPathStatistics() {
+        return getPathStatistics(Project.DEFAULT_PROJECT_ID);
+    }
+
+    @Override
+    public List<PathBandStatistics> getPathStatistics(Long projectId) {
+        Summary summary = getSummary(projectId);
+        synchronized (summary) {
+            checkCount(projectId, summary);
+            if (summary.pathStatistics == null) {
+                summary.pathStatistics = computePathStatistics(spectraByFrequencyBand(spectraService.findAllMetadataOnlyByProjectId(projectId)));
+            }
+            return summary.pathStatistics;
+        }
+    }
+
+    @Override
+    public List<SiteBandStatistics> getSiteStatistics() {
+        return getSiteStatistics(Project.DEFAULT_PROJECT_ID);
+    }
+
+    @Override
+    public List<SiteBandStatistics> getSiteStatistics(Long projectId) {
+        Summary summary = getSummary(projectId);
+        synchronized (summary) {
+            checkCount(projectId, summary);
+            if (summary.siteStatistics == null) {
+                summary.siteStatistics = computeSiteStatistics(spectraByFrequencyBand(spectraService.findAllMetadataOnlyByProjectId(projectId)));
+            }
+            return summary.siteStatistics;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        summaries.values().forEach(Summary::clear);
+    }
+
+    @Override
+    public void invalidate(Long projectId) {
+        Summary summary = summaries.get(projectId);
+        if (summary != null) {
+            summary.clear();
+        }
+    }
+
+    private Summary getSummary(Long projectId) {
+        return summaries.computeIfAbsent(projectId, key -> new Summary());
+    }
+
+    /**
+     * Guards against the measurements being replaced or cleared outside of a
+     * calibration (e.g. clearing the data set) without a status event.
+     */
+    private void checkCount(Long projectId, Summary summary) {
+        long count = spectraService.countByProjectId(projectId);
+        if (count != summary.cachedCount) {
+            summary.pathStatistics = null;
+            summary.siteStatistics = null;
+            summary.cachedCount = count;
+        }
+    }
+
+    private Map<FrequencyBand, List<SpectraMeasurementMetadata>> spectraByFrequencyBand(List<SpectraMeasurementMetadata> spectra) {
+        return spectra.stream()
+                      .filter(s -> s != null && isUsable(s.getWaveform()))
+                      .collect(Collectors.groupingBy(s -> new FrequencyBand(s.getWaveform().getLowFrequency(), s.getWaveform().getHighFrequency())));
+    }
+
+    private boolean isUsable(WaveformMetadata w) {
+        return w != null
+                && w.getLowFrequency() != null
+                && w.getHighFrequency() != null
+                && w.getEvent() != null
+                && w.getEvent().getEventId() != null
+                && w.getStream() != null
+                && w.getStream().getStation() != null;
+    }
+
+    private List<PathBandStatistics> computePathStatistics(Map<FrequencyBand, List<SpectraMeasurementMetadata>> spectraByBand) {
+        log.debug("Computing path station-pair statistics for {} frequency bands", spectraByBand.size());
+        return spectraByBand.entrySet()
+                            .parallelStream()
+                            .map(entry -> computePathStatistics(entry.getKey(), entry.getValue()))
+                            .sorted(Comparator.comparing(PathBandStatistics::getFrequencyBand))
+                            .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+    }
+
+    private PathBandStatistics computePathStatistics(FrequencyBand band, List<SpectraMeasurementMetadata> measurements) {
+        // Only the first measurement for each station is used per event
+        Map<Event, Map<Station, SpectraMeasurementMetadata>> byEventAndStation = new HashMap<>();
+        for (SpectraMeasurementMetadata meas : measurements) {
+            byEventAndStation.computeIfAbsent(meas.getWaveform().getEvent(), k -> new LinkedHashMap<>()).putIfAbsent(meas.getWaveform().getStream().getStation(), meas);
+        }
+
+        Map<Pair<Station, Station>, SummaryStatistics> beforeStats = new HashMap<>();
+        Map<Pair<Station, Station>, SummaryStatistics> afterStats = new HashMap<>();
+        Map<Pair<Station, Station>, List<Long>> sourceIds = new HashMap<>();
+        Map<Pair<Station, Station>, Double> pairDistances = new HashMap<>();
+        Map<Integer, SummaryStatistics> binnedBefore = new TreeMap<>();
+        Map<Integer, SummaryStatistics> binnedAfter = new TreeMap<>();
+        SummaryStatistics overallBefore = new SummaryStatistics();
+        SummaryStatistics overallAfter = new SummaryStatistics();
+
+        for (Map<Station, SpectraMeasurementMetadata> stationMeasurements : byEventAndStation.values()) {
+            List<SpectraMeasurementMetadata> eventMeasurements = new ArrayList<>(stationMeasurements.values());
+            for (int i = 0; i < eventMeasurements.size(); i++) {
+                for (int j = i + 1; j < eventMeasurements.size(); j++) {
+                    SpectraMeasurementMetadata first = eventMeasurements.get(i);
+                    SpectraMeasurementMetadata second = eventMeasurements.get(j);
+                    if (compareStations(first, second) > 0) {
+                        SpectraMeasurementMetadata tmp = first;
+                        first = second;
+                        second = tmp;
+                    }
+                    Pair<Station, Station> staPair = new Pair<>(first.getWaveform().getStream().getStation(), second.getWaveform().getStream().getStation());
+
+                    double before = Math.abs(first.getRawAtMeasurementTime() - second.getRawAtMeasurementTime());
+                    double after = Math.abs(first.getPathCorrected() - second.getPathCorrected());
+
+                    beforeStats.computeIfAbsent(staPair, k -> new SummaryStatistics()).addValue(before);
+                    afterStats.computeIfAbsent(staPair, k -> new SummaryStatistics()).addValue(after);
+                    overallBefore.addValue(before);
+                    overallAfter.addValue(after);
+
+                    int bin = (int) Math.floor(pairDistances.computeIfAbsent(staPair, MeasurementSummaryServiceImpl::distance) / DISTANCE_BIN_KM);
+                    binnedBefore.computeIfAbsent(bin, k -> new SummaryStatistics()).addValue(before);
+                    binnedAfter.computeIfAbsent(bin, k -> new SummaryStatistics()).addValue(after);
+
+                    List<Long> ids = sourceIds.computeIfAbsent(staPair, k -> new ArrayList<>());
+                    ids.add(first.getWaveform().getId());
+                    ids.add(second.getWaveform().getId());
+                }
+            }
+        }
+
+        List<StationPairStatistics> pairs = new ArrayList<>(beforeStats.size());
+        for (Entry<Pair<Station, Station>, SummaryStatistics> entry : beforeStats.entrySet()) {
+            Station firstStation = entry.getKey().getLeft();
+            Station secondStation = entry.getKey().getRight();
+            pairs.add(
+                    new StationPairStatistics().setFirstStation(firstStation)
+                                               .setSecondStation(secondStation)
+                                               .setDistance(pairDistances.get(entry.getKey()))
+                                               .setCount(entry.getValue().getN())
+                                               .setBeforeStandardDeviation(entry.getValue().getStandardDeviation())
+                                               .setAfterStandardDeviation(afterStats.get(entry.getKey()).getStandardDeviation())
+                                               .setWaveformIds(sourceIds.get(entry.getKey())));
+        }
+
+        List<DistanceBinStatistics> bins = new ArrayList<>(binnedBefore.size());
+        for (Entry<Integer, SummaryStatistics> entry : binnedBefore.entrySet()) {
+            bins.add(
+                    new DistanceBinStatistics().setMinDistance(entry.getKey() * DISTANCE_BIN_KM)
+                                               .setMaxDistance((entry.getKey() + 1) * DISTANCE_BIN_KM)
+                                               .setCount(entry.getValue().getN())
+                                               .setBeforeStandardDeviation(entry.getValue().getStandardDeviation())
+                                               .setAfterStandardDeviation(binnedAfter.get(entry.getKey()).getStandardDeviation()));
+        }
+
+        List<Station> stations = measurements.stream()
+                                             .map(meas -> meas.getWaveform().getStream().getStation())
+                                             .distinct()
+                                             .sorted(Comparator.comparing(Station::getStationName, Comparator.nullsLast(Comparator.naturalOrder())))
+                                             .collect(Collectors.toList());
+
+        return new PathBandStatistics().setFrequencyBand(band)
+                                       .setOverallBeforeStandardDeviation(overallBefore.getStandardDeviation())
+                                       .setOverallAfterStandardDeviation(overallAfter.getStandardDeviation())
+                                       .setStationPairs(pairs)
+                                       .setDistanceBins(bins)
+                                       .setStations(stations);
+    }
+
+    private static double distance(Pair<Station, Station> staPair) {
+        Station first = staPair.getLeft();
+        Station second = staPair.getRight();
+        return EModel.getDistanceWGS84(first.getLatitude(), first.getLongitude(), second.getLatitude(), second.getLongitude());
+    }
+
+    private int compareStations(SpectraMeasurementMetadata first, SpectraMeasurementMetadata second) {
+        String firstName = first.getWaveform().getStream().getStation().getStationName();
+        String secondName = second.getWaveform().getStream().getStation().getStationName();
+        if (firstName == null || secondName == null) {
+            return 0;
+        }
+        return firstName.compareTo(secondName);
+    }
+
+    private List<SiteBandStatistics> computeSiteStatistics(Map<FrequencyBand, List<SpectraMeasurementMetadata>> spectraByBand) {
+        List<SiteBandStatistics> siteStats = new ArrayList<>();
+        for (Entry<FrequencyBand, List<SpectraMeasurementMetadata>> entry : spectraByBand.entrySet()) {
+            Map<String, SummaryStatistics> evidStats = new HashMap<>();
+            for (SpectraMeasurementMetadata meas : entry.getValue()) {
+                evidStats.computeIfAbsent(meas.getWaveform().getEvent().getEventId(), k -> new SummaryStatistics()).addValue(meas.getPathAndSiteCorrected());
+            }
+            for (Entry<String, SummaryStatistics> stats : evidStats.entrySet()) {
+                siteStats.add(
+                        new SiteBandStatistics().setEventId(stats.getKey())
+                                                .setFrequencyBand(entry.getKey())
+                                                .setCount(stats.getValue().getN())
+                                                .setStandardDeviation(stats.getValue().getStandardDeviation()));
+            }
+        }
+        return Collections.unmodifiableList(siteStats);
+    }
+
+    private static class Summary {
+        private List<PathBandStatistics> pathStatistics;
+        private List<SiteBandStatistics> siteStatistics;
+        private long cachedCount = -1l;
+
+        private synchronized void clear() {
+            pathStatistics = null;
+            siteStatistics = null;
+            cachedCount = -1l;
+        }
+    }
+}
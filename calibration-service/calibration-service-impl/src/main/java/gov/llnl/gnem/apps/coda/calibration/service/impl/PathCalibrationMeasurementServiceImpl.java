@@ -40,7 +40,7 @@ public class PathCalibrationMeasurementServiceImpl implements PathCalibrationMea
 
     @Override
     public List<PathCalibrationMeasurement> save(Iterable<PathCalibrationMeasurement> entities) {
-        return pathCalibrationMeasurementRepository.saveAll(entities);
+        return pathCalibrationMeasurementRepository.persistAll(entities);
     }
 
     @Override
@@ -82,4 +82,9 @@ public class PathCalibrationMeasurementServiceImpl implements PathCalibrationMea
     public void deleteAll() {
         pathCalibrationMeasurementRepository.deleteAllInBatch();
     }
+
+    @Override
+    public void deleteAllByProjectId(Long projectId) {
+        pathCalibrationMeasurementRepository.deleteAllByProjectId(projectId);
+    }
 }
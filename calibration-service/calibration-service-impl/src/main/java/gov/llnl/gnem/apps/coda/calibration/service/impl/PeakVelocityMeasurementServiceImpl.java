@@ -45,7 +45,7 @@ public class PeakVelocityMeasurementServiceImpl implements PeakVelocityMeasureme
 
     @Override
     public List<PeakVelocityMeasurement> save(Iterable<PeakVelocityMeasurement> entities) {
-        return getRepository().saveAll(entities);
+        return getRepository().persistAll(entities);
     }
 
     @Override
@@ -111,8 +111,18 @@ public class PeakVelocityMeasurementServiceImpl implements PeakVelocityMeasureme
         return velocityCalc.computeMaximumVelocity(allStacks, velocityConfiguration);
     }
 
+    @Override
+    public List<PeakVelocityMeasurement> findAllByProjectId(Long projectId) {
+        return getRepository().findAllByProjectId(projectId);
+    }
+
     @Override
     public void deleteAll() {
         repository.deleteAllInBatch();
     }
+
+    @Override
+    public void deleteAllByProjectId(Long projectId) {
+        repository.deleteAllByProjectId(projectId);
+    }
 }
@@ -0,0 +1,446 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ProjectImportStatus;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ProjectImportStatus.State;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteCorrections;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersPsService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectFileParser;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectImportService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ReferenceMwParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Progress;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
+
+/**
+ * Imports a whole project directory (or zip archive) on the server. Files are
+ * walked in a stable order and handled in fixed size chunks: while one chunk
+ * is committed in a single transaction the next one is parsed on the bounded
+ * import pool. After every commit a small checkpoint file records how many
+ * files are done so importing the same source again picks up after the last
+ * committed chunk. Checkpoints and unpacked archives live in
+ * {@code importWorkDirectory}.
+ */
+@Service
+public class ProjectImportServiceImpl implements ProjectImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectImportServiceImpl.class);
+
+    private static final String COMPLETED_KEY = "completed";
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // Progress events are broadcast to every client; keep the ids well clear
+    // of the small counters the GUI uses for its own progress bars.
+    private static final AtomicLong jobIds = new AtomicLong(System.currentTimeMillis());
+
+    private static final ExecutorService importJobService = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+        Thread thread = new Thread(r);
+        thread.setName("Project Import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Long, ProjectImportStatus> jobs = new ConcurrentHashMap<>();
+
+    private WaveformService waveformService;
+    private SharedFrequencyBandParametersService sharedParamsService;
+    private SiteFrequencyBandParametersService siteParamsService;
+    private MdacParametersPsService mdacPsService;
+    private MdacParametersFiService mdacFiService;
+    private ReferenceMwParametersService referenceEventService;
+    private ConfigurationService configService;
+    private NotificationService notificationService;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService parsePool;
+    private List<ProjectFileParser> parsers = Collections.emptyList();
+    private int chunkSize;
+    private Path workDirectory;
+
+    @Autowired
+    public ProjectImportServiceImpl(WaveformService waveformService, SharedFrequencyBandParametersService sharedParamsService, SiteFrequencyBandParametersService siteParamsService,
+            MdacParametersPsService mdacPsService, MdacParametersFiService mdacFiService, ReferenceMwParametersService referenceEventService, ConfigurationService configService,
+            NotificationService notificationService, PlatformTransactionManager transactionManager, @Qualifier("ImportExecutorService") ExecutorService parsePool, ServiceConfig serviceConfig) {
+        this.waveformService = waveformService;
+        this.sharedParamsService = sharedParamsService;
+        this.siteParamsService = siteParamsService;
+        this.mdacPsService = mdacPsService;
+        this.mdacFiService = mdacFiService;
+        this.referenceEventService = referenceEventService;
+        this.configService = configService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.parsePool = parsePool;
+        this.chunkSize = Math.max(1, serviceConfig.getImportChunkSize());
+        this.workDirectory = Paths.get(serviceConfig.getImportWorkDirectory()).toAbsolutePath();
+    }
+
+    @Autowired(required = false)
+    public ProjectImportServiceImpl setParsers(List<ProjectFileParser> parsers) {
+        this.parsers = parsers;
+        return this;
+    }
+
+    public ProjectImportServiceImpl setWorkDirectory(Path workDirectory) {
+        this.workDirectory = workDirectory;
+        return this;
+    }
+
+    public ProjectImportServiceImpl setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    @Override
+    public ProjectImportStatus importProject(Path source) {
+        ProjectImportStatus status = new ProjectImportStatus().setId(jobIds.getAndIncrement()).setSource(source != null ? source.toAbsolutePath().toString() : null);
+        jobs.put(status.getId(), status);
+        if (source == null || !Files.exists(source)) {
+            synchronized (status) {
+                status.setState(State.ERROR).getErrors().add("Import source does not exist: " + source);
+            }
+        } else if (parsers.isEmpty()) {
+            synchronized (status) {
+                status.setState(State.ERROR).getErrors().add("No project file parsers are available");
+            }
+        } else {
+            importJobService.submit(() -> runImport(status, source.toAbsolutePath()));
+        }
+        return getStatus(status.getId());
+    }
+
+    @Override
+    public ProjectImportStatus getStatus(Long id) {
+        ProjectImportStatus status = jobs.get(id);
+        if (status == null) {
+            return null;
+        }
+        synchronized (status) {
+            return new ProjectImportStatus(status);
+        }
+    }
+
+    @Override
+    public List<ProjectImportStatus> getStatuses() {
+        return jobs.keySet().stream().sorted().map(this::getStatus).collect(Collectors.toList());
+    }
+
+    protected void runImport(ProjectImportStatus status, Path source) {
+        synchronized (status) {
+            status.setState(State.RUNNING);
+        }
+        try {
+            String sourceKey = digest(source.toString());
+            Path root = source;
+            boolean archive = isArchive(source);
+            if (archive) {
+                root = extract(source, workDirectory.resolve(sourceKey));
+            }
+
+            List<Path> files = listFiles(root);
+            Path checkpoint = workDirectory.resolve(sourceKey + CHECKPOINT_SUFFIX);
+            String fingerprint = fingerprint(root, files);
+            int completed = (int) Math.min(files.size(), readCheckpoint(checkpoint, fingerprint));
+            if (completed > 0) {
+                log.info("Resuming import of {} after {} of {} files", source, completed, files.size());
+            }
+
+            synchronized (status) {
+                status.setTotalFiles(files.size()).setProcessedFiles(completed).setResumedFrom(completed);
+            }
+            postProgress(status);
+
+            CompletableFuture<List<List<Result<Object>>>> next = parseChunk(files, completed);
+            while (next != null) {
+                List<List<Result<Object>>> parsed = next.join();
+                int chunkEnd = Math.min(files.size(), completed + chunkSize);
+                // Parse the following chunk while this one is committed
+                next = chunkEnd < files.size() ? parseChunk(files, chunkEnd) : null;
+
+                transactionTemplate.execute(tx -> {
+                    persist(parsed);
+                    return null;
+                });
+
+                completed = chunkEnd;
+                writeCheckpoint(checkpoint, fingerprint, completed);
+                recordChunk(status, parsed, completed);
+                postProgress(status);
+            }
+
+            Files.deleteIfExists(checkpoint);
+            if (archive) {
+                deleteRecursively(root);
+            }
+            synchronized (status) {
+                status.setState(State.COMPLETE);
+            }
+            log.info("Finished import of {} with {} files, {} failed", source, status.getTotalFiles(), status.getFailedFiles());
+        } catch (IOException | RuntimeException e) {
+            log.error("Import of {} stopped, it will resume from the last checkpoint when re-run. {}", source, e.getMessage(), e);
+            synchronized (status) {
+                status.setState(State.ERROR);
+                addError(status, e.getMessage());
+            }
+        }
+        postProgress(status);
+    }
+
+    private CompletableFuture<List<List<Result<Object>>>> parseChunk(List<Path> files, int from) {
+        if (from >= files.size()) {
+            return null;
+        }
+        List<CompletableFuture<List<Result<Object>>>> parsing = files.subList(from, Math.min(files.size(), from + chunkSize))
+                                                                     .stream()
+                                                                     .map(file -> CompletableFuture.supplyAsync(() -> parse(file), parsePool))
+                                                                     .collect(Collectors.toList());
+        return CompletableFuture.allOf(parsing.toArray(new CompletableFuture[0])).thenApply(v -> parsing.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    private List<Result<Object>> parse(Path file) {
+        List<Result<Object>> results = new ArrayList<>();
+        for (ProjectFileParser parser : parsers) {
+            if (parser.canParse(file)) {
+                try {
+                    results.addAll(parser.parse(file));
+                } catch (RuntimeException e) {
+                    results.add(new Result<>(false, Collections.singletonList(e), null));
+                }
+            }
+        }
+        return results;
+    }
+
+    protected void persist(List<List<Result<Object>>> parsed) {
+        List<Waveform> waveforms = new ArrayList<>();
+        List<SiteFrequencyBandParameters> siteCorrections = new ArrayList<>();
+        List<ReferenceMwParameters> referenceEvents = new ArrayList<>();
+
+        // Parameters are small and written as they are found, the bulk types
+        // are collected and written as one batch each.
+        parsed.stream().flatMap(List::stream).filter(Result::isSuccess).map(Result::getResultPayload).filter(Optional::isPresent).map(Optional::get).forEach(payload -> {
+            if (payload instanceof Waveform) {
+                waveforms.add((Waveform) payload);
+            } else if (payload instanceof SharedFrequencyBandParameters) {
+                sharedParamsService.update((SharedFrequencyBandParameters) payload);
+            } else if (payload instanceof SiteCorrections) {
+                siteCorrections.addAll(((SiteCorrections) payload).getSiteCorrections());
+            } else if (payload instanceof SiteFrequencyBandParameters) {
+                siteCorrections.add((SiteFrequencyBandParameters) payload);
+            } else if (payload instanceof MdacParametersPS) {
+                mdacPsService.update((MdacParametersPS) payload);
+            } else if (payload instanceof MdacParametersFI) {
+                mdacFiService.update((MdacParametersFI) payload);
+            } else if (payload instanceof ReferenceMwParameters) {
+                referenceEvents.add((ReferenceMwParameters) payload);
+            } else if (payload instanceof VelocityConfiguration) {
+                configService.update((VelocityConfiguration) payload);
+            } else if (payload instanceof ShapeFitterConstraints) {
+                configService.update((ShapeFitterConstraints) payload);
+            } else {
+                log.debug("Ignoring unsupported import payload {}", payload);
+            }
+        });
+
+        if (!siteCorrections.isEmpty()) {
+            siteParamsService.save(siteCorrections);
+        }
+        if (!referenceEvents.isEmpty()) {
+            referenceEventService.save(referenceEvents);
+        }
+        if (!waveforms.isEmpty()) {
+            waveformService.updateAll(waveforms);
+        }
+    }
+
+    private void recordChunk(ProjectImportStatus status, List<List<Result<Object>>> parsed, int completed) {
+        synchronized (status) {
+            status.setProcessedFiles(completed);
+            for (List<Result<Object>> fileResults : parsed) {
+                List<Result<Object>> failures = fileResults.stream().filter(r -> !r.isSuccess()).collect(Collectors.toList());
+                if (!failures.isEmpty()) {
+                    status.setFailedFiles(status.getFailedFiles() + 1);
+                    failures.stream().flatMap(r -> r.getErrors().stream()).forEach(e -> addError(status, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    private void addError(ProjectImportStatus status, String message) {
+        if (status.getErrors().size() < MAX_REPORTED_ERRORS) {
+            status.getErrors().add(message);
+        }
+    }
+
+    private void postProgress(ProjectImportStatus status) {
+        Progress progress;
+        synchronized (status) {
+            progress = new Progress(status.getTotalFiles(), status.getProcessedFiles());
+        }
+        notificationService.post(new ProgressEvent(status.getId(), progress));
+    }
+
+    private List<Path> listFiles(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            List<Path> candidates = walk.filter(Files::isRegularFile).filter(p -> !p.getFileName().toString().startsWith(".")).sorted(Comparator.comparing(Path::toString)).collect(Collectors.toList());
+            return candidates.stream().filter(p -> parsers.stream().anyMatch(parser -> parser.canParse(p))).collect(Collectors.toList());
+        }
+    }
+
+    private boolean isArchive(Path source) {
+        return Files.isRegularFile(source) && source.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".zip");
+    }
+
+    private Path extract(Path archive, Path target) throws IOException {
+        Path marker = target.resolve(".extracted");
+        if (Files.exists(marker)) {
+            return target;
+        }
+        Files.createDirectories(target);
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                Path out = target.resolve(entry.getName()).normalize();
+                if (!out.startsWith(target)) {
+                    throw new IOException("Archive entry is outside of the extraction directory: " + entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(out);
+                } else {
+                    Files.createDirectories(out.getParent());
+                    Files.copy(zip, out, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        Files.createFile(marker);
+        return target;
+    }
+
+    private void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private long readCheckpoint(Path checkpoint, String fingerprint) {
+        if (Files.isRegularFile(checkpoint)) {
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(checkpoint)) {
+                props.load(in);
+                if (fingerprint.equals(props.getProperty(FINGERPRINT_KEY))) {
+                    return Long.parseLong(props.getProperty(COMPLETED_KEY, "0"));
+                }
+                log.info("Project contents changed since the last checkpoint {}, starting over", checkpoint);
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Unable to read import checkpoint {}, starting over. {}", checkpoint, e.getMessage());
+            }
+        }
+        return 0l;
+    }
+
+    private void writeCheckpoint(Path checkpoint, String fingerprint, long completed) throws IOException {
+        Files.createDirectories(checkpoint.getParent());
+        Properties props = new Properties();
+        props.setProperty(FINGERPRINT_KEY, fingerprint);
+        props.setProperty(COMPLETED_KEY, Long.toString(completed));
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            props.store(out, null);
+        }
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String fingerprint(Path root, List<Path> files) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Path file : files) {
+            sb.append(root.relativize(file)).append(':').append(Files.size(file)).append('\n');
+        }
+        return digest(sb.toString());
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
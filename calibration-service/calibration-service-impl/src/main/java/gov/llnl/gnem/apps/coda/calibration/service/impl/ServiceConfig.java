@@ -31,14 +31,45 @@ public class ServiceConfig {
 
     private static ExecutorService measurementServicePool;
 
+    private static ExecutorService importServicePool;
+
     @Value("${spectraTruncationEnabled:true}")
     private boolean spectraTruncationEnabled;
 
     @Value("${measurementPoolSize:10}")
     private int measurementPoolSize;
 
+    @Value("${importPoolSize:4}")
+    private int importPoolSize;
+
+    @Value("${importChunkSize:500}")
+    private int importChunkSize;
+
+    // Next to the database by default; shared temp directories get cleaned
+    // out from under long running imports
+    @Value("${importWorkDirectory:${storage.h2.directory:.}/cct-import}")
+    private String importWorkDirectory = "./cct-import";
+
+    @Value("${lazySynthetics:false}")
+    private boolean lazySynthetics;
+
+    @Value("${syntheticCacheSize:256}")
+    private int syntheticCacheSize;
+
+    @Value("${spectraCacheSize:4096}")
+    private int spectraCacheSize;
+
+    @Value("${mwFitPoolSize:0}")
+    private int mwFitPoolSize;
+
+    @Value("${mwFitTimeoutSeconds:60}")
+    private long mwFitTimeoutSeconds;
+
+    @Value("${mwFitMaxEvaluations:100000}")
+    private long mwFitMaxEvaluations;
+
     @Bean("MeasurementExecutorService")
-    public ExecutorService getMeasurementExecutor() {
+    public ExecutorService getMeasurementExecutor(CalibrationMetrics metrics) {
         synchronized (lock) {
             if (measurementServicePool == null) {
                 measurementServicePool = new ThreadPoolExecutor(measurementPoolSize, measurementPoolSize, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(5 * measurementPoolSize), r -> {
@@ -47,11 +78,112 @@ public class ServiceConfig {
                     thread.setDaemon(true);
                     return thread;
                 });
+                metrics.monitor(measurementServicePool, "measurement");
             }
         }
         return measurementServicePool;
     }
 
+    @Bean("ImportExecutorService")
+    public ExecutorService getImportExecutor(CalibrationMetrics metrics) {
+        synchronized (lock) {
+            if (importServicePool == null) {
+                // Holds a whole chunk so the import thread can queue the next
+                // chunk and go straight on to committing the current one. Overflow
+                // (only from chunks larger than importChunkSize) runs on the
+                // submitting thread as back-pressure.
+                importServicePool = new ThreadPoolExecutor(importPoolSize, importPoolSize, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(5 * importPoolSize, importChunkSize)), r -> {
+                    Thread thread = new Thread(r);
+                    thread.setName("Import");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+                metrics.monitor(importServicePool, "import");
+            }
+        }
+        return importServicePool;
+    }
+
+    public int getImportChunkSize() {
+        return importChunkSize;
+    }
+
+    public ServiceConfig setImportChunkSize(int importChunkSize) {
+        this.importChunkSize = importChunkSize;
+        return this;
+    }
+
+    /**
+     * @return where project imports keep their checkpoints and unpacked
+     *         archives
+     */
+    public String getImportWorkDirectory() {
+        return importWorkDirectory;
+    }
+
+    public ServiceConfig setImportWorkDirectory(String importWorkDirectory) {
+        this.importWorkDirectory = importWorkDirectory;
+        return this;
+    }
+
+    public boolean isLazySynthetics() {
+        return lazySynthetics;
+    }
+
+    public ServiceConfig setLazySynthetics(boolean lazySynthetics) {
+        this.lazySynthetics = lazySynthetics;
+        return this;
+    }
+
+    public int getSyntheticCacheSize() {
+        return syntheticCacheSize;
+    }
+
+    public ServiceConfig setSyntheticCacheSize(int syntheticCacheSize) {
+        this.syntheticCacheSize = syntheticCacheSize;
+        return this;
+    }
+
+    public int getSpectraCacheSize() {
+        return spectraCacheSize;
+    }
+
+    public ServiceConfig setSpectraCacheSize(int spectraCacheSize) {
+        this.spectraCacheSize = spectraCacheSize;
+        return this;
+    }
+
+    /**
+     * @return the number of Mw fitting threads, or the number of available
+     *         processors when this is not positive
+     */
+    public int getMwFitPoolSize() {
+        return mwFitPoolSize > 0 ? mwFitPoolSize : Runtime.getRuntime().availableProcessors();
+    }
+
+    public ServiceConfig setMwFitPoolSize(int mwFitPoolSize) {
+        this.mwFitPoolSize = mwFitPoolSize;
+        return this;
+    }
+
+    public long getMwFitTimeoutSeconds() {
+        return mwFitTimeoutSeconds;
+    }
+
+    public ServiceConfig setMwFitTimeoutSeconds(long mwFitTimeoutSeconds) {
+        this.mwFitTimeoutSeconds = mwFitTimeoutSeconds;
+        return this;
+    }
+
+    public long getMwFitMaxEvaluations() {
+        return mwFitMaxEvaluations;
+    }
+
+    public ServiceConfig setMwFitMaxEvaluations(long mwFitMaxEvaluations) {
+        this.mwFitMaxEvaluations = mwFitMaxEvaluations;
+        return this;
+    }
+
     public boolean isSpectraTruncationEnabled() {
         return spectraTruncationEnabled;
     }
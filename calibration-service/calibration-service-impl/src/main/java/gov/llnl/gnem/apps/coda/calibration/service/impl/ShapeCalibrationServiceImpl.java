@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -37,10 +38,11 @@ import gov.llnl.gnem.apps.coda.calibration.service.api.ShapeMeasurementService;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.CalibrationCurveFitter;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.ShapeCalculator;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
-import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
+import gov.llnl.gnem.apps.coda.common.service.api.WaveformPickService;
 
 @Service
 public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
@@ -48,26 +50,42 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
     private static final Logger log = LoggerFactory.getLogger(ShapeCalibrationServiceImpl.class);
     private ShapeMeasurementService shapeMeasurementService;
     private ShapeCalculator shapeCalc;
-    private WaveformService waveService;
+    private WaveformPickService pickService;
     private AutopickingServiceImpl picker;
+    private CalibrationMetrics metrics;
 
     @Autowired
-    public ShapeCalibrationServiceImpl(ShapeMeasurementService shapeMeasurementService, ShapeCalculator shapeCalc, WaveformService waveService, AutopickingServiceImpl picker) {
+    public ShapeCalibrationServiceImpl(ShapeMeasurementService shapeMeasurementService, ShapeCalculator shapeCalc, WaveformPickService pickService, AutopickingServiceImpl picker,
+            CalibrationMetrics metrics) {
         this.shapeMeasurementService = shapeMeasurementService;
         this.shapeCalc = shapeCalc;
-        this.waveService = waveService;
+        this.pickService = pickService;
         this.picker = picker;
+        this.metrics = metrics;
     }
 
     @Override
     public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(Collection<PeakVelocityMeasurement> velocityMeasurements,
             Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, ShapeFitterConstraints constraints, boolean autoPickingEnabled) {
+        return measureShapes(Project.DEFAULT_PROJECT_ID, velocityMeasurements, frequencyBandParameters, constraints, autoPickingEnabled);
+    }
+
+    @Override
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(Long projectId, Collection<PeakVelocityMeasurement> velocityMeasurements,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, ShapeFitterConstraints constraints, boolean autoPickingEnabled) {
+        return measureShapes(projectId, velocityMeasurements, frequencyBandParameters, constraints, autoPickingEnabled, band -> {
+        });
+    }
+
+    @Override
+    public Map<FrequencyBand, SharedFrequencyBandParameters> measureShapes(Long projectId, Collection<PeakVelocityMeasurement> velocityMeasurements,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, ShapeFitterConstraints constraints, boolean autoPickingEnabled, Consumer<FrequencyBand> onBand) {
         if (frequencyBandParameters.isEmpty()) {
             // TODO: Propagate warning to the status API
             log.warn("No frequency band parameters available, unable to compute shape parameters without them!");
             return new HashMap<>();
         }
-        final CalibrationCurveFitter fitter = new CalibrationCurveFitter();
+        final CalibrationCurveFitter fitter = new CalibrationCurveFitter(metrics);
 
         Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandCurveFits = fitter.fitAllVelocity(
                 velocityMeasurements.stream()
@@ -80,7 +98,11 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
         // don't already have F-picks in this set
         if (autoPickingEnabled) {
             velocityMeasurements = picker.autoPickVelocityMeasuredWaveforms(velocityMeasurements, frequencyBandParameters);
-            velocityMeasurements = velocityMeasurements.parallelStream().map(v -> v.setWaveform(waveService.save(v.getWaveform()))).collect(Collectors.toList());
+            pickService.replacePicks(
+                    velocityMeasurements.stream()
+                                        .map(PeakVelocityMeasurement::getWaveform)
+                                        .filter(w -> w != null && w.getAssociatedPicks().stream().anyMatch(p -> p.getId() == null))
+                                        .collect(Collectors.toList()));
         }
 
         // 2) Filter to only measurements with an end pick
@@ -93,8 +115,7 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
         // Shape measurements are intermediary results so rather than trying to
         // merge them we want to just drop them wholesale if they exist and
         // replace them with the new data set.
-        // TODO: Need to only delete these for the current project
-        shapeMeasurementService.deleteAll();
+        shapeMeasurementService.deleteAllByProjectId(projectId);
 
         Map<FrequencyBand, List<ShapeMeasurement>> frequencyBandShapeMeasurementMap = shapeMeasurementService.save(betaAndGammaMeasurements)
                                                                                                              .parallelStream()
@@ -105,7 +126,11 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
                                                                                                                                                        meas.getWaveform().getHighFrequency())));
 
         frequencyBandCurveFits = fitter.fitAllBeta(frequencyBandShapeMeasurementMap, frequencyBandCurveFits, constraints);
-        frequencyBandCurveFits = fitter.fitAllGamma(frequencyBandShapeMeasurementMap, frequencyBandCurveFits, constraints);
+        frequencyBandCurveFits = fitter.fitAllGamma(frequencyBandShapeMeasurementMap, frequencyBandCurveFits, constraints, onBand);
+
+        // Bands without shape measurements keep their velocity fit and are
+        // done as well
+        frequencyBandCurveFits.keySet().stream().filter(band -> !frequencyBandShapeMeasurementMap.containsKey(band)).forEach(onBand);
         return frequencyBandCurveFits;
     }
 
@@ -116,6 +141,7 @@ public class ShapeCalibrationServiceImpl implements ShapeCalibrationService {
     private Collection<Entry<PeakVelocityMeasurement, WaveformPick>> filterMeasurementsToEndPickedOnly(Collection<PeakVelocityMeasurement> velocityMeasurements) {
         return velocityMeasurements.parallelStream().filter(vel -> vel.getWaveform() != null).filter(vel -> vel.getWaveform().getAssociatedPicks() != null).map(vel -> {
             Optional<WaveformPick> pick = vel.getWaveform().getAssociatedPicks().stream().filter(p -> PICK_TYPES.F.name().equalsIgnoreCase(p.getPickType())).findFirst();
+            metrics.filtered(CalibrationMetrics.END_PICK_FILTER, vel.getWaveform(), pick.isPresent());
             if (pick.isPresent()) {
                 return new AbstractMap.SimpleEntry<>(vel, pick.get());
             } else {
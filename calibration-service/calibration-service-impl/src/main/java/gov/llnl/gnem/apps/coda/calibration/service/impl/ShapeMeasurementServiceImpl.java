@@ -42,7 +42,7 @@ public class ShapeMeasurementServiceImpl implements ShapeMeasurementService {
 
     @Override
     public List<ShapeMeasurement> save(Iterable<ShapeMeasurement> entities) {
-        return shapeMeasurementRepository.saveAll(entities);
+        return shapeMeasurementRepository.persistAll(entities);
     }
 
     @Override
@@ -85,6 +85,11 @@ public class ShapeMeasurementServiceImpl implements ShapeMeasurementService {
         shapeMeasurementRepository.deleteAllInBatch();
     }
 
+    @Override
+    public void deleteAllByProjectId(Long projectId) {
+        shapeMeasurementRepository.deleteAllByProjectId(projectId);
+    }
+
     @Override
     public ShapeMeasurement findOneByWaveformId(Long waveformId) {
         return Optional.ofNullable(shapeMeasurementRepository.findOneByWaveformId(waveformId)).orElseGet(ShapeMeasurement::new);
@@ -28,6 +28,7 @@ import gov.llnl.gnem.apps.coda.calibration.repository.SharedFrequencyBandParamet
 import gov.llnl.gnem.apps.coda.calibration.repository.SyntheticRepository;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
 
@@ -128,7 +129,7 @@ public class SharedFrequencyBandParametersServiceImpl implements SharedFrequency
         if (entry.getId() != null) {
             mergedEntry = sharedFrequencyBandParametersRepository.findById(entry.getId()).get();
         } else {
-            mergedEntry = sharedFrequencyBandParametersRepository.findByLowFrequencyAndHighFrequency(entry.getLowFrequency(), entry.getHighFrequency());
+            mergedEntry = sharedFrequencyBandParametersRepository.findByProjectIdAndLowFrequencyAndHighFrequency(entry.getProjectId(), entry.getLowFrequency(), entry.getHighFrequency());
         }
         if (mergedEntry != null) {
             log.trace("Merging shared band entry: new {} old {}", entry, mergedEntry);
@@ -142,6 +143,11 @@ public class SharedFrequencyBandParametersServiceImpl implements SharedFrequency
 
     @Override
     public SharedFrequencyBandParameters findByFrequencyBand(FrequencyBand band) {
-        return sharedFrequencyBandParametersRepository.findByLowFrequencyAndHighFrequency(band.getLowFrequency(), band.getHighFrequency());
+        return sharedFrequencyBandParametersRepository.findByProjectIdAndLowFrequencyAndHighFrequency(Project.DEFAULT_PROJECT_ID, band.getLowFrequency(), band.getHighFrequency());
+    }
+
+    @Override
+    public List<SharedFrequencyBandParameters> findAllByProjectId(Long projectId) {
+        return sharedFrequencyBandParametersRepository.findAllByProjectId(projectId);
     }
 }
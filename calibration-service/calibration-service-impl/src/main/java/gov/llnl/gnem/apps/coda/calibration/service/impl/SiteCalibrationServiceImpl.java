@@ -21,7 +21,10 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
@@ -40,9 +43,11 @@ import gov.llnl.gnem.apps.coda.calibration.service.api.MeasuredMwsService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SiteCalibrationService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacCalculatorService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SiteCorrectionEngine;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
@@ -75,6 +80,13 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
     @Override
     public List<MeasuredMwParameters> fitMws(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS,
             Map<String, List<ReferenceMwParameters>> refMws, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandParameters, PICK_TYPES selectedPhase) {
+        return fitMws(dataByFreqBand, mdacFI, mdacPS, refMws, stationFrequencyBandParameters, selectedPhase, null);
+    }
+
+    @Override
+    public List<MeasuredMwParameters> fitMws(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS,
+            Map<String, List<ReferenceMwParameters>> refMws, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> stationFrequencyBandParameters, PICK_TYPES selectedPhase,
+            Consumer<MeasuredMwParameters> onResult) {
         MdacParametersPS psRows = mdacPS.get(selectedPhase);
         Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqBandStaMeasurementsMap = mapToEventAndStation(dataByFreqBand);
         Map<Event, Function<Map<Double, Double>, SortedMap<Double, Double>>> weightFunctionMapByEvent = new HashMap<>();
@@ -99,13 +111,28 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
                 }
             }
         }
-        return spectraCalc.measureMws(averageMapByEvent, weightFunctionMapByEvent, selectedPhase, psRows, mdacFI);
+        return spectraCalc.measureMws(averageMapByEvent, weightFunctionMapByEvent, selectedPhase, psRows, mdacFI, onResult);
     }
 
     @Override
     public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> measureSiteCorrections(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand, MdacParametersFI mdacFI,
             Map<PICK_TYPES, MdacParametersPS> mdacPS, Map<String, List<ReferenceMwParameters>> refMws, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters,
             PICK_TYPES selectedPhase) {
+        return measureSiteCorrections(Project.DEFAULT_PROJECT_ID, dataByFreqBand, mdacFI, mdacPS, refMws, frequencyBandParameters, selectedPhase);
+    }
+
+    @Override
+    public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> measureSiteCorrections(Long projectId, Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
+            MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS, Map<String, List<ReferenceMwParameters>> refMws,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, PICK_TYPES selectedPhase) {
+        return measureSiteCorrections(projectId, dataByFreqBand, mdacFI, mdacPS, refMws, frequencyBandParameters, selectedPhase, band -> {
+        });
+    }
+
+    @Override
+    public Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> measureSiteCorrections(Long projectId, Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand,
+            MdacParametersFI mdacFI, Map<PICK_TYPES, MdacParametersPS> mdacPS, Map<String, List<ReferenceMwParameters>> refMws,
+            Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameters, PICK_TYPES selectedPhase, Consumer<FrequencyBand> onBand) {
         // TODO: Validate all the input exists and is sufficient to compute a
         // useful site correction.
 
@@ -115,13 +142,7 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqBandStaMeasurementsMap = mapToEventAndStation(dataByFreqBand);
 
         Map<Event, Function<Map<Double, Double>, SortedMap<Double, Double>>> weightFunctionMapByEvent = new HashMap<>();
-
-        //Step 1
-        Map<Station, Map<FrequencyBand, SummaryStatistics>> staFreqBandSiteCorrectionMapReferenceEvents = new HashMap<>();
-        //Step 2
-        Map<Event, Map<FrequencyBand, SummaryStatistics>> averageMapByEvent = new HashMap<>();
-        //Step 3
-        Map<Station, Map<FrequencyBand, SummaryStatistics>> staFreqBandSiteCorrectionMapAverage = new HashMap<>();
+        Map<Event, ToDoubleFunction<FrequencyBand>> referenceAmplitudes = new HashMap<>();
         //Result
         Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> siteCorrections = new HashMap<>();
 
@@ -132,9 +153,8 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
         //0-1C) Weight the Mw fit for that event 1.0 at all bands
         //0-2A) If no then weight the corner frequency highly, the low middle, and the high low
 
-        //1) Generate spectra for reference events and get the site correction for each station that saw it.
-        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            Event evid = evidFreqMap.getKey();
+        //1) Generate the MDAC spectra once for each reference event so the site correction can be taken for each station that saw it.
+        for (Event evid : evidFreqBandStaMeasurementsMap.keySet()) {
             if (refMws != null && refMws.containsKey(evid.getEventId())) {
                 List<ReferenceMwParameters> refMwsParams = refMws.get(evid.getEventId());
                 ReferenceMwParameters refMw = refMwsParams.stream().findFirst().orElse(null);
@@ -153,145 +173,68 @@ public class SiteCalibrationServiceImpl implements SiteCalibrationService {
                     }
 
                     Function<Double, double[]> mdacFunc = mdac.getCalculateMdacSourceSpectraFunction(psRows, mdacFiEntry, mw);
-                    double cornerFreq = 0.0;
-                    if (hasGtSpectra && !evidHasSpectra) {
-                        cornerFreq = mdac.getCornerFrequency(mdacFunc);
-                    }
+                    final double cornerFreq = hasGtSpectra && !evidHasSpectra ? mdac.getCornerFrequency(mdacFunc) : 0.0;
+                    final boolean truncate = serviceConfig.isSpectraTruncationEnabled();
 
-                    for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                        FrequencyBand freqBand = freqStaMap.getKey();
+                    referenceAmplitudes.put(evid, freqBand -> {
                         Double lowFreq = freqBand.getLowFrequency();
                         Double highFreq = freqBand.getHighFrequency();
-
-                        if (serviceConfig.isSpectraTruncationEnabled() && cornerFreq > 0.0 && highFreq > cornerFreq) {
-                            continue;
+                        if (truncate && cornerFreq > 0.0 && highFreq > cornerFreq) {
+                            return Double.NaN;
                         }
                         double centerFreq = (highFreq + lowFreq) / 2;
-
-                        double[] refSpectra = mdacFunc.apply(centerFreq);
-
-                        for (Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-
-                            double amp = staMwEntry.getValue().getPathCorrected();
-                            if (!staFreqBandSiteCorrectionMapReferenceEvents.containsKey(staMwEntry.getKey())) {
-                                staFreqBandSiteCorrectionMapReferenceEvents.put(staMwEntry.getKey(), new HashMap<FrequencyBand, SummaryStatistics>());
-                            }
-                            if (!staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                                staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).put(freqBand, new SummaryStatistics());
-                            }
-
-                            // Output should be Dyne-cm
-                            double refAmp = Math.log10(refSpectra[1]) + DYNE_LOG10_ADJUSTMENT;
-                            double ampDiff = refAmp - amp;
-
-                            staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).get(freqBand).addValue(ampDiff);
-                        }
-                    }
+                        // Output should be Dyne-cm
+                        return Math.log10(mdacFunc.apply(centerFreq)[1]) + DYNE_LOG10_ADJUSTMENT;
+                    });
                 }
             }
             weightFunctionMapByEvent.putIfAbsent(evid, this::lowerFreqHigherWeights);
         }
 
         //2) For every station with a site correction measured apply it to every other event and get average site term for every frequency band
-        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            Event evid = evidFreqMap.getKey();
-            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                FrequencyBand freqBand = freqStaMap.getKey();
-                for (Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-                    if (staFreqBandSiteCorrectionMapReferenceEvents.containsKey(staMwEntry.getKey()) && staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                        double amp = staMwEntry.getValue().getPathCorrected();
-                        if (!averageMapByEvent.containsKey(evid)) {
-                            averageMapByEvent.put(evid, new HashMap<FrequencyBand, SummaryStatistics>());
-                        }
-                        if (!averageMapByEvent.get(evid).containsKey(freqBand)) {
-                            averageMapByEvent.get(evid).put(freqBand, new SummaryStatistics());
-                        }
-
-                        double refAmp = amp + staFreqBandSiteCorrectionMapReferenceEvents.get(staMwEntry.getKey()).get(freqBand).getMean();
-                        averageMapByEvent.get(evid).get(freqBand).addValue(refAmp);
-                    }
-                }
-            }
-        }
-
         //3) For all measurements offset by the average site term for each station/frequency band to get the final site terms
-        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            Event evid = evidFreqMap.getKey();
-            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                FrequencyBand freqBand = freqStaMap.getKey();
-                if (averageMapByEvent.containsKey(evid) && averageMapByEvent.get(evid).containsKey(freqBand)) {
-                    for (Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-                        double amp = staMwEntry.getValue().getPathCorrected();
-                        if (!staFreqBandSiteCorrectionMapAverage.containsKey(staMwEntry.getKey())) {
-                            staFreqBandSiteCorrectionMapAverage.put(staMwEntry.getKey(), new HashMap<FrequencyBand, SummaryStatistics>());
-                        }
-                        if (!staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                            staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).put(freqBand, new SummaryStatistics());
-                        }
-                        double refAmp = averageMapByEvent.get(evid).get(freqBand).getMean();
-                        double ampDiff = refAmp - amp;
-                        staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).get(freqBand).addValue(ampDiff);
-                    }
-                }
-            }
-        }
-
         //4) Re-average the events using the new site corrections
-        averageMapByEvent.clear();
-        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evidFreqMap : evidFreqBandStaMeasurementsMap.entrySet()) {
-            Event evid = evidFreqMap.getKey();
-            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> freqStaMap : evidFreqMap.getValue().entrySet()) {
-                FrequencyBand freqBand = freqStaMap.getKey();
-                for (Entry<Station, SpectraMeasurement> staMwEntry : freqStaMap.getValue().entrySet()) {
-                    if (staFreqBandSiteCorrectionMapAverage.containsKey(staMwEntry.getKey()) && staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).containsKey(freqBand)) {
-                        double amp = staMwEntry.getValue().getPathCorrected();
-                        if (!averageMapByEvent.containsKey(evid)) {
-                            averageMapByEvent.put(evid, new HashMap<FrequencyBand, SummaryStatistics>());
-                        }
-                        if (!averageMapByEvent.get(evid).containsKey(freqBand)) {
-                            averageMapByEvent.get(evid).put(freqBand, new SummaryStatistics());
-                        }
-                        double refAmp = amp + staFreqBandSiteCorrectionMapAverage.get(staMwEntry.getKey()).get(freqBand).getMean();
-                        averageMapByEvent.get(evid).get(freqBand).addValue(refAmp);
-                    }
-                }
-            }
-        }
+        Set<FrequencyBand> reported = ConcurrentHashMap.newKeySet();
+        SiteCorrectionEngine.SiteCorrections corrections = new SiteCorrectionEngine(evidFreqBandStaMeasurementsMap).calculate(referenceAmplitudes, band -> {
+            reported.add(band);
+            onBand.accept(band);
+        });
+        // Bands without usable measurements have nothing left to compute
+        dataByFreqBand.keySet().stream().filter(band -> !reported.contains(band)).forEach(onBand);
+        Map<Event, Map<FrequencyBand, SummaryStatistics>> averageMapByEvent = corrections.getEventAverages();
 
         //TODO: Weight bands by number of points and std-dev instead
         // 5) Convert average map into a set of Site correction objects
-        for (Entry<Station, Map<FrequencyBand, SummaryStatistics>> freqBandCorrectionMap : staFreqBandSiteCorrectionMapAverage.entrySet()) {
-            Station station = freqBandCorrectionMap.getKey();
-            Set<Entry<FrequencyBand, SummaryStatistics>> bandEntries = freqBandCorrectionMap.getValue().entrySet();
-
-            for (Entry<FrequencyBand, SummaryStatistics> freqBandEntry : bandEntries) {
+        for (Entry<FrequencyBand, Map<Station, Double>> bandSiteTerms : corrections.getSiteTerms().entrySet()) {
+            FrequencyBand freqBand = bandSiteTerms.getKey();
+            Map<Station, SiteFrequencyBandParameters> bandCorrections = new HashMap<>();
+            for (Entry<Station, Double> siteTerm : bandSiteTerms.getValue().entrySet()) {
                 SiteFrequencyBandParameters siteParam = new SiteFrequencyBandParameters();
-                siteParam.setStation(station);
-                siteParam.setHighFrequency(freqBandEntry.getKey().getHighFrequency());
-                siteParam.setLowFrequency(freqBandEntry.getKey().getLowFrequency());
-                siteParam.setSiteTerm(freqBandEntry.getValue().getMean());
-                if (!siteCorrections.containsKey(freqBandEntry.getKey())) {
-                    siteCorrections.put(freqBandEntry.getKey(), new HashMap<>());
-                }
-                siteCorrections.get(freqBandEntry.getKey()).put(station, siteParam);
+                siteParam.setProjectId(projectId);
+                siteParam.setStation(siteTerm.getKey());
+                siteParam.setHighFrequency(freqBand.getHighFrequency());
+                siteParam.setLowFrequency(freqBand.getLowFrequency());
+                siteParam.setSiteTerm(siteTerm.getValue());
+                bandCorrections.put(siteTerm.getKey(), siteParam);
             }
+            siteCorrections.put(freqBand, bandCorrections);
         }
-        overwriteSiteParams(siteCorrections);
+        overwriteSiteParams(projectId, siteCorrections);
 
         // 6) Measure the MW values per event
         List<MeasuredMwParameters> measuredMws = spectraCalc.measureMws(averageMapByEvent, weightFunctionMapByEvent, selectedPhase, psRows, mdacFI);
 
-        overwriteMeasuredMws(measuredMws);
+        overwriteMeasuredMws(projectId, measuredMws);
         return siteCorrections;
     }
 
-    private void overwriteMeasuredMws(List<MeasuredMwParameters> measuredMws) {
-        measuredMwsService.deleteAll();
-        measuredMwsService.save(measuredMws);
+    private void overwriteMeasuredMws(Long projectId, List<MeasuredMwParameters> measuredMws) {
+        measuredMwsService.deleteAllByProjectId(projectId);
+        measuredMwsService.save(measuredMws.stream().map(mw -> mw.setProjectId(projectId)).collect(Collectors.toList()));
     }
 
-    private void overwriteSiteParams(Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> siteCorrections) {
-        siteParamsService.deleteAll();
+    private void overwriteSiteParams(Long projectId, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> siteCorrections) {
+        siteParamsService.deleteAllByProjectId(projectId);
         siteParamsService.save(siteCorrections.values().parallelStream().flatMap(staMap -> staMap.values().stream()).collect(Collectors.toList()));
     }
 
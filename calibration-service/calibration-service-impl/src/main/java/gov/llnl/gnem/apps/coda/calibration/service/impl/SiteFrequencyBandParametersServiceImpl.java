@@ -93,8 +93,9 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
                 mergedEntry = siteFrequencyBandParametersRepository.findById(entry.getId()).orElse(null);
             } else if (entry.getSiteTerm() != 0.0 && entry.getStation() != null && entry.getStation().getStationName() != null && entry.getLowFrequency() != 0.0 && entry.getHighFrequency() != 0.0) {
                 if (entry.getStation().getNetworkName() == null || entry.getStation().getNetworkName().equals("UNK")) {
-                    List<SiteFrequencyBandParameters> values = siteFrequencyBandParametersRepository.findByUniqueFields(
-                            entry.getStation().getStationName(),
+                    List<SiteFrequencyBandParameters> values = siteFrequencyBandParametersRepository.findByProjectIdAndUniqueFields(
+                            entry.getProjectId(),
+                                entry.getStation().getStationName(),
                                 entry.getLowFrequency(),
                                 entry.getHighFrequency());
                     SiteFrequencyBandParameters val = null;
@@ -109,8 +110,9 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
                     }
                     mergedEntry = val;
                 } else {
-                    mergedEntry = siteFrequencyBandParametersRepository.findByUniqueFields(
-                            entry.getStation().getNetworkName(),
+                    mergedEntry = siteFrequencyBandParametersRepository.findByProjectIdAndUniqueFields(
+                            entry.getProjectId(),
+                                entry.getStation().getNetworkName(),
                                 entry.getStation().getStationName(),
                                 entry.getLowFrequency(),
                                 entry.getHighFrequency());
@@ -157,6 +159,16 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
         return siteFrequencyBandParametersRepository.findDistinctStationNames();
     }
 
+    @Override
+    public List<String> findDistinctStationNames(Long projectId) {
+        return siteFrequencyBandParametersRepository.findDistinctStationNamesByProjectId(projectId);
+    }
+
+    @Override
+    public List<SiteFrequencyBandParameters> findAllByProjectId(Long projectId) {
+        return siteFrequencyBandParametersRepository.findAllByProjectId(projectId);
+    }
+
     @Override
     public long count() {
         return siteFrequencyBandParametersRepository.count();
@@ -171,6 +183,11 @@ public class SiteFrequencyBandParametersServiceImpl implements SiteFrequencyBand
         siteFrequencyBandParametersRepository.deleteAllInBatch();
     }
 
+    @Override
+    public void deleteAllByProjectId(Long projectId) {
+        siteFrequencyBandParametersRepository.deleteAllByProjectId(projectId);
+    }
+
     public Class<Long> getIdType() {
         return Long.class;
     }
@@ -17,6 +17,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.impl;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -33,13 +34,14 @@ import gov.llnl.gnem.apps.coda.calibration.repository.MeasuredMwsRepository;
 import gov.llnl.gnem.apps.coda.calibration.repository.ReferenceMwParametersRepository;
 import gov.llnl.gnem.apps.coda.calibration.repository.SpectraMeasurementRepository;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SpectraMeasurementService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacSpectraGenerator;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SpectraCalculator;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
-import gov.llnl.gnem.apps.coda.common.model.util.SPECTRA_TYPES;
 
 @Service
 @Transactional
@@ -47,6 +49,8 @@ public class SpectraMeasurementServiceImpl implements SpectraMeasurementService
 
     private SpectraCalculator spectraCalc;
 
+    private MdacSpectraGenerator spectraGenerator;
+
     private SpectraMeasurementRepository spectraRepo;
 
     private ReferenceMwParametersRepository referenceEventRepo;
@@ -54,10 +58,11 @@ public class SpectraMeasurementServiceImpl implements SpectraMeasurementService
     private MeasuredMwsRepository measuredEventRepo;
 
     @Autowired
-    public SpectraMeasurementServiceImpl(SpectraMeasurementRepository spectraRepo, SpectraCalculator spectraCalc, MeasuredMwsRepository measuredEventRepo,
+    public SpectraMeasurementServiceImpl(SpectraMeasurementRepository spectraRepo, SpectraCalculator spectraCalc, MdacSpectraGenerator spectraGenerator, MeasuredMwsRepository measuredEventRepo,
             ReferenceMwParametersRepository referenceEventRepo) {
         this.spectraRepo = spectraRepo;
         this.spectraCalc = spectraCalc;
+        this.spectraGenerator = spectraGenerator;
         this.measuredEventRepo = measuredEventRepo;
         this.referenceEventRepo = referenceEventRepo;
     }
@@ -92,29 +97,48 @@ public class SpectraMeasurementServiceImpl implements SpectraMeasurementService
         return spectraRepo.findAllMetadataOnly();
     }
 
+    @Override
+    public List<SpectraMeasurementMetadata> findAllMetadataOnlyByProjectId(Long projectId) {
+        return spectraRepo.findAllMetadataOnlyByProjectId(projectId);
+    }
+
+    @Override
+    public List<SpectraMeasurementMetadata> findAllMetadataOnly(Long projectId, FrequencyBand frequencyBand, List<String> stationNames) {
+        if (stationNames == null || stationNames.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return spectraRepo.findAllMetadataOnlyByProjectIdAndBandAndStationNames(projectId, frequencyBand.getLowFrequency(), frequencyBand.getHighFrequency(), stationNames);
+    }
+
     @Override
     public long count() {
         return spectraRepo.count();
     }
 
+    @Override
+    public long countByProjectId(Long projectId) {
+        return spectraRepo.countByProjectId(projectId);
+    }
+
     @Override
     public List<SpectraMeasurement> measureSpectra(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
             VelocityConfiguration velocityConfig) {
-        List<SpectraMeasurement> measurements = spectraCalc.measureAmplitudes(generatedSynthetics, frequencyBandParameterMap, velocityConfig);
-        if (!measurements.isEmpty()) {
-            spectraRepo.deleteAllInBatch();
-            measurements = spectraRepo.saveAll(measurements);
-        }
-        return measurements;
+        return measureSpectra(Project.DEFAULT_PROJECT_ID, generatedSynthetics, frequencyBandParameterMap, velocityConfig, null);
     }
 
     @Override
     public List<SpectraMeasurement> measureSpectra(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
             VelocityConfiguration velocityConfig, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap) {
+        return measureSpectra(Project.DEFAULT_PROJECT_ID, generatedSynthetics, frequencyBandParameterMap, velocityConfig, frequencyBandSiteParameterMap);
+    }
+
+    @Override
+    public List<SpectraMeasurement> measureSpectra(Long projectId, List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
+            VelocityConfiguration velocityConfig, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap) {
         List<SpectraMeasurement> measurements = spectraCalc.measureAmplitudes(generatedSynthetics, frequencyBandParameterMap, velocityConfig, frequencyBandSiteParameterMap);
         if (!measurements.isEmpty()) {
-            spectraRepo.deleteAllInBatch();
-            measurements = spectraRepo.saveAll(measurements);
+            spectraRepo.deleteAllByProjectId(projectId);
+            measurements = spectraRepo.persistAll(measurements.stream().map(m -> m.setProjectId(projectId)).collect(Collectors.toList()));
         }
         return measurements;
     }
@@ -124,7 +148,7 @@ public class SpectraMeasurementServiceImpl implements SpectraMeasurementService
         Spectra refSpectra = new Spectra();
         ReferenceMwParameters refEvent = referenceEventRepo.findOneByEventId(eventId);
         if (refEvent != null) {
-            refSpectra = spectraCalc.computeReferenceSpectra(refEvent, frequencyBands, selectedPhase);
+            refSpectra = spectraGenerator.computeReferenceSpectra(refEvent, frequencyBands, selectedPhase);
         }
         return refSpectra;
     }
@@ -134,11 +158,7 @@ public class SpectraMeasurementServiceImpl implements SpectraMeasurementService
         List<Spectra> spectra = new ArrayList<>();
         MeasuredMwParameters event = measuredEventRepo.findOneByEventId(eventId);
         if (event != null) {
-            spectra.add(spectraCalc.computeFitSpectra(event, frequencyBands, selectedPhase));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw1Max(), event.getApparentStress1Max(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ1));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw1Min(), event.getApparentStress1Min(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ1));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw2Max(), event.getApparentStress2Max(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ2));
-            spectra.add(spectraCalc.computeSpecificSpectra(event.getMw2Min(), event.getApparentStress2Min(), frequencyBands, selectedPhase, SPECTRA_TYPES.UQ2));
+            spectra.addAll(spectraGenerator.computeFitSpectra(event, frequencyBands, selectedPhase));
         }
         return spectra;
     }
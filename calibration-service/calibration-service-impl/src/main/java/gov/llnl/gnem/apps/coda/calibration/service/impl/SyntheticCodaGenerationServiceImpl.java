@@ -25,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticCodaGenerationService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.FrequencyBandIndex;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SyntheticCodaModel;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
@@ -32,10 +33,11 @@ import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.service.api.GeometryService;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
 import llnl.gnem.core.util.TimeT;
-import llnl.gnem.core.util.Geometry.EModel;
+import llnl.gnem.core.util.seriesMathHelpers.Resampler;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 @Service
@@ -45,17 +47,20 @@ public class SyntheticCodaGenerationServiceImpl implements SyntheticCodaGenerati
 
     private WaveformToTimeSeriesConverter converter;
     private SyntheticCodaModel syntheticCodaModel;
+    private GeometryService geometryService;
 
     @Autowired
-    public SyntheticCodaGenerationServiceImpl(WaveformToTimeSeriesConverter converter, SyntheticCodaModel syntheticCodaModel) {
+    public SyntheticCodaGenerationServiceImpl(WaveformToTimeSeriesConverter converter, SyntheticCodaModel syntheticCodaModel, GeometryService geometryService) {
         this.converter = converter;
         this.syntheticCodaModel = syntheticCodaModel;
+        this.geometryService = geometryService;
     }
 
     @Override
     public List<SyntheticCoda> generateSynthetics(List<Waveform> waveforms, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap) {
+        FrequencyBandIndex<SharedFrequencyBandParameters> frequencyBandParameterIndex = FrequencyBandIndex.of(frequencyBandParameterMap);
         return waveforms.parallelStream()
-                        .map(wave -> createSyntheticFromWaveform(wave, frequencyBandParameterMap.get(new FrequencyBand(wave.getLowFrequency(), wave.getHighFrequency()))))
+                        .map(wave -> createSyntheticFromWaveform(wave, frequencyBandParameterIndex.get(wave)))
                         .filter(Objects::nonNull)
                         .collect(Collectors.toList());
     }
@@ -69,7 +74,7 @@ public class SyntheticCodaGenerationServiceImpl implements SyntheticCodaGenerati
 
             TimeSeries seis = converter.convert(sourceWaveform);
 
-            double distance = EModel.getDistanceWGS84(event.getLatitude(), event.getLongitude(), station.getLatitude(), station.getLongitude());
+            double distance = geometryService.getDistance(event, station);
             double br = syntheticCodaModel.getDistanceFunction(model.getBeta0(), model.getBeta1(), model.getBeta2(), distance);
             double vr = syntheticCodaModel.getDistanceFunction(model.getVelocity0(), model.getVelocity1(), model.getVelocity2(), distance);
             double gr = syntheticCodaModel.getDistanceFunction(model.getGamma0(), model.getGamma1(), model.getGamma2(), distance);
@@ -90,11 +95,15 @@ public class SyntheticCodaGenerationServiceImpl implements SyntheticCodaGenerati
 
             try {
                 seis.cut(codastart, endTime);
-                if (seis.getSamprate() > 1.0) {
-                    seis.interpolate(1.0);
-                }
 
+                // The synthetic only needs the window length and timing at
+                // 1 Hz, not the interpolated envelope samples themselves
                 int npts = seis.getNsamp();
+                double sampleRate = seis.getSamprate();
+                if (sampleRate > 1.0) {
+                    npts = Resampler.resampledLength(npts, 1. / sampleRate, 1.0);
+                    sampleRate = 1.0;
+                }
 
                 //TODO: Set synthetic end time to max length of measurement (+1?) for FB if it's set and > 0.0
                 double[] Ac = new double[npts];
@@ -102,15 +111,16 @@ public class SyntheticCodaGenerationServiceImpl implements SyntheticCodaGenerati
                 for (int ii = 0; ii < Ac.length; ii++) {
                     // t is relative to the phase start time - note t=0 is a
                     // singularity point - start at t = dt
-                    double t = (ii + 1.0) / seis.getSamprate();
+                    double t = (ii + 1.0) / sampleRate;
                     Ac[ii] = syntheticCodaModel.getSyntheticPointAtTime(gr, br, t);
                 }
 
                 synth.setSegment(Ac);
                 synth.setBeginTime(seis.getTime().getDate());
-                synth.setEndTime(seis.getEndtime().getDate());
-                synth.setSampleRate(seis.getSamprate());
+                synth.setEndTime(seis.getTime().add(npts > 1 ? (npts - 1) / sampleRate : 0.0).getDate());
+                synth.setSampleRate(sampleRate);
                 synth.setSourceWaveform(sourceWaveform);
+                synth.setProjectId(sourceWaveform.getProjectId());
                 synth.setSourceModel(model);
                 synth.setMeasuredV(vr);
                 synth.setMeasuredB(br);
@@ -17,6 +17,7 @@ package gov.llnl.gnem.apps.coda.calibration.service.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.calibration.repository.SyntheticRepository;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SyntheticService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SyntheticSegmentCache;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
 
 @Service
@@ -32,9 +34,12 @@ public class SyntheticServiceImpl implements SyntheticService {
 
     private SyntheticRepository repository;
 
+    private SyntheticSegmentCache segments;
+
     @Autowired
-    public SyntheticServiceImpl(SyntheticRepository repository) {
+    public SyntheticServiceImpl(SyntheticRepository repository, SyntheticSegmentCache segments) {
         this.repository = repository;
+        this.segments = segments;
     }
 
     @Override
@@ -44,7 +49,14 @@ public class SyntheticServiceImpl implements SyntheticService {
 
     @Override
     public List<SyntheticCoda> save(Iterable<SyntheticCoda> entities) {
-        return repository.saveAll(entities);
+        if (!segments.isLazy()) {
+            return repository.persistAll(entities);
+        }
+        List<SyntheticCoda> saved = new ArrayList<>();
+        for (SyntheticCoda entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
     }
 
     @Override
@@ -54,38 +66,42 @@ public class SyntheticServiceImpl implements SyntheticService {
 
     @Override
     public SyntheticCoda save(SyntheticCoda entity) {
-        return repository.save(entity);
+        if (!segments.isLazy() || entity == null) {
+            return repository.save(entity);
+        }
+        // Only the model terms are stored; callers still get the samples back
+        SyntheticCoda saved = repository.save(segments.strip(entity));
+        return new SyntheticCoda(saved).setSegment(entity.getSegment());
     }
 
     @Override
     public SyntheticCoda findOne(Long id) {
-        return repository.findById(id).orElse(null);
+        return repository.findById(id).map(segments::fill).orElse(null);
     }
 
     @Override
     public SyntheticCoda findOneForUpdate(Long id) {
         return repository.findById(id).orElse(null);
     }
-    
 
     @Override
     public SyntheticCoda findOneByWaveformId(Long id) {
-       return repository.findByWaveformId(id);
+        return segments.fill(repository.findByWaveformId(id));
     }
-    
+
     @Override
     public Collection<SyntheticCoda> findAllByWaveformId(Collection<Long> ids) {
-        return repository.findByWaveformIds(ids);
+        return fill(repository.findByWaveformIds(ids));
     }
 
     @Override
     public List<SyntheticCoda> findAll(Iterable<Long> ids) {
-        return repository.findAllById(ids);
+        return fill(repository.findAllById(ids));
     }
 
     @Override
     public List<SyntheticCoda> findAll() {
-        return repository.findAll();
+        return fill(repository.findAll());
     }
 
     @Override
@@ -102,7 +118,10 @@ public class SyntheticServiceImpl implements SyntheticService {
         } else {
             merged = payload;
         }
-        return repository.saveAndFlush(merged);
+        if (segments.isLazy()) {
+            merged.setSegment(new double[0]);
+        }
+        return segments.fill(repository.saveAndFlush(merged));
     }
 
     @Override
@@ -116,16 +135,29 @@ public class SyntheticServiceImpl implements SyntheticService {
             } else {
                 merged = payload;
             }
+            if (segments.isLazy()) {
+                merged.setSegment(new double[0]);
+            }
             vals.add(merged);
         }
         repository.saveAll(vals);
         repository.flush();
-        return vals;
+        return fill(vals);
     }
 
     @Override
     public void deleteAll() {
         repository.deleteAllInBatch();
+        segments.evictAll();
+    }
+
+    @Override
+    public void deleteAllByProjectId(Long projectId) {
+        repository.deleteAllByProjectId(projectId);
+    }
+
+    private List<SyntheticCoda> fill(Collection<SyntheticCoda> synthetics) {
+        return synthetics.stream().map(segments::fill).collect(Collectors.toList());
     }
 
 
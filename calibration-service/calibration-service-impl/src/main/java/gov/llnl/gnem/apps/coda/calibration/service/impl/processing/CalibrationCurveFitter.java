@@ -19,6 +19,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -45,6 +47,7 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.EnvelopeFit;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationMetrics;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 
@@ -55,7 +58,29 @@ public class CalibrationCurveFitter {
 
     private Logger log = LoggerFactory.getLogger(CalibrationCurveFitter.class);
 
+    private final CalibrationMetrics metrics;
+
+    private final LongAdder evaluations = new LongAdder();
+
+    public CalibrationCurveFitter() {
+        this(null);
+    }
+
+    /**
+     * @param metrics
+     *            receives the evaluation counts and times of each fit, may
+     *            be null
+     */
+    public CalibrationCurveFitter(CalibrationMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public EnvelopeFit fitCodaCMAES(final float[] segment, final double sampleRate, ShapeFitterConstraints constraints) {
+        return fitCodaCMAES(segment, sampleRate, constraints, null);
+    }
+
+    public EnvelopeFit fitCodaCMAES(final float[] segment, final double sampleRate, ShapeFitterConstraints constraints, FrequencyBand band) {
+        long start = System.nanoTime();
         double minInt = constraints.getMinIntercept();
         double maxInt = constraints.getMaxIntercept();
         double minGamma = constraints.getMinGamma();
@@ -72,7 +97,9 @@ public class CalibrationCurveFitter {
         double startIntercept = regression.getIntercept();
         double startBeta = regression.getSlope();
 
+        LongAdder calls = new LongAdder();
         MultivariateFunction prediction = point -> {
+            calls.increment();
             double intercept = point[0];
             double gamma = point[1];
             double beta = point[2];
@@ -111,6 +138,9 @@ public class CalibrationCurveFitter {
         fit.setBeta(curve[2]);
         fit.setError(bestResult.getValue() / segment.length);
 
+        if (metrics != null) {
+            metrics.optimized("envelope", band, calls.sum(), System.nanoTime() - start);
+        }
         return fit;
     }
 
@@ -303,7 +333,9 @@ public class CalibrationCurveFitter {
     private PointValuePair optimizeCMAES(MultivariateFunction prediction, InitialGuess initialGuess, CMAESOptimizer.Sigma stepSize, ConvergenceChecker<PointValuePair> convergenceChecker,
             Integer popSize, SimpleBounds bounds) {
         CMAESOptimizer optimizer = new CMAESOptimizer(1000000, 0, true, 0, 10, new MersenneTwister(), true, convergenceChecker);
-        return optimizer.optimize(new MaxEval(1000000), new ObjectiveFunction(prediction), GoalType.MINIMIZE, bounds, initialGuess, stepSize, new CMAESOptimizer.PopulationSize(popSize));
+        PointValuePair result = optimizer.optimize(new MaxEval(1000000), new ObjectiveFunction(prediction), GoalType.MINIMIZE, bounds, initialGuess, stepSize, new CMAESOptimizer.PopulationSize(popSize));
+        evaluations.add(optimizer.getEvaluations());
+        return result;
     }
 
     public double[] gridSearchCodaV(final List<Entry<Double, Double>> velocityDistancePairs, ShapeFitterConstraints constraints) {
@@ -417,10 +449,12 @@ public class CalibrationCurveFitter {
             Map<FrequencyBand, SharedFrequencyBandParameters> freqBandMap, ShapeFitterConstraints constraints) {
 
         velocityDistancePairsFreqMap.entrySet().parallelStream().filter(velDistPairs -> freqBandMap.get(velDistPairs.getKey()) != null).forEach(velDistPairs -> {
-            double[] curve = gridSearch(
-                    velDistPairs.getValue().stream().map(v -> new AbstractMap.SimpleEntry<>(v.getVelocity(), v.getDistance())).collect(Collectors.toList()),
-                        new ApacheGridSearchV(),
-                        new BasicGridSearchV(),
+            double[] curve = fitBand(
+                    "velocity",
+                        velDistPairs.getKey(),
+                        velDistPairs.getValue().stream().map(v -> new AbstractMap.SimpleEntry<>(v.getVelocity(), v.getDistance())).collect(Collectors.toList()),
+                        fitter -> fitter.new ApacheGridSearchV(),
+                        fitter -> fitter.new BasicGridSearchV(),
                         constraints);
 
             freqBandMap.put(velDistPairs.getKey(), freqBandMap.get(velDistPairs.getKey()).setVelocity0(curve[0]).setVelocity1(curve[1]).setVelocity2(curve[2]));
@@ -445,10 +479,12 @@ public class CalibrationCurveFitter {
             Map<FrequencyBand, SharedFrequencyBandParameters> freqBandMap, ShapeFitterConstraints constraints) {
 
         betaDistancePairsFreqMap.entrySet().parallelStream().filter(betaDistPairs -> freqBandMap.get(betaDistPairs.getKey()) != null).forEach(betaDistPairs -> {
-            double[] curve = gridSearch(
-                    betaDistPairs.getValue().stream().map(v -> new AbstractMap.SimpleEntry<>(v.getMeasuredBeta(), v.getDistance())).collect(Collectors.toList()),
-                        new ApacheGridSearchB(),
-                        new BasicGridSearchB(),
+            double[] curve = fitBand(
+                    "beta",
+                        betaDistPairs.getKey(),
+                        betaDistPairs.getValue().stream().map(v -> new AbstractMap.SimpleEntry<>(v.getMeasuredBeta(), v.getDistance())).collect(Collectors.toList()),
+                        fitter -> fitter.new ApacheGridSearchB(),
+                        fitter -> fitter.new BasicGridSearchB(),
                         constraints);
             // Artificially lower the intercept value, b0 to 95%
             // to account for possible noise contamination causing
@@ -474,19 +510,49 @@ public class CalibrationCurveFitter {
      */
     public Map<FrequencyBand, SharedFrequencyBandParameters> fitAllGamma(Map<FrequencyBand, List<ShapeMeasurement>> gammaDistancePairsFreqMap,
             Map<FrequencyBand, SharedFrequencyBandParameters> freqBandMap, ShapeFitterConstraints constraints) {
+        return fitAllGamma(gammaDistancePairsFreqMap, freqBandMap, constraints, band -> {
+        });
+    }
+
+    /**
+     * As {@link #fitAllGamma(Map, Map, ShapeFitterConstraints)} but passes
+     * each band to onBand as soon as its Gamma0-2 values are updated. onBand
+     * may be called from several threads at once.
+     */
+    public Map<FrequencyBand, SharedFrequencyBandParameters> fitAllGamma(Map<FrequencyBand, List<ShapeMeasurement>> gammaDistancePairsFreqMap,
+            Map<FrequencyBand, SharedFrequencyBandParameters> freqBandMap, ShapeFitterConstraints constraints, Consumer<FrequencyBand> onBand) {
 
         gammaDistancePairsFreqMap.entrySet().parallelStream().filter(gammaDistPairs -> freqBandMap.get(gammaDistPairs.getKey()) != null).forEach(gammaDistPairs -> {
-            double[] curve = gridSearch(
-                    gammaDistPairs.getValue().stream().map(v -> new AbstractMap.SimpleEntry<>(v.getMeasuredGamma(), v.getDistance())).collect(Collectors.toList()),
-                        new ApacheGridSearchG(),
-                        new BasicGridSearchG(),
+            double[] curve = fitBand(
+                    "gamma",
+                        gammaDistPairs.getKey(),
+                        gammaDistPairs.getValue().stream().map(v -> new AbstractMap.SimpleEntry<>(v.getMeasuredGamma(), v.getDistance())).collect(Collectors.toList()),
+                        fitter -> fitter.new ApacheGridSearchG(),
+                        fitter -> fitter.new BasicGridSearchG(),
                         constraints);
             freqBandMap.put(gammaDistPairs.getKey(), freqBandMap.get(gammaDistPairs.getKey()).setGamma0(curve[0]).setGamma1(curve[1]).setGamma2(curve[2]));
+            onBand.accept(gammaDistPairs.getKey());
         });
 
         return freqBandMap;
     }
 
+    /**
+     * Runs the grid search for one band on its own fitter so the optimizer
+     * evaluations can be attributed to that band while the bands run in
+     * parallel.
+     */
+    private double[] fitBand(String optimizer, FrequencyBand band, List<Entry<Double, Double>> value, Function<CalibrationCurveFitter, GridFitter> main,
+            Function<CalibrationCurveFitter, GridFitter> fallback, ShapeFitterConstraints constraints) {
+        CalibrationCurveFitter bandFitter = new CalibrationCurveFitter(metrics);
+        long start = System.nanoTime();
+        double[] fit = bandFitter.gridSearch(value, main.apply(bandFitter), fallback.apply(bandFitter), constraints);
+        if (metrics != null) {
+            metrics.optimized(optimizer, band, bandFitter.evaluations.sum(), System.nanoTime() - start);
+        }
+        return fit;
+    }
+
     private double[] gridSearch(List<Entry<Double, Double>> value, GridFitter main, GridFitter fallback, ShapeFitterConstraints constraints) {
         double[] fit;
         try {
@@ -0,0 +1,257 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongDoubleHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.service.api.GeometryService;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
+
+/**
+ * Columnar view of a set of spectra measurements for the calibration stages.
+ * Bands, events and stations are interned once to dense int ids and every
+ * measurement becomes a row with primitive band/event/station id columns.
+ * Rows are ordered by band and then event so a stage can walk a band, and
+ * each event within it, as contiguous ranges instead of rebuilding nested
+ * {@code Map<Event, Map<Station, ...>>} structures.
+ *
+ * As with the nested maps this replaces, only measurements with a valid
+ * waveform are kept and the last measurement wins if a band/event/station
+ * combination appears more than once.
+ */
+public class CalibrationDatasetIndex {
+
+    private static final int ID_BITS = 21;
+
+    private final FrequencyBandIndex<List<SpectraMeasurement>> bands;
+    private final Event[] events;
+    private final Station[] stations;
+    private final SpectraMeasurement[] measurements;
+    private final int[] bandIds;
+    private final int[] eventIds;
+    private final int[] stationIds;
+    private final int[] bandOffsets;
+    private volatile double[] distances;
+
+    private CalibrationDatasetIndex(FrequencyBandIndex<List<SpectraMeasurement>> bands, Event[] events, Station[] stations, SpectraMeasurement[] measurements, int[] bandIds, int[] eventIds,
+            int[] stationIds, int[] bandOffsets) {
+        this.bands = bands;
+        this.events = events;
+        this.stations = stations;
+        this.measurements = measurements;
+        this.bandIds = bandIds;
+        this.eventIds = eventIds;
+        this.stationIds = stationIds;
+        this.bandOffsets = bandOffsets;
+    }
+
+    public static CalibrationDatasetIndex of(Map<FrequencyBand, List<SpectraMeasurement>> dataByFreqBand) {
+        FrequencyBandIndex<List<SpectraMeasurement>> bands = FrequencyBandIndex.of(dataByFreqBand);
+
+        ObjectIntHashMap<Event> eventIdMap = new ObjectIntHashMap<>();
+        ObjectIntHashMap<Station> stationIdMap = new ObjectIntHashMap<>();
+        List<Event> events = new ArrayList<>();
+        List<Station> stations = new ArrayList<>();
+        List<SpectraMeasurement> rows = new ArrayList<>();
+        IntArrayList rowBands = new IntArrayList();
+        IntArrayList rowEvents = new IntArrayList();
+        IntArrayList rowStations = new IntArrayList();
+        LongIntHashMap rowByKey = new LongIntHashMap();
+
+        for (int band = 0; band < bands.size(); band++) {
+            List<SpectraMeasurement> bandData = bands.valueAt(band);
+            if (bandData == null) {
+                continue;
+            }
+            for (SpectraMeasurement measurement : bandData) {
+                if (measurement == null || !WaveformUtils.isValidWaveform(measurement.getWaveform())) {
+                    continue;
+                }
+                Event event = measurement.getWaveform().getEvent();
+                Station station = measurement.getWaveform().getStream().getStation();
+                int eventId = eventIdMap.getIfAbsent(event, -1);
+                if (eventId < 0) {
+                    eventId = events.size();
+                    eventIdMap.put(event, eventId);
+                    events.add(event);
+                }
+                int stationId = stationIdMap.getIfAbsent(station, -1);
+                if (stationId < 0) {
+                    stationId = stations.size();
+                    stationIdMap.put(station, stationId);
+                    stations.add(station);
+                }
+
+                long key = ((long) band << (2 * ID_BITS)) | ((long) eventId << ID_BITS) | stationId;
+                int existing = rowByKey.getIfAbsent(key, -1);
+                if (existing >= 0) {
+                    rows.set(existing, measurement);
+                } else {
+                    rowByKey.put(key, rows.size());
+                    rows.add(measurement);
+                    rowBands.add(band);
+                    rowEvents.add(eventId);
+                    rowStations.add(stationId);
+                }
+            }
+        }
+
+        // Counting sort on (band, event); rows are already grouped by band
+        // so this only has to bring each event's rows together
+        int eventCount = events.size();
+        int[] bucketOffsets = new int[bands.size() * eventCount + 1];
+        for (int i = 0; i < rows.size(); i++) {
+            bucketOffsets[rowBands.get(i) * eventCount + rowEvents.get(i) + 1]++;
+        }
+        for (int i = 1; i < bucketOffsets.length; i++) {
+            bucketOffsets[i] += bucketOffsets[i - 1];
+        }
+
+        int size = rows.size();
+        SpectraMeasurement[] measurements = new SpectraMeasurement[size];
+        int[] bandIds = new int[size];
+        int[] eventIds = new int[size];
+        int[] stationIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            int target = bucketOffsets[rowBands.get(i) * eventCount + rowEvents.get(i)]++;
+            measurements[target] = rows.get(i);
+            bandIds[target] = rowBands.get(i);
+            eventIds[target] = rowEvents.get(i);
+            stationIds[target] = rowStations.get(i);
+        }
+
+        int[] bandOffsets = new int[bands.size() + 1];
+        for (int i = 0; i < size; i++) {
+            bandOffsets[bandIds[i] + 1]++;
+        }
+        for (int i = 1; i < bandOffsets.length; i++) {
+            bandOffsets[i] += bandOffsets[i - 1];
+        }
+
+        return new CalibrationDatasetIndex(bands, events.toArray(new Event[0]), stations.toArray(new Station[0]), measurements, bandIds, eventIds, stationIds, bandOffsets);
+    }
+
+    /**
+     * @return one value per row, in row order
+     */
+    public double[] column(ToDoubleFunction<SpectraMeasurement> getter) {
+        double[] column = new double[measurements.length];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = getter.applyAsDouble(measurements[i]);
+        }
+        return column;
+    }
+
+    /**
+     * @return the event to station distance for every row. Each event/station
+     *         pair is only computed once and the column is cached on the
+     *         index.
+     */
+    public double[] distances(GeometryService geometryService) {
+        double[] column = distances;
+        if (column == null) {
+            LongDoubleHashMap byPair = new LongDoubleHashMap();
+            column = new double[measurements.length];
+            for (int i = 0; i < column.length; i++) {
+                long pair = ((long) eventIds[i] << ID_BITS) | stationIds[i];
+                if (byPair.containsKey(pair)) {
+                    column[i] = byPair.get(pair);
+                } else {
+                    column[i] = geometryService.getDistance(events[eventIds[i]], stations[stationIds[i]]);
+                    byPair.put(pair, column[i]);
+                }
+            }
+            distances = column;
+        }
+        return column;
+    }
+
+    public int size() {
+        return measurements.length;
+    }
+
+    public int bandCount() {
+        return bands.size();
+    }
+
+    public FrequencyBand band(int bandId) {
+        return bands.bandAt(bandId);
+    }
+
+    /**
+     * @return the dense id of the band or -1 if it is not in the index
+     */
+    public int bandId(FrequencyBand band) {
+        return bands.indexOf(band);
+    }
+
+    /**
+     * @return the first row of the band
+     */
+    public int bandStart(int bandId) {
+        return bandOffsets[bandId];
+    }
+
+    /**
+     * @return one past the last row of the band
+     */
+    public int bandEnd(int bandId) {
+        return bandOffsets[bandId + 1];
+    }
+
+    public int eventCount() {
+        return events.length;
+    }
+
+    public Event event(int eventId) {
+        return events[eventId];
+    }
+
+    public int stationCount() {
+        return stations.length;
+    }
+
+    public Station station(int stationId) {
+        return stations[stationId];
+    }
+
+    public SpectraMeasurement measurementAt(int row) {
+        return measurements[row];
+    }
+
+    public int bandIdAt(int row) {
+        return bandIds[row];
+    }
+
+    public int eventIdAt(int row) {
+        return eventIds[row];
+    }
+
+    public int stationIdAt(int row) {
+        return stationIds[row];
+    }
+}
@@ -14,13 +14,13 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import gov.llnl.gnem.apps.coda.calibration.service.api.EndTimePicker;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
+import llnl.gnem.core.util.seriesMathHelpers.SlidingWindowStats;
 
 @Component
 public class CodaSNREndTimePicker implements EndTimePicker {
@@ -31,6 +31,11 @@ public class CodaSNREndTimePicker implements EndTimePicker {
 
     @Override
     public double getEndTime(float[] waveform, double sampleRate, double startTimeEpochSeconds, int startOffset, double minLengthSec, double maxLengthSec, double minimumSnr, double noise) {
+        return getEndTime(WaveformUtils.floatsToDoubles(waveform), sampleRate, startTimeEpochSeconds, startOffset, minLengthSec, maxLengthSec, minimumSnr, noise);
+    }
+
+    @Override
+    public double getEndTime(double[] waveform, double sampleRate, double startTimeEpochSeconds, int startOffset, double minLengthSec, double maxLengthSec, double minimumSnr, double noise) {
 
         Double snrPick = getSnrEndPick(waveform, sampleRate, startOffset, minLengthSec, maxLengthSec, minimumSnr, noise, 40);
 
@@ -44,13 +49,13 @@ public class CodaSNREndTimePicker implements EndTimePicker {
         return startTimeEpochSeconds + overallPick;
     }
 
-    private Double getSnrEndPick(final float[] waveform, final double sampleRate, int startOffset, final double minLengthSec, final double maxLengthSec, final double minimumSnr, final double noise,
+    private Double getSnrEndPick(final double[] waveform, final double sampleRate, int startOffset, final double minLengthSec, final double maxLengthSec, final double minimumSnr, final double noise,
             final int windowSize) {
         int obsWindow = (int) (windowSize / sampleRate);
         int spikeSamples = (int) ((windowSize / 4) / sampleRate);
-        DescriptiveStatistics obs = new DescriptiveStatistics(obsWindow);
-        DescriptiveStatistics spike = new DescriptiveStatistics(spikeSamples);
-        SimpleRegression spikeReg = new SimpleRegression();
+        // Rolling sums keep each step O(1) and allocation free
+        SlidingWindowStats obs = new SlidingWindowStats(obsWindow);
+        SlidingWindowStats spike = new SlidingWindowStats(spikeSamples);
         double snrTimePick = BAD_PICK;
 
         int minSamples = (int) (minLengthSec * sampleRate);
@@ -84,14 +89,10 @@ public class CodaSNREndTimePicker implements EndTimePicker {
                             snrTimePick = i / sampleRate;
                         }
                     }
-                    if (spike.getN() > spikeSamples) {
-                        double[] spikeVals = spike.getValues();
-                        spikeReg.clear();
-                        for (int k = 0; k < spikeVals.length; k++) {
-                            spikeReg.addData(k, spikeVals[k]);
-                        }
-
-                        double spikeSlope = spikeReg.getSlope();
+                    // The window never holds more than spikeSamples values so
+                    // check as soon as it is full
+                    if (spike.getN() >= spikeSamples) {
+                        double spikeSlope = spike.getSlope();
                         if (!Double.isNaN(spikeSlope)) {
                             if (spikeSlope > 0.1) {
                                 snrTimePick = (i - spike.getN() - 1) / sampleRate;
@@ -0,0 +1,134 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+
+/**
+ * Read only lookup of values keyed by frequency band. Bands are held in
+ * sorted primitive arrays so a waveform or measurement can be resolved to its
+ * band id and value from its raw low/high frequencies without allocating a
+ * {@link FrequencyBand} key or hashing boxed doubles. Matching follows
+ * {@link FrequencyBand#equals(Object)}.
+ */
+public class FrequencyBandIndex<V> {
+
+    private final FrequencyBand[] bands;
+    private final double[] lowFrequencies;
+    private final double[] highFrequencies;
+    private final Object[] values;
+
+    public FrequencyBandIndex(Map<FrequencyBand, V> valuesByBand) {
+        Map<FrequencyBand, V> sorted = new TreeMap<>();
+        if (valuesByBand != null) {
+            for (Entry<FrequencyBand, V> entry : valuesByBand.entrySet()) {
+                if (entry.getKey() != null) {
+                    sorted.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        bands = new FrequencyBand[sorted.size()];
+        lowFrequencies = new double[bands.length];
+        highFrequencies = new double[bands.length];
+        values = new Object[bands.length];
+        int i = 0;
+        for (Entry<FrequencyBand, V> entry : sorted.entrySet()) {
+            bands[i] = entry.getKey();
+            lowFrequencies[i] = entry.getKey().getLowFrequency();
+            highFrequencies[i] = entry.getKey().getHighFrequency();
+            values[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    public static <V> FrequencyBandIndex<V> of(Map<FrequencyBand, V> valuesByBand) {
+        return new FrequencyBandIndex<>(valuesByBand);
+    }
+
+    /**
+     * @return the dense id of the band, in ascending band order, or -1 if the
+     *         band is not in this index
+     */
+    public int indexOf(double lowFrequency, double highFrequency) {
+        int lo = 0;
+        int hi = bands.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Double.compare(lowFrequencies[mid], lowFrequency);
+            if (cmp == 0) {
+                cmp = Double.compare(highFrequencies[mid], highFrequency);
+            }
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(Double lowFrequency, Double highFrequency) {
+        if (lowFrequency == null || highFrequency == null) {
+            return -1;
+        }
+        return indexOf(lowFrequency.doubleValue(), highFrequency.doubleValue());
+    }
+
+    public int indexOf(FrequencyBand band) {
+        return band != null ? indexOf(band.getLowFrequency(), band.getHighFrequency()) : -1;
+    }
+
+    public int indexOf(Waveform waveform) {
+        return waveform != null ? indexOf(waveform.getLowFrequency(), waveform.getHighFrequency()) : -1;
+    }
+
+    public V get(Double lowFrequency, Double highFrequency) {
+        return valueAt(indexOf(lowFrequency, highFrequency));
+    }
+
+    public V get(Waveform waveform) {
+        return valueAt(indexOf(waveform));
+    }
+
+    public V get(FrequencyBand band) {
+        return valueAt(indexOf(band));
+    }
+
+    /**
+     * @return the value for the band id, or null if the id is -1
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    /**
+     * @return the canonical band instance for the id, or null if the id is -1
+     */
+    public FrequencyBand bandAt(int index) {
+        return index >= 0 ? bands[index] : null;
+    }
+
+    public int size() {
+        return bands.length;
+    }
+}
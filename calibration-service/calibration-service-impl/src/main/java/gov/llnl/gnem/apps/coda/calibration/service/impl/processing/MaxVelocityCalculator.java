@@ -25,23 +25,22 @@ import org.springframework.stereotype.Component;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
-import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
-import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
+import gov.llnl.gnem.apps.coda.common.service.api.GeometryService;
 import llnl.gnem.core.util.TimeT;
-import llnl.gnem.core.util.Geometry.EModel;
-import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 @Component
 public class MaxVelocityCalculator {
 
     private static final Logger log = LoggerFactory.getLogger(MaxVelocityCalculator.class);
-    private WaveformToTimeSeriesConverter converter;
     private VelocityConfiguration velConf;
+    private GeometryService geometryService;
+    private VelocityPickKernel kernel;
 
     @Autowired
-    public MaxVelocityCalculator(VelocityConfiguration velConf, WaveformToTimeSeriesConverter converter) {
-        this.converter = converter;
+    public MaxVelocityCalculator(VelocityConfiguration velConf, GeometryService geometryService, VelocityPickKernel kernel) {
         this.velConf = velConf;
+        this.geometryService = geometryService;
+        this.kernel = kernel;
     }
 
     public Stream<PeakVelocityMeasurement> computeMaximumVelocity(List<Waveform> waveforms) {
@@ -71,12 +70,7 @@ public class MaxVelocityCalculator {
     private Stream<PeakVelocityMeasurement> computeMaximumVelocity(List<Waveform> waveforms, double gv1GtDistanceThreshold, double gv2GtDistanceThreshold, double gv1LtDistanceThreshold,
             double gv2LtDistanceThreshold, double thresholdInKm) {
         return waveforms.stream().parallel().map(rawWaveform -> {
-            TimeSeries waveform = converter.convert(rawWaveform);
-            double distance = EModel.getDistanceWGS84(
-                    rawWaveform.getEvent().getLatitude(),
-                        rawWaveform.getEvent().getLongitude(),
-                        rawWaveform.getStream().getStation().getLatitude(),
-                        rawWaveform.getStream().getStation().getLongitude());
+            double distance = geometryService.getDistance(rawWaveform.getEvent(), rawWaveform.getStream().getStation());
             TimeT origintime = new TimeT(rawWaveform.getEvent().getOriginTime());
             TimeT starttime;
             TimeT endtime;
@@ -91,34 +85,27 @@ public class MaxVelocityCalculator {
 
             // The envelope is in log10.
             try {
-                // cut the coda window portion of the seismograms
-                waveform.cut(starttime, endtime);
+                // peak, noise floor and SNR of the coda window in one sweep
+                // over the stack samples
+                VelocityPickKernel.Measurement measurement = kernel.measure(
+                        rawWaveform.getSegment(),
+                            rawWaveform.getSampleRate(),
+                            new TimeT(rawWaveform.getBeginTime()).getEpochTime(),
+                            origintime.getEpochTime(),
+                            distance,
+                            starttime.getEpochTime(),
+                            endtime.getEpochTime());
 
-                // peakS[0] time in seconds for
-                // reference peakS[1] max amplitude
-                double[] peakS = WaveformUtils.getMaxTime(waveform, origintime);
-
-                // +1 to avoid divide by zero slamming this to +Infinity when
-                // the first sample is the largest
-                if (peakS[0] == 0.0) {
-                    peakS[0] = 1.0;
-                }
-
-                double velocity = distance / peakS[0];
-
-                double noise = WaveformUtils.getNoiseFloor(rawWaveform.getSegment());
-
-                // the envelope noise is in log10 units.
-                double snrPeak = peakS[1] - noise;
                 return new PeakVelocityMeasurement().setWaveform(rawWaveform)
+                                                    .setProjectId(rawWaveform.getProjectId())
                                                     .setNoiseStartSecondsFromOrigin(0d)
                                                     .setNoiseEndSecondsFromOrigin(20d)
-                                                    .setNoiseLevel(noise)
-                                                    .setSnr(snrPeak)
-                                                    .setVelocity(velocity)
+                                                    .setNoiseLevel(measurement.getNoise())
+                                                    .setSnr(measurement.getSnr())
+                                                    .setVelocity(measurement.getVelocity())
                                                     .setDistance(distance)
-                                                    .setTime(peakS[0])
-                                                    .setAmplitude(peakS[1]);
+                                                    .setTime(measurement.getPeakTimeSecondsFromOrigin())
+                                                    .setAmplitude(measurement.getPeakAmplitude());
             } catch (IllegalArgumentException ill) {
                 log.info("Unable to compute maximum velocity, this stack will be skipped. {} {}.", ill.getMessage(), rawWaveform);
                 return new PeakVelocityMeasurement();
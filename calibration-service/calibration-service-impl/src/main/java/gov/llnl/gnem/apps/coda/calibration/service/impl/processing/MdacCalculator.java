@@ -143,7 +143,7 @@ public class MdacCalculator {
      *            0 and the reference moment is not needed
      * @return the angular corner frequency (wcs)
      */
-    private double calculateAngularCornerFrequency(double K, double Sigma, double m0, double m0_ref, double psi) {
+    static double calculateAngularCornerFrequency(double K, double Sigma, double m0, double m0_ref, double psi) {
         double m0psi = Math.pow(m0_ref, psi); // Moref ^ psi
         double C = Math.pow(((K * Sigma) / m0psi), (1.0 / 3.0));
         return C * Math.pow(m0, (psi - 1) / 3.0);
@@ -161,7 +161,7 @@ public class MdacCalculator {
      *
      * @return K
      */
-    private double calculateK(double zeta, double alphaS, double betaS, double radpatP, double radpatS) {
+    static double calculateK(double zeta, double alphaS, double betaS, double radpatP, double radpatS) {
         double z3 = Math.pow(zeta, 3);
         double a5 = Math.pow(alphaS, 5);
         double b5 = Math.pow(betaS, 5);
@@ -0,0 +1,196 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.ServiceConfig;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.model.util.SPECTRA_TYPES;
+
+/**
+ * Evaluates MDAC2 moment rate spectra for many (Mw, apparent stress) pairs at
+ * once. The band center frequencies and the K term are computed once per
+ * call and each curve then only needs its own moment and corner frequency.
+ * The five fit curves of a measured event are cached under a fingerprint of
+ * the event's values, the MDAC parameters, the phase and the bands, so the
+ * same event in several projects shares one entry. Results are immutable and
+ * cached curves are returned as-is.
+ */
+@Component
+public class MdacSpectraGenerator {
+
+    private static final SPECTRA_TYPES[] FIT_TYPES = { SPECTRA_TYPES.FIT, SPECTRA_TYPES.UQ1, SPECTRA_TYPES.UQ1, SPECTRA_TYPES.UQ2, SPECTRA_TYPES.UQ2 };
+
+    private final MdacParametersFiService mdacFiService;
+    private final Map<Long, List<Spectra>> fitCache;
+
+    @Autowired
+    public MdacSpectraGenerator(MdacParametersFiService mdacFiService, ServiceConfig config) {
+        this.mdacFiService = mdacFiService;
+        final int capacity = Math.max(0, config.getSpectraCacheSize());
+        this.fitCache = new LinkedHashMap<Long, List<Spectra>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<Long, List<Spectra>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public Spectra computeReferenceSpectra(ReferenceMwParameters refEvent, Collection<FrequencyBand> bands, PICK_TYPES selectedPhase) {
+        return computeSpectra(
+                mdacFiService.findFirst(),
+                    new Double[] { refEvent.getRefMw() },
+                    new Double[] { refEvent.getRefApparentStressInMpa() },
+                    new SPECTRA_TYPES[] { SPECTRA_TYPES.REF },
+                    bands,
+                    selectedPhase).get(0);
+    }
+
+    public List<Spectra> computeFitSpectra(MeasuredMwParameters event, Collection<FrequencyBand> bands, PICK_TYPES selectedPhase) {
+        return computeFitSpectra(mdacFiService.findFirst(), event, bands, selectedPhase);
+    }
+
+    /**
+     * Callers fitting many events should look the MDAC parameters up once and
+     * use this overload.
+     *
+     * @return the fit, UQ1 max, UQ1 min, UQ2 max and UQ2 min spectra for the
+     *         event, in that order. The list and its curves are unmodifiable.
+     */
+    public List<Spectra> computeFitSpectra(MdacParametersFI mdacFi, MeasuredMwParameters event, Collection<FrequencyBand> bands, PICK_TYPES selectedPhase) {
+        Double[] mws = { event.getMw(), event.getMw1Max(), event.getMw1Min(), event.getMw2Max(), event.getMw2Min() };
+        Double[] stresses = { event.getApparentStressInMpa(), event.getApparentStress1Max(), event.getApparentStress1Min(), event.getApparentStress2Max(), event.getApparentStress2Min() };
+        if (mdacFi == null) {
+            return computeSpectra(mdacFi, mws, stresses, FIT_TYPES, bands, selectedPhase);
+        }
+
+        Long key = fingerprint(mdacFi, selectedPhase, bands, mws, stresses);
+        List<Spectra> spectra;
+        synchronized (fitCache) {
+            spectra = fitCache.get(key);
+        }
+        if (spectra == null) {
+            spectra = computeSpectra(mdacFi, mws, stresses, FIT_TYPES, bands, selectedPhase);
+            synchronized (fitCache) {
+                fitCache.put(key, spectra);
+            }
+        }
+        return spectra;
+    }
+
+    /**
+     * Evaluates one curve per entry of mws/stresses/types. A null or
+     * non-positive stress uses the Sigma and Psi of the MDAC parameters,
+     * otherwise Sigma is the stress and Psi is zero. Curves with a null Mw
+     * have no points. The returned list and its curves are unmodifiable.
+     */
+    public List<Spectra> computeSpectra(MdacParametersFI mdacFi, Double[] mws, Double[] stresses, SPECTRA_TYPES[] types, Collection<FrequencyBand> bands, PICK_TYPES selectedPhase) {
+        double[] logFreqs = new double[bands.size()];
+        double[] angularFreqs = new double[bands.size()];
+        int idx = 0;
+        for (FrequencyBand band : bands) {
+            double centerFreq = band.getLowFrequency() + (band.getHighFrequency() - band.getLowFrequency()) / 2.;
+            logFreqs[idx] = Math.log10(centerFreq);
+            angularFreqs[idx] = 2 * Math.PI * centerFreq;
+            idx++;
+        }
+        int[] order = IntStream.range(0, logFreqs.length).boxed().sorted(Comparator.comparingDouble(i -> logFreqs[i])).mapToInt(Integer::intValue).toArray();
+
+        boolean pWave = PICK_TYPES.PN.equals(selectedPhase) || PICK_TYPES.PG.equals(selectedPhase);
+        double K = mdacFi != null ? MdacCalculator.calculateK(mdacFi.getZeta(), mdacFi.getAlphas(), mdacFi.getBetas(), mdacFi.getRadPatP(), mdacFi.getRadPatS()) : Double.NaN;
+
+        List<Spectra> spectra = new ArrayList<>(mws.length);
+        for (int i = 0; i < mws.length; i++) {
+            List<Point2D.Double> xyPoints = new ArrayList<>(order.length);
+            if (mdacFi != null && mws[i] != null) {
+                double sigma = mdacFi.getSigma();
+                double psi = mdacFi.getPsi();
+                if (stresses[i] != null && stresses[i] > 0.0) {
+                    sigma = stresses[i];
+                    psi = 0.0;
+                }
+                // M0 in N-m units
+                double m0 = MdacCalculator.DYNE_CM_TO_NEWTON_M * Math.pow(10, 1.5 * (mws[i] + 10.73));
+                double wcs = MdacCalculator.calculateAngularCornerFrequency(K, MdacCalculator.MPA_TO_PA * sigma, m0, mdacFi.getM0ref(), psi);
+                if (pWave) {
+                    wcs = mdacFi.getZeta() * wcs;
+                }
+                for (int j : order) {
+                    double wwc = angularFreqs[j] / wcs;
+                    double amplitude = Math.log10(m0 / (1 + wwc * wwc)) + 7;
+                    if (amplitude > 0) {
+                        xyPoints.add(new Point2D.Double(logFreqs[j], amplitude));
+                    }
+                }
+            }
+            spectra.add(new Spectra(types[i], Collections.unmodifiableList(xyPoints), mws[i], stresses[i]));
+        }
+        return Collections.unmodifiableList(spectra);
+    }
+
+    /**
+     * 64 bit hash of everything the fit curves depend on. Collisions are
+     * vanishingly unlikely at any practical cache size so it stands in for the
+     * inputs themselves and lookups never compare band lists or arrays.
+     */
+    private static long fingerprint(MdacParametersFI mdacFi, PICK_TYPES phase, Collection<FrequencyBand> bands, Double[] mws, Double[] stresses) {
+        long h = phase != null ? phase.ordinal() + 1 : 0;
+        h = mix(h, mdacFi.getSigma());
+        h = mix(h, mdacFi.getPsi());
+        h = mix(h, mdacFi.getZeta());
+        h = mix(h, mdacFi.getM0ref());
+        h = mix(h, mdacFi.getAlphas());
+        h = mix(h, mdacFi.getBetas());
+        h = mix(h, mdacFi.getRadPatP());
+        h = mix(h, mdacFi.getRadPatS());
+        for (int i = 0; i < mws.length; i++) {
+            h = mix(h, mws[i] != null ? mws[i] : Double.NaN);
+            h = mix(h, stresses[i] != null ? stresses[i] : Double.NaN);
+        }
+        for (FrequencyBand band : bands) {
+            h = mix(h, band.getLowFrequency());
+            h = mix(h, band.getHighFrequency());
+        }
+        return mix(h, bands.size());
+    }
+
+    private static long mix(long h, double value) {
+        long z = (h ^ Double.doubleToLongBits(value)) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
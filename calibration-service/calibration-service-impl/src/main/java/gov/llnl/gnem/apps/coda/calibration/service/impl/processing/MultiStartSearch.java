@@ -0,0 +1,274 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.apache.commons.math3.exception.TooManyEvaluationsException;
+import org.apache.commons.math3.optim.InitialGuess;
+import org.apache.commons.math3.optim.MaxEval;
+import org.apache.commons.math3.optim.PointValuePair;
+import org.apache.commons.math3.optim.SimpleBounds;
+import org.apache.commons.math3.optim.SimpleValueChecker;
+import org.apache.commons.math3.optim.nonlinear.scalar.GoalType;
+import org.apache.commons.math3.optim.nonlinear.scalar.ObjectiveFunction;
+import org.apache.commons.math3.optim.nonlinear.scalar.noderiv.CMAESOptimizer;
+import org.apache.commons.math3.random.MersenneTwister;
+
+/**
+ * Multi-start CMA-ES search that screens a grid of starting points with a
+ * single cost evaluation each and only optimizes from the most promising
+ * ones. An optional warm start (e.g. the optimum of a neighbouring problem)
+ * is always optimized first. Optimizations run in waves of
+ * {@link #getConvergedRuns()} and the search stops as soon as that many runs
+ * have landed within {@link #getConvergenceTolerance()} of the best value.
+ */
+public class MultiStartSearch {
+
+    private int topK = 4;
+    private int convergedRuns = 2;
+    private double convergenceTolerance = 1E-4;
+    private double tolerance = 1E-10;
+    private int populationSize = 20;
+    private int maxEvaluations = 1000000;
+
+    /**
+     * @param cost
+     *            function to minimize, must be safe to call concurrently
+     * @param lowBounds
+     *            lower bound for each term
+     * @param highBounds
+     *            upper bound for each term
+     * @param sigma
+     *            initial CMA-ES step size for each term when starting from
+     *            a grid point
+     * @param grid
+     *            coarse starting points to screen
+     * @param warmStart
+     *            optional starting point to optimize ahead of the grid,
+     *            clipped to the bounds. May be null.
+     * @param warmSigma
+     *            initial step size for the warm start. Ignored when warmStart
+     *            is null.
+     * @return the best optimum found along with the evaluation counts
+     */
+    public Result search(MultivariateFunction cost, double[] lowBounds, double[] highBounds, double[] sigma, List<double[]> grid, double[] warmStart, double[] warmSigma) {
+        CountingFunction counted = new CountingFunction(cost);
+
+        List<Candidate> candidates = new ArrayList<>();
+        if (warmStart != null) {
+            candidates.add(new Candidate(clip(warmStart, lowBounds, highBounds), warmSigma));
+        }
+
+        List<PointValuePair> screened = grid.parallelStream()
+                                            .map(start -> clip(start, lowBounds, highBounds))
+                                            .map(start -> new PointValuePair(start, counted.value(start)))
+                                            .filter(p -> Double.isFinite(p.getValue()))
+                                            .sorted(Comparator.comparingDouble(PointValuePair::getValue))
+                                            .limit(Math.max(1, topK))
+                                            .collect(Collectors.toList());
+        long screenEvaluations = counted.getCount();
+        for (PointValuePair start : screened) {
+            candidates.add(new Candidate(start.getPoint(), sigma));
+        }
+
+        PointValuePair best = null;
+        int runs = 0;
+        int agreeing = 0;
+        int waveSize = Math.max(1, convergedRuns);
+        for (int i = 0; i < candidates.size() && agreeing < waveSize; i += waveSize) {
+            List<PointValuePair> wave = candidates.subList(i, Math.min(i + waveSize, candidates.size()))
+                                                  .parallelStream()
+                                                  .map(c -> optimize(counted, lowBounds, highBounds, c))
+                                                  .filter(Objects::nonNull)
+                                                  .sorted(Comparator.comparingDouble(PointValuePair::getValue))
+                                                  .collect(Collectors.toList());
+            runs += Math.min(waveSize, candidates.size() - i);
+            for (PointValuePair opt : wave) {
+                if (best == null || !withinTolerance(opt.getValue(), best.getValue()) && opt.getValue() < best.getValue()) {
+                    best = opt;
+                    agreeing = 1;
+                } else if (withinTolerance(opt.getValue(), best.getValue())) {
+                    agreeing++;
+                }
+            }
+        }
+
+        return new Result(best, counted.getCount(), screenEvaluations, runs, agreeing >= waveSize);
+    }
+
+    private PointValuePair optimize(MultivariateFunction cost, double[] lowBounds, double[] highBounds, Candidate candidate) {
+        CMAESOptimizer optimizer = new CMAESOptimizer(maxEvaluations, tolerance, true, 0, 10, new MersenneTwister(), false, new SimpleValueChecker(tolerance, tolerance));
+        try {
+            return optimizer.optimize(
+                    new MaxEval(maxEvaluations),
+                        new ObjectiveFunction(cost),
+                        GoalType.MINIMIZE,
+                        new SimpleBounds(lowBounds, highBounds),
+                        new InitialGuess(candidate.start),
+                        new CMAESOptimizer.PopulationSize(populationSize),
+                        new CMAESOptimizer.Sigma(candidate.sigma));
+        } catch (TooManyEvaluationsException e) {
+            return null;
+        }
+    }
+
+    private boolean withinTolerance(double value, double best) {
+        return Math.abs(value - best) <= convergenceTolerance * Math.max(1.0, Math.abs(best));
+    }
+
+    private static double[] clip(double[] point, double[] lowBounds, double[] highBounds) {
+        double[] clipped = point.clone();
+        for (int i = 0; i < clipped.length; i++) {
+            clipped[i] = Math.min(highBounds[i], Math.max(lowBounds[i], clipped[i]));
+        }
+        return clipped;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public MultiStartSearch setTopK(int topK) {
+        this.topK = topK;
+        return this;
+    }
+
+    public int getConvergedRuns() {
+        return convergedRuns;
+    }
+
+    public MultiStartSearch setConvergedRuns(int convergedRuns) {
+        this.convergedRuns = convergedRuns;
+        return this;
+    }
+
+    public double getConvergenceTolerance() {
+        return convergenceTolerance;
+    }
+
+    public MultiStartSearch setConvergenceTolerance(double convergenceTolerance) {
+        this.convergenceTolerance = convergenceTolerance;
+        return this;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public MultiStartSearch setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    public MultiStartSearch setPopulationSize(int populationSize) {
+        this.populationSize = populationSize;
+        return this;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public MultiStartSearch setMaxEvaluations(int maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+        return this;
+    }
+
+    private static class Candidate {
+        private final double[] start;
+        private final double[] sigma;
+
+        private Candidate(double[] start, double[] sigma) {
+            this.start = start;
+            this.sigma = sigma;
+        }
+    }
+
+    private static class CountingFunction implements MultivariateFunction {
+        private final MultivariateFunction delegate;
+        private final LongAdder count = new LongAdder();
+
+        private CountingFunction(MultivariateFunction delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public double value(double[] point) {
+            count.increment();
+            return delegate.value(point);
+        }
+
+        private long getCount() {
+            return count.sum();
+        }
+    }
+
+    public static class Result {
+        private final PointValuePair best;
+        private final long evaluations;
+        private final long screenEvaluations;
+        private final int optimizerRuns;
+        private final boolean converged;
+
+        public Result(PointValuePair best, long evaluations, long screenEvaluations, int optimizerRuns, boolean converged) {
+            this.best = best;
+            this.evaluations = evaluations;
+            this.screenEvaluations = screenEvaluations;
+            this.optimizerRuns = optimizerRuns;
+            this.converged = converged;
+        }
+
+        /**
+         * @return the lowest cost optimum, or null if every run failed
+         */
+        public PointValuePair getBest() {
+            return best;
+        }
+
+        /**
+         * @return total cost function evaluations, screening included
+         */
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        public long getScreenEvaluations() {
+            return screenEvaluations;
+        }
+
+        public int getOptimizerRuns() {
+            return optimizerRuns;
+        }
+
+        /**
+         * @return true if the search stopped early because enough runs
+         *         agreed on the best value
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+/**
+ * Evaluation and wall clock allowance for fitting a single event's Mw. Not
+ * thread safe; each fit owns its budget. The clock starts when the budget is
+ * created.
+ */
+public class MwFitBudget {
+
+    private final long maxEvaluations;
+    private final long deadline;
+    private final boolean timed;
+    private long evaluations;
+
+    public MwFitBudget(long maxEvaluations, long timeoutNanos) {
+        this.maxEvaluations = maxEvaluations > 0 ? maxEvaluations : Long.MAX_VALUE;
+        this.timed = timeoutNanos > 0;
+        this.deadline = timed ? System.nanoTime() + timeoutNanos : 0l;
+    }
+
+    public static MwFitBudget unlimited() {
+        return new MwFitBudget(0l, 0l);
+    }
+
+    /**
+     * Counts one more evaluation against the budget.
+     *
+     * @return false, without counting, when the budget is already spent
+     */
+    public boolean tryEvaluate() {
+        if (isExhausted()) {
+            return false;
+        }
+        evaluations++;
+        return true;
+    }
+
+    public boolean isExhausted() {
+        return evaluations >= maxEvaluations || (timed && System.nanoTime() - deadline >= 0);
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationMetrics;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.ServiceConfig;
+
+/**
+ * Runs per-event Mw fits on a dedicated work stealing pool so a slow event
+ * can't starve the common pool used by path correction, envelope creation and
+ * the GUI. Each event is its own task; idle workers steal queued events from
+ * busy ones and each fit gets its own {@link MwFitBudget}.
+ */
+@Component
+public class MwFitExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(MwFitExecutor.class);
+
+    private final ForkJoinPool pool;
+    private final long maxEvaluations;
+    private final long timeoutNanos;
+
+    @Autowired
+    public MwFitExecutor(ServiceConfig config, CalibrationMetrics metrics) {
+        this.maxEvaluations = config.getMwFitMaxEvaluations();
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(config.getMwFitTimeoutSeconds());
+        this.pool = metrics.monitor(new ForkJoinPool(config.getMwFitPoolSize(), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("Mw-Fit-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true), "mw-fit");
+    }
+
+    /**
+     * @return a fresh budget using the configured evaluation and time limits
+     */
+    public MwFitBudget newBudget() {
+        return new MwFitBudget(maxEvaluations, timeoutNanos);
+    }
+
+    /**
+     * Fits every shard and waits for all of them to finish. Shards are
+     * started in the given order so callers should put the expensive ones
+     * first.
+     *
+     * @param onResult
+     *            optional, called from the worker threads with each non-null
+     *            result as soon as its shard completes
+     * @return the non-null results in shard order; shards that failed are
+     *         logged and left out
+     */
+    public <T, R> List<R> fitAll(List<T> shards, Function<T, R> fit, Consumer<R> onResult) {
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(shards.size());
+        for (T shard : shards) {
+            tasks.add(pool.submit(() -> {
+                R result = fit.apply(shard);
+                if (result != null && onResult != null) {
+                    onResult.accept(result);
+                }
+                return result;
+            }));
+        }
+
+        List<R> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<R> task : tasks) {
+            try {
+                R result = task.get();
+                if (result != null) {
+                    results.add(result);
+                }
+            } catch (ExecutionException e) {
+                log.warn("Mw fit failed: {}", e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                tasks.forEach(t -> t.cancel(true));
+                break;
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -31,11 +31,13 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.EnvelopeFit;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeFitterConstraints;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationMetrics;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
 import llnl.gnem.core.util.TimeT;
+import llnl.gnem.core.util.seriesMathHelpers.Resampler;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
 @Component
@@ -43,11 +45,16 @@ public class ShapeCalculator {
 
     private static final Logger log = LoggerFactory.getLogger(ShapeCalculator.class);
 
+    private static final ThreadLocal<float[]> scratch = ThreadLocal.withInitial(() -> new float[0]);
+
     private WaveformToTimeSeriesConverter converter;
 
+    private CalibrationMetrics metrics;
+
     @Autowired
-    public ShapeCalculator(WaveformToTimeSeriesConverter converter) {
+    public ShapeCalculator(WaveformToTimeSeriesConverter converter, CalibrationMetrics metrics) {
         this.converter = converter;
+        this.metrics = metrics;
     }
 
     public List<ShapeMeasurement> fitShapelineToMeasuredEnvelopes(Collection<Entry<PeakVelocityMeasurement, WaveformPick>> filteredVelocityMeasurements,
@@ -59,21 +66,25 @@ public class ShapeCalculator {
             return measuredShapes;
         }
 
-        CalibrationCurveFitter curveFitter = new CalibrationCurveFitter();
+        CalibrationCurveFitter curveFitter = new CalibrationCurveFitter(metrics);
 
         // Loop through each entry and try to fit a line using the max
         // amplitude prediction for that frequency band from the velocity model
 
+        FrequencyBandIndex<SharedFrequencyBandParameters> frequencyBandParameterIndex = FrequencyBandIndex.of(frequencyBandParameters);
         measuredShapes = filteredVelocityMeasurements.parallelStream().map(filteredVelocityMeasurement -> {
             PeakVelocityMeasurement velocityMeasurement = filteredVelocityMeasurement.getKey();
             WaveformPick endPick = filteredVelocityMeasurement.getValue();
 
-            FrequencyBand freqBand = new FrequencyBand(velocityMeasurement.getWaveform().getLowFrequency(), velocityMeasurement.getWaveform().getHighFrequency());
-            SharedFrequencyBandParameters frequencyBandParameter = frequencyBandParameters.get(freqBand);
+            SharedFrequencyBandParameters frequencyBandParameter = frequencyBandParameterIndex.get(velocityMeasurement.getWaveform());
 
             if (frequencyBandParameter == null) {
                 // TODO: Feedback to user
-                log.info("Unable to find frequency band parameters for band {} given input measurement {}; this measurement will be skipped", freqBand, velocityMeasurement);
+                log.info(
+                        "Unable to find frequency band parameters for band {}-{} given input measurement {}; this measurement will be skipped",
+                            velocityMeasurement.getWaveform().getLowFrequency(),
+                            velocityMeasurement.getWaveform().getHighFrequency(),
+                            velocityMeasurement);
                 return null;
             }
 
@@ -108,15 +119,11 @@ public class ShapeCalculator {
             TimeSeries synthSeis = converter.convert(velocityMeasurement.getWaveform());
             try {
                 synthSeis.cut(travelTime, endTime);
-                if (synthSeis.getSamprate() > 1.0) {
-                    synthSeis.interpolate(1.0);
-                }
-                if (constraints != null && constraints.getFittingPointCount() > 0 && synthSeis.getNsamp() > constraints.getFittingPointCount()) {
-                    double samprate = (constraints.getFittingPointCount() / (double) synthSeis.getNsamp()) * synthSeis.getSamprate();
-                    synthSeis.interpolate(samprate);
-                }
+                synthSeis = resampleForFit(synthSeis, constraints);
 
-                if (frequencyBandParameter.getMinLength() > 0 && synthSeis.getLengthInSeconds() < frequencyBandParameter.getMinLength()) {
+                boolean tooShort = frequencyBandParameter.getMinLength() > 0 && synthSeis.getLengthInSeconds() < frequencyBandParameter.getMinLength();
+                metrics.filtered(CalibrationMetrics.WINDOW_FILTER, velocityMeasurement.getWaveform(), !tooShort);
+                if (tooShort) {
                     log.trace(
                             "Encountered a too small window length while processing {} with length {} and minimum window of {}; processing will skip this file",
                                 velocityMeasurement,
@@ -132,9 +139,14 @@ public class ShapeCalculator {
                     synthSeis.cutAfter(travelTime.add(frequencyBandParameter.getMaxLength()));
                 }
 
-                EnvelopeFit curve = curveFitter.fitCodaCMAES(synthSeis.getData(), synthSeis.getSamprate(), constraints);
+                EnvelopeFit curve = curveFitter.fitCodaCMAES(
+                        synthSeis.getData(),
+                            synthSeis.getSamprate(),
+                            constraints,
+                            new FrequencyBand(velocityMeasurement.getWaveform().getLowFrequency(), velocityMeasurement.getWaveform().getHighFrequency()));
                 return new ShapeMeasurement().setDistance(distance)
                                              .setWaveform(velocityMeasurement.getWaveform())
+                                             .setProjectId(velocityMeasurement.getWaveform().getProjectId())
                                              .setV0(frequencyBandParameter.getVelocity0())
                                              .setV1(frequencyBandParameter.getVelocity1())
                                              .setV2(frequencyBandParameter.getVelocity2())
@@ -152,4 +164,39 @@ public class ShapeCalculator {
 
         return measuredShapes;
     }
+    /**
+     * Brings the coda window down to 1 Hz and then to the fitting point count
+     * if it is still too long. When both steps apply the 1 Hz samples only
+     * live in a per-thread scratch buffer.
+     */
+    private TimeSeries resampleForFit(TimeSeries seis, ShapeFitterConstraints constraints) {
+        int maxPoints = constraints != null ? constraints.getFittingPointCount() : 0;
+        double rate = seis.getSamprate();
+        int nsamp = seis.getNsamp();
+        int resampled = rate > 1.0 ? Resampler.resampledLength(nsamp, 1. / rate, 1.0) : nsamp;
+        if (maxPoints <= 0 || resampled <= maxPoints) {
+            if (rate > 1.0) {
+                seis.interpolate(1.0);
+            }
+            return seis;
+        }
+
+        float[] data = seis.getData();
+        if (rate > 1.0) {
+            float[] buffer = scratch.get();
+            if (buffer.length < resampled) {
+                buffer = new float[resampled];
+                scratch.set(buffer);
+            }
+            Resampler.resample(data, nsamp, 1. / rate, 1.0, 0, resampled, buffer, 0);
+            data = buffer;
+            nsamp = resampled;
+            rate = 1.0;
+        }
+        double fitRate = (maxPoints / (double) nsamp) * rate;
+        float[] fitted = new float[Resampler.resampledLength(nsamp, 1. / rate, 1. / fitRate)];
+        Resampler.resample(data, nsamp, 1. / rate, 1. / fitRate, 0, fitted.length, fitted, 0);
+        return new TimeSeries(fitted, fitRate, seis.getTime());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+/**
+ * Runs the site correction passes on dense arrays. Every pass only combines
+ * measurements from the same frequency band, so each band is laid out as flat
+ * (event, station, amplitude) arrays with per station and per event streaming
+ * moments, the bands are processed in parallel and the results merged at the
+ * end. Values reach each accumulator in the same order as a walk over the
+ * input maps and use the same update as {@link SummaryStatistics}, so the
+ * means match the map based passes exactly.
+ */
+public class SiteCorrectionEngine {
+
+    private final List<Event> events = new ArrayList<>();
+    private final List<Station> stations = new ArrayList<>();
+    private final Map<FrequencyBand, BandMeasurements> bands = new LinkedHashMap<>();
+
+    public SiteCorrectionEngine(Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> measurements) {
+        Map<Station, Integer> stationIndex = new HashMap<>();
+        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> eventEntry : measurements.entrySet()) {
+            int ev = events.size();
+            events.add(eventEntry.getKey());
+            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> bandEntry : eventEntry.getValue().entrySet()) {
+                BandMeasurements band = bands.computeIfAbsent(bandEntry.getKey(), k -> new BandMeasurements());
+                for (Entry<Station, SpectraMeasurement> stationEntry : bandEntry.getValue().entrySet()) {
+                    int sta = stationIndex.computeIfAbsent(stationEntry.getKey(), k -> {
+                        stations.add(k);
+                        return stations.size() - 1;
+                    });
+                    band.add(ev, sta, stationEntry.getValue().getPathCorrected());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param referenceAmplitudes
+     *            for each reference event, the log10 reference amplitude in a
+     *            band or NaN when the band should not be used for that event
+     */
+    public SiteCorrections calculate(Map<Event, ToDoubleFunction<FrequencyBand>> referenceAmplitudes) {
+        return calculate(referenceAmplitudes, band -> {
+        });
+    }
+
+    /**
+     * As {@link #calculate(Map)} but passes each band to onBand as soon as its
+     * passes are done. onBand may be called from several threads at once.
+     */
+    public SiteCorrections calculate(Map<Event, ToDoubleFunction<FrequencyBand>> referenceAmplitudes, Consumer<FrequencyBand> onBand) {
+        List<ToDoubleFunction<FrequencyBand>> references = events.stream().map(referenceAmplitudes::get).collect(Collectors.toList());
+        List<BandResult> results = bands.entrySet().parallelStream().map(entry -> {
+            BandResult result = calculateBand(entry.getKey(), entry.getValue(), references);
+            onBand.accept(entry.getKey());
+            return result;
+        }).collect(Collectors.toList());
+
+        Map<FrequencyBand, Map<Station, Double>> siteTerms = new HashMap<>();
+        Map<Event, Map<FrequencyBand, SummaryStatistics>> eventAverages = new HashMap<>();
+        for (BandResult result : results) {
+            Map<Station, Double> bandTerms = new HashMap<>();
+            for (int sta = 0; sta < stations.size(); sta++) {
+                if (result.siteTerms.count(sta) > 0) {
+                    bandTerms.put(stations.get(sta), result.siteTerms.mean(sta));
+                }
+            }
+            if (!bandTerms.isEmpty()) {
+                siteTerms.put(result.band, bandTerms);
+            }
+            for (int ev = 0; ev < events.size(); ev++) {
+                if (result.eventAverages[ev] != null) {
+                    eventAverages.computeIfAbsent(events.get(ev), k -> new HashMap<>()).put(result.band, result.eventAverages[ev]);
+                }
+            }
+        }
+        return new SiteCorrections(siteTerms, eventAverages);
+    }
+
+    private BandResult calculateBand(FrequencyBand band, BandMeasurements data, List<ToDoubleFunction<FrequencyBand>> references) {
+        double[] referenceAmps = new double[events.size()];
+        for (int ev = 0; ev < referenceAmps.length; ev++) {
+            ToDoubleFunction<FrequencyBand> reference = references.get(ev);
+            referenceAmps[ev] = reference != null ? reference.applyAsDouble(band) : Double.NaN;
+        }
+
+        //1) Site correction per station from the reference events
+        Moments referenceSiteTerms = new Moments(stations.size());
+        for (int k = 0; k < data.size; k++) {
+            double refAmp = referenceAmps[data.events[k]];
+            if (!Double.isNaN(refAmp)) {
+                referenceSiteTerms.add(data.stations[k], refAmp - data.amps[k]);
+            }
+        }
+
+        //2) Average corrected amplitude per event using those site terms
+        Moments eventMeans = new Moments(events.size());
+        for (int k = 0; k < data.size; k++) {
+            if (referenceSiteTerms.count(data.stations[k]) > 0) {
+                eventMeans.add(data.events[k], data.amps[k] + referenceSiteTerms.mean(data.stations[k]));
+            }
+        }
+
+        //3) Final site terms from the offsets to the event averages
+        Moments siteTerms = new Moments(stations.size());
+        for (int k = 0; k < data.size; k++) {
+            if (eventMeans.count(data.events[k]) > 0) {
+                siteTerms.add(data.stations[k], eventMeans.mean(data.events[k]) - data.amps[k]);
+            }
+        }
+
+        //4) Re-average the events using the final site terms
+        SummaryStatistics[] eventAverages = new SummaryStatistics[events.size()];
+        for (int k = 0; k < data.size; k++) {
+            if (siteTerms.count(data.stations[k]) > 0) {
+                int ev = data.events[k];
+                if (eventAverages[ev] == null) {
+                    eventAverages[ev] = new SummaryStatistics();
+                }
+                eventAverages[ev].addValue(data.amps[k] + siteTerms.mean(data.stations[k]));
+            }
+        }
+        return new BandResult(band, siteTerms, eventAverages);
+    }
+
+    public static class SiteCorrections {
+        private final Map<FrequencyBand, Map<Station, Double>> siteTerms;
+        private final Map<Event, Map<FrequencyBand, SummaryStatistics>> eventAverages;
+
+        private SiteCorrections(Map<FrequencyBand, Map<Station, Double>> siteTerms, Map<Event, Map<FrequencyBand, SummaryStatistics>> eventAverages) {
+            this.siteTerms = siteTerms;
+            this.eventAverages = eventAverages;
+        }
+
+        public Map<FrequencyBand, Map<Station, Double>> getSiteTerms() {
+            return siteTerms;
+        }
+
+        public Map<Event, Map<FrequencyBand, SummaryStatistics>> getEventAverages() {
+            return eventAverages;
+        }
+    }
+
+    private static final class BandResult {
+        private final FrequencyBand band;
+        private final Moments siteTerms;
+        private final SummaryStatistics[] eventAverages;
+
+        private BandResult(FrequencyBand band, Moments siteTerms, SummaryStatistics[] eventAverages) {
+            this.band = band;
+            this.siteTerms = siteTerms;
+            this.eventAverages = eventAverages;
+        }
+    }
+
+    private static final class BandMeasurements {
+        private int[] events = new int[16];
+        private int[] stations = new int[16];
+        private double[] amps = new double[16];
+        private int size = 0;
+
+        private void add(int ev, int sta, double amp) {
+            if (size == amps.length) {
+                events = Arrays.copyOf(events, size * 2);
+                stations = Arrays.copyOf(stations, size * 2);
+                amps = Arrays.copyOf(amps, size * 2);
+            }
+            events[size] = ev;
+            stations[size] = sta;
+            amps[size] = amp;
+            size++;
+        }
+    }
+
+    /**
+     * Streaming mean and variance for a row of cells, updated the same way as
+     * the first and second moments in {@link SummaryStatistics}.
+     */
+    static final class Moments {
+        private final int[] counts;
+        private final double[] means;
+        private final double[] m2s;
+
+        Moments(int size) {
+            counts = new int[size];
+            means = new double[size];
+            m2s = new double[size];
+        }
+
+        void add(int cell, double value) {
+            int n = ++counts[cell];
+            double dev = value - means[cell];
+            double nDev = dev / n;
+            means[cell] += nDev;
+            m2s[cell] += (n - 1.0) * dev * nDev;
+        }
+
+        int count(int cell) {
+            return counts[cell];
+        }
+
+        double mean(int cell) {
+            return counts[cell] > 0 ? means[cell] : Double.NaN;
+        }
+
+        double variance(int cell) {
+            return counts[cell] > 1 ? m2s[cell] / (counts[cell] - 1.0) : counts[cell] == 1 ? 0.0 : Double.NaN;
+        }
+    }
+}
@@ -14,9 +14,7 @@
 */
 package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
 
-import java.awt.geom.Point2D;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -29,6 +27,7 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -59,25 +58,21 @@ import org.springframework.stereotype.Component;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
-import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteFrequencyBandParameters;
-import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersPsService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationMetrics;
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
 import gov.llnl.gnem.apps.coda.common.model.domain.SharedFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
-import gov.llnl.gnem.apps.coda.common.model.util.SPECTRA_TYPES;
+import gov.llnl.gnem.apps.coda.common.service.api.GeometryService;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
 import llnl.gnem.core.util.SeriesMath;
 import llnl.gnem.core.util.TimeT;
-import llnl.gnem.core.util.Geometry.EModel;
 import llnl.gnem.core.util.MathFunctions.FitnessCriteria;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
@@ -90,8 +85,9 @@ public class SpectraCalculator {
     private WaveformToTimeSeriesConverter converter;
     private SyntheticCodaModel syntheticCodaModel;
     private MdacCalculatorService mdacService;
-    private MdacParametersFiService mdacFiService;
-    private MdacParametersPsService mdacPsService;
+    private GeometryService geometryService;
+    private CalibrationMetrics metrics;
+    private MwFitExecutor mwFitExecutor;
 
     @Value("${spectra-calc.iteration-cutoff:50}")
     private int iterationCutoff = 50;
@@ -147,14 +143,25 @@ public class SpectraCalculator {
     };
 
     @Autowired
-    public SpectraCalculator(WaveformToTimeSeriesConverter converter, SyntheticCodaModel syntheticCodaModel, MdacCalculatorService mdacService, MdacParametersFiService mdacFiService,
-            MdacParametersPsService mdacPsService, VelocityConfiguration velConf) {
+    public SpectraCalculator(WaveformToTimeSeriesConverter converter, SyntheticCodaModel syntheticCodaModel, MdacCalculatorService mdacService, VelocityConfiguration velConf,
+            GeometryService geometryService) {
         this.converter = converter;
         this.syntheticCodaModel = syntheticCodaModel;
         this.mdacService = mdacService;
-        this.mdacFiService = mdacFiService;
-        this.mdacPsService = mdacPsService;
         this.PHASE_VELOCITY_KM_S = velConf.getPhaseVelocityInKms();
+        this.geometryService = geometryService;
+    }
+
+    @Autowired(required = false)
+    public SpectraCalculator setMetrics(CalibrationMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    @Autowired(required = false)
+    public SpectraCalculator setMwFitExecutor(MwFitExecutor mwFitExecutor) {
+        this.mwFitExecutor = mwFitExecutor;
+        return this;
     }
 
     public List<SpectraMeasurement> measureAmplitudes(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
@@ -164,27 +171,26 @@ public class SpectraCalculator {
 
     public List<SpectraMeasurement> measureAmplitudes(List<SyntheticCoda> generatedSynthetics, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
             VelocityConfiguration velocityConfig, Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap) {
+        FrequencyBandIndex<SharedFrequencyBandParameters> frequencyBandParameterIndex = FrequencyBandIndex.of(frequencyBandParameterMap);
+        FrequencyBandIndex<Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterIndex = FrequencyBandIndex.of(frequencyBandSiteParameterMap);
         return generatedSynthetics.parallelStream()
-                                  .map(synth -> measureAmplitudeForSynthetic(synth, frequencyBandParameterMap, frequencyBandSiteParameterMap, velocityConfig))
+                                  .map(synth -> measureAmplitudeForSynthetic(synth, frequencyBandParameterIndex, frequencyBandSiteParameterIndex, velocityConfig))
                                   .filter(Objects::nonNull)
                                   .collect(Collectors.toList());
     }
 
-    private SpectraMeasurement measureAmplitudeForSynthetic(SyntheticCoda synth, Map<FrequencyBand, SharedFrequencyBandParameters> frequencyBandParameterMap,
-            Map<FrequencyBand, Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterMap, VelocityConfiguration velocityConfig) {
+    private SpectraMeasurement measureAmplitudeForSynthetic(SyntheticCoda synth, FrequencyBandIndex<SharedFrequencyBandParameters> frequencyBandParameterIndex,
+            FrequencyBandIndex<Map<Station, SiteFrequencyBandParameters>> frequencyBandSiteParameterIndex, VelocityConfiguration velocityConfig) {
 
-        FrequencyBand frequencyBand = new FrequencyBand(synth.getSourceWaveform().getLowFrequency(), synth.getSourceWaveform().getHighFrequency());
-        SharedFrequencyBandParameters params = frequencyBandParameterMap.get(frequencyBand);
+        SharedFrequencyBandParameters params = frequencyBandParameterIndex.get(synth.getSourceWaveform());
         if (params != null) {
             TimeSeries envSeis = converter.convert(synth.getSourceWaveform());
             TimeSeries synthSeis = new TimeSeries(WaveformUtils.doublesToFloats(synth.getSegment()), synth.getSampleRate(), new TimeT(synth.getBeginTime()));
 
-            envSeis.interpolate(synthSeis.getSamprate());
-
             Station station = synth.getSourceWaveform().getStream().getStation();
             Event event = synth.getSourceWaveform().getEvent();
 
-            double distance = EModel.getDistanceWGS84(event.getLatitude(), event.getLongitude(), station.getLatitude(), station.getLongitude());
+            double distance = geometryService.getDistance(event, station);
             double vr = params.getVelocity0() - params.getVelocity1() / (params.getVelocity2() + distance);
             if (vr == 0.0) {
                 vr = 1.0;
@@ -193,6 +199,7 @@ public class SpectraCalculator {
             final TimeT startTime;
             TimeT tempTime;
             TimeT trimTime = originTime.add(distance / vr);
+            resampleCodaWindow(envSeis, synthSeis, trimTime);
             TimeSeries trimmedWaveform = new TimeSeries(envSeis);
             try {
                 trimmedWaveform.cutBefore(trimTime);
@@ -206,8 +213,9 @@ public class SpectraCalculator {
 
             double siteCorrection = 0.0;
 
-            if (frequencyBandSiteParameterMap != null && frequencyBandSiteParameterMap.containsKey(frequencyBand) && frequencyBandSiteParameterMap.get(frequencyBand).get(station) != null) {
-                siteCorrection = frequencyBandSiteParameterMap.get(frequencyBand).get(station).getSiteTerm();
+            Map<Station, SiteFrequencyBandParameters> siteParameters = frequencyBandSiteParameterIndex.get(synth.getSourceWaveform());
+            if (siteParameters != null && siteParameters.get(station) != null) {
+                siteCorrection = siteParameters.get(station).getSiteTerm();
             }
 
             double eshCorrection = log10ESHcorrection(
@@ -298,6 +306,7 @@ public class SpectraCalculator {
                 }
 
                 return new SpectraMeasurement().setWaveform(synth.getSourceWaveform())
+                                               .setProjectId(synth.getProjectId())
                                                .setRawAtStart(rawAmp)
                                                .setRawAtMeasurementTime(rawAtMeasurementTime)
                                                .setPathCorrected(pathCorrectedAmp)
@@ -312,6 +321,28 @@ public class SpectraCalculator {
 
     }
 
+    /**
+     * Interpolates the envelope to the synthetic rate, but only from the
+     * expected coda start through the end of the synthetic (or the 30 second
+     * peak search, whichever is later) since nothing outside that window is
+     * measured. The kept samples are the same ones a full interpolation would
+     * produce.
+     */
+    private void resampleCodaWindow(TimeSeries envSeis, TimeSeries synthSeis, TimeT trimTime) {
+        double rate = synthSeis.getSamprate();
+        TimeT windowEnd = synthSeis.getEndtime();
+        if (trimTime.add(30.0).gt(windowEnd)) {
+            windowEnd = trimTime.add(30.0);
+        }
+        try {
+            envSeis.interpolate(rate, trimTime, windowEnd.add(1.0 / rate));
+        } catch (IllegalArgumentException e) {
+            // Window is outside the envelope; keep the old behavior and let
+            // the cuts below reject it
+            envSeis.interpolate(rate);
+        }
+    }
+
     private boolean cutSeismograms(TimeSeries a, TimeSeries b, TimeT startTime, TimeT endTime) {
         boolean completedCut = false;
         try {
@@ -433,43 +464,6 @@ public class SpectraCalculator {
         return eshmod;
     }
 
-    public Spectra computeReferenceSpectra(ReferenceMwParameters refEvent, List<FrequencyBand> bands, PICK_TYPES selectedPhase) {
-        return computeSpecificSpectra(refEvent.getRefMw(), refEvent.getRefApparentStressInMpa(), bands, selectedPhase, SPECTRA_TYPES.REF);
-    }
-
-    public Spectra computeFitSpectra(MeasuredMwParameters event, Collection<FrequencyBand> bands, PICK_TYPES selectedPhase) {
-        return computeSpecificSpectra(event.getMw(), event.getApparentStressInMpa(), bands, selectedPhase, SPECTRA_TYPES.FIT);
-    }
-
-    public Spectra computeSpecificSpectra(Double mw, Double apparentStress, Collection<FrequencyBand> bands, PICK_TYPES selectedPhase, SPECTRA_TYPES type) {
-
-        MdacParametersFI mdacFiEntry = mdacFiService.findFirst();
-        MdacParametersPS psRows = mdacPsService.findMatchingPhase(selectedPhase.getPhase());
-
-        List<Point2D.Double> xyPoints = new ArrayList<>();
-
-        if (apparentStress != null && apparentStress > 0.0) {
-            mdacFiEntry.setSigma(apparentStress);
-            mdacFiEntry.setPsi(0.0);
-        }
-
-        Function<Double, Double> mdacFunction = mdacService.getCalculateMdacAmplitudeForMwFunction(psRows, mdacFiEntry, mw, selectedPhase);
-
-        for (FrequencyBand band : bands) {
-            double centerFreq = band.getLowFrequency() + (band.getHighFrequency() - band.getLowFrequency()) / 2.;
-            double logFreq = Math.log10(centerFreq);
-
-            double amplitude = mdacFunction.apply(centerFreq);
-
-            if (amplitude > 0) {
-                Point2D.Double point = new Point2D.Double(logFreq, amplitude);
-                xyPoints.add(point);
-            }
-        }
-        Collections.sort(xyPoints, (p1, p2) -> Double.compare(p1.getX(), p2.getX()));
-        return new Spectra(type, xyPoints, mw, apparentStress);
-    }
-
     /**
      * An estimate of the Mw and corner frequency based on Mdac spectra Based on
      * the MDAC2 spectra calculations published by Walter and Taylor, 2001
@@ -478,36 +472,62 @@ public class SpectraCalculator {
      */
     public List<MeasuredMwParameters> measureMws(final Map<Event, Map<FrequencyBand, SummaryStatistics>> evidMap, Map<Event, Function<Map<Double, Double>, SortedMap<Double, Double>>> eventWeights,
             final PICK_TYPES selectedPhase, MdacParametersPS mdacPs, MdacParametersFI mdacFi) {
-        return evidMap.entrySet().parallelStream().map(entry -> {
-            Map<FrequencyBand, SummaryStatistics> measurements = entry.getValue();
-            double[] MoMw = fitMw(entry.getKey(), measurements, selectedPhase, mdacFi, mdacPs, eventWeights.get(entry.getKey()));
-            if (MoMw == null) {
-                log.warn("MoMw calculation returned null value");
-                return null;
+        return measureMws(evidMap, eventWeights, selectedPhase, mdacPs, mdacFi, null);
+    }
+
+    /**
+     * As {@link #measureMws(Map, Map, PICK_TYPES, MdacParametersPS, MdacParametersFI)}
+     * but also hands each event's result to onResult as soon as that event
+     * finishes. onResult may be called concurrently and may be null.
+     */
+    public List<MeasuredMwParameters> measureMws(final Map<Event, Map<FrequencyBand, SummaryStatistics>> evidMap,
+            Map<Event, Function<Map<Double, Double>, SortedMap<Double, Double>>> eventWeights, final PICK_TYPES selectedPhase, MdacParametersPS mdacPs, MdacParametersFI mdacFi,
+            Consumer<MeasuredMwParameters> onResult) {
+        Function<Entry<Event, Map<FrequencyBand, SummaryStatistics>>, MeasuredMwParameters> fit = entry -> {
+            MwFitBudget budget = mwFitExecutor != null ? mwFitExecutor.newBudget() : MwFitBudget.unlimited();
+            return toMeasuredMw(entry.getKey(), fitMw(entry.getKey(), entry.getValue(), selectedPhase, mdacFi, mdacPs, eventWeights.get(entry.getKey()), budget));
+        };
+
+        if (mwFitExecutor != null) {
+            // Events with more bands cost more per evaluation so start them first
+            List<Entry<Event, Map<FrequencyBand, SummaryStatistics>>> shards = new ArrayList<>(evidMap.entrySet());
+            shards.sort((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()));
+            return mwFitExecutor.fitAll(shards, fit, onResult);
+        }
+        return evidMap.entrySet().parallelStream().map(fit).filter(Objects::nonNull).peek(mw -> {
+            if (onResult != null) {
+                onResult.accept(mw);
             }
-            return new MeasuredMwParameters().setEventId(entry.getKey().getEventId())
-                                             .setDataCount((int) MoMw[DATA_COUNT])
-                                             .setMw(MoMw[MW_FIT])
-                                             .setMeanMw(MoMw[MW_MEAN])
-                                             .setMwSd(MoMw[MW_SD])
-                                             .setMw1Min(MoMw[MW_1_MIN])
-                                             .setMw1Max(MoMw[MW_1_MAX])
-                                             .setMw2Min(MoMw[MW_2_MIN])
-                                             .setMw2Max(MoMw[MW_2_MAX])
-                                             .setApparentStressInMpa(MoMw[APP_STRESS])
-                                             .setMeanApparentStressInMpa(MoMw[APP_STRESS_MEAN])
-                                             .setApparentStressSd(MoMw[APP_STRESS_SD])
-                                             .setApparentStress1Min(MoMw[APP_1_MIN])
-                                             .setApparentStress1Max(MoMw[APP_1_MAX])
-                                             .setApparentStress2Min(MoMw[APP_2_MIN])
-                                             .setApparentStress2Max(MoMw[APP_2_MAX])
-                                             .setMisfit(MoMw[RMS_FIT])
-                                             .setMeanMisfit(MoMw[FIT_MEAN])
-                                             .setMisfitSd(MoMw[FIT_SD])
-                                             .setCornerFrequency(MoMw[CORNER_FREQ])
-                                             .setCornerFrequencySd(MoMw[CORNER_FREQ_SD])
-                                             .setIterations((int) MoMw[ITR_COUNT]);
-        }).filter(Objects::nonNull).collect(Collectors.toList());
+        }).collect(Collectors.toList());
+    }
+
+    private MeasuredMwParameters toMeasuredMw(Event event, double[] MoMw) {
+        if (MoMw == null) {
+            log.warn("MoMw calculation returned null value");
+            return null;
+        }
+        return new MeasuredMwParameters().setEventId(event.getEventId())
+                                         .setDataCount((int) MoMw[DATA_COUNT])
+                                         .setMw(MoMw[MW_FIT])
+                                         .setMeanMw(MoMw[MW_MEAN])
+                                         .setMwSd(MoMw[MW_SD])
+                                         .setMw1Min(MoMw[MW_1_MIN])
+                                         .setMw1Max(MoMw[MW_1_MAX])
+                                         .setMw2Min(MoMw[MW_2_MIN])
+                                         .setMw2Max(MoMw[MW_2_MAX])
+                                         .setApparentStressInMpa(MoMw[APP_STRESS])
+                                         .setMeanApparentStressInMpa(MoMw[APP_STRESS_MEAN])
+                                         .setApparentStressSd(MoMw[APP_STRESS_SD])
+                                         .setApparentStress1Min(MoMw[APP_1_MIN])
+                                         .setApparentStress1Max(MoMw[APP_1_MAX])
+                                         .setApparentStress2Min(MoMw[APP_2_MIN])
+                                         .setApparentStress2Max(MoMw[APP_2_MAX])
+                                         .setMisfit(MoMw[RMS_FIT])
+                                         .setMeanMisfit(MoMw[FIT_MEAN])
+                                         .setMisfitSd(MoMw[FIT_SD])
+                                         .setCornerFrequency(MoMw[CORNER_FREQ])
+                                         .setCornerFrequencySd(MoMw[CORNER_FREQ_SD])
+                                         .setIterations((int) MoMw[ITR_COUNT]);
     }
 
     /**
@@ -526,6 +546,19 @@ public class SpectraCalculator {
      */
     public double[] fitMw(Event event, final Map<FrequencyBand, SummaryStatistics> measurements, final PICK_TYPES phase, final MdacParametersFI mdacFi, final MdacParametersPS mdacPs,
             Function<Map<Double, Double>, SortedMap<Double, Double>> weightFunction) {
+        return fitMw(event, measurements, phase, mdacFi, mdacPs, weightFunction, MwFitBudget.unlimited());
+    }
+
+    /**
+     * As {@link #fitMw(Event, Map, PICK_TYPES, MdacParametersFI, MdacParametersPS, Function)}
+     * but stops searching once the budget is spent and reports the best fit
+     * seen up to that point.
+     *
+     * @return the fit measurements or null if the budget ran out before any
+     *         point was evaluated
+     */
+    public double[] fitMw(Event event, final Map<FrequencyBand, SummaryStatistics> measurements, final PICK_TYPES phase, final MdacParametersFI mdacFi, final MdacParametersPS mdacPs,
+            Function<Map<Double, Double>, SortedMap<Double, Double>> weightFunction, MwFitBudget budget) {
         double[] result = new double[PARAM_COUNT];
 
         final SortedMap<Double, Double> frequencyBands = new TreeMap<>();
@@ -549,6 +582,9 @@ public class SpectraCalculator {
 
             @Override
             public double value(double[] point) {
+                if (!budget.tryEvaluate()) {
+                    throw new MwFitBudgetExceededException();
+                }
                 double testMw = point[0];
                 double testSigma = point[1];
 
@@ -582,6 +618,9 @@ public class SpectraCalculator {
         ConvergenceChecker<PointValuePair> convergenceChecker = new SimplePointChecker<>(0.00001, 0.00001, 100000);
         CMAESOptimizer optimizer = new CMAESOptimizer(1000000, 0, true, 0, 10, new MersenneTwister(), false, convergenceChecker);
         int iterations = iterationCutoff;
+        long evaluations = 0l;
+        long start = System.nanoTime();
+        boolean budgetExceeded = false;
         try {
             PointValuePair optimizerResult = runOptimizer(mdacFunction, optimizer);
 
@@ -597,15 +636,26 @@ public class SpectraCalculator {
             // this is the stress
             result[APP_STRESS] = optimizerResult.getPoint()[MPA];
             iterations = optimizer.getIterations();
+            evaluations = optimizer.getEvaluations();
         } catch (TooManyEvaluationsException | TooManyIterationsException e) {
             log.warn("Failed to converge while attempting to fit an Mw to this event {}, falling back to a grid search.", event);
+        } catch (MwFitBudgetExceededException e) {
+            budgetExceeded = true;
+            iterations = optimizer.getIterations();
+            evaluations = budget.getEvaluations();
         }
 
-        if (iterations >= iterationCutoff) {
+        if (!budgetExceeded && iterations >= iterationCutoff) {
             double best = result[RMS_FIT] != 0.0 ? result[RMS_FIT] : Double.MAX_VALUE;
-            for (double mw = minMW; mw < maxMW; mw = mw + ((maxMW - minMW) / 100.)) {
+            grid: for (double mw = minMW; mw < maxMW; mw = mw + ((maxMW - minMW) / 100.)) {
                 for (double stress = minApparentStress; stress < maxApparentStress; stress = stress + ((maxApparentStress - minApparentStress) / 100.)) {
-                    double res = mdacFunction.value(new double[] { mw, stress });
+                    double res;
+                    try {
+                        res = mdacFunction.value(new double[] { mw, stress });
+                    } catch (MwFitBudgetExceededException e) {
+                        budgetExceeded = true;
+                        break grid;
+                    }
                     double corner = mdacService.getCornerFrequency(mdacService.getCalculateMdacSourceSpectraFunction(mdacPs, mdacFi.setPsi(0.0).setSigma(stress), mw));
                     stats.addValue(new double[] { mw, stress, res, corner });
                     optimizerMeasurements.add(new ImmutableTriple<>(res, mw, stress));
@@ -615,12 +665,29 @@ public class SpectraCalculator {
                         result[APP_STRESS] = stress;
                     }
                     iterations++;
+                    evaluations++;
                 }
             }
 
             result[LOG10_M0] = Math.log10(mdacService.getMwInDyne(result[MW_FIT]));
             result[RMS_FIT] = best;
         }
+        if (metrics != null) {
+            metrics.optimized("mw", null, evaluations, System.nanoTime() - start);
+        }
+
+        if (budgetExceeded) {
+            log.warn("Mw fit for event {} ran out of budget after {} evaluations, keeping the best fit found so far.", event, budget.getEvaluations());
+            if (optimizerMeasurements.isEmpty()) {
+                return null;
+            }
+            Triple<Double, Double, Double> best = optimizerMeasurements.first();
+            result[MW_FIT] = best.getMiddle();
+            result[APP_STRESS] = best.getRight();
+            result[RMS_FIT] = best.getLeft();
+            result[LOG10_M0] = Math.log10(mdacService.getMwInDyne(result[MW_FIT]));
+            result[DATA_COUNT] = dataCount;
+        }
 
         RealMatrix C = stats.getCovariance();
 
@@ -697,6 +764,14 @@ public class SpectraCalculator {
         return result;
     }
 
+    private static class MwFitBudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MwFitBudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
     private PointValuePair runOptimizer(MultivariateFunction mdacFunction, CMAESOptimizer optimizer) {
         return optimizer.optimize(
                 new MaxEval(1000000),
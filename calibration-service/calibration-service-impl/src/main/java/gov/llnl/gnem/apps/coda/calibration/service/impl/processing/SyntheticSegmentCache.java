@@ -0,0 +1,153 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.calibration.service.impl.ServiceConfig;
+import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+
+/**
+ * Regenerates synthetic coda envelopes from their stored model terms so the
+ * sample segment does not have to be persisted. Recently regenerated
+ * segments are kept in a small LRU cache keyed by synthetic id and version.
+ */
+@Component
+public class SyntheticSegmentCache {
+
+    private final SyntheticCodaModel syntheticCodaModel;
+    private final ServiceConfig config;
+    private final Map<Key, double[]> cache;
+
+    @Autowired
+    public SyntheticSegmentCache(SyntheticCodaModel syntheticCodaModel, ServiceConfig config) {
+        this.syntheticCodaModel = syntheticCodaModel;
+        this.config = config;
+        final int capacity = Math.max(0, config.getSyntheticCacheSize());
+        this.cache = new LinkedHashMap<Key, double[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Entry<Key, double[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public boolean isLazy() {
+        return config.isLazySynthetics();
+    }
+
+    /**
+     * @return a detached copy of the synthetic with an empty segment, suitable
+     *         for persisting in lazy mode
+     */
+    public SyntheticCoda strip(SyntheticCoda synthetic) {
+        return new SyntheticCoda(synthetic).setSegment(new double[0]);
+    }
+
+    /**
+     * @return the synthetic itself if it already carries samples, otherwise a
+     *         detached copy with the segment regenerated from the model terms.
+     *         Synthetics missing the terms needed to regenerate are returned
+     *         unchanged.
+     */
+    public SyntheticCoda fill(SyntheticCoda synthetic) {
+        if (synthetic == null || synthetic.getSegmentLength() > 0 || !canRegenerate(synthetic)) {
+            return synthetic;
+        }
+        double[] segment;
+        Key key = synthetic.getId() != null ? new Key(synthetic.getId(), synthetic.getVersion()) : null;
+        synchronized (cache) {
+            segment = key != null ? cache.get(key) : null;
+        }
+        if (segment == null) {
+            segment = regenerate(synthetic);
+            if (key != null) {
+                synchronized (cache) {
+                    cache.put(key, segment);
+                }
+            }
+        }
+        return new SyntheticCoda(synthetic).setSegment(segment.clone());
+    }
+
+    public void evictAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Mirrors {@link gov.llnl.gnem.apps.coda.calibration.service.impl.SyntheticCodaGenerationServiceImpl}:
+     * the segment starts one sample after the coda start and has one point per
+     * sample between the stored begin and end times.
+     */
+    double[] regenerate(SyntheticCoda synthetic) {
+        double sampleRate = synthetic.getSampleRate();
+        double duration = (synthetic.getEndTime().getTime() - synthetic.getBeginTime().getTime()) / 1000.0;
+        int npts = (int) Math.round(duration * sampleRate) + 1;
+        double gr = synthetic.getMeasuredG();
+        double br = synthetic.getMeasuredB();
+
+        double[] segment = new double[Math.max(npts, 0)];
+        for (int ii = 0; ii < segment.length; ii++) {
+            segment[ii] = syntheticCodaModel.getSyntheticPointAtTime(gr, br, (ii + 1.0) / sampleRate);
+        }
+        return segment;
+    }
+
+    private boolean canRegenerate(SyntheticCoda synthetic) {
+        return synthetic.getMeasuredB() != null
+                && synthetic.getMeasuredG() != null
+                && synthetic.getSampleRate() != null
+                && synthetic.getSampleRate() > 0.0
+                && synthetic.getBeginTime() != null
+                && synthetic.getEndTime() != null;
+    }
+
+    private static final class Key {
+        private final Long id;
+        private final Integer version;
+
+        private Key(Long id, Integer version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, version);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(id, other.id) && Objects.equals(version, other.version);
+        }
+    }
+}
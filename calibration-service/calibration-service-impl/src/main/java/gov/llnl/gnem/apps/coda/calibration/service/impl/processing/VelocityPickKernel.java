@@ -0,0 +1,303 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.calibration.service.api.EndTimePicker;
+
+/**
+ * Measures envelope stacks directly over their primitive sample arrays. A
+ * single sweep of the stack finds the group-velocity window peak and the
+ * bounds for the noise floor histogram, so callers no longer need to convert
+ * and cut a {@link llnl.gnem.core.waveform.seismogram.TimeSeries} for every
+ * measurement.
+ *
+ * The window, peak and noise floor semantics intentionally mirror
+ * TimeSeries.cut, TimeSeries.getMaxTime and WaveformUtils.getNoiseFloor.
+ */
+@Component
+public class VelocityPickKernel {
+
+    private static final int NOISE_BINS = 100;
+    private static final double CODA_START_SEARCH_SEC = 30.0;
+
+    private final EndTimePicker endTimePicker;
+
+    @Autowired
+    public VelocityPickKernel(EndTimePicker endTimePicker) {
+        this.endTimePicker = endTimePicker;
+    }
+
+    /**
+     * @param samples
+     *            envelope samples (log10)
+     * @param sampleRate
+     *            samples per second
+     * @param beginEpoch
+     *            epoch seconds of the first sample
+     * @param originEpoch
+     *            epoch seconds of the event origin
+     * @param distance
+     *            event to station distance in km
+     * @param windowStartEpoch
+     *            start of the group velocity window
+     * @param windowEndEpoch
+     *            end of the group velocity window
+     * @return the peak, velocity, noise and SNR of the stack
+     * @throws IllegalArgumentException
+     *             if the window does not overlap the stack
+     */
+    public Measurement measure(double[] samples, double sampleRate, double beginEpoch, double originEpoch, double distance, double windowStartEpoch, double windowEndEpoch) {
+        int[] window = window(samples.length, sampleRate, beginEpoch, windowStartEpoch, windowEndEpoch);
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        float peak = -Float.MAX_VALUE;
+        int peakIdx = window[0];
+        for (int i = 0; i < samples.length; i++) {
+            double value = samples[i];
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+            // Stacks were historically compared as floats once converted
+            float fvalue = (float) value;
+            if (i >= window[0] && i <= window[1] && fvalue > peak) {
+                peak = fvalue;
+                peakIdx = i;
+            }
+        }
+
+        double noise = noiseFloor(samples, min, max);
+
+        double peakTime = beginEpoch + peakIdx / sampleRate - originEpoch;
+        // +1 to avoid divide by zero slamming this to +Infinity when
+        // the first sample is the largest
+        if (peakTime == 0.0) {
+            peakTime = 1.0;
+        }
+
+        return new Measurement().setPeakTimeSecondsFromOrigin(peakTime)
+                                .setPeakAmplitude(peak)
+                                .setVelocity(distance / peakTime)
+                                .setNoise(noise)
+                                .setSnr(peak - noise);
+    }
+
+    /**
+     * Picks the coda start (maximum in the first thirty seconds after the
+     * trim time) and the SNR end time over the same sample array.
+     *
+     * @return a two element array of the coda start and end pick in epoch
+     *         seconds. The end pick is whatever the configured
+     *         {@link EndTimePicker} proposes and may be before the start when
+     *         no valid pick was found.
+     */
+    public double[] pick(double[] samples, double sampleRate, double beginEpoch, double trimEpoch, double minLengthSec, double maxLengthSec, double minimumSnr, double noise) {
+        double startEpoch = codaStart(samples, sampleRate, beginEpoch, trimEpoch);
+        return new double[] { startEpoch, endPick(samples, sampleRate, beginEpoch, startEpoch, minLengthSec, maxLengthSec, minimumSnr, noise) };
+    }
+
+    /**
+     * @return epoch seconds of the largest sample in the thirty seconds
+     *         following the trim time, or the trim time itself if that window
+     *         does not overlap the stack
+     */
+    public double codaStart(double[] samples, double sampleRate, double beginEpoch, double trimEpoch) {
+        try {
+            int[] window = window(samples.length, sampleRate, beginEpoch, trimEpoch, trimEpoch + CODA_START_SEARCH_SEC);
+            int peakIdx = window[0];
+            float peak = -Float.MAX_VALUE;
+            for (int i = window[0]; i <= window[1]; i++) {
+                if ((float) samples[i] > peak) {
+                    peak = (float) samples[i];
+                    peakIdx = i;
+                }
+            }
+            return trimEpoch + (peakIdx - window[0]) / sampleRate;
+        } catch (IllegalArgumentException e) {
+            return trimEpoch;
+        }
+    }
+
+    public double endPick(double[] samples, double sampleRate, double beginEpoch, double startEpoch, double minLengthSec, double maxLengthSec, double minimumSnr, double noise) {
+        int startOffset = (int) Math.round((startEpoch - beginEpoch) * sampleRate);
+        return endTimePicker.getEndTime(samples, sampleRate, startEpoch, startOffset, minLengthSec, maxLengthSec, minimumSnr, noise);
+    }
+
+    /**
+     * Index bounds (inclusive) of the samples a TimeSeries.cut(start, end)
+     * would have retained.
+     */
+    private static int[] window(int length, double sampleRate, double beginEpoch, double startEpoch, double endEpoch) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Empty stack.");
+        }
+        double endOfData = beginEpoch + (length > 1 ? (length - 1) / sampleRate : 0.0);
+        if (startEpoch >= endEpoch) {
+            throw new IllegalArgumentException("Start time of cut is >= end time of cut.");
+        }
+        if (startEpoch >= endOfData) {
+            throw new IllegalArgumentException("Start time of cut is >= end time of Seismogram.");
+        }
+        if (endEpoch <= beginEpoch) {
+            throw new IllegalArgumentException("End time of cut is <= start time of Seismogram.");
+        }
+        double start = Math.max(startEpoch, beginEpoch);
+        double end = Math.min(endEpoch, endOfData);
+        int startIdx = Math.max(0, (int) Math.round((start - beginEpoch) * sampleRate));
+        int endIdx = Math.min(length - 1, (int) Math.round((end - beginEpoch) * sampleRate));
+        return new int[] { startIdx, Math.max(startIdx, endIdx) };
+    }
+
+    /**
+     * Same result as WaveformUtils.getNoiseFloor: the smaller of the median
+     * and the mean of the most populated of 100 equal width bins. Sorting one
+     * scratch copy gives the median and lets the bins be walked as contiguous
+     * runs, so no per-bin statistics are allocated.
+     */
+    static double noiseFloor(double[] samples, double min, double max) {
+        double[] sorted = Arrays.copyOf(samples, samples.length);
+        Arrays.sort(sorted);
+
+        double noise = median(sorted);
+
+        double delta = (max - min) / NOISE_BINS;
+        long bestCount = 0;
+        double bestMean = noise;
+        int i = 0;
+        while (i < sorted.length) {
+            int bin = bin(sorted[i], min, delta);
+            int j = i;
+            double sum = 0.0;
+            while (j < sorted.length && bin(sorted[j], min, delta) == bin) {
+                sum += sorted[j];
+                j++;
+            }
+            if (j - i > bestCount) {
+                bestCount = j - i;
+                bestMean = sum / (j - i);
+            }
+            i = j;
+        }
+
+        if (bestMean < noise) {
+            noise = bestMean;
+        }
+        return noise;
+    }
+
+    private static int bin(double value, double min, double delta) {
+        // EmpiricalDistribution.findBin
+        return Math.min(Math.max((int) Math.ceil((value - min) / delta) - 1, 0), NOISE_BINS - 1);
+    }
+
+    private static double median(double[] sorted) {
+        // Percentile(50) with the default (legacy) estimation
+        int n = sorted.length;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        if (n == 1) {
+            return sorted[0];
+        }
+        double pos = 0.5 * (n + 1);
+        if (pos < 1) {
+            return sorted[0];
+        }
+        if (pos >= n) {
+            return sorted[n - 1];
+        }
+        double fpos = Math.floor(pos);
+        int intPos = (int) fpos;
+        double lower = sorted[intPos - 1];
+        double upper = sorted[intPos];
+        return lower + (pos - fpos) * (upper - lower);
+    }
+
+    public static class Measurement {
+        private double peakTimeSecondsFromOrigin;
+        private double peakAmplitude;
+        private double velocity;
+        private double noise;
+        private double snr;
+
+        public double getPeakTimeSecondsFromOrigin() {
+            return peakTimeSecondsFromOrigin;
+        }
+
+        public Measurement setPeakTimeSecondsFromOrigin(double peakTimeSecondsFromOrigin) {
+            this.peakTimeSecondsFromOrigin = peakTimeSecondsFromOrigin;
+            return this;
+        }
+
+        public double getPeakAmplitude() {
+            return peakAmplitude;
+        }
+
+        public Measurement setPeakAmplitude(double peakAmplitude) {
+            this.peakAmplitude = peakAmplitude;
+            return this;
+        }
+
+        public double getVelocity() {
+            return velocity;
+        }
+
+        public Measurement setVelocity(double velocity) {
+            this.velocity = velocity;
+            return this;
+        }
+
+        public double getNoise() {
+            return noise;
+        }
+
+        public Measurement setNoise(double noise) {
+            this.noise = noise;
+            return this;
+        }
+
+        public double getSnr() {
+            return snr;
+        }
+
+        public Measurement setSnr(double snr) {
+            this.snr = snr;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Measurement [peakTimeSecondsFromOrigin="
+                    + peakTimeSecondsFromOrigin
+                    + ", peakAmplitude="
+                    + peakAmplitude
+                    + ", velocity="
+                    + velocity
+                    + ", noise="
+                    + noise
+                    + ", snr="
+                    + snr
+                    + "]";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CalibrationMetricsTest {
+
+    @Test
+    public void testReportOnlyCountsWhatHappenedDuringTheRun() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        CalibrationMetrics metrics = new CalibrationMetrics(registry);
+        Waveform wave = new Waveform().setLowFrequency(1.0).setHighFrequency(2.0);
+
+        metrics.filtered(CalibrationMetrics.SNR_FILTER, wave, true);
+
+        CalibrationMetrics.RunReport report = metrics.startRun("calibration", 1l);
+        report.mark("velocity");
+        metrics.filtered(CalibrationMetrics.SNR_FILTER, wave, true);
+        metrics.filtered(CalibrationMetrics.SNR_FILTER, wave, false);
+        report.mark("path");
+        metrics.optimized("path", new FrequencyBand(1.0, 2.0), 250l, TimeUnit.MILLISECONDS.toNanos(5));
+        report.finish();
+
+        assertSame(report, metrics.getLastReport());
+        assertEquals(Arrays.asList("velocity", "path"), Arrays.asList(report.getStageSeconds().keySet().toArray()));
+
+        List<List<Object>> rows = report.getRows();
+        assertTrue(rows.contains(Arrays.asList("filter_in", CalibrationMetrics.SNR_FILTER, "1.0-2.0", 2l)));
+        assertTrue(rows.contains(Arrays.asList("filter_out", CalibrationMetrics.SNR_FILTER, "1.0-2.0", 1l)));
+        assertTrue(rows.contains(Arrays.asList("optimizer_evaluations", "path", "1.0-2.0", 250l)));
+
+        assertEquals(3.0, registry.get(CalibrationMetrics.FILTER_IN).tag("filter", CalibrationMetrics.SNR_FILTER).counter().count());
+        assertEquals(1l, registry.get(CalibrationMetrics.STAGE_TIMER).tag("stage", "path").timer().count());
+    }
+
+    @Test
+    public void testUnmonitorOnlyRemovesThatExecutor() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        CalibrationMetrics metrics = new CalibrationMetrics(registry);
+        ExecutorService first = metrics.monitor(Executors.newFixedThreadPool(1), "calibration", "project", "1");
+        ExecutorService second = metrics.monitor(Executors.newFixedThreadPool(1), "calibration", "project", "2");
+        try {
+            metrics.unmonitor("calibration", "project", "1");
+
+            assertTrue(registry.find("executor.queued").tag("project", "1").gauges().isEmpty());
+            assertEquals(1, registry.find("executor.queued").tag("project", "2").gauges().size());
+        } finally {
+            first.shutdownNow();
+            second.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ShapeMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.calibration.repository.PeakVelocityMeasurementRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.ShapeMeasurementRepository;
+import gov.llnl.gnem.apps.coda.calibration.repository.SpectraMeasurementRepository;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
+import gov.llnl.gnem.apps.coda.common.model.test.annotations.IntTest;
+import gov.llnl.gnem.apps.coda.common.repository.WaveformRepository;
+
+@IntTest
+@DataJpaTest(showSql = false)
+@ContextConfiguration(classes = CalibrationServiceTestContext.class)
+public class MeasurementMetadataRepositoryTest {
+
+    @Autowired
+    private WaveformRepository waveformRepository;
+
+    @Autowired
+    private SpectraMeasurementRepository spectraRepository;
+
+    @Autowired
+    private PeakVelocityMeasurementRepository velocityRepository;
+
+    @Autowired
+    private ShapeMeasurementRepository shapeRepository;
+
+    @Test
+    public void testMetadataProjectionsCarryWaveformMetadataOnly() throws Exception {
+        Waveform waveform = waveformRepository.saveAndFlush(genWaveform());
+        spectraRepository.saveAndFlush(new SpectraMeasurement().setWaveform(waveform).setRawAtStart(1.5).setPathCorrected(2.5).setPathAndSiteCorrected(3.5).setRmsFit(0.1));
+        velocityRepository.saveAndFlush(new PeakVelocityMeasurement().setWaveform(waveform).setTime(42.0).setSnr(12.0).setNoiseLevel(0.5));
+        shapeRepository.saveAndFlush(new ShapeMeasurement().setWaveform(waveform).setMeasuredBeta(-0.02).setMeasuredTime(new Date(1000l)));
+
+        List<SpectraMeasurementMetadata> spectra = spectraRepository.findAllMetadataOnly();
+        assertThat(spectra).hasSize(1);
+        assertThat(spectra.get(0).getPathAndSiteCorrected()).isEqualTo(3.5);
+        assertThat(spectra.get(0).getWaveform().getId()).isEqualTo(waveform.getId());
+        assertThat(spectra.get(0).getWaveform().getEvent().getEventId()).isEqualTo("1234");
+        assertThat(spectra.get(0).getWaveform().getStream().getStation().getStationName()).isEqualTo("STA");
+        assertThat(spectra.get(0).getWaveform().getAssociatedPicks()).isEmpty();
+        assertThat(spectraRepository.findAllMetadataById(Collections.singletonList(spectra.get(0).getId()))).hasSize(1);
+        assertThat(spectraRepository.findAllMetadataOnlyByProjectIdAndBandAndStationNames(Project.DEFAULT_PROJECT_ID, 1.0, 2.0, Arrays.asList("STA", "OTHER"))).hasSize(1);
+        assertThat(spectraRepository.findAllMetadataOnlyByProjectIdAndBandAndStationNames(Project.DEFAULT_PROJECT_ID, 2.0, 4.0, Arrays.asList("STA"))).isEmpty();
+
+        PeakVelocityMeasurementMetadata velocity = velocityRepository.findByWaveformIdMetadataOnly(waveform.getId());
+        assertThat(velocity.getTime()).isEqualTo(42.0);
+        assertThat(velocity.getNoiseLevel()).isEqualTo(0.5);
+        assertThat(velocity.getWaveform().getLowFrequency()).isEqualTo(1.0);
+        assertThat(velocityRepository.findAllMetadataOnly()).hasSize(1);
+
+        ShapeMeasurementMetadata shape = shapeRepository.findOneMetadataByWaveformId(waveform.getId());
+        assertThat(shape.getMeasuredBeta()).isEqualTo(-0.02);
+        assertThat(shape.getMeasuredTime().getTime()).isEqualTo(1000l);
+        assertThat(shape.getWaveform().getHighFrequency()).isEqualTo(2.0);
+        assertThat(shapeRepository.findAllMetadataOnly()).hasSize(1);
+    }
+
+    private Waveform genWaveform() {
+        Waveform waveform = new Waveform().setEvent(new Event().setEventId("1234").setOriginTime(new Date(0l)).setLatitude(1.0).setLongitude(1.0))
+                                          .setStream(new Stream().setChannelName("STACK").setStation(new Station().setNetworkName("XX").setStationName("STA").setLatitude(2.0).setLongitude(2.0)))
+                                          .setBeginTime(new Date(0l))
+                                          .setEndTime(new Date(100000l))
+                                          .setLowFrequency(1.0)
+                                          .setHighFrequency(2.0)
+                                          .setSampleRate(1.0)
+                                          .setSegment(new double[100]);
+        waveform.setAssociatedPicks(new ArrayList<>(Collections.singletonList(new WaveformPick().setPickType("F").setPickName("F").setPickTimeSecFromOrigin(50f).setWaveform(waveform))));
+        return waveform;
+    }
+}
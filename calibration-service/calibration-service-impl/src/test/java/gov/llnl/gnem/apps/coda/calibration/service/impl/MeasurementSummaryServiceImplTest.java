@@ -0,0 +1,171 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.DistanceBinStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PathBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadata;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurementMetadataImpl;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.StationPairStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.WaveformMetadataImpl;
+import gov.llnl.gnem.apps.coda.calibration.model.messaging.CalibrationStatusEvent;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SpectraMeasurementService;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.service.impl.NotificationServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class MeasurementSummaryServiceImplTest {
+
+    @Mock
+    private SpectraMeasurementService spectraService;
+
+    private NotificationServiceImpl notificationService;
+
+    private MeasurementSummaryServiceImpl summaryService;
+
+    private List<SpectraMeasurementMetadata> measurements;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        notificationService = new NotificationServiceImpl();
+        summaryService = new MeasurementSummaryServiceImpl(spectraService, notificationService);
+
+        Station a = new Station().setStationName("AAA").setLatitude(0.0).setLongitude(0.0);
+        Station b = new Station().setStationName("BBB").setLatitude(0.0).setLongitude(1.0);
+        Station c = new Station().setStationName("CCC").setLatitude(1.0).setLongitude(0.0);
+
+        measurements = new ArrayList<>();
+        long id = 0;
+        measurements.add(createMeasurement(++id, "1", b, 2.0, 1.0, 0.5));
+        measurements.add(createMeasurement(++id, "1", a, 1.0, 1.0, 1.5));
+        measurements.add(createMeasurement(++id, "1", c, 4.0, 1.0, 2.5));
+        measurements.add(createMeasurement(++id, "2", a, 1.0, 1.0, 1.0));
+        measurements.add(createMeasurement(++id, "2", b, 4.0, 2.0, 1.0));
+
+        Mockito.when(spectraService.countByProjectId(Project.DEFAULT_PROJECT_ID)).thenReturn(Long.valueOf(measurements.size()));
+        Mockito.when(spectraService.findAllMetadataOnlyByProjectId(Project.DEFAULT_PROJECT_ID)).thenReturn(measurements);
+    }
+
+    @Test
+    public void testPathStationPairStatistics() throws Exception {
+        List<PathBandStatistics> stats = summaryService.getPathStatistics();
+        assertEquals(1, stats.size(), "Expected a single frequency band");
+
+        PathBandStatistics band = stats.get(0);
+        assertEquals(3, band.getStationPairs().size(), "Expected one entry per unordered station pair");
+
+        StationPairStatistics ab = band.getStationPairs()
+                                       .stream()
+                                       .filter(p -> "AAA".equals(p.getFirstStation().getStationName()) && "BBB".equals(p.getSecondStation().getStationName()))
+                                       .findFirst()
+                                       .orElse(null);
+        assertEquals(2l, ab.getCount());
+        // |1 - 2| = 1 and |1 - 4| = 3
+        assertEquals(Math.sqrt(2.0), ab.getBeforeStandardDeviation(), 1E-10);
+        // |0 - 0| = 0 and |0 - 1| = 1
+        assertEquals(Math.sqrt(0.5), ab.getAfterStandardDeviation(), 1E-10);
+        assertEquals(4, ab.getWaveformIds().size());
+
+        assertEquals(Arrays.asList("AAA", "BBB", "CCC"), band.getStations().stream().map(Station::getStationName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testPathDistanceBins() throws Exception {
+        PathBandStatistics band = summaryService.getPathStatistics().get(0);
+
+        // AAA-BBB and AAA-CCC are ~111 km apart, BBB-CCC ~157 km, so every
+        // pair lands in the 100-200 km bin
+        assertEquals(1, band.getDistanceBins().size());
+        DistanceBinStatistics bin = band.getDistanceBins().get(0);
+        assertEquals(100.0, bin.getMinDistance(), 0.0);
+        assertEquals(200.0, bin.getMaxDistance(), 0.0);
+        assertEquals(4l, bin.getCount());
+        assertEquals(band.getOverallBeforeStandardDeviation(), bin.getBeforeStandardDeviation(), 1E-10);
+        assertEquals(band.getOverallAfterStandardDeviation(), bin.getAfterStandardDeviation(), 1E-10);
+    }
+
+    @Test
+    public void testSiteStatistics() throws Exception {
+        List<SiteBandStatistics> stats = summaryService.getSiteStatistics();
+        assertEquals(2, stats.size(), "Expected one entry per event and band");
+        SiteBandStatistics ev1 = stats.stream().filter(s -> "1".equals(s.getEventId())).findFirst().orElse(null);
+        assertEquals(3l, ev1.getCount());
+        assertEquals(1.0, ev1.getStandardDeviation(), 1E-10);
+    }
+
+    @Test
+    public void testCacheInvalidatedOnCalibrationComplete() throws Exception {
+        List<PathBandStatistics> first = summaryService.getPathStatistics();
+        assertSame(first, summaryService.getPathStatistics(), "Expected cached statistics between calibrations");
+
+        notificationService.post(new CalibrationStatusEvent(1l, CalibrationStatusEvent.Status.PATH_STARTING));
+        assertSame(first, summaryService.getPathStatistics(), "Expected cached statistics until the calibration completes");
+
+        notificationService.post(new CalibrationStatusEvent(1l, CalibrationStatusEvent.Status.COMPLETE));
+        assertNotSame(first, summaryService.getPathStatistics(), "Expected statistics to be recomputed after the calibration completes");
+        Mockito.verify(spectraService, Mockito.times(2)).findAllMetadataOnlyByProjectId(Project.DEFAULT_PROJECT_ID);
+    }
+
+    @Test
+    public void testStatisticsAreKeptPerProject() throws Exception {
+        Long otherProject = Project.DEFAULT_PROJECT_ID + 1;
+        List<SpectraMeasurementMetadata> other = Arrays.asList(createMeasurement(10l, "3", new Station().setStationName("DDD"), 1.0, 1.0, 1.0));
+        Mockito.when(spectraService.countByProjectId(otherProject)).thenReturn(1l);
+        Mockito.when(spectraService.findAllMetadataOnlyByProjectId(otherProject)).thenReturn(other);
+
+        List<SiteBandStatistics> first = summaryService.getSiteStatistics();
+        List<SiteBandStatistics> otherStats = summaryService.getSiteStatistics(otherProject);
+        assertEquals(2, first.size());
+        assertEquals(1, otherStats.size());
+        assertEquals("3", otherStats.get(0).getEventId());
+
+        notificationService.post(new CalibrationStatusEvent(1l, CalibrationStatusEvent.Status.COMPLETE).setProjectId(otherProject));
+        assertSame(first, summaryService.getSiteStatistics(), "Expected another project's calibration to leave this project's cache alone");
+        assertNotSame(otherStats, summaryService.getSiteStatistics(otherProject));
+    }
+
+    private SpectraMeasurementMetadata createMeasurement(Long id, String eventId, Station station, double raw, double path, double site) {
+        return new SpectraMeasurementMetadataImpl().setId(id)
+                                                   .setRawAtMeasurementTime(raw)
+                                                   .setPathCorrected(path)
+                                                   .setPathAndSiteCorrected(site)
+                                                   .setWaveform(
+                                                           new WaveformMetadataImpl().setId(id)
+                                                                                     .setEvent(new Event().setEventId(eventId))
+                                                                                     .setStream(new Stream().setStation(station))
+                                                                                     .setLowFrequency(1.0)
+                                                                                     .setHighFrequency(2.0));
+    }
+}
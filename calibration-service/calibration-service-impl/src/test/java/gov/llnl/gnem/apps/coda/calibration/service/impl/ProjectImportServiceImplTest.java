@@ -0,0 +1,177 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ProjectImportStatus;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.ProjectImportStatus.State;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ConfigurationService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersPsService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectFileParser;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ReferenceMwParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.common.service.api.WaveformService;
+
+@ExtendWith(MockitoExtension.class)
+public class ProjectImportServiceImplTest {
+
+    @Mock
+    private WaveformService waveformService;
+    @Mock
+    private SharedFrequencyBandParametersService sharedParamsService;
+    @Mock
+    private SiteFrequencyBandParametersService siteParamsService;
+    @Mock
+    private MdacParametersPsService mdacPsService;
+    @Mock
+    private MdacParametersFiService mdacFiService;
+    @Mock
+    private ReferenceMwParametersService referenceEventService;
+    @Mock
+    private ConfigurationService configService;
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private ExecutorService parsePool;
+    private ProjectImportServiceImpl importService;
+    private Path project;
+
+    private final ProjectFileParser envelopeParser = new ProjectFileParser() {
+        @Override
+        public boolean canParse(Path file) {
+            return file.getFileName().toString().endsWith(".env");
+        }
+
+        @Override
+        public List<Result<Object>> parse(Path file) {
+            if (file.getFileName().toString().startsWith("bad")) {
+                return Collections.singletonList(new Result<>(false, Collections.singletonList(new IllegalStateException("unreadable " + file.getFileName())), null));
+            }
+            return Collections.singletonList(new Result<>(true, new Waveform().setSegmentType(file.getFileName().toString())));
+        }
+    };
+
+    @BeforeEach
+    protected void setUp() throws IOException {
+        parsePool = Executors.newFixedThreadPool(2);
+        importService = new ProjectImportServiceImpl(waveformService,
+                                                     sharedParamsService,
+                                                     siteParamsService,
+                                                     mdacPsService,
+                                                     mdacFiService,
+                                                     referenceEventService,
+                                                     configService,
+                                                     notificationService,
+                                                     transactionManager,
+                                                     parsePool,
+                                                     new ServiceConfig().setImportChunkSize(4));
+        importService.setParsers(Collections.singletonList(envelopeParser)).setWorkDirectory(tempDir.resolve("work"));
+
+        project = Files.createDirectories(tempDir.resolve("project"));
+        for (int i = 0; i < 9; i++) {
+            Files.write(project.resolve(String.format("stack_%02d.env", i)), new byte[] { (byte) i });
+        }
+        Files.write(project.resolve("bad_stack.env"), new byte[] { 1 });
+        Files.write(project.resolve("notes.md"), new byte[] { 1 });
+    }
+
+    @AfterEach
+    protected void tearDown() {
+        parsePool.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportPersistsInChunks() throws Exception {
+        ProjectImportStatus status = new ProjectImportStatus().setId(1l);
+        importService.runImport(status, project);
+
+        assertEquals(State.COMPLETE, status.getState());
+        assertEquals(10, status.getTotalFiles());
+        assertEquals(10, status.getProcessedFiles());
+        assertEquals(1, status.getFailedFiles());
+        assertEquals(1, status.getErrors().size());
+
+        ArgumentCaptor<List<Waveform>> saved = ArgumentCaptor.forClass(List.class);
+        verify(waveformService, times(3)).updateAll(saved.capture());
+        List<Integer> sizes = new ArrayList<>();
+        saved.getAllValues().forEach(batch -> sizes.add(batch.size()));
+        // bad_stack.env sorts first and fails to parse
+        assertEquals(3, sizes.get(0).intValue());
+        assertEquals(4, sizes.get(1).intValue());
+        assertEquals(2, sizes.get(2).intValue());
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(notificationService, times(5)).post(events.capture());
+        ProgressEvent last = (ProgressEvent) events.getValue();
+        assertEquals(10l, last.getProgress().getCurrent().longValue());
+    }
+
+    @Test
+    public void testInterruptedImportResumes() throws Exception {
+        when(waveformService.updateAll(anyList())).thenReturn(Collections.emptyList()).thenThrow(new IllegalStateException("database went away"));
+
+        ProjectImportStatus first = new ProjectImportStatus().setId(1l);
+        importService.runImport(first, project);
+        assertEquals(State.ERROR, first.getState());
+        assertEquals(4, first.getProcessedFiles());
+
+        ProjectImportStatus second = new ProjectImportStatus().setId(2l);
+        doReturn(Collections.emptyList()).when(waveformService).updateAll(anyList());
+        importService.runImport(second, project);
+
+        assertEquals(State.COMPLETE, second.getState());
+        assertEquals(4, second.getResumedFrom());
+        assertEquals(10, second.getProcessedFiles());
+        // 1 committed + 1 failed on the first run, 2 remaining chunks on the resume
+        verify(waveformService, times(4)).updateAll(anyList());
+    }
+}
@@ -43,8 +43,6 @@ import gov.llnl.gnem.apps.coda.calibration.model.domain.ReferenceMwParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteFrequencyBandParameters;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
-import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersPsService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.MeasuredMwsService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SiteFrequencyBandParametersService;
 import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.MdacCalculatorService;
@@ -57,6 +55,7 @@ import gov.llnl.gnem.apps.coda.common.model.domain.Station;
 import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.service.impl.GeometryServiceImpl;
 import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
 
 @ExtendWith(MockitoExtension.class)
@@ -78,12 +77,6 @@ public class SiteCalibrationServiceImplTest {
     @Mock
     private SyntheticCodaModel syntheticCodaModel;
 
-    @Mock
-    private MdacParametersFiService mdacFiService;
-
-    @Mock
-    private MdacParametersPsService mdacPsService;
-
     @Mock
     private VelocityConfiguration velConf;
 
@@ -98,7 +91,7 @@ public class SiteCalibrationServiceImplTest {
         Mockito.when(mdac.getCalculateMdacSourceSpectraFunction(Mockito.any(), Mockito.any(), Mockito.anyDouble())).thenReturn(f -> new double[] { 1.0, 1.0, 1.0, 1.0 });
         Mockito.when(mdac.getCalculateMdacAmplitudeForMwFunction(Mockito.any(), Mockito.any(), Mockito.anyDouble(), Mockito.any(), Mockito.anyDouble())).thenReturn(f -> Double.valueOf(1.0d));
 
-        SpectraCalculator spectraCalc = new SpectraCalculator(converter, syntheticCodaModel, mdac, mdacFiService, mdacPsService, velConf);
+        SpectraCalculator spectraCalc = new SpectraCalculator(converter, syntheticCodaModel, mdac, velConf, new GeometryServiceImpl());
         siteCalibrationServiceImpl.setSpectraCalc(spectraCalc);
         siteCalibrationServiceImpl.setServiceConfig(new ServiceConfig());
     }
@@ -0,0 +1,84 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import gov.llnl.gnem.apps.coda.calibration.repository.SyntheticRepository;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SyntheticCodaModel;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.processing.SyntheticSegmentCache;
+import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+
+@ExtendWith(MockitoExtension.class)
+public class SyntheticServiceImplTest {
+
+    @Mock
+    private SyntheticRepository repository;
+
+    private SyntheticServiceImpl service;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        SyntheticSegmentCache segments = new SyntheticSegmentCache(new SyntheticCodaModel(), new ServiceConfig().setLazySynthetics(true).setSyntheticCacheSize(2));
+        service = new SyntheticServiceImpl(repository, segments);
+    }
+
+    @Test
+    public void testLazySaveReturnsDetachedCopy() throws Exception {
+        double[] segment = new double[] { 1.0, 2.0, 3.0 };
+        SyntheticCoda managed = new SyntheticCoda().setId(5l);
+        Mockito.when(repository.save(any(SyntheticCoda.class))).thenReturn(managed);
+
+        SyntheticCoda saved = service.save(new SyntheticCoda().setSegment(segment).setMeasuredB(-0.01).setMeasuredG(0.5));
+
+        ArgumentCaptor<SyntheticCoda> persisted = ArgumentCaptor.forClass(SyntheticCoda.class);
+        Mockito.verify(repository).save(persisted.capture());
+        assertEquals(0, persisted.getValue().getSegmentLength(), "Only the model terms should be persisted");
+
+        assertNotSame(managed, saved, "Callers should not get the repository managed instance back");
+        assertEquals(managed.getId(), saved.getId());
+        assertArrayEquals(segment, saved.getSegment(), 0.0);
+        assertEquals(0, managed.getSegmentLength(), "Restoring the samples must not dirty the managed instance");
+    }
+
+    @Test
+    public void testLazySaveAllReturnsDetachedCopies() throws Exception {
+        SyntheticCoda managed = new SyntheticCoda().setId(5l);
+        Mockito.when(repository.save(any(SyntheticCoda.class))).thenReturn(managed);
+
+        List<SyntheticCoda> saved = service.save(Arrays.asList(new SyntheticCoda().setSegment(new double[] { 1.0 }), new SyntheticCoda().setSegment(new double[] { 2.0 })));
+
+        assertEquals(2, saved.size());
+        assertNotSame(saved.get(0), saved.get(1));
+        assertArrayEquals(new double[] { 1.0 }, saved.get(0).getSegment(), 0.0);
+        assertArrayEquals(new double[] { 2.0 }, saved.get(1).getSegment(), 0.0);
+        assertEquals(0, managed.getSegmentLength());
+        Mockito.verify(repository, Mockito.never()).persistAll(any());
+    }
+}
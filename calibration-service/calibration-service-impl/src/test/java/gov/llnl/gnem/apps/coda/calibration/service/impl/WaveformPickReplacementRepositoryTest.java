@@ -0,0 +1,151 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PeakVelocityMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.repository.PeakVelocityMeasurementRepository;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
+import gov.llnl.gnem.apps.coda.common.model.test.annotations.IntTest;
+import gov.llnl.gnem.apps.coda.common.repository.WaveformPickRepository;
+import gov.llnl.gnem.apps.coda.common.repository.WaveformRepository;
+import gov.llnl.gnem.apps.coda.common.service.impl.WaveformPickServiceImpl;
+
+@IntTest
+@DataJpaTest(showSql = false)
+@ContextConfiguration(classes = CalibrationServiceTestContext.class)
+public class WaveformPickReplacementRepositoryTest {
+
+    // One more than the delete chunk used by WaveformPickServiceImpl
+    private static final int MULTI_CHUNK_COUNT = 1001;
+
+    @Autowired
+    private WaveformRepository waveformRepository;
+
+    @Autowired
+    private WaveformPickRepository pickRepository;
+
+    @Autowired
+    private PeakVelocityMeasurementRepository velocityRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void testReplacePicksLeavesOnlyNewRows() throws Exception {
+        WaveformPickServiceImpl pickService = new WaveformPickServiceImpl(pickRepository, em);
+        Waveform waveform = waveformRepository.saveAndFlush(genWaveform("1234"));
+        Waveform bystander = waveformRepository.saveAndFlush(genWaveform("5678"));
+        em.clear();
+        Integer version = waveformRepository.findById(waveform.getId()).get().getVersion();
+        em.clear();
+
+        waveform.getAssociatedPicks().clear();
+        waveform.getAssociatedPicks().add(new WaveformPick().setPickType("P").setPickName("P").setPickTimeSecFromOrigin(10f).setWaveform(waveform));
+        waveform.getAssociatedPicks().add(new WaveformPick().setPickType("S").setPickName("S").setPickTimeSecFromOrigin(20f).setWaveform(waveform));
+        assertThat(pickService.replacePicks(Collections.singletonList(waveform))).isEqualTo(2);
+        em.clear();
+
+        List<WaveformPick> picks = pickRepository.findAll();
+        assertThat(picks).hasSize(3);
+        assertThat(picks).filteredOn(p -> p.getWaveform().getId().equals(waveform.getId())).extracting(WaveformPick::getPickType).containsExactlyInAnyOrder("P", "S");
+        assertThat(picks).filteredOn(p -> p.getWaveform().getId().equals(bystander.getId())).extracting(WaveformPick::getPickType).containsExactly("F");
+
+        Waveform reloaded = waveformRepository.findById(waveform.getId()).get();
+        assertThat(reloaded.getVersion()).isEqualTo(version).describedAs("Replacing picks should not rewrite the waveform row");
+        assertThat(reloaded.getSegment()).hasSize(100);
+        assertThat(waveform.getAssociatedPicks()).allMatch(p -> p.getWaveform() == waveform);
+    }
+
+    @Test
+    public void testReplacePicksAcrossDeleteChunks() throws Exception {
+        WaveformPickServiceImpl pickService = new WaveformPickServiceImpl(pickRepository, em);
+        List<Waveform> waveforms = new ArrayList<>(MULTI_CHUNK_COUNT);
+        for (int i = 0; i < MULTI_CHUNK_COUNT; i++) {
+            waveforms.add(genWaveform(Integer.toString(i)));
+        }
+        waveforms = waveformRepository.saveAll(waveforms);
+        Waveform bystander = waveformRepository.saveAndFlush(genWaveform("bystander"));
+        em.clear();
+        assertThat(pickRepository.count()).isEqualTo(MULTI_CHUNK_COUNT + 1l);
+
+        for (Waveform waveform : waveforms) {
+            waveform.getAssociatedPicks().clear();
+            waveform.getAssociatedPicks().add(new WaveformPick().setPickType("P").setPickName("P").setPickTimeSecFromOrigin(10f).setWaveform(waveform));
+        }
+        assertThat(pickService.replacePicks(waveforms)).isEqualTo(MULTI_CHUNK_COUNT);
+        em.clear();
+
+        List<WaveformPick> picks = pickRepository.findAll();
+        assertThat(picks).hasSize(MULTI_CHUNK_COUNT + 1);
+        assertThat(picks).filteredOn(p -> "F".equals(p.getPickType())).hasSize(1).allMatch(p -> p.getWaveform().getId().equals(bystander.getId()));
+        assertThat(picks).filteredOn(p -> "P".equals(p.getPickType())).extracting(p -> p.getWaveform().getId()).doesNotHaveDuplicates().hasSize(MULTI_CHUNK_COUNT);
+    }
+
+    @Test
+    public void testPersistAllPersistsNewAndMergesExisting() throws Exception {
+        Waveform waveform = waveformRepository.saveAndFlush(genWaveform("1234"));
+        Waveform other = waveformRepository.saveAndFlush(genWaveform("5678"));
+        PeakVelocityMeasurement existing = velocityRepository.saveAndFlush(new PeakVelocityMeasurement().setWaveform(waveform).setTime(1.0).setSnr(5.0));
+        em.clear();
+
+        existing.setSnr(7.0);
+        PeakVelocityMeasurement added = new PeakVelocityMeasurement().setWaveform(waveformRepository.getOne(other.getId())).setTime(2.0).setSnr(3.0);
+        List<PeakVelocityMeasurement> result = velocityRepository.persistAll(Arrays.asList(added, existing));
+        em.flush();
+        em.clear();
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0)).isSameAs(added).describedAs("A new entity should be persisted in place");
+        assertThat(added.getId()).isNotNull();
+        assertThat(result.get(1)).isNotSameAs(existing).describedAs("A detached entity should be merged into a managed copy");
+        assertThat(result.get(1).getId()).isEqualTo(existing.getId());
+
+        assertThat(velocityRepository.count()).isEqualTo(2l);
+        assertThat(velocityRepository.findById(existing.getId()).get().getSnr()).isEqualTo(7.0);
+        assertThat(velocityRepository.findById(added.getId()).get().getSnr()).isEqualTo(3.0);
+    }
+
+    private Waveform genWaveform(String eventId) {
+        Waveform waveform = new Waveform().setEvent(new Event().setEventId(eventId).setOriginTime(new Date(0l)).setLatitude(1.0).setLongitude(1.0))
+                                          .setStream(new Stream().setChannelName("STACK").setStation(new Station().setNetworkName("XX").setStationName("STA").setLatitude(2.0).setLongitude(2.0)))
+                                          .setBeginTime(new Date(0l))
+                                          .setEndTime(new Date(100000l))
+                                          .setLowFrequency(1.0)
+                                          .setHighFrequency(2.0)
+                                          .setSampleRate(1.0)
+                                          .setSegment(new double[100]);
+        waveform.setAssociatedPicks(new ArrayList<>(Collections.singletonList(new WaveformPick().setPickType("F").setPickName("F").setPickTimeSecFromOrigin(50f).setWaveform(waveform))));
+        return waveform;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+
+public class CalibrationDatasetIndexTest {
+
+    private final Event eventA = new Event().setEventId("A").setLatitude(1.0).setLongitude(1.0);
+    private final Event eventB = new Event().setEventId("B").setLatitude(2.0).setLongitude(2.0);
+    private final Station sta1 = new Station().setStationName("STA1").setLatitude(10.0).setLongitude(10.0);
+    private final Station sta2 = new Station().setStationName("STA2").setLatitude(20.0).setLongitude(20.0);
+
+    @Test
+    public void testRowsAreGroupedByBandThenEvent() throws Exception {
+        FrequencyBand low = new FrequencyBand(1.0, 2.0);
+        FrequencyBand high = new FrequencyBand(2.0, 3.0);
+        Map<FrequencyBand, List<SpectraMeasurement>> data = new HashMap<>();
+        data.put(high, Arrays.asList(measurement(eventA, sta1, high, 5.0)));
+        data.put(
+                low,
+                    Arrays.asList(
+                            measurement(eventA, sta1, low, 1.0),
+                                measurement(eventB, sta1, low, 2.0),
+                                measurement(eventA, sta2, low, 3.0),
+                                measurement(eventB, sta2, low, 4.0),
+                                measurement(eventB, sta2, low, 4.5),
+                                new SpectraMeasurement().setWaveform(new Waveform())));
+
+        CalibrationDatasetIndex index = CalibrationDatasetIndex.of(data);
+
+        assertEquals(2, index.bandCount());
+        assertEquals(0, index.bandId(new FrequencyBand(1.0, 2.0)));
+        assertEquals(1, index.bandId(high));
+        assertEquals(-1, index.bandId(new FrequencyBand(3.0, 4.0)));
+        assertEquals(2, index.eventCount());
+        assertEquals(2, index.stationCount());
+
+        // Duplicate band/event/station keeps the last measurement and the
+        // invalid waveform is dropped
+        assertEquals(5, index.size());
+        assertEquals(0, index.bandStart(0));
+        assertEquals(4, index.bandEnd(0));
+        assertEquals(4, index.bandStart(1));
+        assertEquals(5, index.bandEnd(1));
+        assertArrayEquals(new double[] { 1.0, 3.0, 2.0, 4.5, 5.0 }, index.column(SpectraMeasurement::getRawAtMeasurementTime), 0.0);
+        assertSame(eventA, index.event(index.eventIdAt(0)));
+        assertSame(eventA, index.event(index.eventIdAt(1)));
+        assertSame(eventB, index.event(index.eventIdAt(2)));
+        assertSame(sta2, index.station(index.stationIdAt(3)));
+    }
+
+    @Test
+    public void testBandIndexMatchesRawFrequencies() throws Exception {
+        Map<FrequencyBand, String> values = new HashMap<>();
+        values.put(new FrequencyBand(0.5, 0.7), "a");
+        values.put(new FrequencyBand(0.7, 1.0), "b");
+        values.put(new FrequencyBand(0.5, 1.0), "c");
+        FrequencyBandIndex<String> index = FrequencyBandIndex.of(values);
+
+        assertEquals("a", index.get(0.5, 0.7));
+        assertEquals("c", index.get(0.5, 1.0));
+        assertEquals("b", index.get(new Waveform().setLowFrequency(0.7).setHighFrequency(1.0)));
+        assertNull(index.get(0.5, 0.8));
+        assertNull(index.get(null, 0.7));
+        assertNull(index.get(new Waveform()));
+        assertEquals(new FrequencyBand(0.5, 1.0), index.bandAt(index.indexOf(0.5, 1.0)));
+    }
+
+    private SpectraMeasurement measurement(Event event, Station station, FrequencyBand band, double raw) {
+        Waveform waveform = new Waveform().setEvent(event).setStream(new Stream().setStation(station)).setLowFrequency(band.getLowFrequency()).setHighFrequency(band.getHighFrequency());
+        return new SpectraMeasurement().setWaveform(waveform).setRawAtMeasurementTime(raw);
+    }
+}
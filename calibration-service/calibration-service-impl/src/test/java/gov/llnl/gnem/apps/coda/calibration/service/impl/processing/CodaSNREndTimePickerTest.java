@@ -0,0 +1,123 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.junit.jupiter.api.Test;
+
+import llnl.gnem.core.util.seriesMathHelpers.SlidingWindowStats;
+
+public class CodaSNREndTimePickerTest {
+
+    @Test
+    public void testSlidingWindowMatchesWindowedRegression() throws Exception {
+        Random random = new Random(42l);
+        int window = 10;
+        SlidingWindowStats stats = new SlidingWindowStats(window);
+        DescriptiveStatistics reference = new DescriptiveStatistics(window);
+        SimpleRegression regression = new SimpleRegression();
+
+        for (int i = 0; i < 5000; i++) {
+            double value = 3.0 * Math.sin(i / 50.0) + random.nextGaussian();
+            stats.addValue(value);
+            reference.addValue(value);
+
+            double[] values = reference.getValues();
+            regression.clear();
+            for (int k = 0; k < values.length; k++) {
+                regression.addData(k, values[k]);
+            }
+
+            assertEquals(reference.getN(), stats.getN());
+            assertEquals(reference.getMean(), stats.getMean(), 1E-9);
+            if (values.length > 1) {
+                assertEquals(regression.getSlope(), stats.getSlope(), 1E-9);
+            } else {
+                assertEquals(Double.NaN, stats.getSlope());
+            }
+        }
+    }
+
+    @Test
+    public void testEndPickOnDecayingEnvelope() throws Exception {
+        CodaSNREndTimePicker picker = new CodaSNREndTimePicker();
+        double[] envelope = new double[600];
+        for (int i = 0; i < envelope.length; i++) {
+            envelope[i] = Math.max(0.0, 4.0 - 0.02 * i);
+        }
+        double noise = 0.0;
+        double minimumSnr = 1.0;
+
+        // 40 sample observation window drops below noise + snr at 150s,
+        // the first sample at or under the threshold is at 150s
+        double pick = picker.getEndTime(envelope, 1.0, 1000.0, 0, 10.0, 500.0, minimumSnr, noise);
+        assertEquals(1150.0, pick, 1E-9);
+    }
+
+    @Test
+    public void testEndPickStopsAtRisingSpike() throws Exception {
+        CodaSNREndTimePicker picker = new CodaSNREndTimePicker();
+        double[] envelope = new double[600];
+        for (int i = 0; i < envelope.length; i++) {
+            envelope[i] = i < 200 ? 4.0 : 4.0 + 0.5 * (i - 200);
+        }
+        double noise = 0.0;
+        double minimumSnr = 1.0;
+
+        double pick = picker.getEndTime(envelope, 1.0, 1000.0, 0, 10.0, 500.0, minimumSnr, noise);
+        double expected = 1000.0 + regressionSpikePick(envelope, 1.0, 500.0, minimumSnr + noise, 40);
+
+        assertEquals(expected, pick, 1E-9);
+        assertTrue(pick > 1180.0 && pick < 1200.0, "Pick should stop at the start of the spike window ahead of the rise but was " + pick);
+    }
+
+    /**
+     * The spike check as the picker did it before the sliding window stats,
+     * refitting a regression over the windowed values at every sample.
+     */
+    private double regressionSpikePick(double[] waveform, double sampleRate, double maxLengthSec, double noiseThreshold, int windowSize) {
+        int obsWindow = (int) (windowSize / sampleRate);
+        int spikeSamples = (int) ((windowSize / 4) / sampleRate);
+        DescriptiveStatistics obs = new DescriptiveStatistics(obsWindow);
+        DescriptiveStatistics spike = new DescriptiveStatistics(spikeSamples);
+        SimpleRegression spikeReg = new SimpleRegression();
+        int stopIdx = Math.min(waveform.length, (int) (maxLengthSec * sampleRate));
+        double pick = 0.0;
+        for (int i = 0; i < stopIdx; i++) {
+            obs.addValue(waveform[i]);
+            spike.addValue(waveform[i]);
+            if (obs.getN() >= windowSize && obs.getMean() > noiseThreshold && waveform[i] > noiseThreshold) {
+                pick = i / sampleRate;
+            }
+            if (spike.getN() >= spikeSamples) {
+                double[] spikeVals = spike.getValues();
+                spikeReg.clear();
+                for (int k = 0; k < spikeVals.length; k++) {
+                    spikeReg.addData(k, spikeVals[k]);
+                }
+                if (spikeReg.getSlope() > 0.1) {
+                    return (i - spike.getN() - 1) / sampleRate;
+                }
+            }
+        }
+        return pick;
+    }
+}
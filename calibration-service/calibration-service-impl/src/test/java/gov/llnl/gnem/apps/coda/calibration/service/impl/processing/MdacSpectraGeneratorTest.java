@@ -0,0 +1,177 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MeasuredMwParameters;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MdacParametersFiService;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.ServiceConfig;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.model.util.SPECTRA_TYPES;
+
+public class MdacSpectraGeneratorTest {
+
+    private final List<FrequencyBand> bands = Arrays.asList(
+            new FrequencyBand(2.0, 3.0),
+                new FrequencyBand(0.02, 0.03),
+                new FrequencyBand(0.5, 0.7),
+                new FrequencyBand(8.0, 16.0),
+                new FrequencyBand(0.1, 0.2),
+                new FrequencyBand(1.0, 1.5));
+
+    private MdacParametersFI mdacFi;
+    private MdacParametersFiService mdacFiService;
+    private MdacSpectraGenerator generator;
+
+    @BeforeEach
+    public void setUp() {
+        mdacFi = mdacFi(0.3, 0.25);
+        mdacFiService = mock(MdacParametersFiService.class);
+        when(mdacFiService.findFirst()).thenAnswer(inv -> new MdacParametersFI(mdacFi));
+        generator = new MdacSpectraGenerator(mdacFiService, new ServiceConfig().setSpectraCacheSize(2));
+    }
+
+    @Test
+    public void testMatchesPerCurveCalculation() throws Exception {
+        Double[] mws = { 4.5, 2.1, 6.8, -0.5, 3.3 };
+        Double[] stresses = { null, 0.0, 1.2, 0.05, -1.0 };
+        SPECTRA_TYPES[] types = { SPECTRA_TYPES.FIT, SPECTRA_TYPES.UQ1, SPECTRA_TYPES.UQ1, SPECTRA_TYPES.UQ2, SPECTRA_TYPES.REF };
+        for (PICK_TYPES phase : new PICK_TYPES[] { PICK_TYPES.LG, PICK_TYPES.PN }) {
+            List<Spectra> spectra = generator.computeSpectra(mdacFi, mws, stresses, types, bands, phase);
+            assertEquals(mws.length, spectra.size());
+            for (int i = 0; i < mws.length; i++) {
+                Spectra expected = expectedSpectra(mws[i], stresses[i], phase, types[i]);
+                assertTrue(expected.getSpectraXY().size() > 0);
+                assertEquals(expected, spectra.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testFitSpectraAreCachedUntilInputsChange() throws Exception {
+        MeasuredMwParameters event = new MeasuredMwParameters().setEventId("1234")
+                                                               .setMw(4.0)
+                                                               .setApparentStressInMpa(0.5)
+                                                               .setMw1Max(4.2)
+                                                               .setApparentStress1Max(null)
+                                                               .setMw1Min(3.8)
+                                                               .setApparentStress1Min(0.4)
+                                                               .setMw2Max(4.4)
+                                                               .setApparentStress2Max(0.7)
+                                                               .setMw2Min(3.6)
+                                                               .setApparentStress2Min(0.3);
+
+        List<Spectra> first = generator.computeFitSpectra(event, bands, PICK_TYPES.LG);
+        assertEquals(5, first.size());
+        assertEquals(SPECTRA_TYPES.FIT, first.get(0).getType());
+        assertEquals(expectedSpectra(4.2, null, PICK_TYPES.LG, SPECTRA_TYPES.UQ1), first.get(1));
+        assertEquals(expectedSpectra(3.6, 0.3, PICK_TYPES.LG, SPECTRA_TYPES.UQ2), first.get(4));
+
+        assertThrows(UnsupportedOperationException.class, () -> first.get(0).getSpectraXY().clear());
+        assertThrows(UnsupportedOperationException.class, () -> first.clear());
+        List<Spectra> cached = generator.computeFitSpectra(event, bands, PICK_TYPES.LG);
+        assertSame(first, cached);
+        assertEquals(expectedSpectra(4.0, 0.5, PICK_TYPES.LG, SPECTRA_TYPES.FIT), cached.get(0));
+
+        mdacFi = mdacFi(0.6, 0.25);
+        List<Spectra> newParams = generator.computeFitSpectra(event, bands, PICK_TYPES.LG);
+        assertEquals(cached.get(0), newParams.get(0));
+        assertNotEquals(cached.get(1), newParams.get(1));
+        assertEquals(expectedSpectra(4.2, null, PICK_TYPES.LG, SPECTRA_TYPES.UQ1), newParams.get(1));
+
+        event.setMw(4.1);
+        assertEquals(expectedSpectra(4.1, 0.5, PICK_TYPES.LG, SPECTRA_TYPES.FIT), generator.computeFitSpectra(event, bands, PICK_TYPES.LG).get(0));
+    }
+
+    @Test
+    public void testFitSpectraAreSharedAcrossEventsWithTheSameInputs() throws Exception {
+        MeasuredMwParameters first = new MeasuredMwParameters().setEventId("1234").setMw(4.0).setApparentStressInMpa(0.5);
+        MeasuredMwParameters copy = new MeasuredMwParameters().setEventId("1234").setMw(4.0).setApparentStressInMpa(0.5);
+        MeasuredMwParameters other = new MeasuredMwParameters().setEventId("5678").setMw(5.0).setApparentStressInMpa(0.5);
+        MeasuredMwParameters third = new MeasuredMwParameters().setEventId("9012").setMw(6.0).setApparentStressInMpa(0.5);
+
+        MdacParametersFI fi = mdacFiService.findFirst();
+        List<Spectra> spectra = generator.computeFitSpectra(fi, first, bands, PICK_TYPES.LG);
+        assertSame(spectra, generator.computeFitSpectra(fi, copy, bands, PICK_TYPES.LG));
+        generator.computeFitSpectra(fi, other, bands, PICK_TYPES.LG);
+        assertSame(spectra, generator.computeFitSpectra(fi, copy, bands, PICK_TYPES.LG));
+        generator.computeFitSpectra(fi, third, bands, PICK_TYPES.LG);
+        generator.computeFitSpectra(fi, other, bands, PICK_TYPES.LG);
+        assertNotSame(spectra, generator.computeFitSpectra(fi, first, bands, PICK_TYPES.LG));
+        assertEquals(spectra, generator.computeFitSpectra(fi, first, bands, PICK_TYPES.LG));
+
+        verify(mdacFiService, times(1)).findFirst();
+    }
+
+    private Spectra expectedSpectra(Double mw, Double stress, PICK_TYPES phase, SPECTRA_TYPES type) {
+        MdacParametersFI fi = new MdacParametersFI(mdacFi);
+        if (stress != null && stress > 0.0) {
+            fi.setSigma(stress);
+            fi.setPsi(0.0);
+        }
+        MdacParametersPS ps = new MdacParametersPS();
+        ps.setPhase(phase.getPhase());
+        Function<Double, Double> mdacFunction = new MdacCalculatorService().getCalculateMdacAmplitudeForMwFunction(ps, fi, mw, phase);
+
+        List<Point2D.Double> xyPoints = new ArrayList<>();
+        for (FrequencyBand band : bands) {
+            double centerFreq = band.getLowFrequency() + (band.getHighFrequency() - band.getLowFrequency()) / 2.;
+            double amplitude = mdacFunction.apply(centerFreq);
+            if (amplitude > 0) {
+                xyPoints.add(new Point2D.Double(Math.log10(centerFreq), amplitude));
+            }
+        }
+        xyPoints.sort((p1, p2) -> Double.compare(p1.getX(), p2.getX()));
+        return new Spectra(type, xyPoints, mw, stress);
+    }
+
+    private MdacParametersFI mdacFi(double sigma, double psi) {
+        MdacParametersFI fi = new MdacParametersFI().setSigma(sigma).setPsi(psi);
+        fi.setZeta(1.0);
+        fi.setM0ref(1e16);
+        fi.setAlphas(6000.0);
+        fi.setBetas(3500.0);
+        fi.setRhos(2700.0);
+        fi.setRadPatP(0.44);
+        fi.setRadPatS(0.6);
+        fi.setAlphaR(6000.0);
+        fi.setBetaR(3500.0);
+        fi.setRhor(2700.0);
+        return fi;
+    }
+}
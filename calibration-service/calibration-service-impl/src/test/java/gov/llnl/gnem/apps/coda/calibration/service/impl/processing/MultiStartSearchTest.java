@@ -0,0 +1,81 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.analysis.MultivariateFunction;
+import org.junit.jupiter.api.Test;
+
+public class MultiStartSearchTest {
+
+    private static final double[] OPTIMUM = { 1.0, -2.0, 0.5 };
+    private static final double[] LOW = { -5.0, -5.0, -5.0 };
+    private static final double[] HIGH = { 5.0, 5.0, 5.0 };
+
+    private final MultivariateFunction cost = point -> {
+        double sum = 0.0;
+        for (int i = 0; i < point.length; i++) {
+            sum += Math.pow(point[i] - OPTIMUM[i], 2.0);
+        }
+        return sum;
+    };
+
+    @Test
+    public void testScreensGridAndStopsOnceRunsAgree() throws Exception {
+        List<double[]> grid = grid();
+        MultiStartSearch.Result result = new MultiStartSearch().setTopK(4).setConvergedRuns(2).search(cost, LOW, HIGH, sigma(0.5), grid, null, null);
+
+        assertNotNull(result.getBest());
+        assertArrayEquals(OPTIMUM, result.getBest().getPoint(), 1E-3);
+        assertEquals(grid.size(), result.getScreenEvaluations());
+        assertTrue(result.getEvaluations() > result.getScreenEvaluations());
+        assertTrue(result.isConverged());
+        assertEquals(2, result.getOptimizerRuns());
+    }
+
+    @Test
+    public void testWarmStartIsOptimizedFirst() throws Exception {
+        double[] warm = { 1.1, -1.9, 0.4 };
+        MultiStartSearch.Result result = new MultiStartSearch().setTopK(1).setConvergedRuns(1).search(cost, LOW, HIGH, sigma(0.5), grid(), warm, sigma(0.1));
+
+        assertNotNull(result.getBest());
+        assertArrayEquals(OPTIMUM, result.getBest().getPoint(), 1E-3);
+        assertTrue(result.isConverged());
+        assertEquals(1, result.getOptimizerRuns());
+    }
+
+    private static List<double[]> grid() {
+        List<double[]> grid = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            grid.add(new double[] { (i & 1) == 0 ? LOW[0] : HIGH[0], (i & 2) == 0 ? LOW[1] : HIGH[1], (i & 4) == 0 ? LOW[2] : HIGH[2] });
+        }
+        grid.add(new double[] { 0.0, 0.0, 0.0 });
+        return grid;
+    }
+
+    private static double[] sigma(double value) {
+        double[] sigma = new double[OPTIMUM.length];
+        Arrays.fill(sigma, value);
+        return sigma;
+    }
+}
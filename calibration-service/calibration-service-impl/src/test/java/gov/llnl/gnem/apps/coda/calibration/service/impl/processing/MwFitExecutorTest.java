@@ -0,0 +1,104 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersFI;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.MdacParametersPS;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.VelocityConfiguration;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.CalibrationMetrics;
+import gov.llnl.gnem.apps.coda.calibration.service.impl.ServiceConfig;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
+import gov.llnl.gnem.apps.coda.common.service.impl.GeometryServiceImpl;
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformToTimeSeriesConverter;
+
+public class MwFitExecutorTest {
+
+    @Test
+    public void testResultsAreStreamedAndFailedShardsSkipped() throws Exception {
+        MwFitExecutor executor = new MwFitExecutor(new ServiceConfig().setMwFitPoolSize(3), new CalibrationMetrics());
+        try {
+            List<Integer> shards = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+            Set<Integer> streamed = ConcurrentHashMap.newKeySet();
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+
+            List<Integer> results = executor.fitAll(shards, shard -> {
+                threads.add(Thread.currentThread().getName());
+                if (shard == 7) {
+                    throw new IllegalStateException("bad event");
+                }
+                return shard == 3 ? null : shard * 10;
+            }, streamed::add);
+
+            List<Integer> expected = shards.stream().filter(s -> s != 3 && s != 7).map(s -> s * 10).collect(Collectors.toList());
+            assertEquals(expected, results);
+            assertEquals(new HashSet<>(expected), streamed);
+            assertTrue(threads.stream().allMatch(name -> name.startsWith("Mw-Fit-")), threads.toString());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFitStopsAtEvaluationBudget() throws Exception {
+        MdacCalculatorService mdac = Mockito.mock(MdacCalculatorService.class);
+        Mockito.when(mdac.getCalculateMdacSourceSpectraFunction(Mockito.any(), Mockito.any(), Mockito.anyDouble())).thenReturn(f -> new double[] { 1.0, 1.0, 1.0, 1.0 });
+        Mockito.when(mdac.getCalculateMdacAmplitudeForMwFunction(Mockito.any(), Mockito.any(), Mockito.anyDouble(), Mockito.any(), Mockito.anyDouble()))
+               .thenAnswer(inv -> (Function<Double, Double>) f -> (double) inv.getArgument(2, Double.class) + f);
+        Mockito.when(mdac.getMwInDyne(Mockito.anyDouble())).thenReturn(1.0e20);
+        SpectraCalculator spectraCalc = new SpectraCalculator(new WaveformToTimeSeriesConverter(), new SyntheticCodaModel(), mdac, new VelocityConfiguration().setPhaseVelocityInKms(3.5), new GeometryServiceImpl());
+
+        Map<FrequencyBand, SummaryStatistics> measurements = new HashMap<>();
+        for (double low = 0.5; low < 8.0; low *= 2.0) {
+            SummaryStatistics stats = new SummaryStatistics();
+            stats.addValue(4.0 + low);
+            measurements.put(new FrequencyBand(low, low * 2.0), stats);
+        }
+
+        MwFitBudget budget = new MwFitBudget(120, 0);
+        double[] fit = spectraCalc.fitMw(new Event().setEventId("1"), measurements, PICK_TYPES.LG, new MdacParametersFI(), new MdacParametersPS(), TreeMap::new, budget);
+        assertNotNull(fit);
+        assertEquals(120, budget.getEvaluations());
+        assertTrue(budget.isExhausted());
+        Mockito.verify(mdac, Mockito.times(120)).getCalculateMdacAmplitudeForMwFunction(Mockito.any(), Mockito.any(), Mockito.anyDouble(), Mockito.any(), Mockito.anyDouble());
+
+        MwFitBudget spent = new MwFitBudget(1, 0);
+        assertTrue(spent.tryEvaluate());
+        assertFalse(spent.tryEvaluate());
+        assertNull(spectraCalc.fitMw(new Event().setEventId("2"), measurements, PICK_TYPES.LG, new MdacParametersFI(), new MdacParametersPS(), TreeMap::new, spent));
+    }
+}
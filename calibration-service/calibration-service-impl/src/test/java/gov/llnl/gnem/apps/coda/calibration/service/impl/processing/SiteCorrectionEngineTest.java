@@ -0,0 +1,178 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+public class SiteCorrectionEngineTest {
+
+    @Test
+    public void testMatchesSequentialPasses() throws Exception {
+        Random random = new Random(47l);
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            stations.add(new Station().setStationName("STA" + i).setNetworkName("XX"));
+        }
+        List<FrequencyBand> bands = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            bands.add(new FrequencyBand(0.5 * (i + 1), 0.5 * (i + 2)));
+        }
+
+        Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> data = new LinkedHashMap<>();
+        Map<Event, ToDoubleFunction<FrequencyBand>> references = new HashMap<>();
+        for (int e = 0; e < 40; e++) {
+            Event event = new Event().setEventId("EV" + e);
+            Map<FrequencyBand, Map<Station, SpectraMeasurement>> bandMap = new LinkedHashMap<>();
+            for (FrequencyBand band : bands) {
+                Map<Station, SpectraMeasurement> stationMap = new LinkedHashMap<>();
+                for (Station station : stations) {
+                    if (random.nextDouble() < 0.6) {
+                        stationMap.put(station, new SpectraMeasurement().setPathCorrected(10.0 + 8.0 * random.nextDouble()));
+                    }
+                }
+                if (!stationMap.isEmpty()) {
+                    bandMap.put(band, stationMap);
+                }
+            }
+            data.put(event, bandMap);
+            if (e % 5 == 0) {
+                double level = 20.0 + random.nextDouble();
+                double cutoff = 1.5 + random.nextDouble() * 3.0;
+                references.put(event, band -> band.getHighFrequency() > cutoff ? Double.NaN : level - 0.3 * band.getLowFrequency());
+            }
+        }
+
+        Queue<FrequencyBand> reported = new ConcurrentLinkedQueue<>();
+        SiteCorrectionEngine.SiteCorrections corrections = new SiteCorrectionEngine(data).calculate(references, reported::add);
+        assertEquals(bands.size(), reported.size());
+        assertEquals(new HashSet<>(bands), new HashSet<>(reported));
+
+        Map<Station, Map<FrequencyBand, SummaryStatistics>> expectedSiteTerms = new HashMap<>();
+        Map<Event, Map<FrequencyBand, SummaryStatistics>> expectedAverages = sequentialPasses(data, references, expectedSiteTerms);
+
+        int siteTermCount = 0;
+        for (Entry<Station, Map<FrequencyBand, SummaryStatistics>> staEntry : expectedSiteTerms.entrySet()) {
+            for (Entry<FrequencyBand, SummaryStatistics> bandEntry : staEntry.getValue().entrySet()) {
+                assertEquals(bandEntry.getValue().getMean(), corrections.getSiteTerms().get(bandEntry.getKey()).get(staEntry.getKey()), 0.0);
+                siteTermCount++;
+            }
+        }
+        assertEquals(siteTermCount, corrections.getSiteTerms().values().stream().mapToInt(Map::size).sum());
+
+        assertEquals(expectedAverages.keySet(), corrections.getEventAverages().keySet());
+        for (Entry<Event, Map<FrequencyBand, SummaryStatistics>> evEntry : expectedAverages.entrySet()) {
+            Map<FrequencyBand, SummaryStatistics> actual = corrections.getEventAverages().get(evEntry.getKey());
+            assertEquals(evEntry.getValue().keySet(), actual.keySet());
+            for (Entry<FrequencyBand, SummaryStatistics> bandEntry : evEntry.getValue().entrySet()) {
+                assertEquals(bandEntry.getValue().getN(), actual.get(bandEntry.getKey()).getN());
+                assertEquals(bandEntry.getValue().getMean(), actual.get(bandEntry.getKey()).getMean(), 0.0);
+                assertEquals(bandEntry.getValue().getStandardDeviation(), actual.get(bandEntry.getKey()).getStandardDeviation(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testMomentsMatchSummaryStatistics() throws Exception {
+        Random random = new Random(3l);
+        SiteCorrectionEngine.Moments moments = new SiteCorrectionEngine.Moments(1);
+        SummaryStatistics stats = new SummaryStatistics();
+        for (int i = 0; i < 100; i++) {
+            double value = random.nextGaussian() * 4.0 + 12.0;
+            moments.add(0, value);
+            stats.addValue(value);
+        }
+        assertEquals(stats.getMean(), moments.mean(0), 0.0);
+        assertEquals(stats.getVariance(), moments.variance(0), 0.0);
+    }
+
+    /**
+     * The map based passes the engine replaces.
+     */
+    private Map<Event, Map<FrequencyBand, SummaryStatistics>> sequentialPasses(Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> data,
+            Map<Event, ToDoubleFunction<FrequencyBand>> references, Map<Station, Map<FrequencyBand, SummaryStatistics>> siteTerms) {
+        Map<Station, Map<FrequencyBand, SummaryStatistics>> referenceSiteTerms = new HashMap<>();
+        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evEntry : data.entrySet()) {
+            ToDoubleFunction<FrequencyBand> reference = references.get(evEntry.getKey());
+            if (reference != null) {
+                for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> bandEntry : evEntry.getValue().entrySet()) {
+                    double refAmp = reference.applyAsDouble(bandEntry.getKey());
+                    if (Double.isNaN(refAmp)) {
+                        continue;
+                    }
+                    for (Entry<Station, SpectraMeasurement> staEntry : bandEntry.getValue().entrySet()) {
+                        referenceSiteTerms.computeIfAbsent(staEntry.getKey(), k -> new HashMap<>())
+                                          .computeIfAbsent(bandEntry.getKey(), k -> new SummaryStatistics())
+                                          .addValue(refAmp - staEntry.getValue().getPathCorrected());
+                    }
+                }
+            }
+        }
+
+        Map<Event, Map<FrequencyBand, SummaryStatistics>> averages = average(data, referenceSiteTerms);
+
+        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evEntry : data.entrySet()) {
+            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> bandEntry : evEntry.getValue().entrySet()) {
+                SummaryStatistics eventAverage = averages.getOrDefault(evEntry.getKey(), new HashMap<>()).get(bandEntry.getKey());
+                if (eventAverage != null) {
+                    for (Entry<Station, SpectraMeasurement> staEntry : bandEntry.getValue().entrySet()) {
+                        siteTerms.computeIfAbsent(staEntry.getKey(), k -> new HashMap<>())
+                                 .computeIfAbsent(bandEntry.getKey(), k -> new SummaryStatistics())
+                                 .addValue(eventAverage.getMean() - staEntry.getValue().getPathCorrected());
+                    }
+                }
+            }
+        }
+
+        return average(data, siteTerms);
+    }
+
+    private Map<Event, Map<FrequencyBand, SummaryStatistics>> average(Map<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> data,
+            Map<Station, Map<FrequencyBand, SummaryStatistics>> siteTerms) {
+        Map<Event, Map<FrequencyBand, SummaryStatistics>> averages = new HashMap<>();
+        for (Entry<Event, Map<FrequencyBand, Map<Station, SpectraMeasurement>>> evEntry : data.entrySet()) {
+            for (Entry<FrequencyBand, Map<Station, SpectraMeasurement>> bandEntry : evEntry.getValue().entrySet()) {
+                for (Entry<Station, SpectraMeasurement> staEntry : bandEntry.getValue().entrySet()) {
+                    SummaryStatistics siteTerm = siteTerms.getOrDefault(staEntry.getKey(), new HashMap<>()).get(bandEntry.getKey());
+                    if (siteTerm != null) {
+                        averages.computeIfAbsent(evEntry.getKey(), k -> new HashMap<>())
+                                .computeIfAbsent(bandEntry.getKey(), k -> new SummaryStatistics())
+                                .addValue(staEntry.getValue().getPathCorrected() + siteTerm.getMean());
+                    }
+                }
+            }
+        }
+        return averages;
+    }
+}
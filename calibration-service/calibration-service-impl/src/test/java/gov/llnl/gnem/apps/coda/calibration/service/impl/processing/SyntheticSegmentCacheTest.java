@@ -0,0 +1,65 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.calibration.service.impl.ServiceConfig;
+import gov.llnl.gnem.apps.coda.common.model.domain.SyntheticCoda;
+import llnl.gnem.core.util.TimeT;
+
+public class SyntheticSegmentCacheTest {
+
+    private final SyntheticCodaModel model = new SyntheticCodaModel();
+
+    @Test
+    public void testRegeneratedSegmentMatchesStoredSegment() throws Exception {
+        SyntheticSegmentCache cache = new SyntheticSegmentCache(model, new ServiceConfig().setLazySynthetics(true).setSyntheticCacheSize(2));
+        double gr = 0.61;
+        double br = -0.012;
+        for (double sampleRate : new double[] { 1.0, 0.5 }) {
+            TimeT begin = new TimeT(1262304000.123456);
+            int npts = 311;
+            double[] expected = new double[npts];
+            for (int ii = 0; ii < npts; ii++) {
+                expected[ii] = model.getSyntheticPointAtTime(gr, br, (ii + 1.0) / sampleRate);
+            }
+            SyntheticCoda synthetic = new SyntheticCoda().setId(7l)
+                                                         .setSegment(expected)
+                                                         .setBeginTime(begin.getDate())
+                                                         .setEndTime(new TimeT(begin.getEpochTime() + (npts - 1) / sampleRate).getDate())
+                                                         .setSampleRate(sampleRate)
+                                                         .setMeasuredB(br)
+                                                         .setMeasuredG(gr);
+
+            assertSame(synthetic, cache.fill(synthetic));
+
+            SyntheticCoda stored = cache.strip(synthetic);
+            assertEquals(0, stored.getSegmentLength());
+            cache.evictAll();
+
+            SyntheticCoda filled = cache.fill(stored);
+            assertNotSame(stored, filled);
+            assertEquals(0, stored.getSegmentLength());
+            assertArrayEquals(expected, filled.getSegment(), 1E-12);
+            assertArrayEquals(expected, cache.fill(stored).getSegment(), 1E-12);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.service.impl.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.common.service.util.WaveformUtils;
+import llnl.gnem.core.util.TimeT;
+import llnl.gnem.core.waveform.seismogram.TimeSeries;
+
+public class VelocityPickKernelTest {
+
+    private static final double BEGIN = 1000.0;
+    private static final double ORIGIN = 950.0;
+
+    private final VelocityPickKernel kernel = new VelocityPickKernel(new CodaSNREndTimePicker());
+
+    private double[] envelope(long seed, int length) {
+        Random random = new Random(seed);
+        double[] samples = new double[length];
+        for (int i = 0; i < length; i++) {
+            double decay = i > 40 ? Math.max(0.0, 3.0 - 0.02 * (i - 40)) : 0.05 * i;
+            samples[i] = decay + 0.1 * random.nextGaussian();
+        }
+        return samples;
+    }
+
+    @Test
+    public void testMeasureMatchesTimeSeriesPath() throws Exception {
+        for (long seed = 0; seed < 20; seed++) {
+            double[] samples = envelope(seed, 400);
+            double windowStart = BEGIN + 10.0 + seed;
+            double windowEnd = windowStart + 90.0;
+            double distance = 300.0;
+
+            VelocityPickKernel.Measurement measurement = kernel.measure(samples, 1.0, BEGIN, ORIGIN, distance, windowStart, windowEnd);
+
+            TimeSeries series = new TimeSeries(WaveformUtils.doublesToFloats(samples), 1.0, new TimeT(BEGIN));
+            series.cut(new TimeT(windowStart), new TimeT(windowEnd));
+            double[] peak = WaveformUtils.getMaxTime(series, new TimeT(ORIGIN));
+            double noise = WaveformUtils.getNoiseFloor(samples);
+
+            assertEquals(peak[0], measurement.getPeakTimeSecondsFromOrigin(), 1E-3);
+            assertEquals(peak[1], measurement.getPeakAmplitude(), 1E-6);
+            assertEquals(distance / peak[0], measurement.getVelocity(), 1E-3);
+            assertEquals(noise, measurement.getNoise(), 1E-9);
+            assertEquals(peak[1] - noise, measurement.getSnr(), 1E-6);
+        }
+    }
+
+    @Test
+    public void testNoiseFloorOfConstantStack() throws Exception {
+        double[] samples = new double[] { 2.0, 2.0, 2.0, 2.0 };
+        assertEquals(WaveformUtils.getNoiseFloor(samples), VelocityPickKernel.noiseFloor(samples, 2.0, 2.0), 1E-12);
+    }
+
+    @Test
+    public void testPickMatchesTimeSeriesPath() throws Exception {
+        CodaSNREndTimePicker picker = new CodaSNREndTimePicker();
+        double[] samples = envelope(7l, 400);
+        double noise = WaveformUtils.getNoiseFloor(samples);
+        double trim = BEGIN + 20.0;
+
+        double[] picks = kernel.pick(samples, 1.0, BEGIN, trim, 10.0, 300.0, 0.5, noise);
+
+        TimeSeries trimmed = new TimeSeries(WaveformUtils.doublesToFloats(samples), 1.0, new TimeT(BEGIN));
+        trimmed.cutBefore(new TimeT(trim));
+        trimmed.cutAfter(new TimeT(trim + 30.0));
+        double start = trim + trimmed.getMaxTime()[0];
+        TimeSeries segment = new TimeSeries(WaveformUtils.doublesToFloats(samples), 1.0, new TimeT(BEGIN));
+        double end = picker.getEndTime(segment.getData(), segment.getSamprate(), start, segment.getIndexForTime(start), 10.0, 300.0, 0.5, noise);
+
+        assertEquals(start, picks[0], 1E-3);
+        assertEquals(end, picks[1], 1E-3);
+    }
+}
@@ -23,10 +23,15 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import gov.llnl.gnem.apps.coda.calibration.gui.data.client.api.SpectraClient;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.PathBandStatistics;
+import gov.llnl.gnem.apps.coda.calibration.model.domain.SiteBandStatistics;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.Spectra;
 import gov.llnl.gnem.apps.coda.calibration.model.domain.SpectraMeasurement;
+import gov.llnl.gnem.apps.coda.calibration.service.api.MeasurementSummaryService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SharedFrequencyBandParametersService;
 import gov.llnl.gnem.apps.coda.calibration.service.api.SpectraMeasurementService;
+import gov.llnl.gnem.apps.coda.common.model.domain.FrequencyBand;
+import gov.llnl.gnem.apps.coda.common.model.domain.Project;
 import gov.llnl.gnem.apps.coda.common.model.util.PICK_TYPES;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -37,11 +42,13 @@ public class SpectraLocalClient implements SpectraClient {
 
     private SpectraMeasurementService service;
     private SharedFrequencyBandParametersService sharedParamsService;
+    private MeasurementSummaryService summaryService;
 
     @Autowired
-    public SpectraLocalClient(SpectraMeasurementService service, SharedFrequencyBandParametersService sharedParamsService) {
+    public SpectraLocalClient(SpectraMeasurementService service, SharedFrequencyBandParametersService sharedParamsService, MeasurementSummaryService summaryService) {
         this.service = service;
         this.sharedParamsService = sharedParamsService;
+        this.summaryService = summaryService;
     }
 
     @Override
@@ -54,6 +61,11 @@ public class SpectraLocalClient implements SpectraClient {
         return Flux.fromIterable(service.findAllMetadataOnly()).map(md -> new SpectraMeasurement(md)).onErrorReturn(new SpectraMeasurement());
     }
 
+    @Override
+    public Flux<SpectraMeasurement> getMeasuredSpectraMetadata(FrequencyBand frequencyBand, List<String> stationNames) {
+        return Flux.fromIterable(service.findAllMetadataOnly(Project.DEFAULT_PROJECT_ID, frequencyBand, stationNames)).map(md -> new SpectraMeasurement(md)).onErrorReturn(new SpectraMeasurement());
+    }
+
     @Override
     public Mono<Spectra> getReferenceSpectra(String eventId) {
         //FIXME: Use the calibrations phase for this!
@@ -67,4 +79,14 @@ public class SpectraLocalClient implements SpectraClient {
         return Mono.just(Optional.ofNullable(service.getFitSpectraForEventId(eventId, sharedParamsService.getFrequencyBands(), PICK_TYPES.LG)).orElseGet(ArrayList::new))
                    .onErrorReturn(new ArrayList<>());
     }
+
+    @Override
+    public Flux<PathBandStatistics> getPathStatistics() {
+        return Flux.fromIterable(summaryService.getPathStatistics()).onErrorReturn(new PathBandStatistics());
+    }
+
+    @Override
+    public Flux<SiteBandStatistics> getSiteStatistics() {
+        return Flux.fromIterable(summaryService.getSiteStatistics()).onErrorReturn(new SiteBandStatistics());
+    }
 }
@@ -75,6 +75,11 @@ public class WaveformLocalClient implements WaveformClient {
         return Flux.fromIterable(service.getAllActiveStacks()).onErrorReturn(new Waveform());
     }
 
+    @Override
+    public Flux<Long> getAllActiveStackIds() {
+        return Flux.fromIterable(service.getAllActiveStackIds());
+    }
+
     @Override
     public Flux<Waveform> getUniqueEventStationMetadataForStacks() {
         return Flux.fromIterable(service.getUniqueEventStationStacks());
@@ -0,0 +1,74 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.calibration.standalone.data.importer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import gov.llnl.gnem.apps.coda.calibration.gui.converters.api.FileToParameterConverter;
+import gov.llnl.gnem.apps.coda.calibration.gui.converters.api.FileToReferenceEventConverter;
+import gov.llnl.gnem.apps.coda.calibration.service.api.ProjectFileParser;
+import gov.llnl.gnem.apps.coda.common.gui.converters.api.FileToEnvelopeConverter;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+
+/**
+ * Exposes the envelope, parameter and reference event file converters the
+ * GUI uses for loading to the server side project import.
+ */
+@Component
+public class ConverterProjectFileParser implements ProjectFileParser {
+
+    private static final Duration PARSE_TIMEOUT = Duration.ofMinutes(5l);
+
+    private List<FileToEnvelopeConverter> envelopeConverters;
+    private List<FileToParameterConverter<?>> parameterConverters;
+    private List<FileToReferenceEventConverter> referenceEventConverters;
+
+    @Autowired
+    public ConverterProjectFileParser(List<FileToEnvelopeConverter> envelopeConverters, List<FileToParameterConverter<?>> parameterConverters,
+            List<FileToReferenceEventConverter> referenceEventConverters) {
+        this.envelopeConverters = envelopeConverters;
+        this.parameterConverters = parameterConverters;
+        this.referenceEventConverters = referenceEventConverters;
+    }
+
+    @Override
+    public boolean canParse(Path file) {
+        return envelopeConverters.stream().anyMatch(c -> c.getMatchingPattern().matches(file))
+                || parameterConverters.stream().anyMatch(c -> c.getMatchingPattern().matches(file))
+                || referenceEventConverters.stream().anyMatch(c -> c.getMatchingPattern().matches(file));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Result<Object>> parse(Path file) {
+        List<Result<Object>> results = new ArrayList<>();
+        envelopeConverters.stream()
+                          .filter(c -> c.getMatchingPattern().matches(file))
+                          .forEach(c -> c.convertFile(file.toFile()).map(r -> (Result<Object>) (Result<?>) r).blockOptional(PARSE_TIMEOUT).ifPresent(results::add));
+        parameterConverters.stream()
+                           .filter(c -> c.getMatchingPattern().matches(file))
+                           .forEach(c -> results.addAll(c.convertFile(file.toFile()).map(r -> (Result<Object>) (Result<?>) r).collectList().block(PARSE_TIMEOUT)));
+        referenceEventConverters.stream()
+                                .filter(c -> c.getMatchingPattern().matches(file))
+                                .forEach(c -> results.addAll(c.convertFile(file.toFile()).map(r -> (Result<Object>) (Result<?>) r).collectList().block(PARSE_TIMEOUT)));
+        return results;
+    }
+}
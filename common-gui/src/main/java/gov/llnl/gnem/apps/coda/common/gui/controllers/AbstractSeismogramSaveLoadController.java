@@ -25,6 +25,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -34,9 +35,11 @@ import org.slf4j.Logger;
 import com.google.common.eventbus.EventBus;
 
 import gov.llnl.gnem.apps.coda.common.gui.converters.api.FileToSeismogramConverter;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacBulkExporter;
 import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacExporter;
 import gov.llnl.gnem.apps.coda.common.gui.events.EnvelopeLoadStartingEvent;
 import gov.llnl.gnem.apps.coda.common.gui.events.ShowFailureReportEvent;
+import gov.llnl.gnem.apps.coda.common.gui.util.ProgressAccumulator;
 import gov.llnl.gnem.apps.coda.common.gui.util.ProgressEventProgressListener;
 import gov.llnl.gnem.apps.coda.common.gui.util.ProgressMonitor;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
@@ -54,6 +57,10 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
 
     protected Supplier<Flux<Waveform>> saveClient;
 
+    protected Supplier<Flux<Long>> saveIdClient;
+
+    protected Function<List<Long>, Flux<Waveform>> savePageClient;
+
     protected BiFunction<Long, List<Waveform>, Flux<R>> loadClient;
 
     protected int maxBatching = 20;
@@ -66,11 +73,13 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
 
     protected SacExporter sacExporter;
 
+    protected SacBulkExporter sacBulkExporter;
+
     private Logger log;
 
     private Runnable completionCallback = null;
 
-    public AbstractSeismogramSaveLoadController(List<FC> fileConverters, EventBus bus, Logger log, SacExporter sacExporter, Supplier<Flux<Waveform>> saveClient,
+    public AbstractSeismogramSaveLoadController(List<FC> fileConverters, EventBus bus, Logger log, SacExporter sacExporter, SacBulkExporter sacBulkExporter, Supplier<Flux<Waveform>> saveClient,
             BiFunction<Long, List<Waveform>, Flux<R>> loadClient) {
         super();
         this.fileConverters = fileConverters;
@@ -79,32 +88,53 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
         this.bus = bus;
         this.log = log;
         this.sacExporter = sacExporter;
+        this.sacBulkExporter = sacBulkExporter;
+    }
+
+    /**
+     * As {@link #AbstractSeismogramSaveLoadController(List, EventBus, Logger, SacExporter, SacBulkExporter, Supplier, BiFunction)}
+     * but exports look up the ids to save first and then load the full
+     * waveforms one page of ids at a time through savePageClient.
+     */
+    public AbstractSeismogramSaveLoadController(List<FC> fileConverters, EventBus bus, Logger log, SacExporter sacExporter, SacBulkExporter sacBulkExporter, Supplier<Flux<Long>> saveIdClient,
+            Function<List<Long>, Flux<Waveform>> savePageClient, BiFunction<Long, List<Waveform>, Flux<R>> loadClient) {
+        this(fileConverters, bus, log, sacExporter, sacBulkExporter, (Supplier<Flux<Waveform>>) null, loadClient);
+        this.saveIdClient = saveIdClient;
+        this.savePageClient = savePageClient;
     }
 
     public void saveToDirectory(File exportDirectory) {
+        if (exportDirectory.isDirectory() && exportDirectory.canWrite()) {
+            save(waveforms -> sacBulkExporter.exportToDirectory(waveforms, exportDirectory));
+        }
+    }
+
+    public void saveToArchive(File archive) {
+        save(waveforms -> sacBulkExporter.exportToZip(waveforms, archive));
+    }
+
+    private void save(Function<Flux<Waveform>, Result<List<String>>> exporter) {
         CompletableFuture.runAsync(() -> {
             try {
-                if (exportDirectory.isDirectory() && exportDirectory.canWrite()) {
-                    Progress fileProcessingProgress = new Progress(0l, 0l);
-                    ProgressEvent processingProgressEvent = new ProgressEvent(idCounter.getAndIncrement(), fileProcessingProgress);
-                    ProgressMonitor processingMonitor = new ProgressMonitor("Exporting", new ProgressEventProgressListener(bus, processingProgressEvent));
-
-                    try {
-                        ProgressGui progressGui = new ProgressGui();
-                        progressGui.show();
-                        progressGui.addProgressMonitor(processingMonitor);
-                        fileProcessingProgress.setTotal(1l);
-                        bus.post(processingProgressEvent);
-
-                        saveClient.get().doOnComplete(() -> {
-                            fileProcessingProgress.setCurrent(1l);
-                            bus.post(processingProgressEvent);
-                        }).filter(w -> w != null).filter(w -> w.getId() != null).subscribe(w -> {
-                            sacExporter.writeWaveformToDirectory(exportDirectory, w);
-                        });
-                    } catch (RuntimeException e) {
-                        log.error(e.getMessage(), e);
+                Progress fileProcessingProgress = new Progress(0l, 0l);
+                ProgressEvent processingProgressEvent = new ProgressEvent(idCounter.getAndIncrement(), fileProcessingProgress);
+                ProgressMonitor processingMonitor = new ProgressMonitor("Exporting", new ProgressEventProgressListener(bus, processingProgressEvent));
+
+                try {
+                    ProgressGui progressGui = new ProgressGui();
+                    progressGui.show();
+                    progressGui.addProgressMonitor(processingMonitor);
+                    fileProcessingProgress.setTotal(1l);
+                    bus.post(processingProgressEvent);
+
+                    Result<List<String>> result = exporter.apply(waveformsToSave().filter(w -> w != null).filter(w -> w.getId() != null));
+                    if (!result.isSuccess()) {
+                        log.warn("Exported {} waveforms with {} errors", result.getResultPayload().map(List::size).orElse(0), result.getErrors().size());
                     }
+                    fileProcessingProgress.setCurrent(1l);
+                    bus.post(processingProgressEvent);
+                } catch (RuntimeException e) {
+                    log.error(e.getMessage(), e);
                 }
             } catch (IllegalStateException e) {
                 log.error("Unable to instantiate saving progress display {}", e.getMessage(), e);
@@ -112,6 +142,13 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
         });
     }
 
+    private Flux<Waveform> waveformsToSave() {
+        if (saveIdClient != null && savePageClient != null) {
+            return saveIdClient.get().filter(id -> id != null).collectList().flatMapMany(ids -> sacBulkExporter.pagedByIds(ids, savePageClient));
+        }
+        return saveClient.get();
+    }
+
     public void loadFiles(List<File> inputFiles) {
         loadFiles(inputFiles, this.getCompletionCallback());
     }
@@ -141,7 +178,8 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
                     processingFailedMonitor.addEventFilter(MouseEvent.MOUSE_CLICKED, e -> bus.post(new ShowFailureReportEvent()));
                     Platform.runLater(() -> processingFailedMonitor.getProgressBar().getStyleClass().add("red-bar"));
 
-                    try {
+                    try (ProgressAccumulator processed = new ProgressAccumulator(bus, processingProgressEvent);
+                            ProgressAccumulator failed = new ProgressAccumulator(bus, processingFailedProgressEvent)) {
                         ProgressGui progressGui = new ProgressGui();
                         progressGui.show();
                         progressGui.addProgressMonitor(processingMonitor);
@@ -153,11 +191,9 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
                             }
                         }
 
-                        fileProcessingProgress.setTotal(Integer.toUnsignedLong(files.size()));
-                        bus.post(processingProgressEvent);
-
-                        fileFailedProgress.setTotal(0l);
-                        bus.post(processingFailedProgressEvent);
+                        processed.addTotal(files.size());
+                        processed.post();
+                        failed.post();
 
                         fileConverters.parallelStream().forEach(fileConverter -> fileConverter.convertFiles(files).buffer(maxBatching, ArrayList::new).doOnNext(results -> {
                             try {
@@ -166,20 +202,19 @@ public abstract class AbstractSeismogramSaveLoadController<FC extends FileToSeis
 
                                 loadClient.apply(idCounter.getAndIncrement(), successfulResults).retry(3).blockLast(Duration.ofHours(1l));
 
-                                fileProcessingProgress.setCurrent(fileProcessingProgress.getCurrent() + successfulResults.size());
-
-                                bus.post(processingProgressEvent);
+                                processed.add(successfulResults.size());
                                 if (failedResults.size() > 0) {
-                                    fileProcessingProgress.setTotal(fileProcessingProgress.getTotal() - failedResults.size());
-                                    fileFailedProgress.setTotal(fileFailedProgress.getTotal() + failedResults.size());
-                                    fileFailedProgress.setCurrent(fileFailedProgress.getCurrent() + failedResults.size());
-                                    bus.post(processingFailedProgressEvent);
+                                    processed.addTotal(-failedResults.size());
+                                    failed.addTotal(failedResults.size());
+                                    failed.add(failedResults.size());
                                     failedResults.forEach(r -> bus.post(new PassFailEvent(LOCAL_FAIL_EVENT, "", r)));
                                 }
                             } catch (RuntimeException ex) {
                                 log.trace(ex.getMessage(), ex);
                             }
                         }).blockLast(Duration.ofHours(1l)));
+                        processed.post();
+                        failed.post();
 
                         if (completionCallback != null) {
                             completionCallback.run();
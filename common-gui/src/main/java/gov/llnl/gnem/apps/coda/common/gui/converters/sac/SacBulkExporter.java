@@ -0,0 +1,207 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.gui.converters.sac;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import reactor.core.publisher.Flux;
+
+/**
+ * Writes large numbers of waveforms as SAC files, either into directories or
+ * into a single zip archive. Waveforms are pulled from the source a page at a
+ * time and encoded and written on a small pool of writer threads; at most a
+ * few pages are ever held in memory at once.
+ */
+@Component
+public class SacBulkExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(SacBulkExporter.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private SacExporter sacExporter;
+
+    private ExecutorService writers;
+
+    private int writerThreads;
+
+    @Value("${sac.export.page-size:200}")
+    private int pageSize = 200;
+
+    @Autowired
+    public SacBulkExporter(SacExporter sacExporter, @Value("${sac.export.writer-threads:4}") int writerThreads) {
+        this.sacExporter = sacExporter;
+        this.writerThreads = Math.max(1, writerThreads);
+        this.writers = new ThreadPoolExecutor(this.writerThreads, this.writerThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("SAC Export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ((ThreadPoolExecutor) writers).allowCoreThreadTimeOut(true);
+    }
+
+    public SacBulkExporter setPageSize(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        return this;
+    }
+
+    /**
+     * Streams the waveforms for a list of ids through the given loader one
+     * page of ids at a time.
+     */
+    public Flux<Waveform> pagedByIds(List<Long> ids, Function<List<Long>, Flux<Waveform>> loader) {
+        return Flux.fromIterable(Lists.partition(ids, pageSize)).concatMap(loader::apply, 1);
+    }
+
+    public Result<List<String>> exportToDirectory(Flux<Waveform> waveforms, File exportDirectory) {
+        return exportToDirectories(waveforms, w -> exportDirectory);
+    }
+
+    public Result<List<String>> exportToDirectories(Flux<Waveform> waveforms, Function<Waveform, File> directoryFor) {
+        return export(waveforms, (w, filename, buffer) -> {
+            try (FileChannel channel = FileChannel.open(directoryFor.apply(w).toPath().resolve(filename), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes every waveform as an entry of a new zip archive. Entries are
+     * encoded in parallel but appended to the archive one at a time.
+     */
+    public Result<List<String>> exportToZip(Flux<Waveform> waveforms, File archive) {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+            zip.setLevel(Deflater.BEST_SPEED);
+            WritableByteChannel channel = Channels.newChannel(zip);
+            return export(waveforms, (w, filename, buffer) -> {
+                // Encoding buffers belong to the writer thread so the copy
+                // into the archive has to happen while holding the lock.
+                synchronized (zip) {
+                    zip.putNextEntry(new ZipEntry(filename));
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    zip.closeEntry();
+                }
+            });
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            return new Result<List<String>>(false, Collections.emptyList()).setErrors(Collections.singletonList(e));
+        }
+    }
+
+    private Result<List<String>> export(Flux<Waveform> waveforms, SacWriter writer) {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong failures = new AtomicLong();
+        // Bounds the waveforms that have been pulled from the source but not
+        // yet written. Work always runs on the writer threads, never on the
+        // caller, so encoding buffers stay on the short-lived pool threads.
+        int maxInFlight = writerThreads * 4;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try {
+            for (Waveform w : waveforms.filter(w -> w != null).toIterable(pageSize)) {
+                inFlight.acquire();
+                try {
+                    writers.execute(() -> {
+                        try {
+                            write(w, writer, written, errors, failures);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError(errors, failures, e);
+        } catch (RuntimeException e) {
+            log.error("Unable to read waveforms for export: {}", e.getMessage(), e);
+            addError(errors, failures, e);
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+
+        if (failures.get() > MAX_REPORTED_ERRORS) {
+            log.warn("{} waveforms failed to export; only reporting the first {}", failures.get(), MAX_REPORTED_ERRORS);
+        }
+        return new Result<>(failures.get() == 0, new ArrayList<>(errors), new ArrayList<>(written));
+    }
+
+    private void addError(List<Exception> errors, AtomicLong failures, Exception e) {
+        if (failures.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+            errors.add(e);
+        }
+    }
+
+    private void write(Waveform w, SacWriter writer, List<String> written, List<Exception> errors, AtomicLong failures) {
+        String filename = sacExporter.getFileName(w);
+        if (filename == null || filename.trim().isEmpty()) {
+            String message = "Waveform is missing required information or is malformed; waveform: " + w;
+            log.error(message);
+            addError(errors, failures, new IllegalArgumentException(message));
+            return;
+        }
+        try {
+            writer.write(w, filename, sacExporter.encode(w));
+            written.add(filename);
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to export {}: {}", filename, e.getMessage(), e);
+            addError(errors, failures, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SacWriter {
+        void write(Waveform w, String filename, ByteBuffer buffer) throws IOException;
+    }
+}
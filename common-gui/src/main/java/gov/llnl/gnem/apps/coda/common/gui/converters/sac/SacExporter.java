@@ -14,11 +14,13 @@
 */
 package gov.llnl.gnem.apps.coda.common.gui.converters.sac;
 
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.NumberFormat;
 import java.util.Collections;
 import java.util.Locale;
@@ -42,68 +44,21 @@ import llnl.gnem.core.util.TimeT;
 @Component
 public class SacExporter {
     private static final String SEP = "_";
+    private static final int SAC_HEADER_BYTES = 632;
     private static final Logger log = LoggerFactory.getLogger(SacExporter.class);
+    private static final ThreadLocal<ByteBuffer> ENCODING_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(SAC_HEADER_BYTES + 4 * 4096));
 
     public Result<String> writeWaveformToDirectory(File exportDirectory, Waveform w) {
         String filename = getFileName(w);
         if (filename != null && !filename.trim().isEmpty()) {
-            try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(exportDirectory.toPath().resolve(filename))))) {
-                try (SACHeader header = new SACHeader()) {
-                    header.setTime(new TimeT(w.getEvent().getOriginTime()));
-                    header.setBeginTime(new TimeT(w.getBeginTime()));
-                    header.setOriginTime(new TimeT(w.getEvent().getOriginTime()));
-
-                    header.nevid = Integer.parseInt(w.getEvent().getEventId());
-                    if (w.getAssociatedPicks() != null) {
-                        for (int i = 0; i < w.getAssociatedPicks().size() && i <= 10; i++) {
-                            try {
-                                WaveformPick pick = w.getAssociatedPicks().get(i);
-                                if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.F.getPhase())) {
-                                    header.f = pick.getPickTimeSecFromOrigin();
-                                } else if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.A.getPhase())) {
-                                    header.a = pick.getPickTimeSecFromOrigin();
-                                } else if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.B.getPhase())) {
-                                    header.b = pick.getPickTimeSecFromOrigin();
-                                } else if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.O.getPhase())) {
-                                    header.o = pick.getPickTimeSecFromOrigin();
-                                } else {
-                                    header.setTimePick(i, pick.getPickTimeSecFromOrigin(), pick.getPickName());
-                                }
-                            } catch (RuntimeException e) {
-                                log.error(e.getMessage(), e);
-                            }
-                        }
+            try {
+                ByteBuffer buffer = encode(w);
+                try (FileChannel channel = FileChannel.open(exportDirectory.toPath().resolve(filename), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
                     }
-
-                    header.delta = (float) (1.0 / w.getSampleRate());
-                    header.kstnm = w.getStream().getStation().getStationName();
-                    header.kcmpnm = w.getStream().getChannelName();
-                    header.stla = (float) w.getStream().getStation().getLatitude();
-                    header.stlo = (float) w.getStream().getStation().getLongitude();
-                    header.knetwk = w.getStream().getStation().getNetworkName();
-                    header.kevnm = w.getEvent().getEventId();
-                    header.evla = (float) w.getEvent().getLatitude();
-                    header.evlo = (float) w.getEvent().getLongitude();
-                    String depType = w.getSegmentType();
-                    if (depType != null && !depType.trim().isEmpty()) {
-                        if (depType.toLowerCase(Locale.ENGLISH).startsWith("dis")) {
-                            header.idep = 6;
-                        } else if (depType.toLowerCase(Locale.ENGLISH).startsWith("vel")) {
-                            header.idep = 7;
-                        } else if (depType.toLowerCase(Locale.ENGLISH).startsWith("acc")) {
-                            header.idep = 8;
-                        }
-                    }
-                    float[] sequence = new Sequence(w.getSegment()).getArray();
-                    header.npts = sequence.length;
-                    header.write(os);
-                    for (int i = 0; i < sequence.length; i++) {
-                        os.writeFloat(sequence[i]);
-                    }
-                    os.flush();
-
-                    return new Result<>(true, filename);
                 }
+                return new Result<>(true, filename);
             } catch (IOException e) {
                 log.error(e.getMessage(), e);
                 return new Result<>(false, e.toString()).setErrors(Collections.singletonList(e));
@@ -115,6 +70,88 @@ public class SacExporter {
         return new Result<>(false, message);
     }
 
+    /**
+     * Encodes the header and samples of a waveform as a big-endian SAC file.
+     * The returned buffer is flipped and ready to be written but belongs to
+     * the calling thread and is overwritten by its next call to this method.
+     */
+    public ByteBuffer encode(Waveform w) throws IOException {
+        float[] sequence = new Sequence(w.getSegment()).getArray();
+        ByteBuffer buffer = encodingBuffer(SAC_HEADER_BYTES + 4 * sequence.length);
+
+        try (SACHeader header = createHeader(w)) {
+            header.npts = sequence.length;
+            ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(SAC_HEADER_BYTES);
+            header.write(new DataOutputStream(headerBytes));
+            buffer.put(headerBytes.toByteArray());
+        }
+
+        buffer.asFloatBuffer().put(sequence);
+        buffer.position(buffer.position() + 4 * sequence.length);
+        buffer.flip();
+        return buffer;
+    }
+
+    private ByteBuffer encodingBuffer(int size) {
+        ByteBuffer buffer = ENCODING_BUFFER.get();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(size - 1) << 1);
+            ENCODING_BUFFER.set(buffer);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private SACHeader createHeader(Waveform w) {
+        SACHeader header = new SACHeader();
+        header.setTime(new TimeT(w.getEvent().getOriginTime()));
+        header.setBeginTime(new TimeT(w.getBeginTime()));
+        header.setOriginTime(new TimeT(w.getEvent().getOriginTime()));
+
+        header.nevid = Integer.parseInt(w.getEvent().getEventId());
+        if (w.getAssociatedPicks() != null) {
+            for (int i = 0; i < w.getAssociatedPicks().size() && i <= 10; i++) {
+                try {
+                    WaveformPick pick = w.getAssociatedPicks().get(i);
+                    if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.F.getPhase())) {
+                        header.f = pick.getPickTimeSecFromOrigin();
+                    } else if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.A.getPhase())) {
+                        header.a = pick.getPickTimeSecFromOrigin();
+                    } else if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.B.getPhase())) {
+                        header.b = pick.getPickTimeSecFromOrigin();
+                    } else if (pick.getPickType().equalsIgnoreCase(PICK_TYPES.O.getPhase())) {
+                        header.o = pick.getPickTimeSecFromOrigin();
+                    } else {
+                        header.setTimePick(i, pick.getPickTimeSecFromOrigin(), pick.getPickName());
+                    }
+                } catch (RuntimeException e) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+        }
+
+        header.delta = (float) (1.0 / w.getSampleRate());
+        header.kstnm = w.getStream().getStation().getStationName();
+        header.kcmpnm = w.getStream().getChannelName();
+        header.stla = (float) w.getStream().getStation().getLatitude();
+        header.stlo = (float) w.getStream().getStation().getLongitude();
+        header.knetwk = w.getStream().getStation().getNetworkName();
+        header.kevnm = w.getEvent().getEventId();
+        header.evla = (float) w.getEvent().getLatitude();
+        header.evlo = (float) w.getEvent().getLongitude();
+        String depType = w.getSegmentType();
+        if (depType != null && !depType.trim().isEmpty()) {
+            if (depType.toLowerCase(Locale.ENGLISH).startsWith("dis")) {
+                header.idep = 6;
+            } else if (depType.toLowerCase(Locale.ENGLISH).startsWith("vel")) {
+                header.idep = 7;
+            } else if (depType.toLowerCase(Locale.ENGLISH).startsWith("acc")) {
+                header.idep = 8;
+            }
+        }
+        return header;
+    }
+
     private boolean waveformFullySpecified(Waveform w) {
         return w != null
                 && w.getLowFrequency() != null
@@ -21,6 +21,7 @@ import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -115,18 +116,7 @@ public class SacLoader implements FileToWaveformConverter {
                 return exceptionalResult(new LightweightIllegalStateException("Both reference time and origin time may not be null!"));
             }
 
-            String evid = null;
-            headerResult = validateHeaderDefined(fileName, "KEVNM", header.kevnm);
-            if (headerResult.isSuccess() && !headerResult.getResultPayload().orElse("").trim().isEmpty() && headerResult.getResultPayload().orElse("").trim().matches("[0-9]*")) {
-                evid = headerResult.getResultPayload().orElse("");
-            } else {
-                headerResult = validateHeaderDefined(fileName, "NEVID", header.nevid);
-                if (headerResult.isSuccess() && !headerResult.getResultPayload().orElse("0").equals("0")) {
-                    evid = headerResult.getResultPayload().get();
-                } else {
-                    evid = getOrCreateEvid(header);
-                }
-            }
+            String evid = getEventId(fileName, header);
 
             headerResult = validateHeaderDefined(fileName, "KCMPNM", header.kcmpnm);
             if (!headerResult.isSuccess()) {
@@ -254,6 +244,43 @@ public class SacLoader implements FileToWaveformConverter {
         }
     }
 
+    /**
+     * Reads only the header of the file so callers can group files by event
+     * before loading any samples.
+     *
+     * @return the event id {@link #convertSacFileToWaveform(File)} would assign
+     *         to the file
+     */
+    public Result<String> readEventId(File file) {
+        if (file == null) {
+            return new Result<>(false, new ArrayList<>(Collections.singletonList(new LightweightIllegalStateException("Error parsing (NULL): File reference is null"))), null);
+        }
+        String fileName = file.getPath();
+        try (SACHeader header = new SACHeader(file)) {
+            return new Result<>(true, getEventId(fileName, header));
+        } catch (IllegalStateException | IOException e) {
+            return new Result<>(false,
+                                new ArrayList<>(Collections.singletonList(new LightweightIllegalStateException(String.format("Error parsing (%s): file does not exist or is unreadable. %s", fileName, e.getMessage()), e))),
+                                null);
+        }
+    }
+
+    private String getEventId(String fileName, SACHeader header) {
+        String evid;
+        Result<String> headerResult = validateHeaderDefined(fileName, "KEVNM", header.kevnm);
+        if (headerResult.isSuccess() && !headerResult.getResultPayload().orElse("").trim().isEmpty() && headerResult.getResultPayload().orElse("").trim().matches("[0-9]*")) {
+            evid = headerResult.getResultPayload().orElse("");
+        } else {
+            headerResult = validateHeaderDefined(fileName, "NEVID", header.nevid);
+            if (headerResult.isSuccess() && !headerResult.getResultPayload().orElse("0").equals("0")) {
+                evid = headerResult.getResultPayload().get();
+            } else {
+                evid = getOrCreateEvid(header);
+            }
+        }
+        return evid;
+    }
+
     private List<WaveformPick> getPicksFromHeader(SACHeader header) {
         List<WaveformPick> associatedPicks = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
@@ -0,0 +1,127 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.gui.data.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.events.WaveformMetadataChangeEvent;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
+
+/**
+ * Gathers the {@link WaveformChangeEvent}s pushed by the service for a short
+ * window, fetches the metadata for every changed id with one request and
+ * posts the result as a single {@link WaveformMetadataChangeEvent}. Windows
+ * are flushed one at a time so the batches arrive in order.
+ */
+@Component
+public class WaveformChangeCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(WaveformChangeCoalescer.class);
+
+    private final WaveformClient client;
+    private final EventBus bus;
+    private final long windowMillis;
+
+    private final Set<Long> updatedIds = new LinkedHashSet<>();
+    private final Set<Long> deletedIds = new LinkedHashSet<>();
+    private boolean flushPending = false;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setName("Waveform-Change-Coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public WaveformChangeCoalescer(WaveformClient client, EventBus bus, @Value("${waveform.change.coalesce-millis:250}") long windowMillis) {
+        this.client = client;
+        this.bus = bus;
+        this.windowMillis = windowMillis;
+        bus.register(this);
+    }
+
+    @Subscribe
+    private void listener(WaveformChangeEvent wce) {
+        synchronized (this) {
+            wce.getIds().stream().filter(Objects::nonNull).forEach(id -> {
+                if (wce.isAddOrUpdate()) {
+                    deletedIds.remove(id);
+                    updatedIds.add(id);
+                } else if (wce.isDelete()) {
+                    updatedIds.remove(id);
+                    deletedIds.add(id);
+                }
+            });
+            if (!flushPending && (!updatedIds.isEmpty() || !deletedIds.isEmpty())) {
+                flushPending = true;
+                timer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        List<Long> updates;
+        List<Long> deletes;
+        synchronized (this) {
+            updates = new ArrayList<>(updatedIds);
+            deletes = new ArrayList<>(deletedIds);
+            updatedIds.clear();
+            deletedIds.clear();
+            flushPending = false;
+        }
+
+        List<Waveform> metadata = new ArrayList<>();
+        if (!updates.isEmpty()) {
+            try {
+                List<Waveform> fetched = client.getWaveformMetadataFromIds(updates).filter(Objects::nonNull).collectList().block(Duration.ofSeconds(30l));
+                if (fetched != null) {
+                    metadata.addAll(fetched);
+                }
+            } catch (RuntimeException e) {
+                log.error("Unable to fetch metadata for {} changed waveforms: {}", updates.size(), e.getMessage(), e);
+            }
+        }
+        if (!metadata.isEmpty() || !deletes.isEmpty()) {
+            bus.post(new WaveformMetadataChangeEvent(metadata, deletes));
+        }
+    }
+
+    @PreDestroy
+    private void cleanup() {
+        timer.shutdownNow();
+    }
+}
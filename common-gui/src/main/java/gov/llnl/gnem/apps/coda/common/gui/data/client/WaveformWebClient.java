@@ -99,6 +99,16 @@ public class WaveformWebClient implements WaveformClient {
                      .onErrorReturn(new Waveform());
     }
 
+    @Override
+    public Flux<Long> getAllActiveStackIds() {
+        return client.get()
+                     .uri("/waveforms/query/active-stack-ids")
+                     .accept(MediaType.APPLICATION_JSON)
+                     .exchange()
+                     .flatMapMany(response -> response.bodyToFlux(Long.class))
+                     .doOnError(e -> log.error(e.getMessage(), e));
+    }
+
     @Override
     public Flux<Waveform> getUniqueEventStationMetadataForStacks() {
         return client.get()
@@ -42,6 +42,8 @@ public interface WaveformClient {
 
     public Flux<Waveform> getAllActiveStacks();
 
+    public Flux<Long> getAllActiveStackIds();
+
     public Flux<String> postWaveforms(Long sessionId, List<Waveform> segments);
 
     public Flux<Waveform> getUniqueEventStationMetadataForStacks();
@@ -0,0 +1,50 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.gui.events;
+
+import java.util.Collections;
+import java.util.List;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+
+/**
+ * All of the waveform changes received from the service over one coalescing
+ * window, with the metadata of the added or updated waveforms already
+ * fetched.
+ */
+public class WaveformMetadataChangeEvent {
+    private List<Waveform> updated;
+    private List<Long> deletedIds;
+
+    public WaveformMetadataChangeEvent(List<Waveform> updated, List<Long> deletedIds) {
+        this.updated = updated != null ? updated : Collections.emptyList();
+        this.deletedIds = deletedIds != null ? deletedIds : Collections.emptyList();
+    }
+
+    public List<Waveform> getUpdated() {
+        return updated;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("WaveformMetadataChangeEvent [updated=").append(updated.size()).append(", deletedIds=").append(deletedIds.size()).append(']');
+        return builder.toString();
+    }
+}
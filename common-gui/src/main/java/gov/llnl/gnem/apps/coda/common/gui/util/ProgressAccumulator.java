@@ -0,0 +1,110 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.gui.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.eventbus.EventBus;
+
+import gov.llnl.gnem.apps.coda.common.model.messaging.Progress;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent;
+
+/**
+ * Counts progress from any number of worker threads and posts the given
+ * {@link ProgressEvent} at a fixed rate while the count is changing, instead
+ * of every worker posting to the bus itself. Closing posts the final count.
+ */
+public class ProgressAccumulator implements AutoCloseable {
+
+    public static final long DEFAULT_PERIOD_MILLIS = 250l;
+
+    private static final ScheduledExecutorService poster = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setName("Progress-Poster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final EventBus bus;
+    private final ProgressEvent event;
+    private final LongAdder total = new LongAdder();
+    private final LongAdder current = new LongAdder();
+    private final long started = System.nanoTime();
+    private final ScheduledFuture<?> schedule;
+    private long lastTotal = -1l;
+    private long lastCurrent = -1l;
+
+    public ProgressAccumulator(EventBus bus, ProgressEvent event) {
+        this(bus, event, DEFAULT_PERIOD_MILLIS);
+    }
+
+    public ProgressAccumulator(EventBus bus, ProgressEvent event, long periodMillis) {
+        this.bus = bus;
+        this.event = event;
+        this.schedule = poster.scheduleAtFixedRate(this::post, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public ProgressAccumulator addTotal(long items) {
+        total.add(items);
+        return this;
+    }
+
+    public void increment() {
+        current.increment();
+    }
+
+    public void add(long items) {
+        current.add(items);
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getCurrent() {
+        return current.sum();
+    }
+
+    /**
+     * Posts the current count now if it changed since the last post.
+     */
+    public synchronized void post() {
+        long totalNow = total.sum();
+        long currentNow = current.sum();
+        if (totalNow != lastTotal || currentNow != lastCurrent) {
+            lastTotal = totalNow;
+            lastCurrent = currentNow;
+            Progress progress = new Progress(totalNow, currentNow);
+            double seconds = (System.nanoTime() - started) / 1.0e9;
+            if (seconds > 0.0 && currentNow > 0) {
+                double rate = currentNow / seconds;
+                progress.setRate(rate);
+                progress.setEtaSeconds(currentNow >= totalNow ? 0l : (long) Math.ceil((totalNow - currentNow) / rate));
+            }
+            event.setProgress(progress);
+            bus.post(event);
+        }
+    }
+
+    @Override
+    public void close() {
+        schedule.cancel(false);
+        post();
+    }
+}
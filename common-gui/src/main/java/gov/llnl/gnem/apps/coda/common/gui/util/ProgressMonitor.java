@@ -38,6 +38,7 @@ public class ProgressMonitor extends VBox implements Observer {
 
     private String displayableName;
     private String progressStage;
+    private volatile Progress lastProgress;
 
     public ProgressMonitor(String displayableName, ProgressListener progressListener) {
         this.displayableName = displayableName;
@@ -68,9 +69,10 @@ public class ProgressMonitor extends VBox implements Observer {
     public void update(Observable o, Object event) {
         if (event instanceof Progress) {
             Progress progress = (Progress) event;
+            lastProgress = progress;
             Platform.runLater(() -> {
                 if (progress.getTotal() >= 0.0) {
-                    label.setText(progress.getCurrent() + "/" + progress.getTotal() + getProgressStage());
+                    label.setText(progress.getCurrent() + "/" + progress.getTotal() + getRate(progress) + getProgressStage());
                     progressBar.setProgress(progress.getProgress());
                 } else {
                     progressBar.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
@@ -80,6 +82,18 @@ public class ProgressMonitor extends VBox implements Observer {
         }
     }
 
+    private String getRate(Progress progress) {
+        if (progress.getRate() == null) {
+            return "";
+        }
+        StringBuilder rate = new StringBuilder(String.format(" (%.1f/s", progress.getRate()));
+        if (progress.getEtaSeconds() != null && progress.getEtaSeconds() > 0) {
+            long eta = progress.getEtaSeconds();
+            rate.append(String.format(", ETA %d:%02d", eta / 60, eta % 60));
+        }
+        return rate.append(')').toString();
+    }
+
     private String getProgressStage() {
         if (progressStage.isEmpty()) {
             return progressStage;
@@ -94,6 +108,10 @@ public class ProgressMonitor extends VBox implements Observer {
 
     public ProgressMonitor setProgressStage(String progressStage) {
         this.progressStage = progressStage;
+        Progress progress = lastProgress;
+        if (progress != null) {
+            update(null, progress);
+        }
         return this;
     }
 
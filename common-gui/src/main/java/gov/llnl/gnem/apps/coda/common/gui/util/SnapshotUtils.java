@@ -21,6 +21,10 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.imageio.ImageIO;
 
@@ -37,6 +41,21 @@ import javafx.scene.transform.Transform;
 public class SnapshotUtils {
     private static final Logger log = LoggerFactory.getLogger(SnapshotUtils.class);
 
+    // PNG encoding of large snapshots is slow; keep it off the common pool so
+    // a burst of screenshots does not starve parallel streams elsewhere.
+    private static final ExecutorService encoders = createEncoders(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
+    private static ExecutorService createEncoders(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Snapshot Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public static Image snapshot(final Node node) {
         SnapshotParameters snapshotParams = new SnapshotParameters();
         snapshotParams.setTransform(Transform.scale(8.0, 8.0));
@@ -56,7 +75,7 @@ public class SnapshotUtils {
 
     public static void writePng(final Node node, String filename) {
         Image snapshot = snapshot(node);
-        CompletableFuture.runAsync(() -> writePng(SwingFXUtils.fromFXImage(snapshot, null), filename));
+        CompletableFuture.runAsync(() -> writePng(SwingFXUtils.fromFXImage(snapshot, null), filename), encoders);
     }
 
     public static void writePng(File folder, Pair<String, Node> nameAndNode) {
@@ -0,0 +1,157 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.gui.converters.sac;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import reactor.core.publisher.Flux;
+
+public class SacBulkExporterTest {
+
+    @TempDir
+    Path testDir;
+
+    private SacBulkExporter exporter;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        exporter = new SacBulkExporter(new SacExporter(), 2).setPageSize(3);
+    }
+
+    @Test
+    public void testExportToDirectoryRoundTrips() throws Exception {
+        List<Waveform> waveforms = waveforms(10);
+        waveforms.add(new Waveform());
+
+        Result<List<String>> result = exporter.exportToDirectory(Flux.fromIterable(waveforms), testDir.toFile());
+
+        assertFalse(result.isSuccess(), "A malformed waveform should be reported as a failure");
+        assertEquals(1, result.getErrors().size());
+        assertEquals(10, result.getResultPayload().get().size());
+
+        SacLoader loader = new SacLoader();
+        for (Waveform expected : waveforms.subList(0, 10)) {
+            File file = testDir.resolve(new SacExporter().getFileName(expected)).toFile();
+            Result<Waveform> loaded = loader.convertSacFileToWaveform(file);
+            assertTrue(loaded.isSuccess(), "Exported file should be readable: " + file);
+            Waveform actual = loaded.getResultPayload().get();
+            assertEquals(expected.getStream().getStation().getStationName(), actual.getStream().getStation().getStationName());
+            assertEquals(expected.getEvent().getEventId(), actual.getEvent().getEventId());
+            assertArrayEquals(expected.getSegment(), actual.getSegment(), 1E-6);
+        }
+    }
+
+    @Test
+    public void testExportToZipWritesOneEntryPerWaveform() throws Exception {
+        List<Waveform> waveforms = waveforms(25);
+        File archive = testDir.resolve("waveforms.zip").toFile();
+
+        Result<List<String>> result = exporter.exportToZip(Flux.fromIterable(waveforms), archive);
+
+        assertTrue(result.isSuccess());
+        Set<String> entries = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive.toPath()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        assertEquals(new HashSet<>(result.getResultPayload().get()), entries);
+        assertEquals(25, entries.size());
+    }
+
+    @Test
+    public void testEncodingNeverRunsOnTheCallingThread() throws Exception {
+        Set<String> encodingThreads = Collections.synchronizedSet(new HashSet<>());
+        exporter = new SacBulkExporter(new SacExporter() {
+            @Override
+            public ByteBuffer encode(Waveform w) throws IOException {
+                encodingThreads.add(Thread.currentThread().getName());
+                return super.encode(w);
+            }
+        }, 1).setPageSize(50);
+
+        Result<List<String>> result = exporter.exportToDirectory(Flux.fromIterable(waveforms(50)), testDir.toFile());
+
+        assertTrue(result.isSuccess());
+        assertEquals(50, result.getResultPayload().get().size());
+        assertEquals(Collections.singleton("SAC Export"), encodingThreads);
+    }
+
+    @Test
+    public void testPagedByIdsLoadsOnePageAtATime() throws Exception {
+        List<Long> ids = LongStream.range(0, 8).boxed().collect(Collectors.toList());
+        List<List<Long>> pages = new ArrayList<>();
+
+        List<Long> loaded = exporter.pagedByIds(ids, page -> {
+            pages.add(page);
+            return Flux.fromIterable(page).map(id -> new Waveform().setId(id));
+        }).map(Waveform::getId).collectList().block();
+
+        assertEquals(ids, loaded);
+        assertEquals(Arrays.asList(Arrays.asList(0l, 1l, 2l), Arrays.asList(3l, 4l, 5l), Arrays.asList(6l, 7l)), pages);
+    }
+
+    private List<Waveform> waveforms(int count) {
+        List<Waveform> waveforms = new ArrayList<>();
+        Date now = Date.from(Instant.now());
+        for (int i = 0; i < count; i++) {
+            double[] segment = new double[100 + i];
+            for (int j = 0; j < segment.length; j++) {
+                segment[j] = Math.sin(j * 0.1) + i;
+            }
+            waveforms.add(
+                    new Waveform().setLowFrequency(1.0)
+                                  .setHighFrequency(2.0)
+                                  .setSegmentType("vel")
+                                  .setSampleRate(1.0)
+                                  .setBeginTime(now)
+                                  .setEndTime(now)
+                                  .setSegment(segment)
+                                  .setStream(new Stream().setChannelName(Stream.TYPE_STACK).setStation(new Station().setStationName("STA" + i).setNetworkName("XX")))
+                                  .setEvent(new Event().setEventId(Integer.toString(1000 + i)).setOriginTime(now)));
+        }
+        return waveforms;
+    }
+}
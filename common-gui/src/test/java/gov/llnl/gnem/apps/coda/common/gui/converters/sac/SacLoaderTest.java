@@ -84,6 +84,21 @@ public class SacLoaderTest {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("singleFile")
+    public void testReadEventIdMatchesConvertedWaveform(File inputFile) throws Exception {
+        Result<String> evid = loader.readEventId(inputFile);
+        Assert.assertTrue("Expect that reading the header should complete successfully", evid.isSuccess());
+        Assert.assertEquals(loader.convertSacFileToWaveform(inputFile).getResultPayload().get().getEvent().getEventId(), evid.getResultPayload().get());
+    }
+
+    @Test
+    public void testReadEventIdOfMissingFile() throws Exception {
+        Result<String> evid = loader.readEventId(new File("src/test/resources/sac/does-not-exist.sac"));
+        Assert.assertFalse(evid.isSuccess());
+        Assert.assertFalse(evid.getErrors().isEmpty());
+    }
+
     public static Collection<Arguments> singleFile() throws IOException {
         try (Stream<Path> stream = Files.walk(Paths.get("src/test/resources/sac/"))) {
             return stream.filter(path -> path.getFileName().toString().toLowerCase(Locale.ENGLISH).endsWith(".sac")).map(path -> {
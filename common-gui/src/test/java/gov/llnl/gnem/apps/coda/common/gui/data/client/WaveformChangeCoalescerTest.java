@@ -0,0 +1,99 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.gui.data.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import gov.llnl.gnem.apps.coda.common.gui.data.client.api.WaveformClient;
+import gov.llnl.gnem.apps.coda.common.gui.events.WaveformMetadataChangeEvent;
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
+import reactor.core.publisher.Flux;
+
+public class WaveformChangeCoalescerTest {
+
+    private WaveformClient client;
+    private EventBus bus;
+    private BlockingQueue<WaveformMetadataChangeEvent> received;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        client = mock(WaveformClient.class);
+        when(client.getWaveformMetadataFromIds(anyList())).thenAnswer(
+                inv -> Flux.fromIterable((List<Long>) inv.getArgument(0)).map(id -> new Waveform().setId(id).setActive(Boolean.FALSE)));
+        bus = new EventBus();
+        received = new LinkedBlockingQueue<>();
+        bus.register(new Object() {
+            @Subscribe
+            public void listener(WaveformMetadataChangeEvent event) {
+                received.add(event);
+            }
+        });
+        new WaveformChangeCoalescer(client, bus, 100l);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testChangesInOneWindowAreFetchedOnce() throws Exception {
+        bus.post(new WaveformChangeEvent(Arrays.asList(1l, 2l)).setAddOrUpdate(true));
+        bus.post(new WaveformChangeEvent(Arrays.asList(2l, 3l, null)).setAddOrUpdate(true));
+        bus.post(new WaveformChangeEvent(Arrays.asList(4l)).setAddOrUpdate(true));
+        bus.post(new WaveformChangeEvent(Arrays.asList(4l, 5l)).setDelete(true));
+
+        WaveformMetadataChangeEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(Arrays.asList(1l, 2l, 3l), event.getUpdated().stream().map(Waveform::getId).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(4l, 5l), event.getDeletedIds());
+
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(client, times(1)).getWaveformMetadataFromIds(ids.capture());
+        assertEquals(Arrays.asList(1l, 2l, 3l), ids.getValue());
+        assertNull(received.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDeletesAloneSkipTheFetch() throws Exception {
+        bus.post(new WaveformChangeEvent(Collections.singletonList(7l)).setDelete(true));
+
+        WaveformMetadataChangeEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals(0, event.getUpdated().size());
+        assertEquals(Collections.singletonList(7l), event.getDeletedIds());
+        verify(client, times(0)).getWaveformMetadataFromIds(anyList());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.application.config;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import gov.llnl.gnem.apps.coda.common.repository.DatabaseVendor;
+
+/**
+ * Applies versioned SQL scripts to a persistent schema before Hibernate
+ * validates it.
+ * <p>
+ * Scripts are named {@code V<version>__<description>.sql} and are read from
+ * {@code <location>/} and {@code <location>/<vendor>/} (see
+ * {@link DatabaseVendor#getFolder()}), in version order. Each applied script
+ * is recorded in {@value #VERSION_TABLE} and never runs again. A schema
+ * Hibernate creates from scratch already matches the entities, so it is only
+ * marked as being at the latest version.
+ */
+public class SchemaMigrations {
+
+    public static final String DEFAULT_LOCATION = "classpath*:db/migration";
+    static final String VERSION_TABLE = "SCHEMA_VERSION";
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrations.class);
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__.+\\.sql");
+
+    private final DataSource dataSource;
+    private final String location;
+    private final ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    public SchemaMigrations(DataSource dataSource) {
+        this(dataSource, DEFAULT_LOCATION);
+    }
+
+    public SchemaMigrations(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    /**
+     * Runs every script that has not been applied yet.
+     *
+     * @return the number of scripts applied
+     */
+    public int migrate() {
+        return apply(true);
+    }
+
+    /**
+     * Records every known script as applied without running it.
+     *
+     * @return the number of scripts recorded
+     */
+    public int baseline() {
+        return apply(false);
+    }
+
+    private int apply(boolean run) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                Set<String> applied = ensureVersionTable(conn);
+                int count = 0;
+                for (Migration migration : findMigrations(DatabaseVendor.fromProductName(conn.getMetaData().getDatabaseProductName()))) {
+                    if (!applied.contains(migration.script)) {
+                        if (run) {
+                            log.info("Applying schema migration {}", migration.script);
+                            ScriptUtils.executeSqlScript(conn, migration.resource);
+                        }
+                        record(conn, migration);
+                        conn.commit();
+                        count++;
+                    }
+                }
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Unable to migrate the database schema: " + e.getMessage(), e);
+        }
+    }
+
+    private Set<String> ensureVersionTable(Connection conn) throws SQLException {
+        Set<String> applied = new HashSet<>();
+        boolean exists;
+        try (ResultSet tables = conn.getMetaData().getTables(null, null, "%", new String[] { "TABLE" })) {
+            exists = false;
+            while (tables.next() && !exists) {
+                exists = VERSION_TABLE.equalsIgnoreCase(tables.getString("TABLE_NAME"));
+            }
+        }
+        try (Statement statement = conn.createStatement()) {
+            if (!exists) {
+                statement.executeUpdate("CREATE TABLE " + VERSION_TABLE + " (script VARCHAR(255) NOT NULL PRIMARY KEY, version INTEGER NOT NULL, applied_on TIMESTAMP NOT NULL)");
+                conn.commit();
+            } else {
+                try (ResultSet rows = statement.executeQuery("SELECT script FROM " + VERSION_TABLE)) {
+                    while (rows.next()) {
+                        applied.add(rows.getString(1));
+                    }
+                }
+            }
+        }
+        return applied;
+    }
+
+    private void record(Connection conn, Migration migration) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO " + VERSION_TABLE + " (script, version, applied_on) VALUES (?, ?, ?)")) {
+            insert.setString(1, migration.script);
+            insert.setInt(2, migration.version);
+            insert.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            insert.executeUpdate();
+        }
+    }
+
+    private List<Migration> findMigrations(DatabaseVendor vendor) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        addMigrations(migrations, location + "/*.sql", "");
+        addMigrations(migrations, location + "/" + vendor.getFolder() + "/*.sql", vendor.getFolder() + "/");
+        migrations.sort(Comparator.comparingInt((Migration m) -> m.version).thenComparing(m -> m.script));
+        return migrations;
+    }
+
+    private void addMigrations(List<Migration> migrations, String pattern, String prefix) throws IOException {
+        for (Resource resource : resolver.getResources(pattern)) {
+            String filename = resource.getFilename();
+            Matcher matcher = filename != null ? SCRIPT_NAME.matcher(filename) : null;
+            if (matcher != null && matcher.matches()) {
+                migrations.add(new Migration(prefix + filename, Integer.parseInt(matcher.group(1)), resource));
+            } else {
+                log.warn("Ignoring {}; migration scripts are named V<version>__<description>.sql", resource);
+            }
+        }
+    }
+
+    private static class Migration {
+        private final String script;
+        private final int version;
+        private final Resource resource;
+
+        private Migration(String script, int version, Resource resource) {
+            this.script = script;
+            this.version = version;
+            this.resource = resource;
+        }
+    }
+}
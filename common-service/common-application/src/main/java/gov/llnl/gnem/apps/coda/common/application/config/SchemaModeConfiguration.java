@@ -0,0 +1,81 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.application.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Lets a persistent database run with
+ * {@code spring.jpa.hibernate.ddl-auto=validate} from the very first launch.
+ * If validation is requested but the schema has not been created yet, the
+ * schema is created once instead and every later start only validates it.
+ * <p>
+ * Before an existing schema is validated, any pending {@link SchemaMigrations}
+ * are applied to it. A freshly created schema is recorded as being at the
+ * latest migration.
+ */
+@Configuration
+public class SchemaModeConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaModeConfiguration.class);
+    private static final String VALIDATE = "validate";
+    private static final String CREATE = "create";
+    private static final String MARKER_TABLE = "WAVEFORM";
+
+    @Bean
+    public HibernatePropertiesCustomizer schemaModeCustomizer(DataSource dataSource) {
+        return hibernateProperties -> {
+            if (VALIDATE.equals(hibernateProperties.get(AvailableSettings.HBM2DDL_AUTO))) {
+                SchemaMigrations migrations = new SchemaMigrations(dataSource);
+                if (hasSchema(dataSource)) {
+                    int applied = migrations.migrate();
+                    if (applied > 0) {
+                        log.info("Applied {} schema migrations.", applied);
+                    }
+                } else {
+                    log.info("No existing schema found; creating it for this run and validating on later starts.");
+                    hibernateProperties.put(AvailableSettings.HBM2DDL_AUTO, CREATE);
+                    migrations.baseline();
+                }
+            }
+        };
+    }
+
+    private boolean hasSchema(DataSource dataSource) {
+        try (Connection conn = dataSource.getConnection(); ResultSet tables = conn.getMetaData().getTables(null, null, "%", new String[] { "TABLE" })) {
+            while (tables.next()) {
+                if (MARKER_TABLE.equalsIgnoreCase(tables.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        } catch (SQLException e) {
+            // Let Hibernate's own validation report whatever is wrong with the database
+            log.warn("Unable to inspect the existing schema: {}", e.getMessage(), e);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.application.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import gov.llnl.gnem.apps.coda.common.repository.H2StorageSettings;
+
+/**
+ * Opens a tuned, file backed H2 database when {@code storage.layout} is
+ * {@code file} or {@code per-project}. The default, {@code url}, leaves
+ * {@code spring.datasource.url} alone, which is also how the service is
+ * pointed at PostgreSQL or any other JDBC database.
+ */
+@Configuration
+@ConditionalOnExpression("'${storage.layout:url}' != 'url'")
+public class StorageConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageConfiguration.class);
+    private static final String PER_PROJECT = "per-project";
+
+    @Value("${storage.layout:url}")
+    private String layout;
+
+    @Value("${storage.project:default}")
+    private String project;
+
+    @Value("${storage.h2.directory:.}")
+    private String directory;
+
+    @Value("${storage.h2.name:codaH2.db}")
+    private String name;
+
+    @Value("${storage.h2.cache-size-kb:65536}")
+    private int cacheSizeKb;
+
+    @Value("${storage.h2.page-size:0}")
+    private int pageSize;
+
+    @Value("${storage.h2.compress:false}")
+    private boolean compress;
+
+    @Value("${storage.h2.auto-server:false}")
+    private boolean autoServer;
+
+    @Value("${storage.h2.auto-server-port:0}")
+    private int autoServerPort;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        H2StorageSettings settings = new H2StorageSettings().setPerProject(PER_PROJECT.equalsIgnoreCase(layout))
+                                                            .setProject(project)
+                                                            .setDirectory(directory)
+                                                            .setName(name)
+                                                            .setCacheSizeKb(cacheSizeKb)
+                                                            .setPageSize(pageSize)
+                                                            .setCompress(compress)
+                                                            .setAutoServer(autoServer)
+                                                            .setAutoServerPort(autoServerPort);
+        log.info("Using {} H2 storage at {}", layout, settings.getDatabasePath());
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).driverClassName("org.h2.Driver").url(settings.toUrl()).build();
+    }
+}
@@ -15,6 +15,7 @@
 package gov.llnl.gnem.apps.coda.common.application.web;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
@@ -23,6 +24,7 @@ import gov.llnl.gnem.apps.coda.common.service.api.Listener;
 import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
 
 @Controller
+@Lazy(false)
 public class BasicNotificationStompController {
 
     @Autowired
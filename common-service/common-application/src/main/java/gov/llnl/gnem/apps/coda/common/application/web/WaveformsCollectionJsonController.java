@@ -75,6 +75,11 @@ public class WaveformsCollectionJsonController {
         return ResponseEntity.ok(waveforms);
     }
 
+    @GetMapping(value = "/query/active-stack-ids", name = "getAllActiveStackIds")
+    public ResponseEntity<?> getAllActiveStackIds() {
+        return ResponseEntity.ok(getWaveformService().getAllActiveStackIds());
+    }
+
     @GetMapping(value = "/query/unique-by-event-station", name = "getAllStacks")
     public ResponseEntity<?> getUniqueEventStationStacks() {
         return ResponseEntity.ok(getWaveformService().getUniqueEventStationStacks());
@@ -0,0 +1,3 @@
+-- The schema as Hibernate generates it from the entities in this release.
+-- Later changes to an existing schema go in V2__..., V3__... and so on;
+-- statements that only work on one database go under h2/ or postgresql/.
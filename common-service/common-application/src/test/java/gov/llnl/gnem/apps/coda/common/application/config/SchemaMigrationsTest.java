@@ -0,0 +1,67 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.application.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SchemaMigrationsTest {
+
+    private static final String LOCATION = "classpath*:db/test-migration";
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migrations-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    public void testMigrateAppliesCommonAndVendorScriptsOnce() throws Exception {
+        SchemaMigrations migrations = new SchemaMigrations(dataSource, LOCATION);
+
+        assertEquals(3, migrations.migrate());
+        assertEquals(0, migrations.migrate());
+
+        assertEquals(1, count("SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'STATION_NOTE' AND column_name = 'AUTHOR'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM information_schema.indexes WHERE index_name = 'STATION_NOTE_AUTHOR_INDEX'"));
+        assertEquals(3, count("SELECT COUNT(*) FROM " + SchemaMigrations.VERSION_TABLE));
+    }
+
+    @Test
+    public void testBaselineRecordsScriptsWithoutRunningThem() throws Exception {
+        SchemaMigrations migrations = new SchemaMigrations(dataSource, LOCATION);
+
+        assertEquals(3, migrations.baseline());
+        assertEquals(0, migrations.migrate());
+
+        assertEquals(0, count("SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'STATION_NOTE'"));
+    }
+
+    private int count(String query) throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement statement = conn.createStatement(); ResultSet rows = statement.executeQuery(query)) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+}
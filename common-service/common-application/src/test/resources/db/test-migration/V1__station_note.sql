@@ -0,0 +1 @@
+CREATE TABLE station_note (id BIGINT NOT NULL PRIMARY KEY, note VARCHAR(64));
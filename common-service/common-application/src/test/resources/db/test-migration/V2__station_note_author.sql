@@ -0,0 +1 @@
+ALTER TABLE station_note ADD COLUMN author VARCHAR(64);
@@ -0,0 +1 @@
+CREATE INDEX station_note_author_index ON station_note (author);
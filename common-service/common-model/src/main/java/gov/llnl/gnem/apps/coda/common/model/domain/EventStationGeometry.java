@@ -0,0 +1,76 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.model.domain;
+
+import java.util.Objects;
+
+/**
+ * Source-receiver geometry for a single event and station location.
+ * Distances are in km and angles in degrees clockwise from north.
+ */
+public class EventStationGeometry {
+
+    private final double distance;
+    private final double azimuth;
+    private final double backAzimuth;
+
+    public EventStationGeometry(double distance, double azimuth, double backAzimuth) {
+        this.distance = distance;
+        this.azimuth = azimuth;
+        this.backAzimuth = backAzimuth;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return Azimuth from the event to the station
+     */
+    public double getAzimuth() {
+        return azimuth;
+    }
+
+    /**
+     * @return Azimuth from the station to the event
+     */
+    public double getBackAzimuth() {
+        return backAzimuth;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(azimuth, backAzimuth, distance);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof EventStationGeometry)) {
+            return false;
+        }
+        EventStationGeometry other = (EventStationGeometry) obj;
+        return Double.doubleToLongBits(azimuth) == Double.doubleToLongBits(other.azimuth)
+                && Double.doubleToLongBits(backAzimuth) == Double.doubleToLongBits(other.backAzimuth)
+                && Double.doubleToLongBits(distance) == Double.doubleToLongBits(other.distance);
+    }
+
+    @Override
+    public String toString() {
+        return "EventStationGeometry [distance=" + distance + ", azimuth=" + azimuth + ", backAzimuth=" + backAzimuth + "]";
+    }
+}
@@ -20,6 +20,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.persistence.Version;
 
@@ -31,7 +32,7 @@ import gov.llnl.gnem.apps.coda.common.model.util.Durable;
 
 @Durable
 @Entity
-@Table(name = "Shared_FB_Params")
+@Table(name = "Shared_FB_Params", indexes = { @Index(columnList = "projectId", name = "shared_fb_project_id_index") })
 public class SharedFrequencyBandParameters {
 
     @Id
@@ -42,6 +43,9 @@ public class SharedFrequencyBandParameters {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @Embedded
     private FrequencyBand frequencyBand = new FrequencyBand();
 
@@ -115,6 +119,15 @@ public class SharedFrequencyBandParameters {
         return this.version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public SharedFrequencyBandParameters setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public double getLowFrequency() {
         return this.frequencyBand.getLowFrequency();
     }
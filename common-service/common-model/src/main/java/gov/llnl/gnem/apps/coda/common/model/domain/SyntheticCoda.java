@@ -41,7 +41,7 @@ import org.springframework.format.annotation.NumberFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "Synthetic_Coda", indexes = { @Index(columnList = "source_waveform_id", name = "source_waveform_id_index") })
+@Table(name = "Synthetic_Coda", indexes = { @Index(columnList = "source_waveform_id", name = "source_waveform_id_index"), @Index(columnList = "projectId", name = "synth_project_id_index") })
 public class SyntheticCoda implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -54,6 +54,9 @@ public class SyntheticCoda implements Serializable {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @ManyToOne(optional = false)
     private Waveform sourceWaveform;
 
@@ -85,6 +88,26 @@ public class SyntheticCoda implements Serializable {
 
     private Double measuredG;
 
+    public SyntheticCoda() {
+        super();
+    }
+
+    public SyntheticCoda(SyntheticCoda other) {
+        super();
+        this.id = other.getId();
+        this.version = other.getVersion();
+        this.projectId = other.getProjectId();
+        this.sourceWaveform = other.getSourceWaveform();
+        this.sampleRate = other.getSampleRate();
+        this.segment = other.getData();
+        this.beginTime = other.getBeginTime();
+        this.endTime = other.getEndTime();
+        this.sourceModel = other.getSourceModel();
+        this.measuredV = other.getMeasuredV();
+        this.measuredB = other.getMeasuredB();
+        this.measuredG = other.getMeasuredG();
+    }
+
     public Long getId() {
         return id;
     }
@@ -98,6 +121,15 @@ public class SyntheticCoda implements Serializable {
         return version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public SyntheticCoda setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public Waveform getSourceWaveform() {
         return sourceWaveform;
     }
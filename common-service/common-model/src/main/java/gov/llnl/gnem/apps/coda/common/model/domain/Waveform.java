@@ -50,7 +50,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
         @Index(columnList = "event_id", name = "w_event_id_index"), @Index(columnList = "station_name", name = "w_station_name_index"),
         @Index(columnList = "network_name", name = "w_network_name_index"), @Index(columnList = "lowFrequency", name = "lowFreq_index"), @Index(columnList = "highFrequency", name = "highFreq_index"),
         @Index(columnList = "segmentType", name = "type_index"), @Index(columnList = "segmentUnits", name = "units_index"), @Index(columnList = "sampleRate", name = "rate_index"),
-        @Index(columnList = "channelName", name = "channel_name_index"), @Index(columnList = "active", name = "active") })
+        @Index(columnList = "channelName", name = "channel_name_index"), @Index(columnList = "active", name = "active"), @Index(columnList = "projectId", name = "w_project_id_index") })
 public class Waveform {
 
     @Id
@@ -61,6 +61,9 @@ public class Waveform {
     @Version
     private Integer version = 0;
 
+    @Column(name = "projectId")
+    private Long projectId = Project.DEFAULT_PROJECT_ID;
+
     @Embedded
     private Event event;
 
@@ -158,6 +161,15 @@ public class Waveform {
         return this.version;
     }
 
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public Waveform setProjectId(Long projectId) {
+        this.projectId = projectId;
+        return this;
+    }
+
     public Event getEvent() {
         return event;
     }
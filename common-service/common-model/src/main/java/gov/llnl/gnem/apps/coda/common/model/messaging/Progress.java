@@ -14,11 +14,18 @@
 */
 package gov.llnl.gnem.apps.coda.common.model.messaging;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class Progress {
     private Long total;
     private Long current;
+    private Double rate;
+    private Long etaSeconds;
 
-    public Progress(Long total, Long current) {
+    @JsonCreator
+    public Progress(@JsonProperty("total") Long total, @JsonProperty("current") Long current) {
         super();
         this.total = total;
         this.current = current;
@@ -42,6 +49,32 @@ public class Progress {
         return this;
     }
 
+    /**
+     * @return items completed per second, or null when not measured
+     */
+    public Double getRate() {
+        return rate;
+    }
+
+    public Progress setRate(Double rate) {
+        this.rate = rate;
+        return this;
+    }
+
+    /**
+     * @return estimated seconds until current reaches total, or null when
+     *         unknown
+     */
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public Progress setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+        return this;
+    }
+
+    @JsonIgnore
     public Double getProgress() {
         return current.doubleValue() / total.doubleValue();
     }
@@ -14,13 +14,17 @@
 */
 package gov.llnl.gnem.apps.coda.common.model.messaging;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class ProgressEvent {
 
     private Long id;
 
     private Progress progress;
 
-    public ProgressEvent(Long id, Progress progress) {
+    @JsonCreator
+    public ProgressEvent(@JsonProperty("id") Long id, @JsonProperty("progress") Progress progress) {
         this.id = id;
         this.progress = progress;
     }
@@ -0,0 +1,74 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.model.messaging;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A point in time snapshot of one stage (and optionally one frequency band)
+ * of a long running job such as a calibration.
+ */
+public class StageProgressEvent {
+
+    private Long runId;
+
+    private String run;
+
+    private String stage;
+
+    private String band;
+
+    private Progress progress;
+
+    @JsonCreator
+    public StageProgressEvent(@JsonProperty("runId") Long runId, @JsonProperty("run") String run, @JsonProperty("stage") String stage, @JsonProperty("band") String band,
+            @JsonProperty("progress") Progress progress) {
+        this.runId = runId;
+        this.run = run;
+        this.stage = stage;
+        this.band = band;
+        this.progress = progress;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public String getRun() {
+        return run;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * @return the frequency band this snapshot covers, or null for the whole
+     *         stage
+     */
+    public String getBand() {
+        return band;
+    }
+
+    public Progress getProgress() {
+        return progress;
+    }
+
+    @Override
+    public String toString() {
+        return "StageProgressEvent [runId=" + runId + ", run=" + run + ", stage=" + stage + ", band=" + band + ", progress=" + progress + "]";
+    }
+}
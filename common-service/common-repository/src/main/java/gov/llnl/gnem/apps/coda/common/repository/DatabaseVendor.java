@@ -0,0 +1,97 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The few places that have to issue native SQL ask this for the statements
+ * that fit the database behind the current connection instead of assuming H2.
+ */
+public enum DatabaseVendor {
+
+    H2("h2") {
+        @Override
+        public List<String> truncateStatements(List<String> tableNames) {
+            List<String> statements = new ArrayList<>(tableNames.size() + 2);
+            statements.add("SET REFERENTIAL_INTEGRITY FALSE");
+            tableNames.forEach(tableName -> statements.add("TRUNCATE TABLE " + tableName));
+            statements.add("SET REFERENTIAL_INTEGRITY TRUE");
+            return statements;
+        }
+    },
+    POSTGRESQL("postgresql") {
+        @Override
+        public List<String> truncateStatements(List<String> tableNames) {
+            List<String> statements = new ArrayList<>(1);
+            if (!tableNames.isEmpty()) {
+                // One statement so foreign keys between the listed tables
+                // never block it. No CASCADE: a table outside the list that
+                // references one of these makes the statement fail rather
+                // than be emptied too.
+                statements.add("TRUNCATE TABLE " + String.join(", ", tableNames));
+            }
+            return statements;
+        }
+    },
+    OTHER("other") {
+        @Override
+        public List<String> truncateStatements(List<String> tableNames) {
+            List<String> statements = new ArrayList<>(tableNames.size());
+            tableNames.forEach(tableName -> statements.add("DELETE FROM " + tableName));
+            return statements;
+        }
+    };
+
+    private final String folder;
+
+    private DatabaseVendor(String folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * @return the name of the folder holding SQL scripts that only apply to
+     *         this vendor
+     */
+    public String getFolder() {
+        return folder;
+    }
+
+    /**
+     * @param tableNames
+     *            tables to empty; tables that are not listed are left alone
+     * @return the native statements that empty the tables, in execution order
+     */
+    public abstract List<String> truncateStatements(List<String> tableNames);
+
+    /**
+     * @param productName
+     *            as reported by {@link java.sql.DatabaseMetaData#getDatabaseProductName()}
+     */
+    public static DatabaseVendor fromProductName(String productName) {
+        if (productName != null) {
+            String name = productName.toLowerCase(Locale.ENGLISH);
+            if (name.startsWith("h2")) {
+                return H2;
+            }
+            if (name.startsWith("postgresql")) {
+                return POSTGRESQL;
+            }
+        }
+        return OTHER;
+    }
+}
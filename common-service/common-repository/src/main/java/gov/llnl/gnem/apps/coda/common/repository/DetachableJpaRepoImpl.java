@@ -15,10 +15,14 @@
 package gov.llnl.gnem.apps.coda.common.repository;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.persistence.EntityManager;
 
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.transaction.annotation.Transactional;
 
 import io.springlets.data.jpa.repository.support.DetachableJpaRepositoryImpl;
 
@@ -33,15 +37,18 @@ import io.springlets.data.jpa.repository.support.DetachableJpaRepositoryImpl;
  */
 public class DetachableJpaRepoImpl<T, ID extends Serializable> extends DetachableJpaRepositoryImpl<T, ID> {
     private EntityManager entityManager;
+    private JpaEntityInformation<T, ?> entityInformation;
 
     public DetachableJpaRepoImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
         super(entityInformation, entityManager);
         this.entityManager = entityManager;
+        this.entityInformation = entityInformation;
     }
 
     public DetachableJpaRepoImpl(Class<T> domainClass, EntityManager em) {
         super(domainClass, em);
         this.entityManager = em;
+        this.entityInformation = JpaEntityInformationSupport.getEntityInformation(domainClass, em);
     }
 
     @Override
@@ -53,4 +60,20 @@ public class DetachableJpaRepoImpl<T, ID extends Serializable> extends Detachabl
         return entity;
     }
 
+    /**
+     * @see BatchInsertRepository#persistAll(Iterable)
+     */
+    @Transactional
+    public List<T> persistAll(Iterable<T> entities) {
+        List<T> result = new ArrayList<>();
+        for (T entity : entities) {
+            if (entityInformation.getId(entity) == null) {
+                entityManager.persist(entity);
+                result.add(entity);
+            } else {
+                result.add(entityManager.merge(entity));
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,192 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.repository;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Builds the JDBC URL for a file backed H2 (MVStore) database from a handful
+ * of tuning knobs so the applications and the batch runner open it the same
+ * way.
+ * <p>
+ * With {@link #setPerProject(boolean) per project} layout each project gets
+ * its own database file under {@code directory/project/}, so large projects
+ * never share a store, cache or lock with each other.
+ */
+public class H2StorageSettings {
+
+    private static final String PREFIX = "jdbc:h2:";
+
+    private String directory = ".";
+    private String name = "codaH2.db";
+    private String project = "default";
+    private boolean perProject = false;
+    private int cacheSizeKb = 65536;
+    private int pageSize = 0;
+    private boolean compress = false;
+    private boolean autoServer = false;
+    private int autoServerPort = 0;
+    private boolean closeOnExit = false;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public H2StorageSettings setDirectory(String directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public H2StorageSettings setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public String getProject() {
+        return project;
+    }
+
+    public H2StorageSettings setProject(String project) {
+        this.project = project;
+        return this;
+    }
+
+    public boolean isPerProject() {
+        return perProject;
+    }
+
+    public H2StorageSettings setPerProject(boolean perProject) {
+        this.perProject = perProject;
+        return this;
+    }
+
+    public int getCacheSizeKb() {
+        return cacheSizeKb;
+    }
+
+    /**
+     * @param cacheSizeKb
+     *            MVStore page cache in KB; not positive keeps the H2 default
+     */
+    public H2StorageSettings setCacheSizeKb(int cacheSizeKb) {
+        this.cacheSizeKb = cacheSizeKb;
+        return this;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @param pageSize
+     *            size in bytes at which MVStore splits pages; not positive
+     *            keeps the H2 default of 4 KB
+     */
+    public H2StorageSettings setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    /**
+     * @param compress
+     *            compress pages as they are written. Saves disk at the cost
+     *            of inflating every waveform segment again on each read.
+     */
+    public H2StorageSettings setCompress(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    public boolean isAutoServer() {
+        return autoServer;
+    }
+
+    /**
+     * @param autoServer
+     *            let other processes open the database while this one has it
+     *            open. Only worth the extra locking when something outside
+     *            the application needs to read the file.
+     */
+    public H2StorageSettings setAutoServer(boolean autoServer) {
+        this.autoServer = autoServer;
+        return this;
+    }
+
+    public int getAutoServerPort() {
+        return autoServerPort;
+    }
+
+    public H2StorageSettings setAutoServerPort(int autoServerPort) {
+        this.autoServerPort = autoServerPort;
+        return this;
+    }
+
+    public boolean isCloseOnExit() {
+        return closeOnExit;
+    }
+
+    /**
+     * @param closeOnExit
+     *            let H2 close the database from its own shutdown hook when the
+     *            JVM exits. Off by default since the long running services
+     *            close it with the Spring context; one-shot runs that simply
+     *            exit should turn it on so the store is always closed
+     *            cleanly.
+     */
+    public H2StorageSettings setCloseOnExit(boolean closeOnExit) {
+        this.closeOnExit = closeOnExit;
+        return this;
+    }
+
+    /**
+     * @return the absolute path of the database file without the
+     *         {@code .mv.db} suffix H2 adds
+     */
+    public Path getDatabasePath() {
+        Path dir = Paths.get(directory);
+        if (perProject) {
+            dir = dir.resolve(project.trim().replaceAll("[^A-Za-z0-9._-]", "_"));
+        }
+        return dir.resolve(name).toAbsolutePath();
+    }
+
+    public String toUrl() {
+        StringBuilder url = new StringBuilder(PREFIX).append(getDatabasePath()).append(";DB_CLOSE_DELAY=-1");
+        url.append(";DB_CLOSE_ON_EXIT=").append(closeOnExit ? "TRUE" : "FALSE");
+        url.append(";COMPRESS=").append(compress ? "TRUE" : "FALSE");
+        if (cacheSizeKb > 0) {
+            url.append(";CACHE_SIZE=").append(cacheSizeKb);
+        }
+        if (pageSize > 0) {
+            url.append(";PAGE_SIZE=").append(pageSize);
+        }
+        if (autoServer) {
+            url.append(";AUTO_SERVER=TRUE");
+            if (autoServerPort > 0) {
+                url.append(";AUTO_SERVER_PORT=").append(autoServerPort);
+            }
+        }
+        return url.toString();
+    }
+}
@@ -14,6 +14,11 @@
 */
 package gov.llnl.gnem.apps.coda.common.repository;
 
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
@@ -24,4 +29,8 @@ import io.springlets.data.jpa.repository.DetachableJpaRepository;
 public interface WaveformPickRepository extends DetachableJpaRepository<WaveformPick, Long> {
 
     public WaveformPick findOneByPickTypeAndWaveform(String pickType, Waveform waveform);
+
+    @Modifying
+    @Query("delete from WaveformPick p where p.waveform.id in :waveformIds")
+    public int deleteAllByWaveformIds(@Param("waveformIds") Collection<Long> waveformIds);
 }
@@ -37,6 +37,10 @@ public interface WaveformRepository extends DetachableJpaRepository<Waveform, Lo
     public Waveform findByUniqueFields(@Param("eventId") String eventId, @Param("networkName") String networkName, @Param("stationName") String stationName, @Param("lowFrequency") Double lowFrequency,
             @Param("highFrequency") Double highFrequency);
 
+    @Query("select w from Waveform w where w.projectId = :projectId and w.event.eventId = :eventId and w.stream.station.networkName = :networkName and w.stream.station.stationName = :stationName and w.lowFrequency = :lowFrequency and w.highFrequency = :highFrequency order by w.id desc")
+    public Waveform findByProjectIdAndUniqueFields(@Param("projectId") Long projectId, @Param("eventId") String eventId, @Param("networkName") String networkName,
+            @Param("stationName") String stationName, @Param("lowFrequency") Double lowFrequency, @Param("highFrequency") Double highFrequency);
+
     @Query("select w from Waveform w where w.beginTime = :beginTime and w.endTime = :endTime and w.event = :event and w.stream = :stream and w.segmentType = :segmentType and w.segmentUnits = :segmentUnits and w.lowFrequency = :lowFrequency and w.highFrequency = :highFrequency order by w.id desc")
     public Waveform findOneByAllFields(@Param("beginTime") Date beginTime, @Param("endTime") Date endTime, @Param("event") Event event, @Param("stream") Stream stream,
             @Param("segmentType") String segmentType, @Param("segmentUnits") String segmentUnits, @Param("lowFrequency") Double lowFrequency, @Param("highFrequency") Double highFrequency);
@@ -70,6 +74,9 @@ public interface WaveformRepository extends DetachableJpaRepository<Waveform, Lo
     @Query("select w.id from Waveform w where w.stream.station.stationName = :stationName")
     public List<Long> findAllIdsByStationName(@Param("stationName") String stationName);
 
+    @Query("select w.id from Waveform w where w.active = true and w.stream.channelName = 'STACK' order by w.id")
+    public List<Long> findAllActiveStackIds();
+
     @Query("select w from Waveform w where w.active = true and w.stream.channelName = 'STACK' and w.stream.station.stationName in :stationNames")
     public List<Waveform> findAllActiveStacksByStationNames(@Param("stationNames") List<String> stationNames);
 
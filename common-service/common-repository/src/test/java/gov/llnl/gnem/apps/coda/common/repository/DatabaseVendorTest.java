@@ -0,0 +1,84 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+public class DatabaseVendorTest {
+
+    private static final List<String> TABLES = Arrays.asList("waveform", "peak_velocity");
+
+    @Test
+    public void testFromProductName() throws Exception {
+        assertEquals(DatabaseVendor.H2, DatabaseVendor.fromProductName("H2"));
+        assertEquals(DatabaseVendor.POSTGRESQL, DatabaseVendor.fromProductName("PostgreSQL"));
+        assertEquals(DatabaseVendor.OTHER, DatabaseVendor.fromProductName("MySQL"));
+        assertEquals(DatabaseVendor.OTHER, DatabaseVendor.fromProductName(null));
+    }
+
+    @Test
+    public void testH2DisablesReferentialIntegrityAroundTruncates() throws Exception {
+        assertEquals(Arrays.asList("SET REFERENTIAL_INTEGRITY FALSE", "TRUNCATE TABLE waveform", "TRUNCATE TABLE peak_velocity", "SET REFERENTIAL_INTEGRITY TRUE"),
+                DatabaseVendor.H2.truncateStatements(TABLES));
+    }
+
+    @Test
+    public void testPostgresTruncatesAllTablesInOneStatementWithoutCascade() throws Exception {
+        List<String> statements = DatabaseVendor.POSTGRESQL.truncateStatements(TABLES);
+
+        assertEquals(Collections.singletonList("TRUNCATE TABLE waveform, peak_velocity"), statements);
+        assertTrue(statements.stream().noneMatch(s -> s.toUpperCase().contains("CASCADE")), "Tables outside the list must never be emptied");
+        assertTrue(DatabaseVendor.POSTGRESQL.truncateStatements(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testOtherDeletesFromEachTable() throws Exception {
+        assertEquals(Arrays.asList("DELETE FROM waveform", "DELETE FROM peak_velocity"), DatabaseVendor.OTHER.truncateStatements(TABLES));
+    }
+
+    @Test
+    public void testH2StatementsEmptyReferencedTables() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:vendor-" + System.nanoTime());
+        try (Connection conn = dataSource.getConnection(); Statement statement = conn.createStatement()) {
+            statement.execute("CREATE TABLE waveform (id BIGINT PRIMARY KEY)");
+            statement.execute("CREATE TABLE peak_velocity (id BIGINT PRIMARY KEY, waveform_id BIGINT REFERENCES waveform (id))");
+            statement.execute("INSERT INTO waveform VALUES (1)");
+            statement.execute("INSERT INTO peak_velocity VALUES (1, 1)");
+
+            for (String sql : DatabaseVendor.H2.truncateStatements(TABLES)) {
+                statement.execute(sql);
+            }
+
+            for (String table : TABLES) {
+                try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    rs.next();
+                    assertEquals(0, rs.getInt(1), table);
+                }
+            }
+        }
+    }
+}
@@ -38,4 +38,14 @@ public interface BaseService<T, ID> {
 
     default public void deleteAll() {
     }
+
+    /**
+     * Removes only the entries belonging to the given project partition.
+     *
+     * @throws UnsupportedOperationException
+     *             if the service does not store its entries per project
+     */
+    default public void deleteAllByProjectId(Long projectId) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not store entries per project");
+    }
 }
@@ -0,0 +1,33 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service.api;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.EventStationGeometry;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+
+/**
+ * Cached WGS84 event-station geometry. Entries are found by event id and
+ * station name but only reused while the coordinates still match, so a
+ * relocated event or station is recomputed automatically.
+ */
+public interface GeometryService {
+
+    public EventStationGeometry getGeometry(Event event, Station station);
+
+    public double getDistance(Event event, Station station);
+
+    public void clear();
+}
@@ -0,0 +1,34 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service.api;
+
+/**
+ * Aggregates progress counters for long running jobs and periodically posts
+ * {@link gov.llnl.gnem.apps.coda.common.model.messaging.StageProgressEvent}
+ * snapshots of the counters that changed, so workers never post per item.
+ */
+public interface ProgressTrackingService {
+
+    /**
+     * Starts tracking a run. Starting a run id that is already tracked
+     * replaces its counters.
+     */
+    public ProgressTracker start(Long runId, String run);
+
+    /**
+     * Posts a snapshot of every counter that changed since its last one.
+     */
+    public void publish();
+}
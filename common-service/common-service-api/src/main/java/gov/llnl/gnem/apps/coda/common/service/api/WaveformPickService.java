@@ -14,7 +14,21 @@
 */
 package gov.llnl.gnem.apps.coda.common.service.api;
 
+import java.util.Collection;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 
 public interface WaveformPickService extends BaseService<WaveformPick, Long> {
+
+    /**
+     * Replaces the stored picks of each given, already persisted, waveform
+     * with the picks currently associated with it. Only pick rows are
+     * written; the waveforms themselves (and their segments) are not merged.
+     * The pick instances are given their new ids and stay attached to the
+     * caller's waveform instances.
+     *
+     * @return the number of picks written
+     */
+    public int replacePicks(Collection<Waveform> waveforms);
 }
@@ -27,10 +27,20 @@ public interface WaveformService extends BaseService<Waveform, Long> {
 
     public List<Waveform> getAllActiveStacks();
 
+    public List<Waveform> getAllActiveStacks(Long projectId);
+
+    public List<Long> getAllActiveStackIds();
+
     public List<Waveform> update(Long sessionId, List<Waveform> values);
 
     public Waveform update(Waveform waveformPayload);
 
+    /**
+     * Merges and persists all of the values in the caller's transaction (or a
+     * new one) and posts a single change event for the whole batch.
+     */
+    public List<Waveform> updateAll(List<Waveform> values);
+
     public List<Waveform> getUniqueEventStationStacks();
 
     public Event findEventById(String eventId);
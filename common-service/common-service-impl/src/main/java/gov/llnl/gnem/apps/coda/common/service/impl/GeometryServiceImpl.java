@@ -0,0 +1,137 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.EventStationGeometry;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.service.api.GeometryService;
+import net.sf.geographiclib.Geodesic;
+import net.sf.geographiclib.GeodesicData;
+import net.sf.geographiclib.GeodesicMask;
+
+@Service
+public class GeometryServiceImpl implements GeometryService {
+
+    // Fixed number of slots; a pair that lands on an occupied slot replaces
+    // what was there so the cache never grows past this
+    private static final int CACHE_SLOTS = 1 << 18;
+
+    private static final int INVERSE_MASK = GeodesicMask.DISTANCE | GeodesicMask.AZIMUTH;
+
+    private final Map<String, Integer> eventIndex = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> stationIndex = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextEvent = new AtomicInteger();
+
+    private final AtomicInteger nextStation = new AtomicInteger();
+
+    // Entries are immutable so racing readers and writers only ever see a
+    // whole entry or a miss
+    private volatile CachedGeometry[] cache = new CachedGeometry[CACHE_SLOTS];
+
+    @Override
+    public EventStationGeometry getGeometry(Event event, Station station) {
+        double evla = event.getLatitude();
+        double evlo = event.getLongitude();
+        double stla = station.getLatitude();
+        double stlo = station.getLongitude();
+        if (event.getEventId() == null || station.getStationName() == null) {
+            return computeGeometry(evla, evlo, stla, stlo);
+        }
+
+        long key = ((long) intern(eventIndex, nextEvent, event.getEventId()) << 32) | (intern(stationIndex, nextStation, station.getStationName()) & 0xFFFFFFFFL);
+        CachedGeometry[] slots = cache;
+        int slot = slot(key, slots.length);
+        CachedGeometry cached = slots[slot];
+        // Ids only pick the slot; the coordinates decide whether the entry is
+        // still valid so a relocated event or station is recomputed
+        if (cached != null && cached.matches(key, evla, evlo, stla, stlo)) {
+            return cached.geometry;
+        }
+        EventStationGeometry geometry = computeGeometry(evla, evlo, stla, stlo);
+        slots[slot] = new CachedGeometry(key, evla, evlo, stla, stlo, geometry);
+        return geometry;
+    }
+
+    @Override
+    public double getDistance(Event event, Station station) {
+        return getGeometry(event, station).getDistance();
+    }
+
+    @Override
+    public void clear() {
+        cache = new CachedGeometry[CACHE_SLOTS];
+        eventIndex.clear();
+        stationIndex.clear();
+    }
+
+    private static int intern(Map<String, Integer> index, AtomicInteger next, String id) {
+        Integer value = index.get(id);
+        if (value == null) {
+            value = index.computeIfAbsent(id, k -> next.getAndIncrement());
+        }
+        return value;
+    }
+
+    private static int slot(long key, int slots) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (slots - 1);
+    }
+
+    private static EventStationGeometry computeGeometry(double evla, double evlo, double stla, double stlo) {
+        // One inverse solve gives the distance and both end point azimuths
+        GeodesicData g = Geodesic.WGS84.Inverse(evla, evlo, stla, stlo, INVERSE_MASK);
+        return new EventStationGeometry(g.s12 / 1000.0, normalizeAzimuth(g.azi1), normalizeAzimuth(g.azi2 + 180.0));
+    }
+
+    private static double normalizeAzimuth(double azimuth) {
+        double result = azimuth % 360.0;
+        return result >= 0 ? result : 360.0 + result;
+    }
+
+    private static final class CachedGeometry {
+        private final long key;
+        private final double evla;
+        private final double evlo;
+        private final double stla;
+        private final double stlo;
+        private final EventStationGeometry geometry;
+
+        private CachedGeometry(long key, double evla, double evlo, double stla, double stlo, EventStationGeometry geometry) {
+            this.key = key;
+            this.evla = evla;
+            this.evlo = evlo;
+            this.stla = stla;
+            this.stlo = stlo;
+            this.geometry = geometry;
+        }
+
+        private boolean matches(long key, double evla, double evlo, double stla, double stlo) {
+            return this.key == key
+                    && Double.doubleToLongBits(this.evla) == Double.doubleToLongBits(evla)
+                    && Double.doubleToLongBits(this.evlo) == Double.doubleToLongBits(evlo)
+                    && Double.doubleToLongBits(this.stla) == Double.doubleToLongBits(stla)
+                    && Double.doubleToLongBits(this.stlo) == Double.doubleToLongBits(stlo);
+        }
+    }
+}
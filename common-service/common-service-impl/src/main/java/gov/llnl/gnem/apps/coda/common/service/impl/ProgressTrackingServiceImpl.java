@@ -0,0 +1,182 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import gov.llnl.gnem.apps.coda.common.model.messaging.Progress;
+import gov.llnl.gnem.apps.coda.common.model.messaging.StageProgressEvent;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.common.service.api.ProgressCounter;
+import gov.llnl.gnem.apps.coda.common.service.api.ProgressTracker;
+import gov.llnl.gnem.apps.coda.common.service.api.ProgressTrackingService;
+
+@Service
+public class ProgressTrackingServiceImpl implements ProgressTrackingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressTrackingServiceImpl.class);
+
+    private final NotificationService notificationService;
+    private final Map<Long, Tracker> trackers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService publisher;
+
+    @Autowired
+    public ProgressTrackingServiceImpl(NotificationService notificationService, @Value("${progress.publish-millis:1000}") long publishMillis) {
+        this.notificationService = notificationService;
+        this.publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("Progress-Publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (publishMillis > 0) {
+            publisher.scheduleAtFixedRate(this::publish, publishMillis, publishMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public ProgressTracker start(Long runId, String run) {
+        Tracker tracker = new Tracker(runId, run);
+        trackers.put(runId, tracker);
+        return tracker;
+    }
+
+    @Override
+    public void publish() {
+        for (Tracker tracker : trackers.values()) {
+            try {
+                tracker.publish();
+            } catch (RuntimeException e) {
+                // A failing listener must not cancel the fixed rate schedule
+                log.warn("Unable to publish progress for run {}: {}", tracker.getRunId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    private class Tracker implements ProgressTracker {
+        private final Long runId;
+        private final String run;
+        private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+        private Tracker(Long runId, String run) {
+            this.runId = runId;
+            this.run = run;
+        }
+
+        @Override
+        public Long getRunId() {
+            return runId;
+        }
+
+        @Override
+        public ProgressCounter stage(String stage) {
+            return stage(stage, null);
+        }
+
+        @Override
+        public ProgressCounter stage(String stage, String band) {
+            return counters.computeIfAbsent(band != null ? stage + '\u0000' + band : stage, k -> new Counter(stage, band));
+        }
+
+        @Override
+        public void finish() {
+            publish();
+            trackers.remove(runId, this);
+        }
+
+        private synchronized void publish() {
+            long now = System.nanoTime();
+            for (Counter counter : counters.values()) {
+                Progress snapshot = counter.snapshot(now);
+                if (snapshot != null) {
+                    notificationService.post(new StageProgressEvent(runId, run, counter.stage, counter.band, snapshot));
+                }
+            }
+        }
+    }
+
+    private static class Counter implements ProgressCounter {
+        private final String stage;
+        private final String band;
+        private final LongAdder total = new LongAdder();
+        private final LongAdder done = new LongAdder();
+        private final long started = System.nanoTime();
+        // Only touched while the owning tracker is publishing
+        private long lastTotal = -1l;
+        private long lastDone = -1l;
+
+        private Counter(String stage, String band) {
+            this.stage = stage;
+            this.band = band;
+        }
+
+        @Override
+        public ProgressCounter addTotal(long items) {
+            total.add(items);
+            return this;
+        }
+
+        @Override
+        public void increment() {
+            done.increment();
+        }
+
+        @Override
+        public void add(long items) {
+            done.add(items);
+        }
+
+        private Progress snapshot(long now) {
+            long currentTotal = total.sum();
+            long currentDone = done.sum();
+            if (currentTotal == lastTotal && currentDone == lastDone) {
+                return null;
+            }
+            lastTotal = currentTotal;
+            lastDone = currentDone;
+
+            Progress progress = new Progress(currentTotal, currentDone);
+            double seconds = (now - started) / 1.0e9;
+            if (seconds > 0.0) {
+                double rate = currentDone / seconds;
+                progress.setRate(rate);
+                if (currentDone >= currentTotal) {
+                    progress.setEtaSeconds(0l);
+                } else if (rate > 0.0) {
+                    progress.setEtaSeconds((long) Math.ceil((currentTotal - currentDone) / rate));
+                }
+            }
+            return progress;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service.impl;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Adds a timing advice to every Spring Data repository proxy so query latency
+ * shows up as the <code>cct.repository.query</code> timer, tagged by
+ * repository and method. Nothing is recorded when no {@link MeterRegistry} is
+ * available.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    public static final String REPOSITORY_TIMER = "cct.repository.query";
+
+    private final ObjectProvider<MeterRegistry> registry;
+
+    private volatile MeterRegistry meters;
+
+    private volatile boolean resolved;
+
+    @Autowired
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            Advised advised = (Advised) bean;
+            Class<?>[] interfaces = advised.getProxiedInterfaces();
+            String repository = interfaces.length > 0 ? interfaces[0].getSimpleName() : beanName;
+            advised.addAdvice(0, new TimingInterceptor(repository));
+        }
+        return bean;
+    }
+
+    private MeterRegistry getMeters() {
+        // Resolved on first use so the registry is not pulled in while the
+        // post processors are still being created
+        if (!resolved) {
+            meters = registry.getIfAvailable();
+            resolved = true;
+        }
+        return meters;
+    }
+
+    private class TimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+
+        // One timer per method so the registry is only searched the first
+        // time a method is called
+        private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+        private TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            MeterRegistry meters = getMeters();
+            if (meters == null) {
+                return invocation.proceed();
+            }
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                timers.computeIfAbsent(invocation.getMethod(), method -> Timer.builder(REPOSITORY_TIMER).tag("repository", repository).tag("method", method.getName()).register(meters))
+                      .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -14,13 +14,19 @@
 */
 package gov.llnl.gnem.apps.coda.common.service.impl;
 
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
 import gov.llnl.gnem.apps.coda.common.model.domain.WaveformPick;
 import gov.llnl.gnem.apps.coda.common.repository.WaveformPickRepository;
 import gov.llnl.gnem.apps.coda.common.service.api.WaveformPickService;
@@ -34,13 +40,18 @@ public class WaveformPickServiceImpl implements WaveformPickService {
      */
     private WaveformPickRepository waveformPickRepository;
 
+    private EntityManager em;
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     /**
      * 
      * @param waveformPickRepository
      */
     @Autowired
-    public WaveformPickServiceImpl(WaveformPickRepository waveformPickRepository) {
+    public WaveformPickServiceImpl(WaveformPickRepository waveformPickRepository, EntityManager em) {
         setWaveformPickRepository(waveformPickRepository);
+        this.em = em;
     }
 
     /**
@@ -106,6 +117,48 @@ public class WaveformPickServiceImpl implements WaveformPickService {
         return waveformPickRepository.saveAndFlush(entity);
     }
 
+    /**
+     * Deletes the existing pick rows of the waveforms in bulk and persists the
+     * current picks against a reference to each waveform so Hibernate can
+     * batch the inserts without loading or merging the waveform rows.
+     *
+     * @param waveforms
+     * @return int
+     */
+    @Transactional
+    @Override
+    public int replacePicks(Collection<Waveform> waveforms) {
+        List<Waveform> persisted = waveforms.stream().filter(Objects::nonNull).filter(w -> w.getId() != null).collect(Collectors.toList());
+        if (persisted.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = persisted.stream().map(Waveform::getId).distinct().collect(Collectors.toList());
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+            getWaveformPickRepository().deleteAllByWaveformIds(ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size())));
+        }
+
+        int written = 0;
+        for (Waveform waveform : persisted) {
+            Waveform reference = em.getReference(Waveform.class, waveform.getId());
+            for (WaveformPick pick : waveform.getAssociatedPicks()) {
+                pick.setId(null);
+                pick.setWaveform(reference);
+                em.persist(pick);
+                written++;
+            }
+        }
+        em.flush();
+
+        for (Waveform waveform : persisted) {
+            for (WaveformPick pick : waveform.getAssociatedPicks()) {
+                em.detach(pick);
+                pick.setWaveform(waveform);
+            }
+        }
+        return written;
+    }
+
     /**
      * 
      * @param id
@@ -30,6 +30,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import gov.llnl.gnem.apps.coda.common.model.domain.Event;
 import gov.llnl.gnem.apps.coda.common.model.domain.Stream;
@@ -66,7 +68,7 @@ public class WaveformServiceImpl implements WaveformService {
     @Override
     public void delete(Waveform waveform) {
         getWaveformRepository().delete(waveform);
-        notificationService.post(new WaveformChangeEvent(getIds(waveform)).setDelete(true));
+        postAfterCommit(new WaveformChangeEvent(getIds(waveform)).setDelete(true));
     }
 
     @Transactional
@@ -84,7 +86,7 @@ public class WaveformServiceImpl implements WaveformService {
     public void delete(Iterable<Long> ids) {
         List<Waveform> toDelete = getWaveformRepository().findAllById(ids);
         getWaveformRepository().deleteInBatch(toDelete);
-        notificationService.post(new WaveformChangeEvent(getIds(toDelete)).setDelete(true));
+        postAfterCommit(new WaveformChangeEvent(getIds(toDelete)).setDelete(true));
     }
 
     @Transactional
@@ -141,7 +143,7 @@ public class WaveformServiceImpl implements WaveformService {
     @Override
     public Waveform update(Waveform entry) {
         Waveform mergedEntry = waveformRepository.saveAndFlush(attachIfAvailableInRepository(entry));
-        notificationService.post(new WaveformChangeEvent(getIds(mergedEntry)).setAddOrUpdate(true));
+        postAfterCommit(new WaveformChangeEvent(getIds(mergedEntry)).setAddOrUpdate(true));
         return mergedEntry;
     }
 
@@ -164,6 +166,36 @@ public class WaveformServiceImpl implements WaveformService {
         return vals;
     }
 
+    @Transactional
+    @Override
+    public List<Waveform> updateAll(List<Waveform> values) {
+        List<Waveform> vals = new ArrayList<>(values.size());
+        for (Waveform entry : values) {
+            vals.add(attachIfAvailableInRepository(entry));
+        }
+        List<Waveform> saved = waveformRepository.saveAll(vals);
+        waveformRepository.flush();
+        postAfterCommit(new WaveformChangeEvent(getIds(saved)).setAddOrUpdate(true));
+        return saved;
+    }
+
+    /**
+     * Listeners re-query the repository when they see a change event so it
+     * must not be posted until the surrounding transaction (if any) commits.
+     */
+    private void postAfterCommit(Object event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notificationService.post(event);
+                }
+            });
+        } else {
+            notificationService.post(event);
+        }
+    }
+
     private List<Long> getIds(Waveform waveform) {
         return getIds(Collections.singletonList(waveform));
     }
@@ -178,8 +210,9 @@ public class WaveformServiceImpl implements WaveformService {
             if (entry.getId() != null) {
                 mergedEntry = waveformRepository.findById(entry.getId()).get();
             } else if (entry.getEvent() != null && entry.getStream() != null && entry.getStream().getStation() != null && entry.getLowFrequency() != null && entry.getHighFrequency() != null) {
-                mergedEntry = waveformRepository.findByUniqueFields(
-                        entry.getEvent().getEventId(),
+                mergedEntry = waveformRepository.findByProjectIdAndUniqueFields(
+                        entry.getProjectId(),
+                            entry.getEvent().getEventId(),
                             entry.getStream().getStation().getNetworkName(),
                             entry.getStream().getStation().getStationName(),
                             entry.getLowFrequency(),
@@ -199,6 +232,16 @@ public class WaveformServiceImpl implements WaveformService {
         return getByExampleAllDistinctMatching(new Waveform().setActive(Boolean.TRUE).setStream(new Stream().setChannelName(Stream.TYPE_STACK)));
     }
 
+    @Override
+    public List<Waveform> getAllActiveStacks(Long projectId) {
+        return getByExampleAllDistinctMatching(new Waveform().setProjectId(projectId).setActive(Boolean.TRUE).setStream(new Stream().setChannelName(Stream.TYPE_STACK)));
+    }
+
+    @Override
+    public List<Long> getAllActiveStackIds() {
+        return waveformRepository.findAllActiveStackIds();
+    }
+
     @Override
     public List<Waveform> getAllStacks() {
         return getByExampleAllDistinctMatching(new Waveform().setStream(new Stream().setChannelName(Stream.TYPE_STACK)));
@@ -240,7 +283,7 @@ public class WaveformServiceImpl implements WaveformService {
         List<Waveform> waveforms = waveformRepository.findAllById(selectedWaveforms);
         waveforms.forEach(w -> w.setActive(active));
         waveformRepository.saveAll(waveforms);
-        notificationService.post(new WaveformChangeEvent(selectedWaveforms).setAddOrUpdate(true));
+        postAfterCommit(new WaveformChangeEvent(selectedWaveforms).setAddOrUpdate(true));
         return selectedWaveforms;
     }
 
@@ -249,7 +292,7 @@ public class WaveformServiceImpl implements WaveformService {
         List<Long> ids = new ArrayList<>();
         if (waveformRepository.setActiveByEventId(eventId, active) > 0) {
             ids.addAll(waveformRepository.findAllIdsByEventId(eventId));
-            notificationService.post(new WaveformChangeEvent(ids).setAddOrUpdate(true));
+            postAfterCommit(new WaveformChangeEvent(ids).setAddOrUpdate(true));
         }
         return ids;
     }
@@ -259,7 +302,7 @@ public class WaveformServiceImpl implements WaveformService {
         List<Long> ids = new ArrayList<>();
         if (waveformRepository.setActiveByStationName(stationName, active) > 0) {
             ids.addAll(waveformRepository.findAllIdsByStationName(stationName));
-            notificationService.post(new WaveformChangeEvent(ids).setAddOrUpdate(true));
+            postAfterCommit(new WaveformChangeEvent(ids).setAddOrUpdate(true));
         }
         return ids;
     }
@@ -0,0 +1,79 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Event;
+import gov.llnl.gnem.apps.coda.common.model.domain.EventStationGeometry;
+import gov.llnl.gnem.apps.coda.common.model.domain.Station;
+import gov.llnl.gnem.apps.coda.common.service.impl.GeometryServiceImpl;
+import llnl.gnem.core.util.Geometry.EModel;
+
+public class GeometryServiceImplTest {
+
+    private GeometryServiceImpl geometryService = new GeometryServiceImpl();
+
+    @Test
+    public void testGeometryMatchesEModel() throws Exception {
+        Event event = new Event().setEventId("1").setLatitude(35.0).setLongitude(-117.0);
+        Station station = new Station().setStationName("STA").setLatitude(37.5).setLongitude(-115.0);
+
+        EventStationGeometry geometry = geometryService.getGeometry(event, station);
+
+        assertEquals(EModel.getDistanceWGS84(event.getLatitude(), event.getLongitude(), station.getLatitude(), station.getLongitude()), geometry.getDistance(), 1E-6);
+        assertEquals(EModel.getAzimuthWGS84(event.getLatitude(), event.getLongitude(), station.getLatitude(), station.getLongitude()), geometry.getAzimuth(), 1E-6);
+        assertEquals(EModel.getAzimuthWGS84(station.getLatitude(), station.getLongitude(), event.getLatitude(), event.getLongitude()), geometry.getBackAzimuth(), 1E-6);
+    }
+
+    @Test
+    public void testCachedUntilCoordinatesChange() throws Exception {
+        Event event = new Event().setEventId("1").setLatitude(35.0).setLongitude(-117.0);
+        Station station = new Station().setStationName("STA").setLatitude(37.5).setLongitude(-115.0);
+
+        EventStationGeometry first = geometryService.getGeometry(event, station);
+        assertSame(first, geometryService.getGeometry(new Event().setEventId("1").setLatitude(35.0).setLongitude(-117.0), station));
+
+        event.setLatitude(36.0);
+        assertNotEquals(first.getDistance(), geometryService.getDistance(event, station), 1E-6);
+    }
+
+    @Test
+    public void testStationsSharingANameKeepTheirOwnGeometry() throws Exception {
+        Event event = new Event().setEventId("1").setLatitude(35.0).setLongitude(-117.0);
+        Station a = new Station().setNetworkName("AA").setStationName("STA").setLatitude(37.5).setLongitude(-115.0);
+        Station b = new Station().setNetworkName("BB").setStationName("STA").setLatitude(30.0).setLongitude(-110.0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(EModel.getDistanceWGS84(35.0, -117.0, 37.5, -115.0), geometryService.getDistance(event, a), 1E-6);
+            assertEquals(EModel.getDistanceWGS84(35.0, -117.0, 30.0, -110.0), geometryService.getDistance(event, b), 1E-6);
+        }
+    }
+
+    @Test
+    public void testMissingIdsAreStillComputed() throws Exception {
+        Event event = new Event().setLatitude(35.0).setLongitude(-117.0);
+        Station station = new Station().setLatitude(36.0).setLongitude(-117.0);
+
+        assertEquals(EModel.getDistanceWGS84(35.0, -117.0, 36.0, -117.0), geometryService.getDistance(event, station), 1E-6);
+        geometryService.clear();
+        assertTrue(geometryService.getDistance(event, station) > 0.0);
+    }
+}
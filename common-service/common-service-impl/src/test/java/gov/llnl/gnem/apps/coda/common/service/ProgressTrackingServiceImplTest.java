@@ -0,0 +1,91 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import gov.llnl.gnem.apps.coda.common.model.messaging.StageProgressEvent;
+import gov.llnl.gnem.apps.coda.common.service.api.Listener;
+import gov.llnl.gnem.apps.coda.common.service.api.ProgressTracker;
+import gov.llnl.gnem.apps.coda.common.service.impl.NotificationServiceImpl;
+import gov.llnl.gnem.apps.coda.common.service.impl.ProgressTrackingServiceImpl;
+
+public class ProgressTrackingServiceImplTest {
+
+    @Test
+    public void testSnapshotsOnlyChangedCounters() throws Exception {
+        List<StageProgressEvent> posted = new ArrayList<>();
+        NotificationServiceImpl notificationService = new NotificationServiceImpl();
+        notificationService.register(new Listener<StageProgressEvent>() {
+            @Override
+            public void apply(StageProgressEvent event) {
+                posted.add(event);
+            }
+
+            @Override
+            public Class<StageProgressEvent> getType() {
+                return StageProgressEvent.class;
+            }
+        });
+        // No schedule, the test publishes by hand
+        ProgressTrackingServiceImpl progressService = new ProgressTrackingServiceImpl(notificationService, 0l);
+        try {
+            ProgressTracker tracker = progressService.start(3l, "calibration");
+            tracker.stage("velocity", "1.0-2.0").addTotal(1000);
+            tracker.stage("velocity", "2.0-4.0").addTotal(10);
+            IntStream.range(0, 400).parallel().forEach(i -> tracker.stage("velocity", "1.0-2.0").increment());
+            Thread.sleep(5);
+
+            progressService.publish();
+            assertEquals(2, posted.size());
+            Map<String, StageProgressEvent> byBand = posted.stream().collect(Collectors.toMap(StageProgressEvent::getBand, Function.identity()));
+            StageProgressEvent low = byBand.get("1.0-2.0");
+            assertEquals(3l, low.getRunId().longValue());
+            assertEquals("velocity", low.getStage());
+            assertEquals(1000l, low.getProgress().getTotal().longValue());
+            assertEquals(400l, low.getProgress().getCurrent().longValue());
+            assertTrue(low.getProgress().getRate() > 0.0);
+            assertTrue(low.getProgress().getEtaSeconds() >= 0l);
+            assertNull(byBand.get("2.0-4.0").getProgress().getEtaSeconds());
+
+            posted.clear();
+            progressService.publish();
+            assertTrue(posted.isEmpty());
+
+            tracker.stage("velocity", "2.0-4.0").add(10);
+            tracker.finish();
+            assertEquals(1, posted.size());
+            assertEquals(0l, posted.get(0).getProgress().getEtaSeconds().longValue());
+
+            posted.clear();
+            tracker.stage("velocity", "2.0-4.0").increment();
+            progressService.publish();
+            assertTrue(posted.isEmpty());
+        } finally {
+            progressService.shutdown();
+        }
+    }
+}
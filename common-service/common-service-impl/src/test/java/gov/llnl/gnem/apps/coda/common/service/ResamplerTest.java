@@ -0,0 +1,78 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import llnl.gnem.core.util.SeriesMath;
+import llnl.gnem.core.util.TimeT;
+import llnl.gnem.core.util.seriesMathHelpers.Resampler;
+import llnl.gnem.core.waveform.seismogram.TimeSeries;
+
+public class ResamplerTest {
+
+    private final float[] data = envelope(2001, 40.0);
+
+    @Test
+    public void testMatchesSeriesMathInterpolation() throws Exception {
+        for (double[] rates : new double[][] { { 40.0, 1.0 }, { 40.0, 20.0 }, { 40.0, 0.37 }, { 40.0, 100.0 } }) {
+            float[] expected = SeriesMath.interpolate(0., 1. / rates[0], data, 1. / rates[1]);
+            float[] actual = Resampler.resample(data, 1. / rates[0], 1. / rates[1]);
+            assertArrayEquals(expected, actual, 1E-5f);
+        }
+    }
+
+    @Test
+    public void testWindowMatchesInterpolateThenCut() throws Exception {
+        TimeT begin = new TimeT(1000.0);
+        TimeSeries full = new TimeSeries(data, 40.0, begin);
+        full.interpolate(1.0);
+        full.cut(begin.add(12.3), begin.add(31.7));
+
+        TimeSeries window = new TimeSeries(data, 40.0, begin);
+        window.interpolate(1.0, begin.add(12.3), begin.add(31.7));
+
+        assertEquals(full.getTime().getEpochTime(), window.getTime().getEpochTime(), 1E-9);
+        assertEquals(full.getSamprate(), window.getSamprate(), 1E-12);
+        assertArrayEquals(full.getData(), window.getData(), 1E-5f);
+    }
+
+    @Test
+    public void testWritesIntoCallerBuffer() throws Exception {
+        float[] expected = Resampler.resample(data, 1. / 40.0, 1. / 20.0);
+        float[] buffer = new float[20];
+        assertEquals(10, Resampler.resample(data, data.length, 1. / 40.0, 1. / 20.0, 100, 10, buffer, 5));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected[100 + i], buffer[5 + i], 1E-6f);
+        }
+        assertEquals(0f, buffer[4]);
+        assertEquals(0f, buffer[15]);
+    }
+
+    private float[] envelope(int nsamp, double rate) {
+        Random random = new Random(7l);
+        float[] values = new float[nsamp];
+        for (int i = 0; i < nsamp; i++) {
+            double t = i / rate;
+            values[i] = (float) (2.0 - 0.03 * t + 0.1 * Math.sin(t) + 0.05 * random.nextGaussian());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.common.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.WaveformChangeEvent;
+import gov.llnl.gnem.apps.coda.common.repository.WaveformRepository;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.common.service.impl.WaveformServiceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class WaveformServiceImplEventTest {
+
+    @Mock
+    private WaveformRepository waveformRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private WaveformServiceImpl waveformService;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        waveformService = new WaveformServiceImpl(waveformRepository, notificationService);
+        Mockito.when(waveformRepository.saveAll(anyList())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    protected void tearDown() throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testUpdateAllPostsChangeEventAfterCommit() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        waveformService.updateAll(Arrays.asList(new Waveform(), new Waveform()));
+        Mockito.verify(notificationService, Mockito.never()).post(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        ArgumentCaptor<WaveformChangeEvent> event = ArgumentCaptor.forClass(WaveformChangeEvent.class);
+        Mockito.verify(notificationService).post(event.capture());
+        assertEquals(2, event.getValue().getIds().size());
+    }
+
+    @Test
+    public void testUpdateAllDoesNotPostChangeEventOnRollback() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        waveformService.updateAll(Arrays.asList(new Waveform()));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        Mockito.verify(notificationService, Mockito.never()).post(any());
+    }
+
+    @Test
+    public void testUpdateAllPostsImmediatelyWithoutTransaction() throws Exception {
+        waveformService.updateAll(Arrays.asList(new Waveform()));
+
+        ArgumentCaptor<WaveformChangeEvent> event = ArgumentCaptor.forClass(WaveformChangeEvent.class);
+        Mockito.verify(notificationService).post(event.capture());
+        assertEquals(1, event.getValue().getIds().size());
+    }
+}
@@ -84,6 +84,18 @@ public class WaveformServiceImplTest {
         assertThat(waveformService.findAll()).size().isEqualTo(2).describedAs("Should have saved two waveform entries");
     }
 
+    @Test
+    public void testSameWaveformInDifferentProjects() throws Exception {
+        Waveform initialWaveform = genWaveform();
+        initialWaveform.getStream().setChannelName(Stream.TYPE_STACK);
+        waveformService.update(new Waveform().mergeNonNullOrEmptyFields(initialWaveform));
+        waveformService.update(new Waveform().mergeNonNullOrEmptyFields(initialWaveform).setProjectId(7l));
+        waveformService.update(new Waveform().mergeNonNullOrEmptyFields(initialWaveform).setProjectId(7l));
+        assertThat(waveformService.findAll()).size().isEqualTo(2).describedAs("Should have saved one waveform entry per project");
+        assertThat(waveformService.getAllActiveStacks(7l)).size().isEqualTo(1).describedAs("Should only return stacks in the requested project");
+        assertThat(waveformService.getAllActiveStacks(7l)).allMatch(w -> Long.valueOf(7l).equals(w.getProjectId()));
+    }
+
     private Waveform genWaveform() {
         Waveform w = new Waveform(null,
                                   null,
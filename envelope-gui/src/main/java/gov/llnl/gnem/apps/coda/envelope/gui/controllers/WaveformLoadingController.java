@@ -27,7 +27,6 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -45,8 +44,10 @@ import gov.llnl.gnem.apps.coda.common.gui.controllers.AbstractSeismogramSaveLoad
 import gov.llnl.gnem.apps.coda.common.gui.converters.api.CodaFilenameParser;
 import gov.llnl.gnem.apps.coda.common.gui.converters.api.FileToWaveformConverter;
 import gov.llnl.gnem.apps.coda.common.gui.converters.api.StackInfo;
+import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacBulkExporter;
 import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacExporter;
 import gov.llnl.gnem.apps.coda.common.gui.converters.sac.SacLoader;
+import gov.llnl.gnem.apps.coda.common.gui.util.ProgressAccumulator;
 import gov.llnl.gnem.apps.coda.common.gui.util.ProgressEventProgressListener;
 import gov.llnl.gnem.apps.coda.common.gui.util.ProgressMonitor;
 import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
@@ -57,6 +58,7 @@ import gov.llnl.gnem.apps.coda.envelope.gui.data.api.EnvelopeClient;
 import llnl.gnem.core.io.SAC.SACHeader;
 import llnl.gnem.core.util.TimeT;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
+import reactor.core.publisher.Flux;
 
 @Component
 public class WaveformLoadingController extends AbstractSeismogramSaveLoadController<FileToWaveformConverter, Waveform> {
@@ -81,9 +83,9 @@ public class WaveformLoadingController extends AbstractSeismogramSaveLoadControl
     private int batchSize;
 
     @Autowired
-    public WaveformLoadingController(List<FileToWaveformConverter> fileConverters, EnvelopeClient client, EnvelopeParamsController params, EventBus bus, SacExporter sacExporter, SacLoader sacLoader,
-            CodaFilenameParser filenameParser) {
-        super(fileConverters, bus, log, sacExporter, () -> client.getAllEnvelopes(), null);
+    public WaveformLoadingController(List<FileToWaveformConverter> fileConverters, EnvelopeClient client, EnvelopeParamsController params, EventBus bus, SacExporter sacExporter,
+            SacBulkExporter sacBulkExporter, SacLoader sacLoader, CodaFilenameParser filenameParser) {
+        super(fileConverters, bus, log, sacExporter, sacBulkExporter, () -> client.getAllEnvelopes(), null);
         this.sacLoader = sacLoader;
         this.filenameParser = filenameParser;
         this.loadClient = (id, waveforms) -> client.postEnvelopes(id, waveforms).doOnNext(w -> {
@@ -173,67 +175,54 @@ public class WaveformLoadingController extends AbstractSeismogramSaveLoadControl
     }
 
     public void stackEnvelopes(TreeMap<String, List<File>> evidStaFreqMap) {
-        final AtomicLong count = new AtomicLong(0);
-        progress.setTotal((long) evidStaFreqMap.size());
-        progress.setCurrent(count.get());
-        progressEvent.setProgress(progress);
-        bus.post(progressEvent);
-
-        evidStaFreqMap.entrySet().parallelStream().forEach(entry -> {
-            if (entry.getValue().size() > 1) {
-                List<File> files = entry.getValue();
-                Map<String, List<Waveform>> waveformsByFreqAndSta = new HashMap<>();
-
-                for (int i = 0; i < files.size(); i++) {
-                    Result<StackInfo> res = filenameParser.parse(files.get(i).getName().toUpperCase(Locale.ENGLISH));
-                    if (res != null && res.isSuccess() && res.getResultPayload().isPresent()) {
-                        StackInfo stackInfo = res.getResultPayload().get();
-                        Result<Waveform> result = sacLoader.convertSacFileToWaveform(files.get(i));
-
-                        if (result.isSuccess() && result.getResultPayload().isPresent()) {
-                            Waveform rawWaveform = result.getResultPayload().get();
-                            rawWaveform.setLowFrequency(stackInfo.getLowFrequency());
-                            rawWaveform.setHighFrequency(stackInfo.getHighFrequency());
-                            if (rawWaveform != null
-                                    && rawWaveform.hasData()
-                                    && rawWaveform.getSegmentLength() > 0
-                                    && rawWaveform.getStream() != null
-                                    && rawWaveform.getStream().getStation() != null
-                                    && rawWaveform.getStream().getChannelName() != null) {
-                                if (!gov.llnl.gnem.apps.coda.common.model.domain.Stream.TYPE_STACK.equalsIgnoreCase(rawWaveform.getStream().getChannelName())) {
-                                    waveformsByFreqAndSta.computeIfAbsent(entry.getKey() + " " + rawWaveform.getStream().getStation().hashCode(), k -> new ArrayList<>()).add(rawWaveform);
+        try (ProgressAccumulator stacked = new ProgressAccumulator(bus, progressEvent)) {
+            stacked.addTotal(evidStaFreqMap.size());
+            stacked.post();
+
+            evidStaFreqMap.entrySet().parallelStream().forEach(entry -> {
+                if (entry.getValue().size() > 1) {
+                    List<File> files = entry.getValue();
+                    Map<String, List<Waveform>> waveformsByFreqAndSta = new HashMap<>();
+
+                    for (int i = 0; i < files.size(); i++) {
+                        Result<StackInfo> res = filenameParser.parse(files.get(i).getName().toUpperCase(Locale.ENGLISH));
+                        if (res != null && res.isSuccess() && res.getResultPayload().isPresent()) {
+                            StackInfo stackInfo = res.getResultPayload().get();
+                            Result<Waveform> result = sacLoader.convertSacFileToWaveform(files.get(i));
+
+                            if (result.isSuccess() && result.getResultPayload().isPresent()) {
+                                Waveform rawWaveform = result.getResultPayload().get();
+                                rawWaveform.setLowFrequency(stackInfo.getLowFrequency());
+                                rawWaveform.setHighFrequency(stackInfo.getHighFrequency());
+                                if (rawWaveform != null
+                                        && rawWaveform.hasData()
+                                        && rawWaveform.getSegmentLength() > 0
+                                        && rawWaveform.getStream() != null
+                                        && rawWaveform.getStream().getStation() != null
+                                        && rawWaveform.getStream().getChannelName() != null) {
+                                    if (!gov.llnl.gnem.apps.coda.common.model.domain.Stream.TYPE_STACK.equalsIgnoreCase(rawWaveform.getStream().getChannelName())) {
+                                        waveformsByFreqAndSta.computeIfAbsent(entry.getKey() + " " + rawWaveform.getStream().getStation().hashCode(), k -> new ArrayList<>()).add(rawWaveform);
+                                    }
+                                } else {
+                                    log.warn("No data or bad station specification for waveform {}.", rawWaveform);
                                 }
                             } else {
-                                log.warn("No data or bad station specification for waveform {}.", rawWaveform);
+                                log.warn("Unable to read envelope file {}. {}", files.get(i), result.getErrors());
                             }
                         } else {
-                            log.warn("Unable to read envelope file {}. {}", files.get(i), result.getErrors());
+                            log.warn("Unable to parse envelope filename for frequency band {}. {}", files.get(i), res.getErrors());
                         }
-                    } else {
-                        log.warn("Unable to parse envelope filename for frequency band {}. {}", files.get(i), res.getErrors());
                     }
-                }
 
-                List<Waveform> stackedWaveforms = waveformsByFreqAndSta.entrySet().stream().map(e -> stackEnvelopes(e.getValue())).filter(Objects::nonNull).collect(Collectors.toList());
+                    List<Waveform> stackedWaveforms = waveformsByFreqAndSta.entrySet().stream().map(e -> stackEnvelopes(e.getValue())).filter(Objects::nonNull).collect(Collectors.toList());
 
-                // TODO: Export envelopes and stacks to separate dirs
-                for (Waveform stackedWaveform : stackedWaveforms) {
-                    File stackFolder = getExportPath(stackedWaveform).toFile();
-                    sacExporter.writeWaveformToDirectory(stackFolder, stackedWaveform);
+                    // TODO: Export envelopes and stacks to separate dirs
+                    sacBulkExporter.exportToDirectories(Flux.fromIterable(stackedWaveforms), stackedWaveform -> getExportPath(stackedWaveform).toFile());
                 }
-            }
 
-            long currentCount = count.getAndIncrement();
-            if (currentCount % this.getMaxBatching() == 0) {
-                progress.setCurrent(currentCount);
-                progressEvent.setProgress(progress);
-                bus.post(progressEvent);
-            }
-        });
-
-        progress.setCurrent(progress.getTotal());
-        progressEvent.setProgress(progress);
-        bus.post(progressEvent);
+                stacked.increment();
+            });
+        }
     }
 
     private Waveform stackEnvelopes(List<Waveform> waves) {
@@ -0,0 +1,104 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.application.web;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobStatus;
+import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeJobService;
+
+@RestController
+@RequestMapping(value = "/api/v1/envelopes/jobs", name = "EnvelopeJobJsonController", produces = MediaType.APPLICATION_JSON_VALUE)
+public class EnvelopeJobJsonController {
+
+    private EnvelopeJobService service;
+
+    @Autowired
+    public EnvelopeJobJsonController(EnvelopeJobService service) {
+        this.service = service;
+    }
+
+    @PostMapping(value = "/start/{sessionId}", name = "startJob")
+    public ResponseEntity<?> startJob(@PathVariable Long sessionId, @RequestParam(value = "stacksOnly", defaultValue = "false") boolean stacksOnly,
+            @RequestBody(required = false) EnvelopeJobConfiguration jobConfig) {
+        return ResponseEntity.ok(service.startJob(sessionId, jobConfig, stacksOnly));
+    }
+
+    @PostMapping(value = "/{jobId}/chunks", name = "addChunk")
+    public ResponseEntity<?> addChunk(@PathVariable Long jobId, @RequestBody List<Waveform> data) {
+        return toResponse(service.addChunk(jobId, data));
+    }
+
+    @PostMapping(value = "/{jobId}/finish", name = "finishJob")
+    public ResponseEntity<?> finishJob(@PathVariable Long jobId) {
+        return toResponse(service.finishJob(jobId));
+    }
+
+    @DeleteMapping(value = "/{jobId}", name = "cancelJob")
+    public ResponseEntity<?> cancelJob(@PathVariable Long jobId, @RequestParam(value = "remove", defaultValue = "false") boolean remove) {
+        EnvelopeJobStatus status = remove ? service.removeJob(jobId) : service.cancelJob(jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping(value = "/{jobId}", name = "getStatus")
+    public ResponseEntity<?> getStatus(@PathVariable Long jobId) {
+        EnvelopeJobStatus status = service.getStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping(value = "/{jobId}/results", name = "takeResults")
+    public ResponseEntity<?> takeResults(@PathVariable Long jobId, @RequestParam(value = "max", defaultValue = "500") int max) {
+        List<Waveform> results = service.takeResults(jobId, max);
+        if (results == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping(name = "getStatuses")
+    public ResponseEntity<?> getStatuses() {
+        return ResponseEntity.ok(service.getStatuses());
+    }
+
+    private ResponseEntity<?> toResponse(Result<EnvelopeJobStatus> result) {
+        if (result.isSuccess()) {
+            return ResponseEntity.ok(result);
+        } else if (!result.getResultPayload().isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.badRequest().body(result);
+    }
+}
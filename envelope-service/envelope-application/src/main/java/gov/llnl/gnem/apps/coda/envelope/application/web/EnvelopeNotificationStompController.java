@@ -0,0 +1,46 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.application.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Controller;
+
+import gov.llnl.gnem.apps.coda.common.application.web.TypingMessageTemplate;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent;
+import gov.llnl.gnem.apps.coda.common.service.api.Listener;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+
+@Controller
+@Lazy(false)
+public class EnvelopeNotificationStompController {
+
+    @Autowired
+    public EnvelopeNotificationStompController(SimpMessagingTemplate template, NotificationService notificationService) {
+        final TypingMessageTemplate typingTemplate = new TypingMessageTemplate(template);
+        notificationService.register(new Listener<ProgressEvent>() {
+            @Override
+            public void apply(ProgressEvent event) {
+                typingTemplate.convertAndSend("/topic/envelope-events", event);
+            }
+
+            @Override
+            public Class<ProgressEvent> getType() {
+                return ProgressEvent.class;
+            }
+        });
+    }
+}
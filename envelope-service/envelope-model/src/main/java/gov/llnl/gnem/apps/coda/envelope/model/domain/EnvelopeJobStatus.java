@@ -0,0 +1,199 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.model.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class EnvelopeJobStatus {
+
+    public enum State {
+        RECEIVING, FINISHING, COMPLETE, CANCELLED, ERROR
+    }
+
+    private Long id;
+    private Long sessionId;
+    private boolean stacksOnly;
+    private State state = State.RECEIVING;
+    private long receivedChunks;
+    private long receivedWaveforms;
+    private long processedWaveforms;
+    private long createdEnvelopes;
+    private long pendingEnvelopes;
+    private List<String> errors = new ArrayList<>();
+
+    public EnvelopeJobStatus() {
+    }
+
+    public EnvelopeJobStatus(EnvelopeJobStatus other) {
+        this.id = other.id;
+        this.sessionId = other.sessionId;
+        this.stacksOnly = other.stacksOnly;
+        this.state = other.state;
+        this.receivedChunks = other.receivedChunks;
+        this.receivedWaveforms = other.receivedWaveforms;
+        this.processedWaveforms = other.processedWaveforms;
+        this.createdEnvelopes = other.createdEnvelopes;
+        this.pendingEnvelopes = other.pendingEnvelopes;
+        this.errors = new ArrayList<>(other.errors);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public EnvelopeJobStatus setId(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public EnvelopeJobStatus setSessionId(Long sessionId) {
+        this.sessionId = sessionId;
+        return this;
+    }
+
+    public boolean isStacksOnly() {
+        return stacksOnly;
+    }
+
+    public EnvelopeJobStatus setStacksOnly(boolean stacksOnly) {
+        this.stacksOnly = stacksOnly;
+        return this;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public EnvelopeJobStatus setState(State state) {
+        this.state = state;
+        return this;
+    }
+
+    public long getReceivedChunks() {
+        return receivedChunks;
+    }
+
+    public EnvelopeJobStatus setReceivedChunks(long receivedChunks) {
+        this.receivedChunks = receivedChunks;
+        return this;
+    }
+
+    public long getReceivedWaveforms() {
+        return receivedWaveforms;
+    }
+
+    public EnvelopeJobStatus setReceivedWaveforms(long receivedWaveforms) {
+        this.receivedWaveforms = receivedWaveforms;
+        return this;
+    }
+
+    public long getProcessedWaveforms() {
+        return processedWaveforms;
+    }
+
+    public EnvelopeJobStatus setProcessedWaveforms(long processedWaveforms) {
+        this.processedWaveforms = processedWaveforms;
+        return this;
+    }
+
+    /**
+     * @return number of envelopes (or stacks for a stacks-only job) produced
+     *         so far
+     */
+    public long getCreatedEnvelopes() {
+        return createdEnvelopes;
+    }
+
+    public EnvelopeJobStatus setCreatedEnvelopes(long createdEnvelopes) {
+        this.createdEnvelopes = createdEnvelopes;
+        return this;
+    }
+
+    /**
+     * @return number of finished envelopes waiting to be fetched
+     */
+    public long getPendingEnvelopes() {
+        return pendingEnvelopes;
+    }
+
+    public EnvelopeJobStatus setPendingEnvelopes(long pendingEnvelopes) {
+        this.pendingEnvelopes = pendingEnvelopes;
+        return this;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public EnvelopeJobStatus setErrors(List<String> errors) {
+        this.errors = errors;
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, sessionId, stacksOnly, state, receivedChunks, receivedWaveforms, processedWaveforms, createdEnvelopes, pendingEnvelopes, errors);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof EnvelopeJobStatus)) {
+            return false;
+        }
+        EnvelopeJobStatus other = (EnvelopeJobStatus) obj;
+        return Objects.equals(id, other.id)
+                && Objects.equals(sessionId, other.sessionId)
+                && stacksOnly == other.stacksOnly
+                && state == other.state
+                && receivedChunks == other.receivedChunks
+                && receivedWaveforms == other.receivedWaveforms
+                && processedWaveforms == other.processedWaveforms
+                && createdEnvelopes == other.createdEnvelopes
+                && pendingEnvelopes == other.pendingEnvelopes
+                && Objects.equals(errors, other.errors);
+    }
+
+    @Override
+    public String toString() {
+        return "EnvelopeJobStatus [id="
+                + id
+                + ", sessionId="
+                + sessionId
+                + ", stacksOnly="
+                + stacksOnly
+                + ", state="
+                + state
+                + ", receivedChunks="
+                + receivedChunks
+                + ", receivedWaveforms="
+                + receivedWaveforms
+                + ", processedWaveforms="
+                + processedWaveforms
+                + ", createdEnvelopes="
+                + createdEnvelopes
+                + ", pendingEnvelopes="
+                + pendingEnvelopes
+                + "]";
+    }
+}
@@ -25,4 +25,9 @@ public interface EnvelopeCreationService {
 
     public Result<List<Waveform>> createEnvelopes(Long sessionId, Collection<Waveform> waveforms, EnvelopeJobConfiguration envConf, boolean shouldReturnStacks);
 
+    /**
+     * Stacks envelopes that share an event, station and frequency band.
+     */
+    public List<Waveform> stackEnvelopes(Collection<Waveform> envelopes);
+
 }
@@ -0,0 +1,83 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.service.api;
+
+import java.util.Collection;
+import java.util.List;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobStatus;
+
+/**
+ * Envelope jobs that receive their raw waveforms in chunks. Each chunk is
+ * turned into envelopes as soon as it arrives and the raw data is dropped;
+ * clients fetch the finished envelopes while the job runs instead of in one
+ * response at the end.
+ */
+public interface EnvelopeJobService {
+
+    /**
+     * @param envConf
+     *            band configuration for every chunk of this job, the current
+     *            service configuration is used when null
+     * @param stacksOnly
+     *            if true envelopes are held until the job is finished and
+     *            only the stacks are returned
+     * @return the initial status of the job, the id is also used for the
+     *         {@link gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent}s
+     *         posted while it runs
+     */
+    public EnvelopeJobStatus startJob(Long sessionId, EnvelopeJobConfiguration envConf, boolean stacksOnly);
+
+    /**
+     * Queues another chunk of raw waveforms. Fails if the job is not
+     * receiving, too many finished envelopes have not been fetched yet or,
+     * for stacks-only jobs, too many envelopes are waiting to be stacked.
+     */
+    public Result<EnvelopeJobStatus> addChunk(Long jobId, Collection<Waveform> waveforms);
+
+    /**
+     * Marks the job as having received all of its chunks. It completes once
+     * the queued chunks are processed.
+     */
+    public Result<EnvelopeJobStatus> finishJob(Long jobId);
+
+    /**
+     * Stops the job and drops any queued chunks and unfetched envelopes.
+     */
+    public EnvelopeJobStatus cancelJob(Long jobId);
+
+    /**
+     * Cancels the job if it is still running and forgets it. Jobs are also
+     * removed once they have been idle for a while, or shortly after they
+     * finish with nothing left to fetch.
+     *
+     * @return the last status of the job or null if there is no such job
+     */
+    public EnvelopeJobStatus removeJob(Long jobId);
+
+    /**
+     * Removes and returns up to maxResults finished envelopes.
+     *
+     * @return the envelopes or null if there is no such job
+     */
+    public List<Waveform> takeResults(Long jobId, int maxResults);
+
+    public EnvelopeJobStatus getStatus(Long jobId);
+
+    public List<EnvelopeJobStatus> getStatuses();
+}
@@ -20,11 +20,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -38,6 +40,10 @@ import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
 import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeCreationService;
 import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeParamsService;
 import gov.llnl.gnem.apps.coda.envelope.service.api.WaveformStacker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import llnl.gnem.core.util.Passband;
 import llnl.gnem.core.waveform.seismogram.TimeSeries;
 
@@ -52,11 +58,29 @@ public class EnvelopeCreationServiceImpl implements EnvelopeCreationService {
 
     private WaveformStacker stacker;
 
-    @Autowired
+    private final Counter waveformsIn;
+    private final Counter samplesIn;
+    private final Counter envelopesOut;
+    private final Timer jobTimer;
+
     public EnvelopeCreationServiceImpl(WaveformToTimeSeriesConverter converter, EnvelopeParamsService params, WaveformStacker stacker) {
+        this(converter, params, stacker, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public EnvelopeCreationServiceImpl(WaveformToTimeSeriesConverter converter, EnvelopeParamsService params, WaveformStacker stacker, ObjectProvider<MeterRegistry> registry) {
+        this(converter, params, stacker, registry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    private EnvelopeCreationServiceImpl(WaveformToTimeSeriesConverter converter, EnvelopeParamsService params, WaveformStacker stacker, MeterRegistry registry) {
         this.converter = converter;
         this.params = params;
         this.stacker = stacker;
+        // Throughput is the rate of these counters over the job timer
+        this.waveformsIn = Counter.builder("cct.envelope.waveforms").description("Raw waveforms submitted for envelope creation").register(registry);
+        this.samplesIn = Counter.builder("cct.envelope.samples").description("Raw samples submitted for envelope creation").register(registry);
+        this.envelopesOut = Counter.builder("cct.envelope.created").description("Band envelopes created").register(registry);
+        this.jobTimer = Timer.builder("cct.envelope.job").description("Time spent creating envelopes per request").register(registry);
     }
 
     @Override
@@ -77,22 +101,33 @@ public class EnvelopeCreationServiceImpl implements EnvelopeCreationService {
                                 Collections.emptyList());
         }
 
+        long start = System.nanoTime();
         Set<Waveform> distinctWaveforms = new HashSet<>(waveforms);
-        List<Waveform> results = generateEnvelopesForBands(distinctWaveforms.stream().filter(Objects::nonNull).collect(Collectors.toList()), envConf);
+        List<Waveform> rawWaveforms = distinctWaveforms.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        List<Waveform> results = generateEnvelopesForBands(rawWaveforms, envConf);
+        waveformsIn.increment(rawWaveforms.size());
+        samplesIn.increment(rawWaveforms.stream().mapToInt(Waveform::getSegmentLength).sum());
+        envelopesOut.increment(results.size());
         if (shouldReturnStacks) {
-            results = results.stream()
-                             .filter(w -> w.getEvent() != null && w.getLowFrequency() != null && w.getStream() != null && w.getStream().getStation() != null)
-                             .collect(Collectors.groupingBy(w -> w.getEvent().getEventId() + w.getLowFrequency() + w.getStream().getStation().hashCode()))
-                             .values()
-                             .stream()
-                             .map(waves -> {
-                                 return stacker.stackEnvelopes(waves);
-                             })
-                             .collect(Collectors.toList());
+            results = stackEnvelopes(results);
         }
+        jobTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         return new Result<>(true, results);
     }
 
+    @Override
+    public List<Waveform> stackEnvelopes(Collection<Waveform> envelopes) {
+        return envelopes.stream()
+                        .filter(w -> w.getEvent() != null && w.getLowFrequency() != null && w.getStream() != null && w.getStream().getStation() != null)
+                        .collect(Collectors.groupingBy(w -> w.getEvent().getEventId() + w.getLowFrequency() + w.getStream().getStation().hashCode()))
+                        .values()
+                        .stream()
+                        .map(waves -> {
+                            return stacker.stackEnvelopes(waves);
+                        })
+                        .collect(Collectors.toList());
+    }
+
     private List<Waveform> generateEnvelopesForBands(List<Waveform> rawWaveforms, EnvelopeJobConfiguration envConf) {
         return rawWaveforms.parallelStream().map(wave -> {
             return envConf.getFrequencyBandConfiguration().parallelStream().map(bandConfig -> {
@@ -0,0 +1,376 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Progress;
+import gov.llnl.gnem.apps.coda.common.model.messaging.ProgressEvent;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.model.util.LightweightIllegalStateException;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobStatus;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobStatus.State;
+import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeCreationService;
+import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeJobService;
+import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeParamsService;
+
+@Service
+public class EnvelopeJobServiceImpl implements EnvelopeJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(EnvelopeJobServiceImpl.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // Finished jobs with nothing left to fetch stay visible this long so
+    // clients can still read their final status
+    private static final long DRAINED_RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(1l);
+
+    // Progress events are broadcast to every client; keep the ids well clear
+    // of the small counters the GUI uses for its own progress bars.
+    private static final AtomicLong jobIds = new AtomicLong(System.currentTimeMillis());
+
+    // Chunks are processed one at a time and in order; each chunk already
+    // runs its waveforms and bands in parallel.
+    private static final ExecutorService envelopeJobService = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+        Thread thread = new Thread(r);
+        thread.setName("Envelope Job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r);
+        thread.setName("Envelope Job Reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private EnvelopeCreationService envelopeService;
+    private EnvelopeParamsService params;
+    private NotificationService notificationService;
+
+    @Value("${envelope.job.max-pending-envelopes:50000}")
+    private int maxPendingEnvelopes = 50000;
+
+    @Value("${envelope.job.idle-minutes:30}")
+    private long idleMinutes = 30;
+
+    @Autowired
+    public EnvelopeJobServiceImpl(EnvelopeCreationService envelopeService, EnvelopeParamsService params, NotificationService notificationService) {
+        this.envelopeService = envelopeService;
+        this.params = params;
+        this.notificationService = notificationService;
+        reaper.scheduleWithFixedDelay(this::removeExpiredJobs, 1l, 1l, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reaper.shutdownNow();
+    }
+
+    public EnvelopeJobServiceImpl setMaxPendingEnvelopes(int maxPendingEnvelopes) {
+        this.maxPendingEnvelopes = maxPendingEnvelopes;
+        return this;
+    }
+
+    public EnvelopeJobServiceImpl setIdleMinutes(long idleMinutes) {
+        this.idleMinutes = idleMinutes;
+        return this;
+    }
+
+    @Override
+    public EnvelopeJobStatus startJob(Long sessionId, EnvelopeJobConfiguration envConf, boolean stacksOnly) {
+        if (envConf == null) {
+            envConf = params.getConfiguration();
+        }
+        Job job = new Job(new EnvelopeJobStatus().setId(jobIds.getAndIncrement()).setSessionId(sessionId).setStacksOnly(stacksOnly), envConf);
+        jobs.put(job.status.getId(), job);
+        if (envConf == null) {
+            synchronized (job.status) {
+                job.status.setState(State.ERROR);
+                addError(job.status, "No envelope configuration specified and no default configuration is available");
+            }
+        }
+        return getStatus(job.status.getId());
+    }
+
+    @Override
+    public Result<EnvelopeJobStatus> addChunk(Long jobId, Collection<Waveform> waveforms) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return failure(null, "No envelope job with id " + jobId);
+        }
+        job.touch();
+        List<Waveform> chunk = waveforms != null ? waveforms.stream().filter(Objects::nonNull).collect(Collectors.toList()) : Collections.emptyList();
+        synchronized (job.status) {
+            if (job.status.getState() != State.RECEIVING) {
+                return failure(job, "Envelope job " + jobId + " is " + job.status.getState() + " and is not accepting waveforms");
+            }
+            if (job.status.getPendingEnvelopes() > maxPendingEnvelopes) {
+                return failure(job, "Envelope job " + jobId + " has " + job.status.getPendingEnvelopes() + " unfetched envelopes; fetch results before sending more waveforms");
+            }
+            if (job.unstackedCount > maxPendingEnvelopes) {
+                return failure(job, "Envelope job " + jobId + " is holding " + job.unstackedCount + " envelopes for stacking; finish the job or send smaller stacks-only jobs");
+            }
+            job.status.setReceivedChunks(job.status.getReceivedChunks() + 1).setReceivedWaveforms(job.status.getReceivedWaveforms() + chunk.size());
+            job.chunks.add(chunk);
+        }
+        envelopeJobService.submit(() -> processChunk(job));
+        postProgress(job.status);
+        return new Result<>(true, getStatus(jobId));
+    }
+
+    @Override
+    public Result<EnvelopeJobStatus> finishJob(Long jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return failure(null, "No envelope job with id " + jobId);
+        }
+        synchronized (job.status) {
+            if (job.status.getState() != State.RECEIVING) {
+                return failure(job, "Envelope job " + jobId + " is already " + job.status.getState());
+            }
+            job.status.setState(State.FINISHING);
+        }
+        // Runs after every chunk queued before it
+        envelopeJobService.submit(() -> completeJob(job));
+        return new Result<>(true, getStatus(jobId));
+    }
+
+    @Override
+    public EnvelopeJobStatus cancelJob(Long jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job.status) {
+            if (job.status.getState() == State.RECEIVING || job.status.getState() == State.FINISHING) {
+                job.status.setState(State.CANCELLED);
+            }
+        }
+        if (job.status.getState() == State.CANCELLED) {
+            job.release();
+            synchronized (job.status) {
+                job.status.setPendingEnvelopes(0l);
+            }
+            postProgress(job.status);
+        }
+        return getStatus(jobId);
+    }
+
+    @Override
+    public EnvelopeJobStatus removeJob(Long jobId) {
+        EnvelopeJobStatus status = cancelJob(jobId);
+        Job job = jobs.remove(jobId);
+        if (job != null) {
+            job.release();
+        }
+        return status;
+    }
+
+    @Override
+    public List<Waveform> takeResults(Long jobId, int maxResults) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        job.touch();
+        List<Waveform> taken = new ArrayList<>();
+        Waveform next;
+        while (taken.size() < maxResults && (next = job.results.poll()) != null) {
+            taken.add(next);
+        }
+        synchronized (job.status) {
+            job.status.setPendingEnvelopes(job.status.getPendingEnvelopes() - taken.size());
+        }
+        return taken;
+    }
+
+    @Override
+    public EnvelopeJobStatus getStatus(Long jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        job.touch();
+        synchronized (job.status) {
+            return new EnvelopeJobStatus(job.status);
+        }
+    }
+
+    @Override
+    public List<EnvelopeJobStatus> getStatuses() {
+        return jobs.keySet().stream().sorted().map(this::getStatus).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    protected void processChunk(Job job) {
+        List<Waveform> chunk = job.chunks.poll();
+        if (chunk == null || isStopped(job)) {
+            return;
+        }
+        try {
+            Result<List<Waveform>> result = envelopeService.createEnvelopes(job.status.getSessionId(), chunk, job.config, false);
+            List<Waveform> envelopes = result.getResultPayload().orElseGet(Collections::emptyList);
+            if (isStopped(job)) {
+                return;
+            }
+            synchronized (job.status) {
+                job.status.setProcessedWaveforms(job.status.getProcessedWaveforms() + chunk.size());
+                result.getErrors().forEach(e -> addError(job.status, e.getMessage()));
+                if (!job.status.isStacksOnly()) {
+                    job.results.addAll(envelopes);
+                    job.status.setCreatedEnvelopes(job.status.getCreatedEnvelopes() + envelopes.size()).setPendingEnvelopes(job.status.getPendingEnvelopes() + envelopes.size());
+                }
+            }
+            if (job.status.isStacksOnly()) {
+                // Stacks need every envelope in their group so these wait
+                // for the end of the job; the raw chunk is dropped either way
+                job.unstacked.addAll(envelopes);
+                synchronized (job.status) {
+                    job.unstackedCount += envelopes.size();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Envelope job {} failed: {}", job.status.getId(), e.getMessage(), e);
+            synchronized (job.status) {
+                job.status.setState(State.ERROR);
+                addError(job.status, e.getMessage());
+            }
+            job.release();
+        }
+        postProgress(job.status);
+    }
+
+    protected void completeJob(Job job) {
+        if (isStopped(job)) {
+            return;
+        }
+        if (job.status.isStacksOnly()) {
+            List<Waveform> stacks = envelopeService.stackEnvelopes(job.unstacked).stream().filter(Objects::nonNull).collect(Collectors.toList());
+            job.unstacked.clear();
+            job.results.addAll(stacks);
+            synchronized (job.status) {
+                job.unstackedCount = 0;
+                job.status.setCreatedEnvelopes(stacks.size()).setPendingEnvelopes(job.status.getPendingEnvelopes() + stacks.size());
+            }
+        }
+        synchronized (job.status) {
+            if (job.status.getState() == State.FINISHING) {
+                job.status.setState(State.COMPLETE);
+            }
+        }
+        log.info("Envelope job {} finished with {} waveforms and {} envelopes", job.status.getId(), job.status.getProcessedWaveforms(), job.status.getCreatedEnvelopes());
+        postProgress(job.status);
+    }
+
+    protected void removeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        long idleMillis = TimeUnit.MINUTES.toMillis(idleMinutes);
+        jobs.values().stream().filter(job -> isExpired(job, now, idleMillis)).map(job -> job.status.getId()).collect(Collectors.toList()).forEach(jobId -> {
+            log.info("Removing envelope job {}", jobId);
+            removeJob(jobId);
+        });
+    }
+
+    private boolean isExpired(Job job, long now, long idleMillis) {
+        long idle = now - job.lastAccess;
+        synchronized (job.status) {
+            boolean drained = job.status.getState() != State.RECEIVING && job.status.getState() != State.FINISHING && job.results.isEmpty();
+            return idle > idleMillis || (drained && idle > DRAINED_RETENTION_MILLIS);
+        }
+    }
+
+    private boolean isStopped(Job job) {
+        synchronized (job.status) {
+            return job.status.getState() == State.CANCELLED || job.status.getState() == State.ERROR;
+        }
+    }
+
+    private Result<EnvelopeJobStatus> failure(Job job, String message) {
+        return new Result<>(false, Collections.singletonList(new LightweightIllegalStateException(message)), job != null ? getStatus(job.status.getId()) : null);
+    }
+
+    private void addError(EnvelopeJobStatus status, String message) {
+        if (status.getErrors().size() < MAX_REPORTED_ERRORS) {
+            status.getErrors().add(message);
+        }
+    }
+
+    private void postProgress(EnvelopeJobStatus status) {
+        Progress progress;
+        synchronized (status) {
+            progress = new Progress(status.getReceivedWaveforms(), status.getProcessedWaveforms());
+        }
+        notificationService.post(new ProgressEvent(status.getId(), progress));
+    }
+
+    private static class Job {
+        private final EnvelopeJobStatus status;
+        private final EnvelopeJobConfiguration config;
+        private final Queue<List<Waveform>> chunks = new ConcurrentLinkedQueue<>();
+        private final Queue<Waveform> results = new ConcurrentLinkedQueue<>();
+        private final Queue<Waveform> unstacked = new ConcurrentLinkedQueue<>();
+        // Guarded by status
+        private long unstackedCount = 0;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private Job(EnvelopeJobStatus status, EnvelopeJobConfiguration config) {
+            this.status = status;
+            this.config = config;
+        }
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        private void release() {
+            chunks.clear();
+            results.clear();
+            unstacked.clear();
+            synchronized (status) {
+                unstackedCount = 0;
+            }
+        }
+    }
+}
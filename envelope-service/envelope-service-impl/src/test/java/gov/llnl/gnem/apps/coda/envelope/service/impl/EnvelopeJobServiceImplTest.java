@@ -0,0 +1,192 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool.
+*
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package gov.llnl.gnem.apps.coda.envelope.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import gov.llnl.gnem.apps.coda.common.model.domain.Waveform;
+import gov.llnl.gnem.apps.coda.common.model.messaging.Result;
+import gov.llnl.gnem.apps.coda.common.service.api.NotificationService;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.Default14BandEnvelopeJobConfiguration;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobStatus;
+import gov.llnl.gnem.apps.coda.envelope.model.domain.EnvelopeJobStatus.State;
+import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeCreationService;
+import gov.llnl.gnem.apps.coda.envelope.service.api.EnvelopeParamsService;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EnvelopeJobServiceImplTest {
+
+    @Mock
+    private EnvelopeCreationService creationService;
+
+    @Mock
+    private EnvelopeParamsService params;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private EnvelopeJobServiceImpl jobService;
+
+    @BeforeEach
+    protected void setUp() throws Exception {
+        Mockito.when(params.getConfiguration()).thenReturn(Default14BandEnvelopeJobConfiguration.getConfiguration());
+        // Two envelopes for every raw waveform
+        Mockito.when(creationService.createEnvelopes(ArgumentMatchers.any(), ArgumentMatchers.anyCollection(), ArgumentMatchers.any(), ArgumentMatchers.anyBoolean())).thenAnswer(invocation -> {
+            Collection<Waveform> raw = invocation.getArgument(1);
+            List<Waveform> envelopes = raw.stream().flatMap(w -> Arrays.asList(new Waveform(), new Waveform()).stream()).collect(Collectors.toList());
+            return new Result<>(true, envelopes);
+        });
+        Mockito.when(creationService.stackEnvelopes(ArgumentMatchers.anyCollection())).thenAnswer(invocation -> {
+            Collection<Waveform> envelopes = invocation.getArgument(0);
+            return envelopes.stream().limit(1).collect(Collectors.toList());
+        });
+        jobService = new EnvelopeJobServiceImpl(creationService, params, notificationService);
+    }
+
+    @Test
+    public void testChunksAreProcessedAndDrained() throws Exception {
+        EnvelopeJobStatus status = jobService.startJob(1l, null, false);
+        assertEquals(State.RECEIVING, status.getState());
+
+        assertTrue(jobService.addChunk(status.getId(), waveforms(3)).isSuccess());
+        assertTrue(jobService.addChunk(status.getId(), waveforms(2)).isSuccess());
+        assertTrue(jobService.finishJob(status.getId()).isSuccess());
+        assertFalse(jobService.addChunk(status.getId(), waveforms(1)).isSuccess());
+
+        status = awaitDone(status.getId());
+        assertEquals(State.COMPLETE, status.getState());
+        assertEquals(2l, status.getReceivedChunks());
+        assertEquals(5l, status.getProcessedWaveforms());
+        assertEquals(10l, status.getCreatedEnvelopes());
+        assertEquals(10l, status.getPendingEnvelopes());
+
+        assertEquals(4, jobService.takeResults(status.getId(), 4).size());
+        assertEquals(6, jobService.takeResults(status.getId(), 100).size());
+        assertEquals(0l, jobService.getStatus(status.getId()).getPendingEnvelopes());
+        Mockito.verify(creationService, Mockito.never()).stackEnvelopes(ArgumentMatchers.anyCollection());
+    }
+
+    @Test
+    public void testStacksOnlyHoldsEnvelopesUntilFinished() throws Exception {
+        EnvelopeJobStatus status = jobService.startJob(1l, null, true);
+        jobService.addChunk(status.getId(), waveforms(3));
+        jobService.finishJob(status.getId());
+
+        status = awaitDone(status.getId());
+        assertEquals(State.COMPLETE, status.getState());
+        assertEquals(1l, status.getCreatedEnvelopes());
+        assertEquals(1, jobService.takeResults(status.getId(), 100).size());
+    }
+
+    @Test
+    public void testBackPressureAndCancel() throws Exception {
+        jobService.setMaxPendingEnvelopes(3);
+        EnvelopeJobStatus status = jobService.startJob(1l, null, false);
+        jobService.addChunk(status.getId(), waveforms(2));
+        awaitProcessed(status.getId(), 2);
+
+        Result<EnvelopeJobStatus> rejected = jobService.addChunk(status.getId(), waveforms(1));
+        assertFalse(rejected.isSuccess());
+        assertEquals(1, rejected.getErrors().size());
+
+        jobService.takeResults(status.getId(), 2);
+        assertTrue(jobService.addChunk(status.getId(), waveforms(1)).isSuccess());
+
+        assertEquals(State.CANCELLED, jobService.cancelJob(status.getId()).getState());
+        assertTrue(jobService.takeResults(status.getId(), 100).isEmpty());
+        assertFalse(jobService.finishJob(status.getId()).isSuccess());
+    }
+
+    @Test
+    public void testStacksOnlyLimitsHeldEnvelopes() throws Exception {
+        jobService.setMaxPendingEnvelopes(3);
+        EnvelopeJobStatus status = jobService.startJob(1l, null, true);
+        jobService.addChunk(status.getId(), waveforms(2));
+        awaitProcessed(status.getId(), 2);
+
+        assertFalse(jobService.addChunk(status.getId(), waveforms(1)).isSuccess());
+        assertTrue(jobService.finishJob(status.getId()).isSuccess());
+        assertEquals(State.COMPLETE, awaitDone(status.getId()).getState());
+    }
+
+    @Test
+    public void testRemoveAndExpireJobs() throws Exception {
+        EnvelopeJobStatus removed = jobService.startJob(1l, null, false);
+        jobService.addChunk(removed.getId(), waveforms(1));
+        assertEquals(State.CANCELLED, jobService.removeJob(removed.getId()).getState());
+        assertNull(jobService.getStatus(removed.getId()));
+
+        EnvelopeJobStatus idle = jobService.startJob(1l, null, false);
+        jobService.removeExpiredJobs();
+        assertEquals(State.RECEIVING, jobService.getStatus(idle.getId()).getState());
+
+        jobService.setIdleMinutes(0l);
+        Thread.sleep(5l);
+        jobService.removeExpiredJobs();
+        assertNull(jobService.getStatus(idle.getId()));
+        assertTrue(jobService.getStatuses().isEmpty());
+    }
+
+    @Test
+    public void testUnknownJob() throws Exception {
+        assertNull(jobService.getStatus(-1l));
+        assertNull(jobService.cancelJob(-1l));
+        assertNull(jobService.takeResults(-1l, 10));
+        assertFalse(jobService.addChunk(-1l, waveforms(1)).isSuccess());
+    }
+
+    private List<Waveform> waveforms(int count) {
+        List<Waveform> waveforms = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            waveforms.add(new Waveform().setId((long) i));
+        }
+        return waveforms;
+    }
+
+    private EnvelopeJobStatus awaitDone(Long jobId) throws InterruptedException {
+        EnvelopeJobStatus status = jobService.getStatus(jobId);
+        for (int i = 0; i < 500 && (status.getState() == State.RECEIVING || status.getState() == State.FINISHING); i++) {
+            Thread.sleep(10l);
+            status = jobService.getStatus(jobId);
+        }
+        return status;
+    }
+
+    private void awaitProcessed(Long jobId, long count) throws InterruptedException {
+        for (int i = 0; i < 500 && jobService.getStatus(jobId).getProcessedWaveforms() < count; i++) {
+            Thread.sleep(10l);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool. 
+* 
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package llnl.gnem.core.util.seriesMathHelpers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resamples evenly spaced series with the same Wiggins interpolation as
+ * {@link llnl.gnem.core.util.SeriesMath#interpolate(double, double, float[], double)}
+ * but only over the output samples actually requested.
+ *
+ * Output sample k always sits at k * newDx from the first input sample, so a
+ * window of the output is identical to the same samples taken from a full
+ * resampling; callers can cut first and resample only what they keep. The
+ * data independent part of the interpolation (the source index and the four
+ * Hermite weights of every output sample) depends only on the two sample
+ * intervals, so it is computed once per rate pair and shared between calls.
+ * Only pairs of round rates (whole millihertz) are cached; one-off rates such
+ * as those derived from a window length are computed inline instead of
+ * crowding out the common ones.
+ */
+public final class Resampler {
+
+    private static final double EPS = 0.00001;
+    private static final int MAX_CACHED_PLANS = 32;
+    private static final int MAX_CACHED_SAMPLES = 1 << 16;
+    private static final Map<RatePair, Plan> plans = new ConcurrentHashMap<>();
+
+    private Resampler() {
+    }
+
+    /**
+     * @return the number of samples a full resampling of a series with
+     *         nsamp samples produces, matching SeriesMath.interpolate
+     */
+    public static int resampledLength(int nsamp, double oldDx, double newDx) {
+        if (nsamp < 1) {
+            return 0;
+        }
+        double timeSpan = (nsamp - 1) * oldDx;
+        return (int) (timeSpan / newDx);
+    }
+
+    public static float[] resample(float[] y, double oldDx, double newDx) {
+        int count = resampledLength(y.length, oldDx, newDx);
+        float[] result = new float[count];
+        resample(y, y.length, oldDx, newDx, 0, count, result, 0);
+        return result;
+    }
+
+    /**
+     * Writes output samples first to first + count - 1 of the resampled
+     * series into dest starting at destOffset.
+     *
+     * @param y
+     *            the source samples; only the first nsamp are used
+     * @param nsamp
+     *            the number of valid samples in y
+     * @param oldDx
+     *            the source sample interval
+     * @param newDx
+     *            the output sample interval
+     * @param first
+     *            index of the first output sample to compute
+     * @param count
+     *            number of output samples to compute
+     * @param dest
+     *            caller provided buffer for the output
+     * @param destOffset
+     *            where the first output sample is written in dest
+     * @return the number of samples written
+     */
+    public static int resample(float[] y, int nsamp, double oldDx, double newDx, int first, int count, float[] dest, int destOffset) {
+        int available = resampledLength(nsamp, oldDx, newDx);
+        if (first < 0 || count < 0 || first + count > available) {
+            throw new IllegalArgumentException("Requested output samples " + first + " to " + (first + count) + " but only " + available + " are available");
+        }
+        if (dest.length - destOffset < count) {
+            throw new IllegalArgumentException("Destination buffer of length " + dest.length + " cannot hold " + count + " samples from offset " + destOffset);
+        }
+
+        Plan plan = plan(oldDx, newDx, first + count);
+        if (plan != null) {
+            for (int i = 0; i < count; i++) {
+                int k = first + i;
+                dest[destOffset + i] = (float) evaluate(y, nsamp, oldDx, plan.index[k], plan.weights, k * 4);
+            }
+        } else {
+            double[] weights = new double[4];
+            for (int i = 0; i < count; i++) {
+                int k = first + i;
+                int index = weights(k, oldDx, newDx, weights, 0);
+                dest[destOffset + i] = (float) evaluate(y, nsamp, oldDx, index, weights, 0);
+            }
+        }
+        return count;
+    }
+
+    private static Plan plan(double oldDx, double newDx, int needed) {
+        if (needed > MAX_CACHED_SAMPLES || !isRoundRate(oldDx) || !isRoundRate(newDx)) {
+            return null;
+        }
+        RatePair key = new RatePair(oldDx, newDx);
+        Plan plan = plans.get(key);
+        if (plan == null || plan.index.length < needed) {
+            if (plan == null && plans.size() >= MAX_CACHED_PLANS) {
+                return null;
+            }
+            // Grow geometrically so a run of slightly longer windows does not
+            // rebuild the plan every time
+            int size = Math.min(MAX_CACHED_SAMPLES, Math.max(needed, plan == null ? needed : plan.index.length * 2));
+            plan = new Plan(oldDx, newDx, size);
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    private static boolean isRoundRate(double dx) {
+        double milliHz = 1000.0 / dx;
+        return Math.abs(milliHz - Math.rint(milliHz)) < 1e-6;
+    }
+
+    /**
+     * Source index and the Hermite weights of y[j], y[j+1] and the two end
+     * slopes for output sample k. Returns -1 - j when the output sample lands
+     * exactly on source sample j.
+     */
+    private static int weights(int k, double oldDx, double newDx, double[] weights, int offset) {
+        double t = 0.0 + k * newDx;
+        int j = (int) (t / oldDx);
+        double dxj = t - j * oldDx;
+        if (dxj == 0.) {
+            weights[offset] = 1.;
+            weights[offset + 1] = 0.;
+            weights[offset + 2] = 0.;
+            weights[offset + 3] = 0.;
+            return -1 - j;
+        }
+        double h = oldDx;
+        double dxj1 = dxj - h;
+        double hs = h * h;
+        double hc = hs * h;
+        double dxjs = dxj * dxj;
+        double dxj1s = dxj1 * dxj1;
+        weights[offset] = dxj1s / hs + 2. * dxj * dxj1s / hc;
+        weights[offset + 1] = dxjs / hs - 2. * dxj1 * dxjs / hc;
+        weights[offset + 2] = dxj * dxj1s / hs;
+        weights[offset + 3] = dxjs * dxj1 / hs;
+        return j;
+    }
+
+    private static double evaluate(float[] y, int npts, double dx, int j, double[] weights, int offset) {
+        if (j < 0) {
+            return y[-1 - j];
+        }
+        if (j >= npts - 1) {
+            return y[npts - 1];
+        }
+        double yj = y[j];
+        double yj1 = y[j + 1];
+        double am = (yj1 - yj) / dx;
+        double amd = am;
+        double amu = am;
+        if (j != 0) {
+            amd = (yj - y[j - 1]) / dx;
+        }
+        if (j + 1 != npts - 1) {
+            amu = (y[j + 2] - yj1) / dx;
+        }
+        double wd = 1. / Math.max(Math.abs(amd), EPS);
+        double w = 1. / Math.max(Math.abs(am), EPS);
+        double wu = 1. / Math.max(Math.abs(amu), EPS);
+        double sp = (wd * amd + w * am) / (wd + w);
+        double sp1 = (w * am + wu * amu) / (w + wu);
+        return yj * weights[offset] + yj1 * weights[offset + 1] + sp * weights[offset + 2] + sp1 * weights[offset + 3];
+    }
+
+    private static final class Plan {
+        private final int[] index;
+        private final double[] weights;
+
+        private Plan(double oldDx, double newDx, int size) {
+            index = new int[size];
+            weights = new double[size * 4];
+            for (int k = 0; k < size; k++) {
+                index[k] = weights(k, oldDx, newDx, weights, k * 4);
+            }
+        }
+    }
+
+    private static final class RatePair {
+        private final long oldDx;
+        private final long newDx;
+
+        private RatePair(double oldDx, double newDx) {
+            this.oldDx = Double.doubleToLongBits(oldDx);
+            this.newDx = Double.doubleToLongBits(newDx);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(oldDx) + Long.hashCode(newDx);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RatePair)) {
+                return false;
+            }
+            RatePair other = (RatePair) obj;
+            return oldDx == other.oldDx && newDx == other.newDx;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+* Copyright (c) 2018, Lawrence Livermore National Security, LLC. Produced at the Lawrence Livermore National Laboratory
+* CODE-743439.
+* All rights reserved.
+* This file is part of CCT. For details, see https://github.com/LLNL/coda-calibration-tool. 
+* 
+* Licensed under the Apache License, Version 2.0 (the “Licensee”); you may not use this file except in compliance with the License.  You may obtain a copy of the License at:
+* http://www.apache.org/licenses/LICENSE-2.0
+* Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an “AS IS” BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+* See the License for the specific language governing permissions and limitations under the license.
+*
+* This work was performed under the auspices of the U.S. Department of Energy
+* by Lawrence Livermore National Laboratory under Contract DE-AC52-07NA27344.
+*/
+package llnl.gnem.core.util.seriesMathHelpers;
+
+/**
+ * Sliding window statistics with O(1) updates. Unlike {@link RollingStats}
+ * the window fills incrementally, so it can stand in for a windowed
+ * DescriptiveStatistics while also exposing the least-squares slope of the
+ * window values against their position (0 = oldest sample) without refitting
+ * a regression for every new sample.
+ *
+ * The running sums are recomputed from the ring buffer once per window length
+ * of updates to keep round-off from accumulating over long series.
+ */
+public class SlidingWindowStats {
+
+    private final double[] buffer;
+    private int head;
+    private int n;
+    private int updatesSinceRefresh;
+    private double sum;
+    private double weightedSum;
+
+    public SlidingWindowStats(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1: " + windowSize);
+        }
+        buffer = new double[windowSize];
+    }
+
+    public void addValue(double value) {
+        int capacity = buffer.length;
+        if (n < capacity) {
+            buffer[(head + n) % capacity] = value;
+            weightedSum += n * value;
+            sum += value;
+            n++;
+        } else {
+            double oldest = buffer[head];
+            buffer[head] = value;
+            head = (head + 1) % capacity;
+            // shift every position down by one and append at the end
+            weightedSum = weightedSum - (sum - oldest) + (capacity - 1) * value;
+            sum = sum - oldest + value;
+            if (++updatesSinceRefresh >= capacity) {
+                refresh();
+            }
+        }
+    }
+
+    private void refresh() {
+        double s = 0.0;
+        double w = 0.0;
+        for (int k = 0; k < n; k++) {
+            double value = buffer[(head + k) % buffer.length];
+            s += value;
+            w += k * value;
+        }
+        sum = s;
+        weightedSum = w;
+        updatesSinceRefresh = 0;
+    }
+
+    public void clear() {
+        head = 0;
+        n = 0;
+        updatesSinceRefresh = 0;
+        sum = 0.0;
+        weightedSum = 0.0;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public int getWindowSize() {
+        return buffer.length;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return n > 0 ? sum / n : Double.NaN;
+    }
+
+    /**
+     * @return the least-squares slope of the window values against their
+     *         position in the window, or NaN with fewer than two values
+     */
+    public double getSlope() {
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double sumX = n * (n - 1) / 2.0;
+        double sumXX = (n - 1) * n * (2.0 * n - 1) / 6.0;
+        return (n * weightedSum - sumX * sum) / (n * sumXX - sumX * sumX);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("N = %d, mean = %f, slope = %f", getN(), getMean(), getSlope());
+    }
+}
@@ -42,6 +42,7 @@ import llnl.gnem.core.util.randomNumbers.RandomAlgorithm;
 import llnl.gnem.core.util.randomNumbers.RandomAlgorithmFactory;
 import llnl.gnem.core.util.seriesMathHelpers.DiscontinuityCollection;
 import llnl.gnem.core.util.seriesMathHelpers.MinMax;
+import llnl.gnem.core.util.seriesMathHelpers.Resampler;
 import llnl.gnem.core.util.seriesMathHelpers.SampleStatistics;
 import llnl.gnem.core.util.seriesMathHelpers.SampleStatistics.Order;
 import llnl.gnem.core.waveform.io.BinaryData;
@@ -1402,12 +1403,57 @@ public class TimeSeries implements Comparable<TimeSeries>, Serializable, Cloneab
      */
     public void interpolate(double newsamprate) {
         if ((newsamprate > 0.)) {
-            data = SeriesMath.interpolate(0., 1. / samprate, data, 1. / newsamprate);
+            data = Resampler.resample(data, 1. / samprate, 1. / newsamprate);
             samprate = newsamprate;
             onModify();
         }
     }
 
+    /**
+     * Equivalent to {@link #interpolate(double)} followed by
+     * {@link #cut(TimeT, TimeT)} but only the samples inside the cut window
+     * are interpolated. The output samples keep the same grid and values a
+     * full interpolation would have produced.
+     *
+     * @param newsamprate
+     *            is the new sample rate (Hz)
+     * @param start
+     *            The requested start time of the window
+     * @param end
+     *            The requested end time of the window
+     */
+    public void interpolate(double newsamprate, TimeT start, TimeT end) {
+        if (!(newsamprate > 0.)) {
+            cut(start, end);
+            return;
+        }
+        double newDx = 1. / newsamprate;
+        int nsamp = Resampler.resampledLength(data.length, 1. / samprate, newDx);
+        TimeT newEnd = time.add(nsamp > 1 ? (nsamp - 1) / newsamprate : 0.0);
+        if (start.ge(end)) {
+            throw new IllegalArgumentException("Start time of cut is >= end time of cut.");
+        }
+        if (start.ge(newEnd)) {
+            throw new IllegalArgumentException("Start time of cut is >= end time of Seismogram.");
+        }
+        if (end.le(time)) {
+            throw new IllegalArgumentException("End time of cut is <= start time of Seismogram.");
+        }
+        TimeT S = start.lt(time) ? time : start;
+        TimeT E = end.gt(newEnd) ? newEnd : end;
+
+        double dataStart = time.getEpochTime();
+        int startIndex = Math.max(0, (int) Math.round((S.getEpochTime() - dataStart) * newsamprate));
+        int endIndex = Math.min(nsamp - 1, (int) Math.round((S.getEpochTime() + (E.getEpochTime() - S.getEpochTime()) - dataStart) * newsamprate));
+        float[] window = new float[endIndex - startIndex + 1];
+        Resampler.resample(data, data.length, 1. / samprate, newDx, startIndex, window.length, window, 0);
+
+        data = window;
+        samprate = newsamprate;
+        setTime(new TimeT(dataStart + startIndex / newsamprate));
+        onModify();
+    }
+
     public boolean isConstant() {
         return SeriesMath.isConstant(data);
     }
@@ -1574,7 +1620,7 @@ public class TimeSeries implements Comparable<TimeSeries>, Serializable, Cloneab
     }
 
     public void resample(double newRate) {
-        data = SeriesMath.interpolate(0., 1. / samprate, data, 1. / newRate);
+        data = Resampler.resample(data, 1. / samprate, 1. / newRate);
         samprate = newRate;
         onModify();
     }
@@ -1775,7 +1821,7 @@ public class TimeSeries implements Comparable<TimeSeries>, Serializable, Cloneab
         // TODO is it correct to compare the interpolationfactor to samprate like this?
         if ((interpolationfactor > 0.) && (Math.abs(interpolationfactor - samprate) > EPSILON)) {
             double multiplier = interpolationfactor * samprate;
-            data = SeriesMath.interpolate(0., 1. / samprate, data, 1. / multiplier);
+            data = Resampler.resample(data, 1. / samprate, 1. / multiplier);
             onModify();
         }
     }
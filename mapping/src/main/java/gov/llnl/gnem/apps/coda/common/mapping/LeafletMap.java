@@ -57,6 +57,8 @@ public class LeafletMap {
     private Pane parent;
     private Set<WMSLayerDescriptor> layers = new HashSet<>();
     private AtomicBoolean mapReady = new AtomicBoolean(false);
+    private AtomicBoolean fitPending = new AtomicBoolean(false);
+    private final boolean deferWebView;
     private Map<String, BiConsumer<Boolean, String>> callbackMap = new HashMap<>();
     private IconCallbackHandler iconCallbackHandler;
     private List<Consumer<MapCallbackEvent>> eventCallbacks = new ArrayList<>();
@@ -78,6 +80,18 @@ public class LeafletMap {
     }
 
     public LeafletMap() {
+        this(false);
+    }
+
+    /**
+     * @param deferWebView
+     *            if true the WebView and the Leaflet page are not created
+     *            until the map is first attached to a parent pane. Icons,
+     *            shapes and layers added before then are kept and drawn once
+     *            the page has loaded.
+     */
+    public LeafletMap(boolean deferWebView) {
+        this.deferWebView = deferWebView;
         iconCallbackHandler = new IconCallbackHandler((selected, id) -> {
             BiConsumer<Boolean, String> callback = callbackMap.get(id);
             if (callback != null) {
@@ -85,7 +99,13 @@ public class LeafletMap {
             }
         });
 
-        Platform.runLater(() -> {
+        if (!deferWebView) {
+            Platform.runLater(this::initWebView);
+        }
+    }
+
+    private void initWebView() {
+        if (webView == null) {
             webView = new WebView();
             webView.getEngine().setJavaScriptEnabled(true);
             webView.setContextMenuEnabled(false);
@@ -119,6 +139,7 @@ public class LeafletMap {
                     layers.forEach(this::addLayerToMap);
                     JSObject wind = (JSObject) webView.getEngine().executeScript("window");
                     wind.setMember("iconCallbackHandler", iconCallbackHandler);
+                    replayPendingContent();
                     return;
                 }
             });
@@ -127,7 +148,23 @@ public class LeafletMap {
             if (parent != null) {
                 parent.getChildren().add(webView);
             }
-        });
+        }
+    }
+
+    private void replayPendingContent() {
+        List<Icon> pendingIcons;
+        synchronized (icons) {
+            pendingIcons = new ArrayList<>(icons);
+        }
+        if (!pendingIcons.isEmpty()) {
+            addIconsToMap(pendingIcons);
+        }
+        if (!shapes.isEmpty()) {
+            addShapesToMap(shapes);
+        }
+        if (fitPending.getAndSet(false)) {
+            fitViewToActiveShapes();
+        }
     }
 
     private void invokeActivationCallbacks(Icon icon, boolean active) {
@@ -156,6 +193,8 @@ public class LeafletMap {
             this.parent = parent;
             if (webView != null) {
                 parent.getChildren().add(webView);
+            } else if (deferWebView) {
+                initWebView();
             }
         }
     }
@@ -278,7 +317,11 @@ public class LeafletMap {
     }
 
     public void fitViewToActiveShapes() {
-        Platform.runLater(() -> webView.getEngine().executeScript("fitViewToActiveShapes();"));
+        if (mapReady.get()) {
+            Platform.runLater(() -> webView.getEngine().executeScript("fitViewToActiveShapes();"));
+        } else {
+            fitPending.set(true);
+        }
     }
 
     private void removeShapesFromMap(Collection<? extends GeoShape> shapes) {
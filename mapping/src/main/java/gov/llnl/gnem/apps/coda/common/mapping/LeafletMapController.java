@@ -78,9 +78,23 @@ public class LeafletMapController implements GeoMap {
 
     private DirectoryChooser screenshotFolderChooser = new DirectoryChooser();
 
+    private MapProperties mapProps;
+
     private LeafletMapController(@Autowired(required = false) MapProperties mapProps) {
-        Platform.runLater(() -> {
-            mapImpl = new LeafletMap();
+        this.mapProps = mapProps;
+        if (mapProps != null && mapProps.isDeferredInit()) {
+            // The window and WebView get built the first time the map is shown
+            mapImpl = new LeafletMap(true);
+        } else {
+            Platform.runLater(() -> {
+                mapImpl = new LeafletMap();
+                createStage();
+            });
+        }
+    }
+
+    private void createStage() {
+        if (stage == null) {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/fxml/MapView.fxml"));
             fxmlLoader.setController(this);
             stage = new Stage(StageStyle.DECORATED);
@@ -102,18 +116,21 @@ public class LeafletMapController implements GeoMap {
             } catch (IOException e) {
                 throw new IllegalStateException(e);
             }
-        });
+        }
     }
 
     public void hide() {
         Platform.runLater(() -> {
-            stage.hide();
+            if (stage != null) {
+                stage.hide();
+            }
         });
     }
 
     @Override
     public void show() {
         Platform.runLater(() -> {
+            createStage();
             stage.show();
             stage.toFront();
         });
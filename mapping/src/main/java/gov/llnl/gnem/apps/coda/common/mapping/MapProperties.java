@@ -19,6 +19,7 @@ import java.util.List;
 
 public class MapProperties {
     private List<WMSLayerDescriptor> layers = new ArrayList<>();
+    private boolean deferredInit = false;
 
     public List<WMSLayerDescriptor> getLayers() {
         return layers;
@@ -28,4 +29,13 @@ public class MapProperties {
         this.layers = layers;
         return this;
     }
+
+    public boolean isDeferredInit() {
+        return deferredInit;
+    }
+
+    public MapProperties setDeferredInit(boolean deferredInit) {
+        this.deferredInit = deferredInit;
+        return this;
+    }
 }